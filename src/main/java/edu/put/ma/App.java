@@ -1,16 +1,31 @@
 package edu.put.ma;
 
+import static edu.put.ma.utils.StringUtils.NEW_LINE;
+
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.Transformer;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -20,10 +35,16 @@ import org.biojava.nbio.structure.Chain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
+import edu.put.ma.access.ResiduesAccess;
+import edu.put.ma.access.ResiduesAccessFactory;
+import edu.put.ma.archiver.ArchiverFactory;
 import edu.put.ma.descs.AlignmentMode;
 import edu.put.ma.descs.DescriptorsBuilder;
 import edu.put.ma.descs.DescriptorsBuilderImpl;
@@ -34,6 +55,8 @@ import edu.put.ma.descs.UncomparableDescriptorsException;
 import edu.put.ma.descs.contacts.ContactsInspector;
 import edu.put.ma.descs.contacts.ContactsInspectorImpl;
 import edu.put.ma.descs.contacts.ExpressionValidatorImpl;
+import edu.put.ma.descs.contacts.InContactResiduesMapCache;
+import edu.put.ma.descs.contacts.InContactResiduesMapCacheFactory;
 import edu.put.ma.io.model.ModelInfo;
 import edu.put.ma.io.model.Structure3d;
 import edu.put.ma.io.reader.Reader;
@@ -41,6 +64,8 @@ import edu.put.ma.io.reader.ReaderFactory;
 import edu.put.ma.io.writer.Writer;
 import edu.put.ma.io.writer.WriterFactory;
 import edu.put.ma.model.ComparisonResult;
+import edu.put.ma.model.Descriptor;
+import edu.put.ma.model.DescriptorImpl;
 import edu.put.ma.model.DescriptorsPair;
 import edu.put.ma.model.DescriptorsPairImpl;
 import edu.put.ma.model.ModelProperties;
@@ -60,7 +85,9 @@ import edu.put.ma.structure.StructureExtensionImpl;
 import edu.put.ma.utils.ArgumentUtils;
 import edu.put.ma.utils.ArrayUtils;
 import edu.put.ma.utils.CommandLineUtils;
+import edu.put.ma.utils.ExecutorUtils;
 import edu.put.ma.utils.PreconditionUtils;
+import edu.put.ma.utils.ResidueUtils;
 
 public class App {
 
@@ -72,6 +99,16 @@ public class App {
 
     private static final ImmutableSet<String> EXECUTION_MODE_CODES = ImmutableSet.of("em", "execution-mode");
 
+    private static final String COMPARISON_RESULTS_FILE_NAME = "descriptors-comparison-results.tsv";
+
+    private static final String COMPARISON_RESULTS_HEADER = "first-descriptor-id\tsecond-descriptor-id\taligned-elements-ratio\taligned-residues-ratio\torigin-elements-alignment-rmsd\talignment-global-rmsd\tstructurally-similar";
+
+    private static final boolean NOT_COPY_STRUCTURE = false;
+
+    private static final boolean COPY_STRUCTURE = true;
+
+    private static final int SECOND_DESCRIPTORS_CHUNK_SIZE = 1024;
+
     private final Properties properties;
 
     App() {
@@ -187,9 +224,16 @@ public class App {
                     DescriptorsBuilderInputModel.class);
             final DescriptorsBuilderInputModel specificInputModel = (DescriptorsBuilderInputModel) inputModel;
             LOGGER.info(specificInputModel.getInputModelString());
+            if (specificInputModel.isBatchMode()) {
+                buildDescriptorsInBatch(specificInputModel);
+                return;
+            }
             final ContactsInspector contactsInspector = new ContactsInspectorImpl(
-                    specificInputModel.getInContactResiduesExpressionString(),
+                    specificInputModel.getInContactResiduesExpressionStrings(),
                     specificInputModel.getMoleculeType(), specificInputModel.getThreadsCount());
+            final InContactResiduesMapCache inContactResiduesMapCache = constructInContactResiduesMapCache(
+                    specificInputModel);
+            contactsInspector.setInContactResiduesMapCache(inContactResiduesMapCache);
             if (contactsInspector.isValid()) {
                 descriptorsBuilder = new DescriptorsBuilderImpl(contactsInspector,
                         specificInputModel.getThreadsCount());
@@ -202,11 +246,10 @@ public class App {
                     final File outputDir = FileUtils.getFile(specificInputModel.getOutputDirPath());
                     FileUtils.deleteDirectory(outputDir);
                     FileUtils.forceMkdir(outputDir);
-                    descriptorsBuilder
-                            .saveAtomNamePairsConsideredByInContactResiduesIdentificationExpression(
-                                    outputDir, writer);
+                    saveAtomNamePairs(specificInputModel, descriptorsBuilder, outputDir, writer);
                     processStructure(specificInputModel, descriptorsBuilder, extendedStructure, writer,
                             outputDir);
+                    logInContactResiduesMapCache(inContactResiduesMapCache);
                 } else {
                     throw new IllegalArgumentException(String.format("Input 3D structure [%s] is invalid",
                             FilenameUtils.getBaseName(specificInputModel.getInputFilePath())));
@@ -226,25 +269,241 @@ public class App {
         }
     }
 
-    private void processStructure(final DescriptorsBuilderInputModel specificInputModel,
+    private void buildDescriptorsInBatch(final DescriptorsBuilderInputModel specificInputModel)
+            throws IOException {
+        final List<String> inputFilePaths = specificInputModel.getInputFilePaths();
+        final int inputFilesCount = CollectionUtils.size(inputFilePaths);
+        final int workersCount = Math.max(1, Math.min(specificInputModel.getThreadsCount(), inputFilesCount));
+        final File outputDir = FileUtils.getFile(specificInputModel.getOutputDirPath());
+        FileUtils.deleteDirectory(outputDir);
+        FileUtils.forceMkdir(outputDir);
+        final List<String> structureOutputDirNames = getStructureOutputDirNames(inputFilePaths);
+        final AtomicInteger nextInputFileIndex = new AtomicInteger(0);
+        final AtomicInteger processedStructuresCount = new AtomicInteger(0);
+        final List<DescriptorsBuilder> descriptorsBuilders = Lists.newArrayListWithCapacity(workersCount);
+        final ExecutorService executor = Executors.newFixedThreadPool(workersCount);
+        final InContactResiduesMapCache inContactResiduesMapCache = constructInContactResiduesMapCache(
+                specificInputModel);
+        final long startMillis = System.currentTimeMillis();
+        try {
+            for (int workerIndex = 0; workerIndex < workersCount; workerIndex++) {
+                descriptorsBuilders.add(constructBatchDescriptorsBuilder(specificInputModel,
+                        inContactResiduesMapCache));
+            }
+            saveAtomNamePairs(specificInputModel, descriptorsBuilders.get(0), outputDir,
+                    WriterFactory.construct(specificInputModel.getOutputFormat()));
+            final List<Future<Void>> results = Lists.newArrayListWithCapacity(workersCount);
+            for (final DescriptorsBuilder descriptorsBuilder : descriptorsBuilders) {
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        processBatch(specificInputModel, descriptorsBuilder, outputDir,
+                                structureOutputDirNames, nextInputFileIndex, processedStructuresCount);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (InterruptedException e) {
+                    LOGGER.error(e.getMessage(), e);
+                } catch (ExecutionException e) {
+                    LOGGER.error(e.getMessage(), e);
+                }
+            }
+        } finally {
+            for (DescriptorsBuilder descriptorsBuilder : descriptorsBuilders) {
+                descriptorsBuilder.close();
+            }
+            ExecutorUtils.closeExecutor(executor);
+        }
+        logBatchSummary(inputFilesCount, processedStructuresCount.get(), System.currentTimeMillis()
+                - startMillis);
+        logInContactResiduesMapCache(inContactResiduesMapCache);
+    }
+
+    private void processBatch(final DescriptorsBuilderInputModel specificInputModel,
+            final DescriptorsBuilder descriptorsBuilder, final File outputDir,
+            final List<String> structureOutputDirNames, final AtomicInteger nextInputFileIndex,
+            final AtomicInteger processedStructuresCount) {
+        final List<String> inputFilePaths = specificInputModel.getInputFilePaths();
+        final int inputFilesCount = CollectionUtils.size(inputFilePaths);
+        final Reader reader = ReaderFactory.construct(specificInputModel.getInputFormat());
+        final Writer writer = WriterFactory.construct(specificInputModel.getOutputFormat());
+        int inputFileIndex = nextInputFileIndex.getAndIncrement();
+        while (inputFileIndex < inputFilesCount) {
+            final String inputFilePath = inputFilePaths.get(inputFileIndex);
+            try {
+                LOGGER.info(String.format("Descriptors building for structure [%s]", inputFilePath));
+                final StructureExtension extendedStructure = getExtendedStructure(inputFilePath, reader,
+                        specificInputModel.getMoleculeType(), StructureType.MOLECULE);
+                if (!extendedStructure.isValid()) {
+                    throw new IllegalArgumentException(String.format("Input 3D structure [%s] is invalid",
+                            FilenameUtils.getBaseName(inputFilePath)));
+                }
+                final File structureOutputDir = FileUtils.getFile(outputDir,
+                        structureOutputDirNames.get(inputFileIndex));
+                FileUtils.forceMkdir(structureOutputDir);
+                final int failedModelsCount = processStructure(specificInputModel, descriptorsBuilder,
+                        extendedStructure, writer, structureOutputDir);
+                if (failedModelsCount > 0) {
+                    throw new IllegalStateException(String.format("%d of %d models of structure [%s] failed",
+                            failedModelsCount, extendedStructure.getModelsNo(), inputFilePath));
+                }
+                processedStructuresCount.incrementAndGet();
+            } catch (Exception e) {
+                LOGGER.info(String.format("Structure [%s] is skipped - a cause can be found in log file",
+                        inputFilePath));
+                LOGGER.error(e.getMessage(), e);
+            }
+            inputFileIndex = nextInputFileIndex.getAndIncrement();
+        }
+    }
+
+    /**
+     * Builds and saves descriptors of all models of a structure and returns the number of models that
+     * failed when they are processed concurrently. A failing model stops sequential processing instead.
+     */
+    private int processStructure(final DescriptorsBuilderInputModel specificInputModel,
             final DescriptorsBuilder descriptorsBuilder, final StructureExtension extendedStructure,
-            final Writer writer, final File outputDir) {
+            final Writer writer, final File outputDir) throws IOException {
+        for (File modelOutputDir : getOutputDirs(specificInputModel, outputDir,
+                specificInputModel.getElementSizes())) {
+            FileUtils.forceMkdir(modelOutputDir);
+        }
         final int modelsCount = extendedStructure.getModelsNo();
+        final int modelsThreadsCount = Math.min(specificInputModel.getModelsThreadsCount(), modelsCount);
+        if (modelsThreadsCount > 1) {
+            return processModelsConcurrently(specificInputModel, descriptorsBuilder, extendedStructure, writer,
+                    outputDir, modelsThreadsCount);
+        }
         for (int modelIndex = 0; modelIndex < modelsCount; modelIndex++) {
-            final List<Chain> model = extendedStructure.getModelByIndex(modelIndex);
+            logSummary(processModel(specificInputModel, descriptorsBuilder, extendedStructure, writer,
+                    outputDir, modelIndex));
+        }
+        return 0;
+    }
+
+    private int processModelsConcurrently(final DescriptorsBuilderInputModel specificInputModel,
+            final DescriptorsBuilder descriptorsBuilder, final StructureExtension extendedStructure,
+            final Writer writer, final File outputDir, final int modelsThreadsCount) {
+        final int modelsCount = extendedStructure.getModelsNo();
+        final ExecutorService modelsExecutor = Executors.newFixedThreadPool(modelsThreadsCount);
+        int failedModelsCount = 0;
+        try {
+            final List<Future<String>> results = Lists.newArrayListWithCapacity(modelsCount);
+            for (int modelIndex = 0; modelIndex < modelsCount; modelIndex++) {
+                final int currentModelIndex = modelIndex;
+                results.add(modelsExecutor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return processModel(specificInputModel, descriptorsBuilder, extendedStructure, writer,
+                                outputDir, currentModelIndex);
+                    }
+                }));
+            }
+            for (Future<String> result : results) {
+                try {
+                    logSummary(result.get());
+                } catch (InterruptedException e) {
+                    LOGGER.error(e.getMessage(), e);
+                    failedModelsCount++;
+                } catch (ExecutionException e) {
+                    LOGGER.error(e.getMessage(), e);
+                    failedModelsCount++;
+                }
+            }
+        } finally {
+            ExecutorUtils.closeExecutor(modelsExecutor);
+        }
+        return failedModelsCount;
+    }
+
+    private static final String processModel(final DescriptorsBuilderInputModel specificInputModel,
+            final DescriptorsBuilder descriptorsBuilder, final StructureExtension extendedStructure,
+            final Writer writer, final File outputDir, final int modelIndex) {
+        final int modelsCount = extendedStructure.getModelsNo();
+        final List<Chain> model = extendedStructure.getModelByIndex(modelIndex);
+        final List<Integer> elementSizes = specificInputModel.getElementSizes();
+        final boolean multipleElementSizes = CollectionUtils.size(elementSizes) > 1;
+        final boolean multipleExpressions = CollectionUtils.size(specificInputModel
+                .getInContactResiduesExpressionStrings()) > 1;
+        final List<Integer> consideredElementSizes = Lists.newArrayList();
+        final List<ModelProperties> modelsProperties = Lists.newArrayList();
+        for (Integer elementSize : elementSizes) {
             final ModelProperties modelProperties = new ModelPropertiesImpl(model,
-                    specificInputModel.getMoleculeType(), specificInputModel.getElementSize());
+                    specificInputModel.getMoleculeType(), elementSize);
             if (modelProperties.isValid()) {
-                descriptorsBuilder.build(extendedStructure, (modelsCount > 1) ? modelIndex : -1,
-                        modelProperties);
-                final List<Integer> modelNos = getModelNosBasedOnModelInfos(extendedStructure.getModelInfos());
-                final String modelNo = (modelsCount > 1) ? CollectionUtils.sizeIsEmpty(modelNos) ? String
-                        .valueOf(modelIndex + 1) : String.valueOf(modelNos.get(modelIndex)) : "";
-                final String summary = descriptorsBuilder.saveDescriptors(outputDir, modelNo, writer,
-                        specificInputModel.getDescriptorsFilter());
-                logSummary(modelsCount, modelNo, summary);
+                consideredElementSizes.add(elementSize);
+                modelsProperties.add(modelProperties);
+            }
+        }
+        if (!modelsProperties.isEmpty()) {
+            final List<Integer> modelNos = getModelNosBasedOnModelInfos(extendedStructure.getModelInfos());
+            final String modelNo = (modelsCount > 1) ? CollectionUtils.sizeIsEmpty(modelNos) ? String
+                    .valueOf(modelIndex + 1) : String.valueOf(modelNos.get(modelIndex)) : "";
+            final List<String> summaries = descriptorsBuilder.buildAndSaveDescriptors(extendedStructure,
+                    (modelsCount > 1) ? modelIndex : -1, modelsProperties,
+                    specificInputModel.getDescriptorsFilter(),
+                    getOutputDirs(specificInputModel, outputDir, consideredElementSizes), modelNo, writer);
+            final StringBuilder result = new StringBuilder();
+            for (int summaryIndex = 0; summaryIndex < summaries.size(); summaryIndex++) {
+                if (summaryIndex > 0) {
+                    result.append(NEW_LINE);
+                }
+                if (multipleExpressions) {
+                    result.append(String.format("Expression %d - ", summaryIndex / consideredElementSizes.size()
+                            + 1));
+                }
+                if (multipleElementSizes) {
+                    result.append(String.format("Element size %d - ",
+                            consideredElementSizes.get(summaryIndex % consideredElementSizes.size())));
+                }
+                result.append(getSummary(modelsCount, modelNo, summaries.get(summaryIndex)));
+            }
+            return result.toString();
+        }
+        return null;
+    }
+
+    private static final void saveAtomNamePairs(final DescriptorsBuilderInputModel specificInputModel,
+            final DescriptorsBuilder descriptorsBuilder, final File outputDir, final Writer writer)
+            throws IOException {
+        final int expressionsCount = CollectionUtils.size(specificInputModel
+                .getInContactResiduesExpressionStrings());
+        for (int expressionIndex = 0; expressionIndex < expressionsCount; expressionIndex++) {
+            final File expressionOutputDir = getExpressionOutputDir(outputDir, expressionsCount, expressionIndex);
+            FileUtils.forceMkdir(expressionOutputDir);
+            descriptorsBuilder.saveAtomNamePairsConsideredByInContactResiduesIdentificationExpression(
+                    expressionOutputDir, writer, expressionIndex);
+        }
+    }
+
+    private static final List<File> getOutputDirs(final DescriptorsBuilderInputModel specificInputModel,
+            final File outputDir, final List<Integer> elementSizes) {
+        final int expressionsCount = CollectionUtils.size(specificInputModel
+                .getInContactResiduesExpressionStrings());
+        final boolean multipleElementSizes = CollectionUtils.size(specificInputModel.getElementSizes()) > 1;
+        final List<File> result = Lists.newArrayListWithCapacity(expressionsCount * elementSizes.size());
+        for (int expressionIndex = 0; expressionIndex < expressionsCount; expressionIndex++) {
+            final File expressionOutputDir = getExpressionOutputDir(outputDir, expressionsCount, expressionIndex);
+            for (Integer elementSize : elementSizes) {
+                result.add(multipleElementSizes ? getElementSizeOutputDir(expressionOutputDir, elementSize)
+                        : expressionOutputDir);
             }
         }
+        return result;
+    }
+
+    private static final File getExpressionOutputDir(final File outputDir, final int expressionsCount,
+            final int expressionIndex) {
+        return (expressionsCount > 1) ? FileUtils.getFile(outputDir, "expression-" + (expressionIndex + 1))
+                : outputDir;
+    }
+
+    private static final File getElementSizeOutputDir(final File outputDir, final int elementSize) {
+        return FileUtils.getFile(outputDir, "element-size-" + elementSize);
     }
 
     private <T extends CommonInputModel> void compareDescriptors(final T inputModel)
@@ -258,6 +517,10 @@ public class App {
             final File outputDir = FileUtils.getFile(specificInputModel.getOutputDirPath());
             FileUtils.deleteDirectory(outputDir);
             FileUtils.forceMkdir(outputDir);
+            if (specificInputModel.isSetsMode()) {
+                compareDescriptorsSets(specificInputModel, outputDir);
+                return;
+            }
             final Reader reader = ReaderFactory.construct(specificInputModel.getInputFormat());
             final StructureExtension firstDescriptorExtendedStructure = getExtendedStructure(
                     specificInputModel.getFirstDescriptorFilePath(), reader,
@@ -307,24 +570,172 @@ public class App {
             LOGGER.info(descriptorsPair.getFirstDescriptorString());
             LOGGER.info(descriptorsPair.getSecondDescriptorString());
             final DescriptorsComparator descriptorsComparator = new DescriptorsComparatorImpl(
-                    specificInputModel.getComparisonAlgorithm(),
+                    specificInputModel.getComparisonAlgorithmType(),
+                    specificInputModel.getAssignmentSolverType(),
+                    specificInputModel.getBestAssignmentsCount(),
                     specificInputModel.getSimilarDescriptorsVerifier(),
                     specificInputModel.getMaximalRmsdThresholdPerDuplexPair(), alignmentAtomNames,
                     specificInputModel.getAlignmentAcceptanceMode());
-            final ComparisonResult comparisonResult = descriptorsComparator.compare(descriptorsPair);
-            if ((comparisonResult != null) && (comparisonResult.isStructurallySimilar())) {
-                LOGGER.info(String.format("Following descriptors %s %s",
-                        descriptorsPair.getDescriptorsPairId(), comparisonResult.toString()));
-                saveDescriptorsAlignment(specificInputModel, outputDir, descriptorsPair, comparisonResult);
-            } else {
-                LOGGER.info(String.format("Following descriptors %s are not structurally similar",
-                        descriptorsPair.getDescriptorsPairId()));
+            descriptorsComparator.setThreadsCount(specificInputModel.getThreadsCount());
+            try {
+                final ComparisonResult comparisonResult = descriptorsComparator.compare(descriptorsPair);
+                if ((comparisonResult != null) && (comparisonResult.isStructurallySimilar())) {
+                    LOGGER.info(String.format("Following descriptors %s %s",
+                            descriptorsPair.getDescriptorsPairId(), comparisonResult.toString()));
+                    saveDescriptorsAlignment(specificInputModel, outputDir, descriptorsPair, comparisonResult);
+                } else {
+                    LOGGER.info(String.format("Following descriptors %s are not structurally similar",
+                            descriptorsPair.getDescriptorsPairId()));
+                }
+            } finally {
+                descriptorsComparator.close();
             }
         } catch (UnappropriateDescriptorException e) {
             LOGGER.warn(e.getMessage(), e);
         }
     }
 
+    private void compareDescriptorsSets(final DescriptorsComparatorInputModel specificInputModel,
+            final File outputDir) throws IOException {
+        final ImmutableList<String> alignmentAtomNames = getAlignmentAtomNames(
+                specificInputModel.getAlignmentAtomNamesFilePath(), specificInputModel.getMoleculeType());
+        LOGGER.info("Alignment atom names: " + alignmentAtomNames.toString());
+        final int workersCount = Math.max(1, specificInputModel.getThreadsCount());
+        final ExecutorService executor = Executors.newFixedThreadPool(workersCount);
+        BufferedWriter resultsWriter = null;
+        try {
+            final boolean allVersusAll = specificInputModel.isAllVersusAllMode();
+            final List<String> firstDescriptorFilePaths = specificInputModel.getFirstDescriptorFilePaths();
+            final List<String> secondDescriptorFilePaths = specificInputModel.getSecondDescriptorFilePaths();
+            final int firstDescriptorsCount = CollectionUtils.size(firstDescriptorFilePaths);
+            final List<String> descriptorNames = getStructureOutputDirNames(allVersusAll
+                    ? firstDescriptorFilePaths : ListUtils.union(firstDescriptorFilePaths,
+                            secondDescriptorFilePaths));
+            final ParsedDescriptor[] firstDescriptors = parseDescriptors(specificInputModel,
+                    firstDescriptorFilePaths, descriptorNames.subList(0, firstDescriptorsCount), executor,
+                    workersCount);
+            resultsWriter = new BufferedWriter(new OutputStreamWriter(FileUtils.openOutputStream(FileUtils
+                    .getFile(outputDir, COMPARISON_RESULTS_FILE_NAME)), Charsets.UTF_8));
+            resultsWriter.write(COMPARISON_RESULTS_HEADER);
+            resultsWriter.newLine();
+            final List<DescriptorsComparator> descriptorsComparators = Lists
+                    .newArrayListWithCapacity(workersCount);
+            for (int workerIndex = 0; workerIndex < workersCount; workerIndex++) {
+                descriptorsComparators.add(constructDescriptorsComparator(specificInputModel,
+                        alignmentAtomNames));
+            }
+            final AtomicLong similarPairsCount = new AtomicLong(0);
+            final AtomicLong skippedPairsCount = new AtomicLong(0);
+            final long startMillis = System.currentTimeMillis();
+            long pairsCount = 0;
+            if (allVersusAll) {
+                pairsCount = compareDescriptorsChunk(specificInputModel, descriptorsComparators, outputDir,
+                        firstDescriptors, firstDescriptors, executor, resultsWriter, similarPairsCount,
+                        skippedPairsCount);
+            } else {
+                final int secondDescriptorsCount = CollectionUtils.size(secondDescriptorFilePaths);
+                for (int chunkStart = 0; chunkStart < secondDescriptorsCount; chunkStart += SECOND_DESCRIPTORS_CHUNK_SIZE) {
+                    final int chunkEnd = Math.min(secondDescriptorsCount, chunkStart
+                            + SECOND_DESCRIPTORS_CHUNK_SIZE);
+                    final ParsedDescriptor[] secondDescriptors = parseDescriptors(specificInputModel,
+                            secondDescriptorFilePaths.subList(chunkStart, chunkEnd), descriptorNames.subList(
+                                    firstDescriptorsCount + chunkStart, firstDescriptorsCount + chunkEnd),
+                            executor, workersCount);
+                    pairsCount += compareDescriptorsChunk(specificInputModel, descriptorsComparators,
+                            outputDir, firstDescriptors, secondDescriptors, executor, resultsWriter,
+                            similarPairsCount, skippedPairsCount);
+                }
+            }
+            logComparisonSummary(pairsCount, similarPairsCount.get(), skippedPairsCount.get(),
+                    System.currentTimeMillis() - startMillis);
+        } finally {
+            IOUtils.closeQuietly(resultsWriter);
+            ExecutorUtils.closeExecutor(executor);
+        }
+    }
+
+    /**
+     * Compares every descriptor of the first set with every descriptor of the given chunk, or every pair of
+     * the first set once when both arrays are the same, and flushes the result rows of the chunk.
+     */
+    private long compareDescriptorsChunk(final DescriptorsComparatorInputModel specificInputModel,
+            final List<DescriptorsComparator> descriptorsComparators, final File outputDir,
+            final ParsedDescriptor[] firstDescriptors, final ParsedDescriptor[] secondDescriptors,
+            final ExecutorService executor, final BufferedWriter resultsWriter,
+            final AtomicLong similarPairsCount, final AtomicLong skippedPairsCount) throws IOException {
+        final long pairsCount = getPairsCount(specificInputModel, firstDescriptors, secondDescriptors);
+        final AtomicLong nextPairIndex = new AtomicLong(0);
+        final List<Future<Void>> results = Lists.newArrayListWithCapacity(descriptorsComparators.size());
+        for (final DescriptorsComparator descriptorsComparator : descriptorsComparators) {
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    comparePairs(specificInputModel, descriptorsComparator, outputDir, firstDescriptors,
+                            secondDescriptors, pairsCount, nextPairIndex, resultsWriter, similarPairsCount,
+                            skippedPairsCount);
+                    return null;
+                }
+            }));
+        }
+        waitForResults(results);
+        resultsWriter.flush();
+        return pairsCount;
+    }
+
+    private void comparePairs(final DescriptorsComparatorInputModel specificInputModel,
+            final DescriptorsComparator descriptorsComparator, final File outputDir,
+            final ParsedDescriptor[] firstDescriptors, final ParsedDescriptor[] secondDescriptors,
+            final long pairsCount, final AtomicLong nextPairIndex, final BufferedWriter resultsWriter,
+            final AtomicLong similarPairsCount, final AtomicLong skippedPairsCount) {
+        final boolean allVersusAll = specificInputModel.isAllVersusAllMode();
+        long pairIndex = nextPairIndex.getAndIncrement();
+        while (pairIndex < pairsCount) {
+            final int firstIndex = allVersusAll ? getTriangleRowIndex(pairIndex, firstDescriptors.length)
+                    : (int) (pairIndex / secondDescriptors.length);
+            final int secondIndex = allVersusAll ? getTriangleColumnIndex(pairIndex, firstIndex,
+                    firstDescriptors.length) : (int) (pairIndex % secondDescriptors.length);
+            final ParsedDescriptor first = firstDescriptors[firstIndex];
+            final ParsedDescriptor second = secondDescriptors[secondIndex];
+            if ((first == null) || (second == null)) {
+                skippedPairsCount.incrementAndGet();
+            } else {
+                try {
+                    final DescriptorsPair descriptorsPair = new DescriptorsPairImpl(first.residuesAccess,
+                            first.descriptor, second.residuesAccess, second.descriptor,
+                            specificInputModel.getMoleculeType());
+                    PreconditionUtils.checkIfDescriptorsAreComparable(descriptorsPair);
+                    final ComparisonResult comparisonResult = descriptorsComparator.compare(descriptorsPair);
+                    writeComparisonResult(resultsWriter, first.descriptor.getId(), second.descriptor.getId(),
+                            comparisonResult);
+                    if ((comparisonResult != null) && (comparisonResult.isStructurallySimilar())) {
+                        similarPairsCount.incrementAndGet();
+                        saveDescriptorsAlignment(specificInputModel, outputDir, first, second,
+                                comparisonResult);
+                    }
+                } catch (Exception e) {
+                    skippedPairsCount.incrementAndGet();
+                    LOGGER.warn(e.getMessage(), e);
+                }
+            }
+            pairIndex = nextPairIndex.getAndIncrement();
+        }
+    }
+
+    private void saveDescriptorsAlignment(final DescriptorsComparatorInputModel specificInputModel,
+            final File outputDir, final ParsedDescriptor first, final ParsedDescriptor second,
+            final ComparisonResult comparisonResult) throws UnappropriateDescriptorException, IOException {
+        if (specificInputModel.getAlignmentMode() == AlignmentMode.CONSIDER) {
+            final DescriptorsPair descriptorsPair = new DescriptorsPairImpl(first.residuesAccess,
+                    first.descriptor, second.residuesAccess, DescriptorImpl.constructDescriptor(
+                            second.extendedStructure, second.residuesAccess, COPY_STRUCTURE),
+                    specificInputModel.getMoleculeType());
+            final File pairOutputDir = FileUtils.getFile(outputDir,
+                    String.format("%s-%s", first.name, second.name));
+            FileUtils.forceMkdir(pairOutputDir);
+            saveDescriptorsAlignment(specificInputModel, pairOutputDir, descriptorsPair, comparisonResult);
+        }
+    }
+
     private void saveDescriptorsAlignment(final DescriptorsComparatorInputModel specificInputModel,
             final File outputDir, final DescriptorsPair descriptorsPair,
             final ComparisonResult comparisonResult) {
@@ -350,17 +761,239 @@ public class App {
         }
     }
 
-    private static final void logSummary(final int modelsCount, final String modelNo, final String summary) {
-        if (StringUtils.isNotBlank(summary)) {
+    private static final void logSummary(final String summary) {
+        if (summary != null) {
             LOGGER.info(summary);
+        }
+    }
+
+    private static final String getSummary(final int modelsCount, final String modelNo, final String summary) {
+        if (StringUtils.isNotBlank(summary)) {
+            return summary;
         } else {
             if (modelsCount <= 1) {
-                LOGGER.info("There is no descriptors that meet defined requirements");
+                return "There is no descriptors that meet defined requirements";
             } else {
-                LOGGER.info(String.format(
-                        "There is no descriptors that meet defined requirements for model %s", modelNo));
+                return String.format("There is no descriptors that meet defined requirements for model %s",
+                        modelNo);
+            }
+        }
+    }
+
+    private static final DescriptorsBuilder constructBatchDescriptorsBuilder(
+            final DescriptorsBuilderInputModel specificInputModel,
+            final InContactResiduesMapCache inContactResiduesMapCache) {
+        final ContactsInspector contactsInspector = new ContactsInspectorImpl(
+                specificInputModel.getInContactResiduesExpressionStrings(), specificInputModel.getMoleculeType(),
+                1);
+        contactsInspector.setInContactResiduesMapCache(inContactResiduesMapCache);
+        if (!contactsInspector.isValid()) {
+            contactsInspector.close();
+            throw new IllegalArgumentException(
+                    "Inproper format of expression used to identify in-contact residues that should be refined");
+        }
+        return new DescriptorsBuilderImpl(contactsInspector, 1);
+    }
+
+    private static final InContactResiduesMapCache constructInContactResiduesMapCache(
+            final DescriptorsBuilderInputModel specificInputModel) {
+        if (specificInputModel.isContactsCacheUsed()) {
+            return InContactResiduesMapCacheFactory.construct(
+                    FileUtils.getFile(specificInputModel.getContactsCacheDirPath()),
+                    specificInputModel.getContactsCacheSize());
+        }
+        return null;
+    }
+
+    private static final void logInContactResiduesMapCache(
+            final InContactResiduesMapCache inContactResiduesMapCache) {
+        if (inContactResiduesMapCache != null) {
+            LOGGER.info(inContactResiduesMapCache.toString());
+        }
+    }
+
+    private static final DescriptorsComparator constructDescriptorsComparator(
+            final DescriptorsComparatorInputModel specificInputModel,
+            final ImmutableList<String> alignmentAtomNames) {
+        return new DescriptorsComparatorImpl(specificInputModel.getComparisonAlgorithmType(),
+                specificInputModel.getAssignmentSolverType(), specificInputModel.getBestAssignmentsCount(),
+                specificInputModel.getSimilarDescriptorsVerifier(),
+                specificInputModel.getMaximalRmsdThresholdPerDuplexPair(), alignmentAtomNames,
+                specificInputModel.getAlignmentAcceptanceMode());
+    }
+
+    private static final ParsedDescriptor[] parseDescriptors(
+            final DescriptorsComparatorInputModel specificInputModel, final List<String> descriptorFilePaths,
+            final List<String> descriptorNames, final ExecutorService executor, final int workersCount) {
+        final ParsedDescriptor[] result = new ParsedDescriptor[CollectionUtils.size(descriptorFilePaths)];
+        final AtomicInteger nextDescriptorIndex = new AtomicInteger(0);
+        final List<Future<Void>> results = Lists.newArrayListWithCapacity(workersCount);
+        for (int workerIndex = 0; workerIndex < workersCount; workerIndex++) {
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    final Reader reader = ReaderFactory.construct(specificInputModel.getInputFormat());
+                    int descriptorIndex = nextDescriptorIndex.getAndIncrement();
+                    while (descriptorIndex < result.length) {
+                        result[descriptorIndex] = parseDescriptor(descriptorFilePaths.get(descriptorIndex),
+                                descriptorNames.get(descriptorIndex), reader,
+                                specificInputModel.getMoleculeType());
+                        descriptorIndex = nextDescriptorIndex.getAndIncrement();
+                    }
+                    return null;
+                }
+            }));
+        }
+        waitForResults(results);
+        return result;
+    }
+
+    private static final ParsedDescriptor parseDescriptor(final String descriptorFilePath,
+            final String descriptorName, final Reader reader, final MoleculeType moleculeType) {
+        try {
+            final StructureExtension extendedStructure = getExtendedStructure(descriptorFilePath, reader,
+                    moleculeType, StructureType.DESCRIPTOR);
+            if (!extendedStructure.isValid()) {
+                throw new IllegalArgumentException(String.format("Descriptor 3D structure [%s] is invalid",
+                        FilenameUtils.getBaseName(descriptorFilePath)));
+            }
+            final ResiduesAccess residuesAccess = ResiduesAccessFactory.construct(extendedStructure
+                    .getModelByIndex(0));
+            final Descriptor descriptor = DescriptorImpl.constructDescriptor(extendedStructure,
+                    residuesAccess, NOT_COPY_STRUCTURE);
+            return new ParsedDescriptor(descriptorName, extendedStructure, residuesAccess, descriptor);
+        } catch (Exception e) {
+            LOGGER.info(String.format("Descriptor [%s] is skipped - a cause can be found in log file",
+                    descriptorFilePath));
+            LOGGER.error(e.getMessage(), e);
+        }
+        return null;
+    }
+
+    private static final long getPairsCount(final DescriptorsComparatorInputModel specificInputModel,
+            final ParsedDescriptor[] firstDescriptors, final ParsedDescriptor[] secondDescriptors) {
+        final long firstDescriptorsCount = firstDescriptors.length;
+        if (specificInputModel.isAllVersusAllMode()) {
+            return firstDescriptorsCount * (firstDescriptorsCount - 1) / 2;
+        }
+        return firstDescriptorsCount * secondDescriptors.length;
+    }
+
+    private static final int getTriangleRowIndex(final long pairIndex, final int descriptorsCount) {
+        final long n = descriptorsCount;
+        int rowIndex = Math.max(0,
+                (int) (n - 2 - Math.floor(Math.sqrt(-8.0 * pairIndex + 4.0 * n * (n - 1) - 7) / 2.0 - 0.5)));
+        while ((rowIndex > 0) && (getTriangleRowOffset(rowIndex, descriptorsCount) > pairIndex)) {
+            rowIndex--;
+        }
+        while (getTriangleRowOffset(rowIndex + 1, descriptorsCount) <= pairIndex) {
+            rowIndex++;
+        }
+        return rowIndex;
+    }
+
+    private static final int getTriangleColumnIndex(final long pairIndex, final int rowIndex,
+            final int descriptorsCount) {
+        return (int) (rowIndex + 1 + pairIndex - getTriangleRowOffset(rowIndex, descriptorsCount));
+    }
+
+    private static final long getTriangleRowOffset(final int rowIndex, final int descriptorsCount) {
+        return (long) rowIndex * (descriptorsCount - 1) - (long) rowIndex * (rowIndex - 1) / 2;
+    }
+
+    private static final void writeComparisonResult(final BufferedWriter resultsWriter,
+            final String firstDescriptorId, final String secondDescriptorId,
+            final ComparisonResult comparisonResult) throws IOException {
+        final StringBuilder row = new StringBuilder(firstDescriptorId).append("\t")
+                .append(secondDescriptorId);
+        if (comparisonResult == null) {
+            row.append("\t-\t-\t-\t-\tfalse");
+        } else {
+            row.append("\t")
+                    .append(String.format("%.2f",
+                            ResidueUtils.ensureCommonDoubleFormat(comparisonResult.getAlignedElementsRatio())))
+                    .append("\t")
+                    .append(String.format("%.2f",
+                            ResidueUtils.ensureCommonDoubleFormat(comparisonResult.getAlignedResiduesRatio())))
+                    .append("\t")
+                    .append(String.format("%.3f", ResidueUtils.ensureCommonDoubleFormat(comparisonResult
+                            .getOriginElementsAlignmentRmsd())))
+                    .append("\t")
+                    .append(String.format("%.3f",
+                            ResidueUtils.ensureCommonDoubleFormat(comparisonResult.getAlignmentGlobalRmsd())))
+                    .append("\t").append(comparisonResult.isStructurallySimilar());
+        }
+        synchronized (resultsWriter) {
+            resultsWriter.write(row.toString());
+            resultsWriter.newLine();
+        }
+    }
+
+    private static final void waitForResults(final List<Future<Void>> results) {
+        try {
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            ExecutorUtils.cancelFutures(results);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Comparison of descriptors sets was interrupted", e);
+        } catch (ExecutionException e) {
+            ExecutorUtils.cancelFutures(results);
+            throw new IllegalStateException("Comparison of descriptors sets failed", e.getCause());
+        }
+    }
+
+    private static final void logComparisonSummary(final long pairsCount, final long similarPairsCount,
+            final long skippedPairsCount, final long durationMillis) {
+        final double pairsPerSecond = (durationMillis > 0) ? pairsCount
+                * (double) TimeUnit.SECONDS.toMillis(1) / durationMillis : 0.0;
+        LOGGER.info(String.format(
+                "%d pairs of descriptors compared in %d [ms]: %d structurally similar, %d skipped, throughput %.2f pairs per second",
+                pairsCount, durationMillis, similarPairsCount, skippedPairsCount, pairsPerSecond));
+    }
+
+    /**
+     * Names output directories of structures after their input files without extension, archive postfix
+     * included. Names repeated in the given list, regardless of case, get a numeric suffix in input order.
+     */
+    private static final List<String> getStructureOutputDirNames(final List<String> inputFilePaths) {
+        final List<String> names = Lists.newArrayListWithCapacity(CollectionUtils.size(inputFilePaths));
+        for (String inputFilePath : inputFilePaths) {
+            String name = FilenameUtils.getName(inputFilePath);
+            if (ArchiverFactory.isArchive(name)) {
+                name = StringUtils.removeEndIgnoreCase(name, ArchiverFactory.getArchiverPostfix(name));
+            }
+            names.add(FilenameUtils.getBaseName(name));
+        }
+        return getUniqueNames(names);
+    }
+
+    private static final List<String> getUniqueNames(final List<String> names) {
+        final List<String> result = Lists.newArrayListWithCapacity(CollectionUtils.size(names));
+        final Set<String> usedNames = Sets.newHashSet();
+        for (String name : names) {
+            String uniqueName = name;
+            int occurrence = 1;
+            while (!usedNames.add(uniqueName.toLowerCase(Locale.US))) {
+                uniqueName = new StringBuilder(name).append("_").append(++occurrence).toString();
             }
+            if (occurrence > 1) {
+                LOGGER.warn(String.format("Name [%s] is repeated, so [%s] is used instead", name, uniqueName));
+            }
+            result.add(uniqueName);
         }
+        return result;
+    }
+
+    private static final void logBatchSummary(final int inputFilesCount, final int processedStructuresCount,
+            final long durationMillis) {
+        final double structuresPerHour = (durationMillis > 0) ? processedStructuresCount
+                * (double) TimeUnit.HOURS.toMillis(1) / durationMillis : 0.0;
+        LOGGER.info(String.format(
+                "Batch of %d structures processed in %d [ms]: %d succeeded, %d failed, throughput %.2f structures per hour",
+                inputFilesCount, durationMillis, processedStructuresCount, inputFilesCount
+                        - processedStructuresCount, structuresPerHour));
     }
 
     private static final ImmutableList<String> getAlignmentAtomNames(final String alignmentAtomNamesFilePath,
@@ -447,4 +1080,23 @@ public class App {
         }
         return builder.build();
     }
+
+    private static final class ParsedDescriptor {
+
+        private final String name;
+
+        private final StructureExtension extendedStructure;
+
+        private final ResiduesAccess residuesAccess;
+
+        private final Descriptor descriptor;
+
+        private ParsedDescriptor(final String name, final StructureExtension extendedStructure,
+                final ResiduesAccess residuesAccess, final Descriptor descriptor) {
+            this.name = name;
+            this.extendedStructure = extendedStructure;
+            this.residuesAccess = residuesAccess;
+            this.descriptor = descriptor;
+        }
+    }
 }
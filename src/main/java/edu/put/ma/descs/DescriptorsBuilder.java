@@ -1,6 +1,8 @@
 package edu.put.ma.descs;
 
 import java.io.File;
+import java.util.List;
+import java.util.Map;
 
 import edu.put.ma.io.writer.Writer;
 import edu.put.ma.model.ModelProperties;
@@ -10,10 +12,31 @@ public interface DescriptorsBuilder {
 
     void build(StructureExtension extendedStructure, int modelIndex, ModelProperties modelProperties);
 
+    void build(StructureExtension extendedStructure, int modelIndex, ModelProperties modelProperties,
+            DescriptorsFilter descriptorsFilter);
+
+    String buildAndSaveDescriptors(StructureExtension extendedStructure, int modelIndex,
+            ModelProperties modelProperties, DescriptorsFilter descriptorsFilter, File outputDir, String modelNo,
+            Writer writer);
+
+    /**
+     * Builds and saves descriptors of a model for each expression of contacts inspector and each of model
+     * properties. Output directories and returned summaries are ordered by expression first and by model
+     * properties next.
+     */
+    List<String> buildAndSaveDescriptors(StructureExtension extendedStructure, int modelIndex,
+            List<ModelProperties> modelsProperties, DescriptorsFilter descriptorsFilter, List<File> outputDirs,
+            String modelNo, Writer writer);
+
+    Map<DescriptorsFilterThreshold, Integer> getPrunedDescriptorsCounts();
+
     String saveDescriptors(File outputDir, String modelNo, Writer writer, DescriptorsFilter descriptorsFilter);
 
     void saveAtomNamePairsConsideredByInContactResiduesIdentificationExpression(File outputDir, Writer writer);
 
+    void saveAtomNamePairsConsideredByInContactResiduesIdentificationExpression(File outputDir, Writer writer,
+            int expressionIndex);
+
     int getThreadsCount();
 
     void setThreadsCount(int threadsCount);
@@ -5,32 +5,36 @@ import static edu.put.ma.gaps.GapsDistributionImpl.RESIDUE_OUTSIDE_GAP;
 import static edu.put.ma.utils.StringUtils.NEW_LINE;
 
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.biojava.nbio.structure.Chain;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import edu.put.ma.access.ResiduesAccess;
 import edu.put.ma.descs.algorithms.logger.ProcessingTimeLog;
 import edu.put.ma.descs.contacts.ContactsInspector;
+import edu.put.ma.descs.contacts.InContactResiduesMap;
 import edu.put.ma.gaps.GapsDistribution;
 import edu.put.ma.io.writer.Writer;
 import edu.put.ma.model.Descriptor;
-import edu.put.ma.model.DescriptorImpl;
+import edu.put.ma.model.IndexedDescriptorImpl;
 import edu.put.ma.model.ModelProperties;
 import edu.put.ma.structure.StructureExtension;
 import edu.put.ma.utils.ExecutorUtils;
@@ -41,15 +45,15 @@ public class DescriptorsBuilderImpl implements DescriptorsBuilder {
 
     public static final int DEFAULT_NEIBHOURHOOD_SZE = 2;
 
+    private static final int PENDING_DESCRIPTORS_PER_THREAD = 4;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(DescriptorsBuilderImpl.class);
 
     private final ContactsInspector contactsInspector;
 
-    private Map<Integer, Descriptor> descriptors;
-
     private ExecutorService executor;
 
-    private int residuesCount;
+    private volatile ModelContext lastModelContext;
 
     public DescriptorsBuilderImpl(final ContactsInspector contactsInspector, final int threadsCount) {
         this.contactsInspector = contactsInspector;
@@ -57,60 +61,101 @@ public class DescriptorsBuilderImpl implements DescriptorsBuilder {
     }
 
     @Override
-    @ProcessingTimeLog
     public void build(final StructureExtension extendedStructure, final int modelIndex,
             final ModelProperties modelProperties) {
-        final ResiduesAccess residuesAccess = modelProperties.getResiduesAccess();
-        this.residuesCount = residuesAccess.getResiduesAccessIndexesSize();
-        prepareDescriptors();
+        build(extendedStructure, modelIndex, modelProperties, null);
+    }
+
+    @Override
+    @ProcessingTimeLog
+    public void build(final StructureExtension extendedStructure, final int modelIndex,
+            final ModelProperties modelProperties, final DescriptorsFilter descriptorsFilter) {
+        final ModelContext modelContext = new ModelContext(extendedStructure, modelIndex, modelProperties,
+                descriptorsFilter, null);
+        modelContext.inContactResiduesMap = contactsInspector.identifyInContactResidues(modelContext.model,
+                modelProperties);
+        buildDescriptors(modelContext);
+        lastModelContext = modelContext;
+    }
+
+    @Override
+    public String buildAndSaveDescriptors(final StructureExtension extendedStructure, final int modelIndex,
+            final ModelProperties modelProperties, final DescriptorsFilter descriptorsFilter,
+            final File outputDir, final String modelNo, final Writer writer) {
+        return buildAndSaveDescriptors(extendedStructure, modelIndex, Collections.singletonList(modelProperties),
+                descriptorsFilter, Collections.singletonList(outputDir), modelNo, writer).get(0);
+    }
+
+    @Override
+    @ProcessingTimeLog
+    public List<String> buildAndSaveDescriptors(final StructureExtension extendedStructure,
+            final int modelIndex, final List<ModelProperties> modelsProperties,
+            final DescriptorsFilter descriptorsFilter, final List<File> outputDirs, final String modelNo,
+            final Writer writer) {
+        final int modelsPropertiesCount = CollectionUtils.size(modelsProperties);
+        if (CollectionUtils.size(outputDirs) != contactsInspector.getExpressionsCount() * modelsPropertiesCount) {
+            throw new IllegalArgumentException(String.format(
+                    "Output directory is expected for each of %d expressions and %d model properties",
+                    contactsInspector.getExpressionsCount(), modelsPropertiesCount));
+        }
+        final List<String> summaries = Lists.newArrayListWithCapacity(CollectionUtils.size(outputDirs));
         final List<Chain> model = extendedStructure.getModelByIndex(Math.max(0, modelIndex));
-        contactsInspector.constructInContactResiduesMatrix(model, modelProperties);
-        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
-            final ImmutableList<Boolean> residueContacts = contactsInspector
-                    .getContactsOfResidueByIndex(residueIndex);
-            Descriptor descriptor = null;
-            if (getThreadsCount() == 1) {
-                descriptor = build(extendedStructure, modelIndex, modelProperties, residueIndex,
-                        residueContacts);
-            } else {
-                descriptor = buildConcurrently(extendedStructure, modelIndex, modelProperties, residueIndex,
-                        residueContacts);
-            }
-            if (descriptor != null) {
-                descriptors.put(residueIndex, descriptor);
+        final List<InContactResiduesMap> inContactResiduesMaps = contactsInspector
+                .identifyInContactResiduesForEachExpression(model, modelsProperties);
+        final boolean sharedInContactResiduesMap = modelsPropertiesCount > 1;
+        for (InContactResiduesMap inContactResiduesMap : inContactResiduesMaps) {
+            for (int propertiesIndex = 0; propertiesIndex < modelsPropertiesCount; propertiesIndex++) {
+                final DescriptorsWriter descriptorsWriter = DescriptorsWriterFactory.construct(
+                        outputDirs.get(summaries.size()), modelNo, writer);
+                final ModelContext modelContext = new ModelContext(extendedStructure, modelIndex,
+                        modelsProperties.get(propertiesIndex), descriptorsFilter, descriptorsWriter);
+                modelContext.inContactResiduesMap = inContactResiduesMap;
+                if (sharedInContactResiduesMap) {
+                    modelContext.restrictInContactResidues();
+                }
+                try {
+                    buildDescriptors(modelContext);
+                    lastModelContext = modelContext;
+                } finally {
+                    summaries.add(descriptorsWriter.finish());
+                }
             }
         }
+        return summaries;
+    }
+
+    @Override
+    public Map<DescriptorsFilterThreshold, Integer> getPrunedDescriptorsCounts() {
+        return getPrunedDescriptorsCounts(lastModelContext);
     }
 
     @Override
     public String saveDescriptors(final File outputDir, final String modelNo, final Writer writer,
             final DescriptorsFilter descriptorsFilter) {
-        if (CollectionUtils.isNotEmpty(descriptors.values())) {
-            final StringBuilder summary = new StringBuilder("Descriptors list");
-            if (StringUtils.isNotBlank(modelNo)) {
-                summary.append(String.format(" for model %s", modelNo));
-            }
-            summary.append(" is presented in the following table:").append(
-                    "\nResNo\tId\tSegmentsNo\tElementsNo\tResiduesNo\n");
-            boolean isFirst = true;
-            for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
-                if (descriptors.containsKey(residueIndex)) {
-                    final Descriptor descriptor = descriptors.get(residueIndex);
-                    isFirst = saveSingleDescriptor(outputDir, writer, descriptorsFilter, summary, isFirst,
-                            descriptor);
+        final DescriptorsWriter descriptorsWriter = DescriptorsWriterFactory.construct(outputDir, modelNo,
+                writer);
+        final ModelContext modelContext = lastModelContext;
+        if (modelContext != null) {
+            for (int residueIndex = 0; residueIndex < modelContext.residuesCount; residueIndex++) {
+                if (modelContext.descriptors.containsKey(residueIndex)) {
+                    saveSingleDescriptor(descriptorsWriter, descriptorsFilter,
+                            modelContext.descriptors.get(residueIndex));
                 }
             }
-            if (!isFirst) {
-                return summary.toString();
-            }
         }
-        return null;
+        return descriptorsWriter.finish();
     }
 
     @Override
     public void saveAtomNamePairsConsideredByInContactResiduesIdentificationExpression(final File outputDir,
             final Writer writer) {
-        final String atomNamePairsString = contactsInspector.getAtomNamePairsString();
+        saveAtomNamePairsConsideredByInContactResiduesIdentificationExpression(outputDir, writer, 0);
+    }
+
+    @Override
+    public void saveAtomNamePairsConsideredByInContactResiduesIdentificationExpression(final File outputDir,
+            final Writer writer, final int expressionIndex) {
+        final String atomNamePairsString = contactsInspector.getAtomNamePairsString(expressionIndex);
         final File outputFile = FileUtils.getFile(outputDir,
                 "atom-names-considered-by-in-contact-residues-identification-expression.list");
         LOGGER.info(String
@@ -133,10 +178,13 @@ public class DescriptorsBuilderImpl implements DescriptorsBuilder {
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
-        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
-            if (descriptors.containsKey(residueIndex)) {
-                final Descriptor descriptor = descriptors.get(residueIndex);
-                sb.append(descriptor.toString()).append(NEW_LINE);
+        final ModelContext modelContext = lastModelContext;
+        if (modelContext != null) {
+            for (int residueIndex = 0; residueIndex < modelContext.residuesCount; residueIndex++) {
+                if (modelContext.descriptors.containsKey(residueIndex)) {
+                    final Descriptor descriptor = modelContext.descriptors.get(residueIndex);
+                    sb.append(descriptor.toString()).append(NEW_LINE);
+                }
             }
         }
         return sb.toString();
@@ -172,6 +220,14 @@ public class DescriptorsBuilderImpl implements DescriptorsBuilder {
         return count == gapsDistribution.getElementSize();
     }
 
+    public static final boolean isOriginResidue(final int residuesCount, final int residueIndex,
+            final GapsDistribution gapsDistribution) {
+        final int residueGapFlag = gapsDistribution.getResidueGapFlag(residueIndex);
+        return (residueGapFlag == RESIDUE_OUTSIDE_GAP)
+                && (isElementCanBeCreated(residuesCount, residueIndex, residueGapFlag,
+                        DescriptorResidueType.ORIGIN_CENTER, gapsDistribution));
+    }
+
     public static void removeRedundantElementCenterIndexes(final int originResidueIndex,
             final List<Integer> elementsCenters, final int elementSize) {
         int originIndex = elementsCenters.indexOf(originResidueIndex);
@@ -191,37 +247,34 @@ public class DescriptorsBuilderImpl implements DescriptorsBuilder {
         }
     }
 
-    private boolean saveSingleDescriptor(final File outputDir, final Writer writer,
-            final DescriptorsFilter descriptorsFilter, final StringBuilder summary, final boolean isFirst,
-            final Descriptor descriptor) {
-        boolean first = isFirst;
+    private static final void saveSingleDescriptor(final DescriptorsWriter descriptorsWriter,
+            final DescriptorsFilter descriptorsFilter, final Descriptor descriptor) {
         if (isDescriptorValid(descriptor) && isDescriptorAppropriate(descriptor, descriptorsFilter)) {
-            final File descriptorFile = FileUtils.getFile(outputDir, descriptor.getId());
-            if (first) {
-                first = false;
-            } else {
-                summary.append(NEW_LINE);
-            }
-            summary.append(descriptor.toString());
-            writer.write(descriptor.getStructure(), descriptorFile);
+            descriptorsWriter.write(descriptor);
         }
-        return first;
     }
 
-    private void prepareDescriptors() {
-        descriptors = edu.put.ma.utils.CollectionUtils.prepareMap(descriptors);
+    private void buildDescriptors(final ModelContext modelContext) {
+        if (getThreadsCount() == 1) {
+            for (int residueIndex = 0; residueIndex < modelContext.residuesCount; residueIndex++) {
+                addDescriptor(modelContext, residueIndex, build(modelContext, residueIndex));
+            }
+        } else {
+            buildConcurrently(modelContext);
+        }
+        if (modelContext.descriptorsFilter != null) {
+            logPrunedDescriptorsCounts(modelContext);
+        }
     }
 
     private void prepareExecutorService(final int threadsCount) {
         executor = ExecutorUtils.prepareExecutorService(executor, threadsCount);
     }
 
-    private Descriptor build(final StructureExtension extendedStructure, final int modelIndex,
-            final ModelProperties modelProperties, final int residueIndex,
-            final ImmutableList<Boolean> residueContacts) {
-        final ResiduesAccess residuesAccess = modelProperties.getResiduesAccess();
+    private static final Descriptor build(final ModelContext modelContext, final int residueIndex) {
+        final ModelProperties modelProperties = modelContext.modelProperties;
         final GapsDistribution gapsDistribution = modelProperties.getGapsDistribution();
-        final int localResiduesCount = residuesAccess.getResiduesAccessIndexesSize();
+        final int localResiduesCount = modelContext.residuesCount;
         final List<Integer> elementsCenters = Lists.newArrayList();
         final List<Integer> inContactResidues = Lists.newArrayList();
         final int neibhourhoodSize = gapsDistribution.getNeibhourhoodSize();
@@ -231,8 +284,9 @@ public class DescriptorsBuilderImpl implements DescriptorsBuilder {
             buildElement(localResiduesCount, residueIndex, neibhourhoodSize, elementsCenters,
                     inContactResidues);
             if (!CollectionUtils.sizeIsEmpty(inContactResidues)) {
-                buildElementForInContactResidues(residueContacts, gapsDistribution, localResiduesCount,
-                        elementsCenters, inContactResidues, neibhourhoodSize);
+                buildElementForInContactResidues(modelContext.getInContactResidueIndexes(residueIndex),
+                        gapsDistribution, localResiduesCount, elementsCenters, inContactResidues,
+                        neibhourhoodSize);
             }
             if ((CollectionUtils.size(elementsCenters) > 1)
                     && (CollectionUtils.size(inContactResidues) >= gapsDistribution.getElementSize())) {
@@ -241,9 +295,16 @@ public class DescriptorsBuilderImpl implements DescriptorsBuilder {
                 removeRedundantElementCenterIndexes(residueIndex, elementsCenters,
                         gapsDistribution.getElementSize());
             }
+            final int segmentsCount = IndexedDescriptorImpl.computeSegmentsCount(
+                    modelContext.extendedStructure.getMoleculeType(), modelContext.model,
+                    modelProperties.getResiduesAccess(), inContactResidues);
+            if ((modelContext.descriptorsFilter != null)
+                    && (isDescriptorPruned(modelContext, segmentsCount, elementsCenters, inContactResidues))) {
+                return null;
+            }
             try {
-                return new DescriptorImpl(extendedStructure, modelIndex, modelProperties, residueIndex,
-                        elementsCenters, inContactResidues);
+                return new IndexedDescriptorImpl(modelContext.extendedStructure, modelContext.modelIndex,
+                        modelProperties, residueIndex, elementsCenters, inContactResidues, segmentsCount);
             } catch (UnappropriateDescriptorException e) {
                 LOGGER.warn(e.getMessage(), e);
             }
@@ -251,40 +312,97 @@ public class DescriptorsBuilderImpl implements DescriptorsBuilder {
         return null;
     }
 
-    private void buildElementForInContactResidues(final ImmutableList<Boolean> residueContacts,
+    private static final void buildElementForInContactResidues(final int[] residueContacts,
             final GapsDistribution gapsDistribution, final int localResiduesCount,
             final List<Integer> elementsCenters, final List<Integer> inContactResidues,
             final int neibhourhoodSize) {
-        for (int inContactResidueIndex = 0; inContactResidueIndex < localResiduesCount; inContactResidueIndex++) {
-            if (residueContacts.get(inContactResidueIndex).booleanValue()) {
-                final int inContactResidueGapFlag = gapsDistribution.getResidueGapFlag(inContactResidueIndex);
-                if (isElementCanBeCreated(localResiduesCount, inContactResidueIndex, inContactResidueGapFlag,
-                        DescriptorResidueType.OTHER_CENTER, gapsDistribution)) {
-                    buildElement(localResiduesCount, inContactResidueIndex, neibhourhoodSize,
-                            elementsCenters, inContactResidues);
-                }
+        for (int inContactResidueIndex : residueContacts) {
+            final int inContactResidueGapFlag = gapsDistribution.getResidueGapFlag(inContactResidueIndex);
+            if (isElementCanBeCreated(localResiduesCount, inContactResidueIndex, inContactResidueGapFlag,
+                    DescriptorResidueType.OTHER_CENTER, gapsDistribution)) {
+                buildElement(localResiduesCount, inContactResidueIndex, neibhourhoodSize, elementsCenters,
+                        inContactResidues);
+            }
+        }
+    }
+
+    private static final boolean isDescriptorPruned(final ModelContext modelContext,
+            final int segmentsCount, final List<Integer> elementsCenters, final List<Integer> inContactResidues) {
+        final DescriptorsFilterThreshold violatedThreshold = modelContext.descriptorsFilter
+                .getViolatedThreshold(segmentsCount, CollectionUtils.size(elementsCenters),
+                        CollectionUtils.size(inContactResidues));
+        if (violatedThreshold != null) {
+            modelContext.prunedDescriptorsCounts.incrementAndGet(violatedThreshold.ordinal());
+            return true;
+        }
+        return false;
+    }
+
+    private static final void logPrunedDescriptorsCounts(final ModelContext modelContext) {
+        final StringBuilder sb = new StringBuilder("Descriptors pruned before construction:");
+        for (Map.Entry<DescriptorsFilterThreshold, Integer> entry : getPrunedDescriptorsCounts(modelContext)
+                .entrySet()) {
+            sb.append(NEW_LINE).append(entry.getKey().getDescription()).append(": ").append(entry.getValue());
+        }
+        LOGGER.info(sb.toString());
+    }
+
+    /**
+     * Builds descriptors of consecutive residues concurrently, while at most a few pending descriptors per
+     * thread are submitted ahead of the one being handed over, so built descriptors do not pile up.
+     */
+    private void buildConcurrently(final ModelContext modelContext) {
+        final int pendingDescriptorsCount = getThreadsCount() * PENDING_DESCRIPTORS_PER_THREAD;
+        final Deque<Future<Descriptor>> results = new ArrayDeque<Future<Descriptor>>(pendingDescriptorsCount);
+        int submittedResiduesCount = 0;
+        for (int residueIndex = 0; residueIndex < modelContext.residuesCount; residueIndex++) {
+            while ((submittedResiduesCount < modelContext.residuesCount)
+                    && (submittedResiduesCount - residueIndex < pendingDescriptorsCount)) {
+                results.addLast(submitBuilder(modelContext, submittedResiduesCount++));
+            }
+            final Future<Descriptor> result = results.pollFirst();
+            try {
+                addDescriptor(modelContext, residueIndex, result.get());
+            } catch (InterruptedException e) {
+                result.cancel(true);
+                ExecutorUtils.cancelFutures(results);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Descriptors building was interrupted", e);
+            } catch (ExecutionException e) {
+                ExecutorUtils.cancelFutures(results);
+                throw new IllegalStateException(String.format("Building of descriptor of residue %d failed",
+                        residueIndex), e.getCause());
             }
         }
     }
 
-    private Descriptor buildConcurrently(final StructureExtension extendedStructure, final int modelIndex,
-            final ModelProperties modelProperties, final int residueIndex,
-            final ImmutableList<Boolean> residueContacts) {
-        final Callable<Descriptor> builder = new Callable<Descriptor>() {
+    private Future<Descriptor> submitBuilder(final ModelContext modelContext, final int residueIndex) {
+        return executor.submit(new Callable<Descriptor>() {
             @Override
             public Descriptor call() throws Exception {
-                return build(extendedStructure, modelIndex, modelProperties, residueIndex, residueContacts);
+                return build(modelContext, residueIndex);
             }
-        };
-        final Future<Descriptor> result = executor.submit(builder);
-        try {
-            return result.get();
-        } catch (InterruptedException e) {
-            LOGGER.error(e.getMessage(), e);
-        } catch (ExecutionException e) {
-            LOGGER.error(e.getMessage(), e);
+        });
+    }
+
+    private static final void addDescriptor(final ModelContext modelContext, final int residueIndex,
+            final Descriptor descriptor) {
+        if (modelContext.descriptorsWriter != null) {
+            saveSingleDescriptor(modelContext.descriptorsWriter, modelContext.descriptorsFilter, descriptor);
+        } else if (descriptor != null) {
+            modelContext.descriptors.put(residueIndex, descriptor);
         }
-        return null;
+    }
+
+    private static final Map<DescriptorsFilterThreshold, Integer> getPrunedDescriptorsCounts(
+            final ModelContext modelContext) {
+        final Map<DescriptorsFilterThreshold, Integer> result = new EnumMap<DescriptorsFilterThreshold, Integer>(
+                DescriptorsFilterThreshold.class);
+        for (DescriptorsFilterThreshold threshold : DescriptorsFilterThreshold.values()) {
+            result.put(threshold, (modelContext == null) ? 0 : modelContext.prunedDescriptorsCounts
+                    .get(threshold.ordinal()));
+        }
+        return Collections.unmodifiableMap(result);
     }
 
     private static final boolean isDescriptorValid(final Descriptor descriptor) {
@@ -319,4 +437,76 @@ public class DescriptorsBuilderImpl implements DescriptorsBuilder {
         return rightNeighbourElementCenterIndex - leftNeighbourElementCenterIndex <= elementSize;
     }
 
+    /**
+     * State of descriptors building for a single model, so that many models can be processed by the same
+     * builder at once. When in-contact residues map is shared by several element sizes, contacts of each
+     * residue are restricted to pairs that would be identified for the element size of this context.
+     */
+    private static final class ModelContext {
+
+        private final StructureExtension extendedStructure;
+
+        private final int modelIndex;
+
+        private final ModelProperties modelProperties;
+
+        private final List<Chain> model;
+
+        private final int residuesCount;
+
+        private final DescriptorsFilter descriptorsFilter;
+
+        private final DescriptorsWriter descriptorsWriter;
+
+        private final Map<Integer, Descriptor> descriptors;
+
+        private final AtomicIntegerArray prunedDescriptorsCounts;
+
+        private InContactResiduesMap inContactResiduesMap;
+
+        private boolean[] originResidues;
+
+        private boolean[] residuesOutsideGap;
+
+        private ModelContext(final StructureExtension extendedStructure, final int modelIndex,
+                final ModelProperties modelProperties, final DescriptorsFilter descriptorsFilter,
+                final DescriptorsWriter descriptorsWriter) {
+            this.extendedStructure = extendedStructure;
+            this.modelIndex = modelIndex;
+            this.modelProperties = modelProperties;
+            this.model = extendedStructure.getModelByIndex(Math.max(0, modelIndex));
+            this.residuesCount = modelProperties.getResiduesAccess().getResiduesAccessIndexesSize();
+            this.descriptorsFilter = descriptorsFilter;
+            this.descriptorsWriter = descriptorsWriter;
+            this.descriptors = Maps.newHashMap();
+            this.prunedDescriptorsCounts = new AtomicIntegerArray(DescriptorsFilterThreshold.values().length);
+        }
+
+        private void restrictInContactResidues() {
+            final GapsDistribution gapsDistribution = modelProperties.getGapsDistribution();
+            originResidues = new boolean[residuesCount];
+            residuesOutsideGap = new boolean[residuesCount];
+            for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+                originResidues[residueIndex] = isOriginResidue(residuesCount, residueIndex, gapsDistribution);
+                residuesOutsideGap[residueIndex] = (gapsDistribution.getResidueGapFlag(residueIndex)
+                        == RESIDUE_OUTSIDE_GAP);
+            }
+        }
+
+        private int[] getInContactResidueIndexes(final int residueIndex) {
+            final int[] inContactResidueIndexes = inContactResiduesMap.getInContactResidueIndexes(residueIndex);
+            if (originResidues == null) {
+                return inContactResidueIndexes;
+            }
+            int inContactResiduesCount = 0;
+            for (int inContactResidueIndex : inContactResidueIndexes) {
+                final int firstResidueIndex = Math.min(residueIndex, inContactResidueIndex);
+                final int secondResidueIndex = Math.max(residueIndex, inContactResidueIndex);
+                if ((originResidues[firstResidueIndex]) && (residuesOutsideGap[secondResidueIndex])) {
+                    inContactResidueIndexes[inContactResiduesCount++] = inContactResidueIndex;
+                }
+            }
+            return Arrays.copyOf(inContactResidueIndexes, inContactResiduesCount);
+        }
+    }
 }
@@ -27,4 +27,8 @@ public interface DescriptorsComparator {
     Map<Integer, List<AlignedDuplexesPair>> getDuplexPairsSimilarityContainer();
 
     double getMaximalRmsdThresholdPerDuplexPair();
+
+    void setThreadsCount(int threadsCount);
+
+    void close();
 }
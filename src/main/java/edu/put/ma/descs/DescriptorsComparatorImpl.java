@@ -6,7 +6,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import lombok.Getter;
 
@@ -21,43 +25,62 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 
 import edu.put.ma.descs.algorithms.AlignmentAcceptanceMode;
+import edu.put.ma.descs.algorithms.AssignmentSolvers;
 import edu.put.ma.descs.algorithms.CommonAlgorithm;
 import edu.put.ma.descs.algorithms.ComparisonAlgorithm;
-import edu.put.ma.descs.contacts.AtomsStorage;
-import edu.put.ma.descs.contacts.AtomsStorageFactory;
-import edu.put.ma.descs.contacts.ExpressionValidatorImpl;
+import edu.put.ma.descs.algorithms.ComparisonAlgorithms;
+import edu.put.ma.descs.algorithms.HungarianMethodDrivenSearch;
+import edu.put.ma.descs.contacts.AtomsTable;
+import edu.put.ma.descs.contacts.AtomsTableFactory;
 import edu.put.ma.model.AlignedDuplexesPair;
 import edu.put.ma.model.Alignment;
 import edu.put.ma.model.AlignmentFactory;
 import edu.put.ma.model.ComparisonResult;
 import edu.put.ma.model.ComparisonResultFactory;
+import edu.put.ma.model.Descriptor;
 import edu.put.ma.model.DescriptorsPair;
 import edu.put.ma.model.ExtendedAlignment;
 import edu.put.ma.model.ExtendedAlignmentFactory;
 import edu.put.ma.model.MoleculeType;
 import edu.put.ma.model.Residue;
 import edu.put.ma.model.ResiduesDictionary;
-import edu.put.ma.model.RmsdModel;
+import edu.put.ma.utils.ExecutorUtils;
 import edu.put.ma.utils.PreconditionUtils;
 import edu.put.ma.utils.ResidueUtils;
-
+import edu.put.ma.utils.RmsdUtils;
+
+/**
+ * Comparator of descriptors pairs that can be shared between threads. Each comparison is carried out by a
+ * separate working copy of the comparator holding its own comparison algorithm and duplex pairs similarity
+ * matrix. Atoms tables are resolved once per descriptor instance and shared by all working copies, so a
+ * descriptor compared with many others is resolved only once, its coordinates must not change meanwhile.
+ */
 public class DescriptorsComparatorImpl implements DescriptorsComparator {
 
     private static final boolean INSERT_NON_ALIGNED_RESIDUES_OF_SECOND_DESCRIPTOR = true;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DescriptorsComparatorImpl.class);
 
+    private final ComparisonAlgorithms comparisonAlgorithmType;
+
+    private final AssignmentSolvers assignmentSolverType;
+
+    private final int bestAssignmentsCount;
+
     private final ComparisonAlgorithm comparisonAlgorithm;
 
     @Getter
     private final SimilarDescriptorsVerifier similarDescriptorsVerifier;
 
-    private final AtomsStorage firstDescriptorAtomsStorage;
+    private AtomsTable firstDescriptorAtomsTable;
+
+    private AtomsTable secondDescriptorAtomsTable;
 
-    private final AtomsStorage secondDescriptorAtomsStorage;
+    private final ConcurrentMap<Descriptor, AtomsTable> descriptorsAtomsTables;
 
     private final ImmutableList<String> alignmentAtomNames;
 
@@ -69,24 +92,73 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
     @Getter
     private Map<Integer, List<AlignedDuplexesPair>> duplexPairsSimilarityContainer;
 
-    public DescriptorsComparatorImpl(final ComparisonAlgorithm comparisonAlgorithm,
+    private int threadsCount;
+
+    private ExecutorService executor;
+
+    private boolean executorOwner;
+
+    public DescriptorsComparatorImpl(final ComparisonAlgorithms comparisonAlgorithmType,
             final SimilarDescriptorsVerifier similarDescriptorsVerifier,
             final double maximalRmsdThresholdPerDuplexPair, final ImmutableList<String> alignmentAtomNames,
             final AlignmentAcceptanceMode alignmentAcceptanceMode) {
+        this(comparisonAlgorithmType, AssignmentSolvers.HUNGARIAN_METHOD, similarDescriptorsVerifier,
+                maximalRmsdThresholdPerDuplexPair, alignmentAtomNames, alignmentAcceptanceMode);
+    }
+
+    public DescriptorsComparatorImpl(final ComparisonAlgorithms comparisonAlgorithmType,
+            final AssignmentSolvers assignmentSolverType,
+            final SimilarDescriptorsVerifier similarDescriptorsVerifier,
+            final double maximalRmsdThresholdPerDuplexPair, final ImmutableList<String> alignmentAtomNames,
+            final AlignmentAcceptanceMode alignmentAcceptanceMode) {
+        this(comparisonAlgorithmType, assignmentSolverType,
+                HungarianMethodDrivenSearch.DEFAULT_BEST_ASSIGNMENTS_COUNT, similarDescriptorsVerifier,
+                maximalRmsdThresholdPerDuplexPair, alignmentAtomNames, alignmentAcceptanceMode);
+    }
+
+    public DescriptorsComparatorImpl(final ComparisonAlgorithms comparisonAlgorithmType,
+            final AssignmentSolvers assignmentSolverType, final int bestAssignmentsCount,
+            final SimilarDescriptorsVerifier similarDescriptorsVerifier,
+            final double maximalRmsdThresholdPerDuplexPair, final ImmutableList<String> alignmentAtomNames,
+            final AlignmentAcceptanceMode alignmentAcceptanceMode) {
+        this(comparisonAlgorithmType, assignmentSolverType, bestAssignmentsCount, null,
+                similarDescriptorsVerifier, maximalRmsdThresholdPerDuplexPair, alignmentAtomNames,
+                alignmentAcceptanceMode, new MapMaker().weakKeys().<Descriptor, AtomsTable> makeMap(), 1,
+                null);
+    }
+
+    private DescriptorsComparatorImpl(final ComparisonAlgorithms comparisonAlgorithmType,
+            final AssignmentSolvers assignmentSolverType, final int bestAssignmentsCount,
+            final ComparisonAlgorithm comparisonAlgorithm,
+            final SimilarDescriptorsVerifier similarDescriptorsVerifier,
+            final double maximalRmsdThresholdPerDuplexPair, final ImmutableList<String> alignmentAtomNames,
+            final AlignmentAcceptanceMode alignmentAcceptanceMode,
+            final ConcurrentMap<Descriptor, AtomsTable> descriptorsAtomsTables, final int threadsCount,
+            final ExecutorService executor) {
+        this.comparisonAlgorithmType = comparisonAlgorithmType;
+        this.assignmentSolverType = assignmentSolverType;
+        this.bestAssignmentsCount = bestAssignmentsCount;
         this.comparisonAlgorithm = comparisonAlgorithm;
         this.similarDescriptorsVerifier = similarDescriptorsVerifier;
         this.maximalRmsdThresholdPerDuplexPair = maximalRmsdThresholdPerDuplexPair;
         this.alignmentAtomNames = alignmentAtomNames;
         this.alignmentAcceptanceMode = alignmentAcceptanceMode;
-        this.firstDescriptorAtomsStorage = AtomsStorageFactory.construct();
-        this.secondDescriptorAtomsStorage = AtomsStorageFactory.construct();
+        this.descriptorsAtomsTables = descriptorsAtomsTables;
         this.duplexPairsSimilarityContainer = Maps.newHashMap();
+        this.threadsCount = threadsCount;
+        this.executor = executor;
+        this.executorOwner = false;
     }
 
     @Override
     public ComparisonResult compare(final DescriptorsPair descriptorsPair) {
-        firstDescriptorAtomsStorage.prepareStorage();
-        secondDescriptorAtomsStorage.prepareStorage();
+        if (comparisonAlgorithm == null) {
+            return newWorkingCopy().compare(descriptorsPair);
+        }
+        firstDescriptorAtomsTable = getAtomsTable(descriptorsPair.getFirstDescriptor(),
+                descriptorsPair.getMoleculeType());
+        secondDescriptorAtomsTable = getAtomsTable(descriptorsPair.getSecondDescriptor(),
+                descriptorsPair.getMoleculeType());
         ComparisonResult comparisonResult = null;
         if (descriptorsPair.areSingleElementDescriptors()) {
             comparisonResult = compareOriginElementsOfDescriptors(descriptorsPair);
@@ -110,6 +182,49 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
         return comparisonResult;
     }
 
+    /**
+     * Returns a comparator with the same configuration, but with a new instance of the comparison algorithm
+     * and empty state of comparison. The executor computing duplex pairs similarity matrix is shared.
+     */
+    public DescriptorsComparatorImpl newWorkingCopy() {
+        return new DescriptorsComparatorImpl(comparisonAlgorithmType, assignmentSolverType,
+                bestAssignmentsCount,
+                comparisonAlgorithmType.newComparisonAlgorithm(assignmentSolverType, bestAssignmentsCount),
+                similarDescriptorsVerifier, maximalRmsdThresholdPerDuplexPair, alignmentAtomNames,
+                alignmentAcceptanceMode, descriptorsAtomsTables, threadsCount, executor);
+    }
+
+    /**
+     * Working copies share the executor of their origin comparator, so a working copy gets its own executor
+     * here and only the comparator that created an executor shuts it down.
+     */
+    @Override
+    public void setThreadsCount(final int threadsCount) {
+        this.threadsCount = threadsCount;
+        executor = ExecutorUtils.prepareExecutorService(executorOwner ? executor : null, threadsCount);
+        executorOwner = true;
+    }
+
+    @Override
+    public void close() {
+        if (executorOwner) {
+            ExecutorUtils.closeExecutor(executor);
+        }
+        executor = null;
+        executorOwner = false;
+    }
+
+    private AtomsTable getAtomsTable(final Descriptor descriptor, final MoleculeType moleculeType) {
+        final AtomsTable atomsTable = descriptorsAtomsTables.get(descriptor);
+        if (atomsTable != null) {
+            return atomsTable;
+        }
+        final AtomsTable newAtomsTable = AtomsTableFactory.construct(alignmentAtomNames,
+                descriptor.getResidues(), moleculeType);
+        final AtomsTable previousAtomsTable = descriptorsAtomsTables.putIfAbsent(descriptor, newAtomsTable);
+        return (previousAtomsTable != null) ? previousAtomsTable : newAtomsTable;
+    }
+
     @Override
     public String getDuplexPairsString() {
         final StringBuilder sb = new StringBuilder("Duplex pairs structural similarity matrix:\n");
@@ -131,7 +246,6 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
             return constructExtensionBasedOnAlignedDuplexPairs(descriptorsPair, currentAlignment,
                     alignedDuplexPairs);
         } else {
-            final MoleculeType moleculeType = descriptorsPair.getMoleculeType();
             final List<Group> newResiduesForFirstDescriptor = Lists.newArrayList();
             final List<Group> newResiduesForSecondDescriptor = Lists.newArrayList();
             constructExtensionBasedOnAlignedDuplexesPair(descriptorsPair, currentAlignment,
@@ -141,10 +255,10 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
             if (rmsdShouldBeConsidered) {
                 final List<Atom> newAtomsForFirstDescriptor = Lists.newArrayList();
                 final List<Atom> newAtomsForSecondDescriptor = Lists.newArrayList();
-                final List<Atom> firstDescriptorNewAtoms = getAlignmentAtomsOfResidues(moleculeType,
-                        alignmentAtomNames, firstDescriptorAtomsStorage, newResiduesForFirstDescriptor);
-                final List<Atom> secondDescriptorNewAtoms = getAlignmentAtomsOfResidues(moleculeType,
-                        alignmentAtomNames, secondDescriptorAtomsStorage, newResiduesForSecondDescriptor);
+                final List<Atom> firstDescriptorNewAtoms = getAlignmentAtomsOfResidues(
+                        firstDescriptorAtomsTable, newResiduesForFirstDescriptor);
+                final List<Atom> secondDescriptorNewAtoms = getAlignmentAtomsOfResidues(
+                        secondDescriptorAtomsTable, newResiduesForSecondDescriptor);
                 if (alignedDuplexPairsCount > 1) {
                     CollectionUtils.addAll(newAtomsForFirstDescriptor, firstDescriptorNewAtoms);
                     CollectionUtils.addAll(newAtomsForSecondDescriptor, secondDescriptorNewAtoms);
@@ -177,21 +291,24 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
         Calc.shift(atom, superimposer.getTranslation());
     }
 
-    public static final RmsdModel computeAlignmentRmsd(final List<Atom> targetAtoms,
-            final List<Atom> otherAtoms) {
-        return computeAlignmentRmsd(targetAtoms, otherAtoms, false);
-    }
-
     public static final double computeAlignmentRmsdOnly(final List<Atom> targetAtoms,
             final List<Atom> otherAtoms) {
         double result = Double.MAX_VALUE;
-        final RmsdModel rmsdModel = computeAlignmentRmsd(targetAtoms, otherAtoms, true);
-        if (rmsdModel != null) {
-            result = rmsdModel.getAlignmentRmsd();
+        if (CollectionUtils.size(targetAtoms) == CollectionUtils.size(otherAtoms)) {
+            result = RmsdUtils.computeRmsd(targetAtoms, otherAtoms);
         }
         return result;
     }
 
+    public static final SVDSuperimposer superimpose(final List<Atom> targetAtoms,
+            final List<Atom> otherAtoms) {
+        final Atom[] targetAtomsArray = edu.put.ma.utils.CollectionUtils.toArray(targetAtoms,
+                new Atom[CollectionUtils.size(targetAtoms)]);
+        final Atom[] otherAtomsArray = edu.put.ma.utils.CollectionUtils.toArray(otherAtoms,
+                new Atom[CollectionUtils.size(otherAtoms)]);
+        return superimpose(targetAtomsArray, otherAtomsArray);
+    }
+
     public static final boolean canBeStructurallySimilar(final DescriptorsPair descriptorsPair,
             final int achieveableElementsCount, final SimilarDescriptorsVerifier similarDescriptorsVerifier) {
         final double promisingElementsRatio = CommonAlgorithm.getRatio(achieveableElementsCount,
@@ -254,50 +371,97 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
             final Alignment originElementsAlignment) {
         final int firstDescriptorOtherElementsCount = descriptorsPair.getFirstDescriptorElementsCount() - 1;
         final int secondDescriptorOtherElementsCount = descriptorsPair.getSecondDescriptorElementsCount() - 1;
-        final MoleculeType moleculeType = descriptorsPair.getMoleculeType();
         duplexPairsSimilarityContainer = edu.put.ma.utils.CollectionUtils
                 .prepareMap(duplexPairsSimilarityContainer);
+        final List<List<Atom>> firstDescriptorExtendedAlignmentAtoms = Lists
+                .newArrayListWithCapacity(firstDescriptorOtherElementsCount);
         for (int firstDescriptorOtherElementIndex = 0; firstDescriptorOtherElementIndex < firstDescriptorOtherElementsCount; firstDescriptorOtherElementIndex++) {
-            final List<Group> firstDescriptorOtherElementResidues = descriptorsPair
-                    .getFirstDescriptorOtherElementResiduesByIndex(firstDescriptorOtherElementIndex);
             final List<Group> newResiduesForFirstDescriptor = originElementsAlignment
-                    .identifyNewResiduesForFirstDescriptor(firstDescriptorOtherElementResidues);
-            final List<Atom> firstDescriptorNewAtoms = getAlignmentAtomsOfResidues(moleculeType,
-                    alignmentAtomNames, firstDescriptorAtomsStorage, newResiduesForFirstDescriptor);
-            final List<Atom> firstDescriptorExtendedAlignmentAtoms = originElementsAlignment
-                    .extendFirstDescriptorAtomsAndReturnAsNewObject(firstDescriptorNewAtoms);
-            for (int secondDescriptorOtherElementIndex = 0; secondDescriptorOtherElementIndex < secondDescriptorOtherElementsCount; secondDescriptorOtherElementIndex++) {
-                final List<Group> secondDescriptorOtherElementResidues = descriptorsPair
-                        .getSecondDescriptorOtherElementResiduesByIndex(secondDescriptorOtherElementIndex);
-                final List<Group> newResiduesForSecondDescriptor = originElementsAlignment
-                        .identifyNewResiduesForSecondDescriptor(secondDescriptorOtherElementResidues);
-                final List<Atom> secondDescriptorNewAtoms = getAlignmentAtomsOfResidues(moleculeType,
-                        alignmentAtomNames, secondDescriptorAtomsStorage, newResiduesForSecondDescriptor);
-                final List<Atom> secondDescriptorExtendedAlignmentAtoms = originElementsAlignment
-                        .extendSecondDescriptorAtomsAndReturnAsNewObject(secondDescriptorNewAtoms);
-                final double duplexesPairAlignmentRmsd = computeAlignmentRmsdOnly(
-                        firstDescriptorExtendedAlignmentAtoms, secondDescriptorExtendedAlignmentAtoms);
-                if (similarDescriptorsVerifier.areDuplexesPairStructurallySimilar(duplexesPairAlignmentRmsd)) {
-                    addAlignedDuplexesPair(firstDescriptorOtherElementIndex,
-                            secondDescriptorOtherElementIndex,
-                            ResidueUtils.ensureCommonDoubleFormat(duplexesPairAlignmentRmsd));
-                }
-            }
+                    .identifyNewResiduesForFirstDescriptor(descriptorsPair
+                            .getFirstDescriptorOtherElementResiduesByIndex(firstDescriptorOtherElementIndex));
+            firstDescriptorExtendedAlignmentAtoms.add(originElementsAlignment
+                    .extendFirstDescriptorAtomsAndReturnAsNewObject(getAlignmentAtomsOfResidues(
+                            firstDescriptorAtomsTable, newResiduesForFirstDescriptor)));
         }
-        for (Map.Entry<Integer, List<AlignedDuplexesPair>> entry : duplexPairsSimilarityContainer.entrySet()) {
-            Collections.sort(entry.getValue());
+        final List<List<Atom>> secondDescriptorExtendedAlignmentAtoms = Lists
+                .newArrayListWithCapacity(secondDescriptorOtherElementsCount);
+        for (int secondDescriptorOtherElementIndex = 0; secondDescriptorOtherElementIndex < secondDescriptorOtherElementsCount; secondDescriptorOtherElementIndex++) {
+            final List<Group> newResiduesForSecondDescriptor = originElementsAlignment
+                    .identifyNewResiduesForSecondDescriptor(descriptorsPair
+                            .getSecondDescriptorOtherElementResiduesByIndex(secondDescriptorOtherElementIndex));
+            secondDescriptorExtendedAlignmentAtoms.add(originElementsAlignment
+                    .extendSecondDescriptorAtomsAndReturnAsNewObject(getAlignmentAtomsOfResidues(
+                            secondDescriptorAtomsTable, newResiduesForSecondDescriptor)));
+        }
+        final List<List<AlignedDuplexesPair>> rows = computeDuplexPairsSimilarityRows(
+                firstDescriptorExtendedAlignmentAtoms, secondDescriptorExtendedAlignmentAtoms);
+        for (int firstDescriptorOtherElementIndex = 0; firstDescriptorOtherElementIndex < firstDescriptorOtherElementsCount; firstDescriptorOtherElementIndex++) {
+            final List<AlignedDuplexesPair> row = rows.get(firstDescriptorOtherElementIndex);
+            if (CollectionUtils.isNotEmpty(row)) {
+                Collections.sort(row);
+                duplexPairsSimilarityContainer.put(firstDescriptorOtherElementIndex, row);
+            }
         }
     }
 
-    private void addAlignedDuplexesPair(final int firstDescriptorOtherElementIndex,
-            final int secondDescriptorOtherElementIndex, final double duplexesPairAlignmentRmsd) {
-        if (!duplexPairsSimilarityContainer.containsKey(firstDescriptorOtherElementIndex)) {
-            final List<AlignedDuplexesPair> alignedDuplexesPairs = Lists.newArrayList();
-            duplexPairsSimilarityContainer.put(firstDescriptorOtherElementIndex, alignedDuplexesPairs);
+    private List<List<AlignedDuplexesPair>> computeDuplexPairsSimilarityRows(
+            final List<List<Atom>> firstDescriptorExtendedAlignmentAtoms,
+            final List<List<Atom>> secondDescriptorExtendedAlignmentAtoms) {
+        final int rowsCount = firstDescriptorExtendedAlignmentAtoms.size();
+        final List<List<AlignedDuplexesPair>> rows = Lists.newArrayListWithCapacity(rowsCount);
+        if ((executor == null) || (threadsCount <= 1) || (rowsCount <= 1)) {
+            for (int firstDescriptorOtherElementIndex = 0; firstDescriptorOtherElementIndex < rowsCount; firstDescriptorOtherElementIndex++) {
+                rows.add(computeDuplexPairsSimilarityRow(firstDescriptorOtherElementIndex,
+                        firstDescriptorExtendedAlignmentAtoms.get(firstDescriptorOtherElementIndex),
+                        secondDescriptorExtendedAlignmentAtoms));
+            }
+            return rows;
         }
-        duplexPairsSimilarityContainer.get(firstDescriptorOtherElementIndex).add(
-                new AlignedDuplexesPair(firstDescriptorOtherElementIndex, secondDescriptorOtherElementIndex,
-                        duplexesPairAlignmentRmsd));
+        final List<Future<List<AlignedDuplexesPair>>> futures = Lists.newArrayListWithCapacity(rowsCount);
+        for (int firstDescriptorOtherElementIndex = 0; firstDescriptorOtherElementIndex < rowsCount; firstDescriptorOtherElementIndex++) {
+            final int rowIndex = firstDescriptorOtherElementIndex;
+            futures.add(executor.submit(new Callable<List<AlignedDuplexesPair>>() {
+                @Override
+                public List<AlignedDuplexesPair> call() {
+                    return computeDuplexPairsSimilarityRow(rowIndex,
+                            firstDescriptorExtendedAlignmentAtoms.get(rowIndex),
+                            secondDescriptorExtendedAlignmentAtoms);
+                }
+            }));
+        }
+        try {
+            for (Future<List<AlignedDuplexesPair>> future : futures) {
+                rows.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            ExecutorUtils.cancelFutures(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Computation of duplex pairs similarity matrix was interrupted",
+                    e);
+        } catch (ExecutionException e) {
+            ExecutorUtils.cancelFutures(futures);
+            throw new IllegalStateException("Computation of duplex pairs similarity matrix failed",
+                    e.getCause());
+        }
+        return rows;
+    }
+
+    private List<AlignedDuplexesPair> computeDuplexPairsSimilarityRow(
+            final int firstDescriptorOtherElementIndex, final List<Atom> firstDescriptorExtendedAlignmentAtoms,
+            final List<List<Atom>> secondDescriptorExtendedAlignmentAtoms) {
+        final List<AlignedDuplexesPair> row = Lists.newArrayList();
+        final int secondDescriptorOtherElementsCount = secondDescriptorExtendedAlignmentAtoms.size();
+        for (int secondDescriptorOtherElementIndex = 0; secondDescriptorOtherElementIndex < secondDescriptorOtherElementsCount; secondDescriptorOtherElementIndex++) {
+            final double duplexesPairAlignmentRmsd = computeAlignmentRmsdOnly(
+                    firstDescriptorExtendedAlignmentAtoms,
+                    secondDescriptorExtendedAlignmentAtoms.get(secondDescriptorOtherElementIndex));
+            if (similarDescriptorsVerifier.areDuplexesPairStructurallySimilar(duplexesPairAlignmentRmsd)) {
+                row.add(new AlignedDuplexesPair(firstDescriptorOtherElementIndex,
+                        secondDescriptorOtherElementIndex,
+                        ResidueUtils.ensureCommonDoubleFormat(duplexesPairAlignmentRmsd)));
+            }
+        }
+        return row;
     }
 
     private ExtendedAlignment getOriginElementsAlignment(final DescriptorsPair descriptorsPair) {
@@ -310,14 +474,12 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
                 "There is no possibility to verify structural similarity of origin elements",
                 "residues number");
         final MoleculeType moleculeType = descriptorsPair.getMoleculeType();
-        final List<Atom> firstDescriptorAlignmentAtoms = getAlignmentAtomsOfResidues(moleculeType,
-                alignmentAtomNames, firstDescriptorAtomsStorage, firstDescriptorOriginElementResidues);
-        final List<Atom> secondDescriptorAlignmentAtoms = getAlignmentAtomsOfResidues(moleculeType,
-                alignmentAtomNames, secondDescriptorAtomsStorage, secondDescriptorOriginElementResidues);
-        final RmsdModel originElementsPairAlignmentRmsdModel = computeAlignmentRmsd(
-                firstDescriptorAlignmentAtoms, secondDescriptorAlignmentAtoms);
-        final double originElementsPairAlignmentRmsd = originElementsPairAlignmentRmsdModel
-                .getAlignmentRmsd();
+        final List<Atom> firstDescriptorAlignmentAtoms = getAlignmentAtomsOfResidues(
+                firstDescriptorAtomsTable, firstDescriptorOriginElementResidues);
+        final List<Atom> secondDescriptorAlignmentAtoms = getAlignmentAtomsOfResidues(
+                secondDescriptorAtomsTable, secondDescriptorOriginElementResidues);
+        final double originElementsPairAlignmentRmsd = computeAlignmentRmsdOnly(firstDescriptorAlignmentAtoms,
+                secondDescriptorAlignmentAtoms);
         final boolean areOriginElementsPairStructurallySimilar = similarDescriptorsVerifier
                 .areOriginElementsPairStructurallySimilar(originElementsPairAlignmentRmsd);
         ExtendedAlignment extendedOriginElementsAlignment = null;
@@ -334,8 +496,8 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
                     descriptorsPair.getSecondDescriptorResiduesCount());
             final ComparisonResult comparisonResult = ComparisonResultFactory.construct(
                     similarDescriptorsVerifier, originElementsPairAlignmentRmsd,
-                    originElementsPairAlignmentRmsdModel.getSuperimposer(), alignedElementsRatio,
-                    alignedResiduesRatio);
+                    superimpose(firstDescriptorAlignmentAtoms, secondDescriptorAlignmentAtoms),
+                    alignedElementsRatio, alignedResiduesRatio);
             extendedOriginElementsAlignment = ExtendedAlignmentFactory.construct(originElementsAlignment,
                     comparisonResult);
         }
@@ -355,10 +517,10 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
         final MoleculeType moleculeType = descriptorsPair.getMoleculeType();
         final String sequenceAlignment = getSequence(firstDescriptorOriginElementResidues, moleculeType)
                 + NEW_LINE + getSequence(secondDescriptorOriginElementResidues, moleculeType);
-        final List<Atom> firstDescriptorAlignmentAtoms = getAlignmentAtomsOfResidues(moleculeType,
-                alignmentAtomNames, firstDescriptorAtomsStorage, firstDescriptorOriginElementResidues);
-        final List<Atom> secondDescriptorAlignmentAtoms = getAlignmentAtomsOfResidues(moleculeType,
-                alignmentAtomNames, secondDescriptorAtomsStorage, secondDescriptorOriginElementResidues);
+        final List<Atom> firstDescriptorAlignmentAtoms = getAlignmentAtomsOfResidues(
+                firstDescriptorAtomsTable, firstDescriptorOriginElementResidues);
+        final List<Atom> secondDescriptorAlignmentAtoms = getAlignmentAtomsOfResidues(
+                secondDescriptorAtomsTable, secondDescriptorOriginElementResidues);
         comparisonResult = compareOriginElementsOfDescriptors(firstDescriptorAlignmentAtoms,
                 secondDescriptorAlignmentAtoms, similarDescriptorsVerifier, sequenceAlignment);
         return comparisonResult;
@@ -394,62 +556,28 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
         return sequenceBuilder.toString();
     }
 
-    private static final RmsdModel computeAlignmentRmsd(final List<Atom> targetAtoms,
-            final List<Atom> otherAtoms, final boolean returnRmsdOnly) {
-        final int targetAtomsCount = CollectionUtils.size(targetAtoms);
-        final int otherAtomsCount = CollectionUtils.size(otherAtoms);
-        RmsdModel result = null;
-        if (targetAtomsCount == otherAtomsCount) {
-            final List<Atom> otherAtomsCopy = copyAlignmentAtoms(otherAtoms);
-            final Atom[] targetAtomsArray = edu.put.ma.utils.CollectionUtils.toArray(targetAtoms,
-                    new Atom[targetAtomsCount]);
-            final Atom[] otherAtomsArray = edu.put.ma.utils.CollectionUtils.toArray(otherAtomsCopy,
-                    new Atom[otherAtomsCount]);
-            final SVDSuperimposer superimposer = superimpose(targetAtomsArray, otherAtomsArray);
-            final double alignmentRmsd = computeRmsd(targetAtomsArray, otherAtomsArray, superimposer);
-            if (returnRmsdOnly) {
-                result = new RmsdModel(alignmentRmsd);
-            } else {
-                result = new RmsdModel(alignmentRmsd, superimposer);
-            }
-        }
-        return result;
-    }
-
     private static final ComparisonResult compareOriginElementsOfDescriptors(
             final List<Atom> firstDescriptorAlignmentAtoms, final List<Atom> secondDescriptorAlignmentAtoms,
             final SimilarDescriptorsVerifier similarDescriptorsVerifier, final String sequenceAlignment) {
         PreconditionUtils.checkIfInputListsHaveEqualSizes(firstDescriptorAlignmentAtoms,
                 secondDescriptorAlignmentAtoms, "There is no possibility to superimpose atom sets", "size");
-        final List<Atom> secondDescriptorAlignmentAtomsCopy = copyAlignmentAtoms(secondDescriptorAlignmentAtoms);
-        final Atom[] firstDescriptorAlignmentAtomsArray = edu.put.ma.utils.CollectionUtils.toArray(
-                firstDescriptorAlignmentAtoms, new Atom[CollectionUtils.size(firstDescriptorAlignmentAtoms)]);
-        final Atom[] secondDescriptorAlignmentAtomsArray = edu.put.ma.utils.CollectionUtils.toArray(
-                secondDescriptorAlignmentAtomsCopy,
-                new Atom[CollectionUtils.size(secondDescriptorAlignmentAtoms)]);
-        final SVDSuperimposer superimposer = superimpose(firstDescriptorAlignmentAtomsArray,
-                secondDescriptorAlignmentAtomsArray);
-        final double originElementsPairAlignmentRmsd = computeRmsd(firstDescriptorAlignmentAtomsArray,
-                secondDescriptorAlignmentAtomsArray, superimposer);
+        final SVDSuperimposer superimposer = superimpose(firstDescriptorAlignmentAtoms,
+                secondDescriptorAlignmentAtoms);
+        final double originElementsPairAlignmentRmsd = RmsdUtils.computeRmsd(firstDescriptorAlignmentAtoms,
+                secondDescriptorAlignmentAtoms);
         return ComparisonResultFactory.construct(similarDescriptorsVerifier, originElementsPairAlignmentRmsd,
                 superimposer, sequenceAlignment);
     }
 
-    private static final List<Atom> getAlignmentAtomsOfResidues(final MoleculeType moleculeType,
-            final ImmutableList<String> alignmentAtomNames, final AtomsStorage atomsStorage,
+    private static final List<Atom> getAlignmentAtomsOfResidues(final AtomsTable atomsTable,
             final List<Group> residues) {
-        final Pattern virtualAtomNamesPattern = ExpressionValidatorImpl
-                .getVirtualAtomNamesPattern(moleculeType);
-        final int consideredAtomsCount = CollectionUtils.size(alignmentAtomNames);
+        final int consideredAtomsCount = atomsTable.getAtomSlotsCount();
         final int residuesCount = CollectionUtils.size(residues);
         final int alignmentAtomsNo = consideredAtomsCount * residuesCount;
         final List<Atom> alignmentAtomsOfResidues = Lists.newArrayListWithExpectedSize(alignmentAtomsNo);
         for (Group residue : residues) {
-            final Residue residueEntry = ResiduesDictionary.getResidueEntry(residue.getPDBName(),
-                    moleculeType);
-            for (String atomName : alignmentAtomNames) {
-                final Atom alignmentAtom = atomsStorage.getAtom(residue, residueEntry, atomName,
-                        virtualAtomNamesPattern);
+            for (int atomSlot = 0; atomSlot < consideredAtomsCount; atomSlot++) {
+                final Atom alignmentAtom = atomsTable.getAtom(residue, atomSlot);
                 if (alignmentAtom != null) {
                     alignmentAtomsOfResidues.add(alignmentAtom);
                 }
@@ -458,34 +586,6 @@ public class DescriptorsComparatorImpl implements DescriptorsComparator {
         return alignmentAtomsOfResidues;
     }
 
-    private static final double computeRmsd(final Atom[] firstAtomsArray, final Atom[] secondAtomsArray,
-            final SVDSuperimposer superimposer) {
-        rotateAndShiftAtomsArray(secondAtomsArray, superimposer);
-        try {
-            return SVDSuperimposer.getRMS(firstAtomsArray, secondAtomsArray);
-        } catch (StructureException e) {
-            LOGGER.error(e.getMessage(), e);
-        }
-        return Double.MAX_VALUE;
-    }
-
-    private static final void rotateAndShiftAtomsArray(final Atom[] atomsArray,
-            final SVDSuperimposer superimposer) {
-        for (Atom atom : atomsArray) {
-            rotateAndShiftAtom(atom, superimposer);
-            ResidueUtils.formatCoordinates(atom);
-        }
-    }
-
-    private static final List<Atom> copyAlignmentAtoms(final List<Atom> alignmentAtoms) {
-        final List<Atom> alignmentAtomsCopy = edu.put.ma.utils.CollectionUtils
-                .constructEmptyListWithCapacity(alignmentAtoms);
-        for (Atom atom : alignmentAtoms) {
-            alignmentAtomsCopy.add((Atom) atom.clone());
-        }
-        return alignmentAtomsCopy;
-    }
-
     private static final SVDSuperimposer superimpose(final Atom[] firstAtomsArray,
             final Atom[] secondAtomsArray) {
         SVDSuperimposer superimposer = null;
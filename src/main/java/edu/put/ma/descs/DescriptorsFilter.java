@@ -18,6 +18,8 @@ public interface DescriptorsFilter {
 
     boolean isAppropriate(Descriptor descriptor);
 
+    DescriptorsFilterThreshold getViolatedThreshold(int segmentsCount, int elementsCount, int residuesCount);
+
     String toString();
 
 }
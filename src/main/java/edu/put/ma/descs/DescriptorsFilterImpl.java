@@ -50,12 +50,32 @@ public class DescriptorsFilterImpl implements DescriptorsFilter {
 
     @Override
     public boolean isAppropriate(final Descriptor descriptor) {
-        final int segmentsCount = descriptor.getSegmentsCount();
-        final int elementsCount = descriptor.getElementsCount();
-        final int residuesCount = descriptor.getResiduesCount();
-        return isInRange(segmentsCount, minimalSegmentsCount, maximalSegmentsCount)
-                && isInRange(elementsCount, minimalElementsCount, maximalElementsCount)
-                && isInRange(residuesCount, minimalResiduesCount, maximalResiduesCount);
+        return getViolatedThreshold(descriptor.getSegmentsCount(), descriptor.getElementsCount(),
+                descriptor.getResiduesCount()) == null;
+    }
+
+    @Override
+    public DescriptorsFilterThreshold getViolatedThreshold(final int segmentsCount, final int elementsCount,
+            final int residuesCount) {
+        if (segmentsCount < minimalSegmentsCount) {
+            return DescriptorsFilterThreshold.MINIMAL_SEGMENTS_COUNT;
+        }
+        if (segmentsCount > maximalSegmentsCount) {
+            return DescriptorsFilterThreshold.MAXIMAL_SEGMENTS_COUNT;
+        }
+        if (elementsCount < minimalElementsCount) {
+            return DescriptorsFilterThreshold.MINIMAL_ELEMENTS_COUNT;
+        }
+        if (elementsCount > maximalElementsCount) {
+            return DescriptorsFilterThreshold.MAXIMAL_ELEMENTS_COUNT;
+        }
+        if (residuesCount < minimalResiduesCount) {
+            return DescriptorsFilterThreshold.MINIMAL_RESIDUES_COUNT;
+        }
+        if (residuesCount > maximalResiduesCount) {
+            return DescriptorsFilterThreshold.MAXIMAL_RESIDUES_COUNT;
+        }
+        return null;
     }
 
     @Override
@@ -125,8 +145,4 @@ public class DescriptorsFilterImpl implements DescriptorsFilter {
             return new DescriptorsFilterImpl(this);
         }
     }
-
-    private static final boolean isInRange(final int val, final int leftBoundary, final int rightBoundary) {
-        return (val >= leftBoundary) && (val <= rightBoundary);
-    }
 }
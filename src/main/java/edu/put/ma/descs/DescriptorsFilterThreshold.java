@@ -0,0 +1,16 @@
+package edu.put.ma.descs;
+
+import lombok.Getter;
+
+public enum DescriptorsFilterThreshold {
+    MINIMAL_SEGMENTS_COUNT("Minimal segments count"), MAXIMAL_SEGMENTS_COUNT("Maximal segments count"), MINIMAL_ELEMENTS_COUNT(
+            "Minimal elements count"), MAXIMAL_ELEMENTS_COUNT("Maximal elements count"), MINIMAL_RESIDUES_COUNT(
+            "Minimal residues count"), MAXIMAL_RESIDUES_COUNT("Maximal residues count");
+
+    @Getter
+    private final String description;
+
+    DescriptorsFilterThreshold(final String description) {
+        this.description = description;
+    }
+}
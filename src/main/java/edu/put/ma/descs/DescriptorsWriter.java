@@ -0,0 +1,10 @@
+package edu.put.ma.descs;
+
+import edu.put.ma.model.Descriptor;
+
+public interface DescriptorsWriter {
+
+    void write(Descriptor descriptor);
+
+    String finish();
+}
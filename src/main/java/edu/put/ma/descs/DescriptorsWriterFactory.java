@@ -0,0 +1,24 @@
+package edu.put.ma.descs;
+
+import java.io.File;
+
+import edu.put.ma.io.writer.Writer;
+
+public final class DescriptorsWriterFactory {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private DescriptorsWriterFactory() {
+        // hidden constructor
+    }
+
+    public static final DescriptorsWriter construct(final File outputDir, final String modelNo,
+            final Writer writer) {
+        return new DescriptorsWriterImpl(outputDir, modelNo, writer, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public static final DescriptorsWriter construct(final File outputDir, final String modelNo,
+            final Writer writer, final int queueCapacity) {
+        return new DescriptorsWriterImpl(outputDir, modelNo, writer, queueCapacity);
+    }
+}
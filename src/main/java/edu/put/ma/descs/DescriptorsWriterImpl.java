@@ -0,0 +1,146 @@
+package edu.put.ma.descs;
+
+import static edu.put.ma.utils.StringUtils.NEW_LINE;
+
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+
+import edu.put.ma.io.writer.Writer;
+import edu.put.ma.model.Descriptor;
+import edu.put.ma.utils.ExecutorUtils;
+
+/**
+ * Saves descriptors on a dedicated thread in the order they are handed over. Descriptors wait in a
+ * bounded queue, so the producer is blocked whenever writing falls behind, and the summary table is
+ * extended as each descriptor is saved. Structures of descriptors are built only for writing and are not
+ * retained afterwards. When the writing thread stops unexpectedly, handing over a descriptor fails with
+ * an IllegalStateException instead of blocking.
+ */
+public class DescriptorsWriterImpl implements DescriptorsWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DescriptorsWriterImpl.class);
+
+    private static final Optional<Descriptor> END_OF_DESCRIPTORS = Optional.absent();
+
+    private static final long HAND_OVER_TIMEOUT_IN_MILLISECONDS = 100L;
+
+    private final File outputDir;
+
+    private final Writer writer;
+
+    private final BlockingQueue<Optional<Descriptor>> queue;
+
+    private final StringBuilder summary;
+
+    private final ExecutorService executor;
+
+    private final Future<Integer> result;
+
+    DescriptorsWriterImpl(final File outputDir, final String modelNo, final Writer writer,
+            final int queueCapacity) {
+        this.outputDir = outputDir;
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<Optional<Descriptor>>(queueCapacity);
+        this.summary = getSummaryHeader(modelNo);
+        this.executor = ExecutorUtils.prepareExecutorService(null, 1);
+        this.result = executor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return consume();
+            }
+        });
+    }
+
+    @Override
+    public void write(final Descriptor descriptor) {
+        try {
+            handOver(Optional.of(descriptor));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(String.format(
+                    "Descriptor %s has not been handed over for writing", descriptor.getId()), e);
+        }
+    }
+
+    @Override
+    public String finish() {
+        int savedDescriptorsCount = 0;
+        try {
+            handOver(END_OF_DESCRIPTORS);
+            savedDescriptorsCount = result.get();
+        } catch (InterruptedException e) {
+            LOGGER.error(e.getMessage(), e);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.error(e.getMessage(), e);
+        } catch (IllegalStateException e) {
+            LOGGER.error(e.getMessage(), e);
+        } finally {
+            result.cancel(true);
+            ExecutorUtils.closeExecutor(executor);
+        }
+        return (savedDescriptorsCount > 0) ? summary.toString() : null;
+    }
+
+    private void handOver(final Optional<Descriptor> entry) throws InterruptedException {
+        while (!queue.offer(entry, HAND_OVER_TIMEOUT_IN_MILLISECONDS, TimeUnit.MILLISECONDS)) {
+            if (result.isDone()) {
+                throw new IllegalStateException("Descriptors writer has stopped", getFailure());
+            }
+        }
+    }
+
+    private Throwable getFailure() throws InterruptedException {
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (CancellationException e) {
+            return e;
+        }
+        return null;
+    }
+
+    private int consume() throws InterruptedException {
+        int savedDescriptorsCount = 0;
+        Optional<Descriptor> entry = queue.take();
+        while (entry.isPresent()) {
+            final Descriptor descriptor = entry.get();
+            try {
+                writer.write(descriptor.build3d(), FileUtils.getFile(outputDir, descriptor.getId()));
+                if (savedDescriptorsCount > 0) {
+                    summary.append(NEW_LINE);
+                }
+                summary.append(descriptor.toString());
+                savedDescriptorsCount++;
+            } catch (Exception e) {
+                LOGGER.error(e.getMessage(), e);
+            }
+            entry = queue.take();
+        }
+        return savedDescriptorsCount;
+    }
+
+    private static final StringBuilder getSummaryHeader(final String modelNo) {
+        final StringBuilder result = new StringBuilder("Descriptors list");
+        if (StringUtils.isNotBlank(modelNo)) {
+            result.append(String.format(" for model %s", modelNo));
+        }
+        return result.append(" is presented in the following table:").append(
+                "\nResNo\tId\tSegmentsNo\tElementsNo\tResiduesNo\n");
+    }
+}
@@ -0,0 +1,22 @@
+package edu.put.ma.descs.algorithms;
+
+public enum AssignmentSolvers {
+
+    HUNGARIAN_METHOD {
+        @Override
+        public HungarianMethod newAssignmentSolver() {
+            return new HungarianMethodImpl();
+        }
+    },
+    JONKER_VOLGENANT_METHOD {
+        @Override
+        public HungarianMethod newAssignmentSolver() {
+            return new JonkerVolgenantMethodImpl();
+        }
+    };
+
+    /**
+     * Solvers may reuse their work buffers between calls, so each algorithm should use its own instance.
+     */
+    public abstract HungarianMethod newAssignmentSolver();
+}
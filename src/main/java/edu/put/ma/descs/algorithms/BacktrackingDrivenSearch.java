@@ -1,12 +1,14 @@
 package edu.put.ma.descs.algorithms;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.biojava.nbio.structure.Group;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
 import edu.put.ma.descs.ComparisonPrecision;
 import edu.put.ma.model.AlignedDuplexesPair;
@@ -14,17 +16,54 @@ import edu.put.ma.model.Alignment;
 import edu.put.ma.model.DescriptorsPair;
 import edu.put.ma.model.ExtendedAlignment;
 
+/**
+ * Backtracking over the duplex pairs similarity matrix. Rows of the matrix are copied once into a candidate
+ * table and the search state is kept as bit sets of visited rows and used elements of the second descriptor.
+ * Rows of each level are visited in the order of a hash map of the rows still available, which the search
+ * used to rebuild on every step, so the same alignments are found first.
+ * Besides the aligned elements count, a subtree is cut when the residues of the first descriptor not yet
+ * aligned and the smallest available duplex pair RMSDs of its remaining rows show that no alignment in it
+ * could be accepted as the longest one. Alignments of a cut subtree are not remembered as identified ones,
+ * so another permutation of the same longest alignment may be found later and its aligned duplexes pairs
+ * may be listed in a different order, the comparison result is not affected.
+ */
 public class BacktrackingDrivenSearch extends CommonAlgorithm {
 
+    private static final double AVG_RMSD_BOUND_TOLERANCE = 1E-9;
+
+    private static final int HASH_MAP_DEFAULT_CAPACITY = 16;
+
     private List<ExtendedAlignment> alignments;
 
     private ExtendedAlignment unacceptableAlignment;
 
     private int initNotVisitedFirstDescriptorOtherElementsCount;
 
+    private AlignedDuplexesPair[][] candidates;
+
+    private int[][] candidateSecondElementIndices;
+
+    private int[] rowKeys;
+
+    private int[][] levelRows;
+
+    private List<List<Group>> rowResidues;
+
+    private double[] minimalRowRmsds;
+
+    private final BitSet visitedRows;
+
+    private final BitSet usedSecondElements;
+
+    private final List<AlignedDuplexesPair> availableCandidates;
+
     public BacktrackingDrivenSearch(final boolean firstAlignmentOnly, final ComparisonPrecision precision) {
         super(firstAlignmentOnly, precision);
         this.alignments = Lists.newArrayList();
+        this.visitedRows = new BitSet();
+        this.usedSecondElements = new BitSet();
+        this.availableCandidates = Lists.newArrayList();
+        this.minimalRowRmsds = new double[0];
     }
 
     @Override
@@ -33,46 +72,112 @@ public class BacktrackingDrivenSearch extends CommonAlgorithm {
             final AlignmentAcceptanceMode alignmentAcceptanceMode) {
         this.alignments = edu.put.ma.utils.CollectionUtils.prepareList(this.alignments);
         this.initNotVisitedFirstDescriptorOtherElementsCount = CollectionUtils.size(allAlignedDuplexesPairs);
-        checkAndExtend(descriptorsPair, currentAlignment, allAlignedDuplexesPairs, alignmentAcceptanceMode);
+        initCandidates(descriptorsPair, allAlignedDuplexesPairs);
+        checkAndExtend(descriptorsPair, currentAlignment, 0, initNotVisitedFirstDescriptorOtherElementsCount,
+                alignmentAcceptanceMode);
+    }
+
+    private void initCandidates(final DescriptorsPair descriptorsPair,
+            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs) {
+        final List<Integer> firstDescriptorOtherElementIndices = Lists.newArrayList(allAlignedDuplexesPairs
+                .keySet());
+        final int rowsCount = firstDescriptorOtherElementIndices.size();
+        candidates = new AlignedDuplexesPair[rowsCount][];
+        candidateSecondElementIndices = new int[rowsCount][];
+        rowKeys = new int[rowsCount];
+        levelRows = new int[rowsCount + 1][rowsCount];
+        rowResidues = Lists.newArrayListWithCapacity(rowsCount);
+        for (int rowIndex = 0; rowIndex < rowsCount; rowIndex++) {
+            final Integer firstDescriptorOtherElementIndex = firstDescriptorOtherElementIndices.get(rowIndex);
+            rowKeys[rowIndex] = firstDescriptorOtherElementIndex;
+            levelRows[0][rowIndex] = rowIndex;
+            final List<AlignedDuplexesPair> row = allAlignedDuplexesPairs
+                    .get(firstDescriptorOtherElementIndex);
+            final int candidatesCount = CollectionUtils.size(row);
+            candidates[rowIndex] = new AlignedDuplexesPair[candidatesCount];
+            candidateSecondElementIndices[rowIndex] = new int[candidatesCount];
+            for (int candidateIndex = 0; candidateIndex < candidatesCount; candidateIndex++) {
+                final AlignedDuplexesPair candidate = row.get(candidateIndex);
+                candidates[rowIndex][candidateIndex] = candidate;
+                candidateSecondElementIndices[rowIndex][candidateIndex] = candidate
+                        .getSecondDescriptorOtherElementIndex();
+            }
+            rowResidues.add(descriptorsPair
+                    .getFirstDescriptorOtherElementResiduesByIndex(firstDescriptorOtherElementIndex));
+        }
+        if (minimalRowRmsds.length < rowsCount) {
+            minimalRowRmsds = new double[rowsCount];
+        }
+        visitedRows.clear();
+        usedSecondElements.clear();
     }
 
     private boolean checkAndExtend(final DescriptorsPair descriptorsPair,
-            final ExtendedAlignment currentAlignment,
-            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs,
+            final ExtendedAlignment currentAlignment, final int level,
+            final int notVisitedFirstDescriptorOtherElementsCount,
             final AlignmentAcceptanceMode alignmentAcceptanceMode) {
-        final int notVisitedFirstDescriptorOtherElementsCount = CollectionUtils.size(allAlignedDuplexesPairs);
         if (notVisitedFirstDescriptorOtherElementsCount == initNotVisitedFirstDescriptorOtherElementsCount - 1) {
             unacceptableAlignment = null;
         }
         if ((notVisitedFirstDescriptorOtherElementsCount == 0) && (verifyPossibleAlignment(currentAlignment))) {
             return true;
         } else if (notVisitedFirstDescriptorOtherElementsCount > 0) {
-            return extendPartialAlignment(descriptorsPair, currentAlignment, allAlignedDuplexesPairs,
+            return extendPartialAlignment(descriptorsPair, currentAlignment, level,
                     notVisitedFirstDescriptorOtherElementsCount, alignmentAcceptanceMode);
         }
         return false;
     }
 
     private boolean extendPartialAlignment(final DescriptorsPair descriptorsPair,
-            final ExtendedAlignment currentAlignment,
-            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs,
+            final ExtendedAlignment currentAlignment, final int level,
             final int notVisitedFirstDescriptorOtherElementsCount,
             final AlignmentAcceptanceMode alignmentAcceptanceMode) {
-        if (verifyUnacceptabilityOfPossibleAlignment(currentAlignment, allAlignedDuplexesPairs)) {
+        if (verifyUnacceptabilityOfPossibleAlignment(currentAlignment,
+                notVisitedFirstDescriptorOtherElementsCount)) {
             return false;
         }
         if ((currentAlignment.getAlignedElementsCount() + notVisitedFirstDescriptorOtherElementsCount < longestAlignment
                 .getAlignedElementsCount())
-                || (leadToIdentifiedAlignments(currentAlignment, allAlignedDuplexesPairs))) {
+                || (leadToIdentifiedAlignments(currentAlignment))
+                || (!canSubtreeUpdateLongestAlignment(descriptorsPair, currentAlignment,
+                        notVisitedFirstDescriptorOtherElementsCount, alignmentAcceptanceMode))) {
             return false;
         }
-        return extend(descriptorsPair, currentAlignment, allAlignedDuplexesPairs, alignmentAcceptanceMode);
+        return extend(descriptorsPair, currentAlignment, level, notVisitedFirstDescriptorOtherElementsCount,
+                alignmentAcceptanceMode);
+    }
+
+    private boolean canSubtreeUpdateLongestAlignment(final DescriptorsPair descriptorsPair,
+            final ExtendedAlignment currentAlignment, final int notVisitedFirstDescriptorOtherElementsCount,
+            final AlignmentAcceptanceMode alignmentAcceptanceMode) {
+        final Alignment alignment = currentAlignment.getCurrentAlignment();
+        int achievableResiduesCount = currentAlignment.getAlignedResiduesCount();
+        int availableRowsCount = 0;
+        for (int rowIndex = visitedRows.nextClearBit(0); rowIndex < candidates.length; rowIndex = visitedRows
+                .nextClearBit(rowIndex + 1)) {
+            if (isAvailable(rowIndex)) {
+                minimalRowRmsds[availableRowsCount++] = computeMinimalAvailableRmsd(rowIndex);
+                achievableResiduesCount += countNotAlignedResidues(alignment, rowResidues.get(rowIndex));
+            }
+        }
+        Arrays.sort(minimalRowRmsds, 0, availableRowsCount);
+        final int alignedDuplexesPairsCount = currentAlignment.getAlignedDuplexesPairsCount();
+        double achievableTotalRmsd = (alignedDuplexesPairsCount > 0) ? currentAlignment.getTotalRmsd() : 0.0;
+        double minimalAchievableAvgRmsd = Double.POSITIVE_INFINITY;
+        for (int rowIndex = 0; rowIndex < availableRowsCount; rowIndex++) {
+            achievableTotalRmsd += minimalRowRmsds[rowIndex];
+            minimalAchievableAvgRmsd = Math.min(minimalAchievableAvgRmsd, achievableTotalRmsd
+                    / (alignedDuplexesPairsCount + rowIndex + 1));
+        }
+        return isLongestAlignmentUpdateAchievable(descriptorsPair, currentAlignment.getAlignedElementsCount()
+                + notVisitedFirstDescriptorOtherElementsCount, achievableResiduesCount,
+                minimalAchievableAvgRmsd - AVG_RMSD_BOUND_TOLERANCE, alignmentAcceptanceMode);
     }
 
     private boolean verifyUnacceptabilityOfPossibleAlignment(final ExtendedAlignment currentAlignment,
-            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs) {
-        if ((unacceptableAlignment != null) && (CollectionUtils.size(allAlignedDuplexesPairs) == 1)) {
-            if (cover(currentAlignment, unacceptableAlignment, allAlignedDuplexesPairs)) {
+            final int notVisitedFirstDescriptorOtherElementsCount) {
+        if ((unacceptableAlignment != null) && (notVisitedFirstDescriptorOtherElementsCount == 1)) {
+            if (cover(currentAlignment, unacceptableAlignment)) {
                 return true;
             } else {
                 unacceptableAlignment = null;
@@ -106,15 +211,10 @@ public class BacktrackingDrivenSearch extends CommonAlgorithm {
     }
 
     private boolean extend(final DescriptorsPair descriptorsPair, final ExtendedAlignment currentAlignment,
-            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs,
-            final AlignmentAcceptanceMode alignmentAcceptanceMode) {
-        for (Map.Entry<Integer, List<AlignedDuplexesPair>> promisingFirstDescriptorOtherElement : allAlignedDuplexesPairs
-                .entrySet()) {
-            final List<AlignedDuplexesPair> alignedDuplexPairsOfFirstDescriptorOtherElement = allAlignedDuplexesPairs
-                    .get(promisingFirstDescriptorOtherElement.getKey());
+            final int level, final int rowsCount, final AlignmentAcceptanceMode alignmentAcceptanceMode) {
+        for (int rowPosition = 0; rowPosition < rowsCount; rowPosition++) {
             if (analyseAlignedDuplexPairsOfFirstDescriptorOtherElement(descriptorsPair, currentAlignment,
-                    allAlignedDuplexesPairs, alignedDuplexPairsOfFirstDescriptorOtherElement,
-                    alignmentAcceptanceMode)) {
+                    level, rowsCount, levelRows[level][rowPosition], alignmentAcceptanceMode)) {
                 return true;
             }
         }
@@ -122,11 +222,15 @@ public class BacktrackingDrivenSearch extends CommonAlgorithm {
     }
 
     private boolean analyseAlignedDuplexPairsOfFirstDescriptorOtherElement(
-            final DescriptorsPair descriptorsPair, final ExtendedAlignment currentAlignment,
-            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs,
-            final List<AlignedDuplexesPair> alignedDuplexPairsOfFirstDescriptorOtherElement,
-            final AlignmentAcceptanceMode alignmentAcceptanceMode) {
-        for (AlignedDuplexesPair alignedDuplexesPair : alignedDuplexPairsOfFirstDescriptorOtherElement) {
+            final DescriptorsPair descriptorsPair, final ExtendedAlignment currentAlignment, final int level,
+            final int rowsCount, final int rowIndex, final AlignmentAcceptanceMode alignmentAcceptanceMode) {
+        final AlignedDuplexesPair[] rowCandidates = candidates[rowIndex];
+        for (int candidateIndex = 0; candidateIndex < rowCandidates.length; candidateIndex++) {
+            final int secondElementIndex = candidateSecondElementIndices[rowIndex][candidateIndex];
+            if (usedSecondElements.get(secondElementIndex)) {
+                continue;
+            }
+            final AlignedDuplexesPair alignedDuplexesPair = rowCandidates[candidateIndex];
             final Alignment extension = descriptorsComparator.constructExtension(descriptorsPair,
                     currentAlignment.getCurrentAlignment(), alignedDuplexesPair, precision);
             if (extension.getAlignedResiduesCount() > 0) {
@@ -134,12 +238,14 @@ public class BacktrackingDrivenSearch extends CommonAlgorithm {
                         descriptorsComparator.getAlignmentAtomsCount(), descriptorsPair);
                 updateLongestAlignment(descriptorsPair, currentAlignment, precision,
                         CREATE_NEW_INSTANCE_OF_CURRENT_ALIGNMENT, alignmentAcceptanceMode);
-                final Map<Integer, List<AlignedDuplexesPair>> updatedAllAlignedDuplexesPairs = updateAndReturnNewInstanceOfAlignedDuplexesPairsContainer(
-                        alignedDuplexesPair, allAlignedDuplexesPairs);
-                if (checkAndExtend(descriptorsPair, currentAlignment, updatedAllAlignedDuplexesPairs,
-                        alignmentAcceptanceMode)) {
+                visitedRows.set(rowIndex);
+                usedSecondElements.set(secondElementIndex);
+                if (checkAndExtend(descriptorsPair, currentAlignment, level + 1,
+                        prepareNextLevelRows(level, rowsCount), alignmentAcceptanceMode)) {
                     return true;
                 } else {
+                    visitedRows.clear(rowIndex);
+                    usedSecondElements.clear(secondElementIndex);
                     currentAlignment.removeLastAlignedDuplexesPair();
                 }
             }
@@ -147,14 +253,12 @@ public class BacktrackingDrivenSearch extends CommonAlgorithm {
         return false;
     }
 
-    private boolean leadToIdentifiedAlignments(final ExtendedAlignment currentAlignment,
-            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs) {
+    private boolean leadToIdentifiedAlignments(final ExtendedAlignment currentAlignment) {
         boolean result = false;
         final int identifiedAlignmentsCount = CollectionUtils.size(alignments);
         for (int alignmentIndex = 0; alignmentIndex < identifiedAlignmentsCount; alignmentIndex++) {
             final ExtendedAlignment identifiedAlignment = alignments.get(alignmentIndex);
-            result = !identifiedAlignment.isOverlapped()
-                    && cover(currentAlignment, identifiedAlignment, allAlignedDuplexesPairs);
+            result = !identifiedAlignment.isOverlapped() && cover(currentAlignment, identifiedAlignment);
             if (result) {
                 break;
             }
@@ -162,61 +266,90 @@ public class BacktrackingDrivenSearch extends CommonAlgorithm {
         return result;
     }
 
-    private static final Map<Integer, List<AlignedDuplexesPair>> updateAndReturnNewInstanceOfAlignedDuplexesPairsContainer(
-            final AlignedDuplexesPair alignedDuplexesPair,
-            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs) {
-        final int visitedOtherElementIndexOfFirstDescriptor = alignedDuplexesPair
-                .getFirstDescriptorOtherElementIndex();
-        final int visitedOtherElementIndexOfSecondDescriptor = alignedDuplexesPair
-                .getSecondDescriptorOtherElementIndex();
-        final Map<Integer, List<AlignedDuplexesPair>> result = Maps.newHashMap();
-        for (Map.Entry<Integer, List<AlignedDuplexesPair>> promisingFirstDescriptorOtherElement : allAlignedDuplexesPairs
-                .entrySet()) {
-            if (promisingFirstDescriptorOtherElement.getKey().intValue() != visitedOtherElementIndexOfFirstDescriptor) {
-                final List<AlignedDuplexesPair> availableDuplexesPairs = filterAvailableDuplexPairs(
-                        visitedOtherElementIndexOfSecondDescriptor, promisingFirstDescriptorOtherElement);
-                int availableDuplexesPairsCount = CollectionUtils.size(availableDuplexesPairs);
-                if (availableDuplexesPairsCount > 0) {
-                    result.put(promisingFirstDescriptorOtherElement.getKey(), availableDuplexesPairs);
-                }
+    /**
+     * Rows of the next level keep the order of the current one and are then stably ordered by their buckets
+     * in a hash map of the default capacity, grown as the next level rows require.
+     */
+    private int prepareNextLevelRows(final int level, final int rowsCount) {
+        final int[] rows = levelRows[level];
+        final int[] nextLevelRows = levelRows[level + 1];
+        int result = 0;
+        for (int rowPosition = 0; rowPosition < rowsCount; rowPosition++) {
+            final int rowIndex = rows[rowPosition];
+            if ((!visitedRows.get(rowIndex)) && (isAvailable(rowIndex))) {
+                nextLevelRows[result++] = rowIndex;
             }
         }
+        int capacity = HASH_MAP_DEFAULT_CAPACITY;
+        while (result > capacity - (capacity >> 2)) {
+            capacity <<= 1;
+        }
+        for (int rowPosition = 1; rowPosition < result; rowPosition++) {
+            final int rowIndex = nextLevelRows[rowPosition];
+            final int bucketIndex = computeBucketIndex(rowKeys[rowIndex], capacity);
+            int previousRowPosition = rowPosition - 1;
+            while ((previousRowPosition >= 0) && (computeBucketIndex(
+                    rowKeys[nextLevelRows[previousRowPosition]], capacity) > bucketIndex)) {
+                nextLevelRows[previousRowPosition + 1] = nextLevelRows[previousRowPosition];
+                previousRowPosition--;
+            }
+            nextLevelRows[previousRowPosition + 1] = rowIndex;
+        }
         return result;
     }
 
-    private static List<AlignedDuplexesPair> filterAvailableDuplexPairs(
-            final int visitedOtherElementIndexOfSecondDescriptor,
-            final Map.Entry<Integer, List<AlignedDuplexesPair>> promisingFirstDescriptorOtherElement) {
-        final List<AlignedDuplexesPair> availableDuplexesPairs = Lists
-                .newArrayList(promisingFirstDescriptorOtherElement.getValue());
-        int availableDuplexesPairsCount = CollectionUtils.size(availableDuplexesPairs);
-        for (int availableDuplexesPairIndex = availableDuplexesPairsCount - 1; availableDuplexesPairIndex >= 0; availableDuplexesPairIndex--) {
-            final AlignedDuplexesPair availableDuplexesPair = availableDuplexesPairs
-                    .get(availableDuplexesPairIndex);
-            if (availableDuplexesPair.getSecondDescriptorOtherElementIndex() == visitedOtherElementIndexOfSecondDescriptor) {
-                availableDuplexesPairs.remove(availableDuplexesPairIndex);
+    private boolean isAvailable(final int rowIndex) {
+        for (int secondElementIndex : candidateSecondElementIndices[rowIndex]) {
+            if (!usedSecondElements.get(secondElementIndex)) {
+                return true;
             }
         }
-        return availableDuplexesPairs;
+        return false;
     }
 
-    private static final boolean cover(final ExtendedAlignment currentAlignment,
-            final ExtendedAlignment identifiedAlignment,
-            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs) {
+    private double computeMinimalAvailableRmsd(final int rowIndex) {
+        double result = Double.POSITIVE_INFINITY;
+        final AlignedDuplexesPair[] rowCandidates = candidates[rowIndex];
+        for (int candidateIndex = 0; candidateIndex < rowCandidates.length; candidateIndex++) {
+            if (!usedSecondElements.get(candidateSecondElementIndices[rowIndex][candidateIndex])) {
+                result = Math.min(result, rowCandidates[candidateIndex].getDuplexesPairAlignmentRmsd());
+            }
+        }
+        return result;
+    }
+
+    private boolean cover(final ExtendedAlignment currentAlignment,
+            final ExtendedAlignment identifiedAlignment) {
         return identifiedAlignment.cover(currentAlignment)
-                && areAllAvailableToAlignDuplexPairsAreConsideredByAlignment(allAlignedDuplexesPairs,
-                        identifiedAlignment);
+                && areAllAvailableToAlignDuplexPairsAreConsideredByAlignment(identifiedAlignment);
     }
 
-    private static final boolean areAllAvailableToAlignDuplexPairsAreConsideredByAlignment(
-            final Map<Integer, List<AlignedDuplexesPair>> availableToAlignDuplexPairs,
+    private boolean areAllAvailableToAlignDuplexPairsAreConsideredByAlignment(
             final ExtendedAlignment identifiedAlignment) {
-        for (Map.Entry<Integer, List<AlignedDuplexesPair>> firstDescriptorOtherElementAlignedDuplexPairs : availableToAlignDuplexPairs
-                .entrySet()) {
-            if (!identifiedAlignment.cover(firstDescriptorOtherElementAlignedDuplexPairs.getValue())) {
-                return false;
+        availableCandidates.clear();
+        for (int rowIndex = visitedRows.nextClearBit(0); rowIndex < candidates.length; rowIndex = visitedRows
+                .nextClearBit(rowIndex + 1)) {
+            final AlignedDuplexesPair[] rowCandidates = candidates[rowIndex];
+            for (int candidateIndex = 0; candidateIndex < rowCandidates.length; candidateIndex++) {
+                if (!usedSecondElements.get(candidateSecondElementIndices[rowIndex][candidateIndex])) {
+                    availableCandidates.add(rowCandidates[candidateIndex]);
+                }
             }
         }
-        return true;
+        return identifiedAlignment.cover(availableCandidates);
+    }
+
+    private static final int computeBucketIndex(final int key, final int capacity) {
+        return (key ^ (key >>> 16)) & (capacity - 1);
+    }
+
+    private static final int countNotAlignedResidues(final Alignment alignment, final List<Group> residues) {
+        int result = 0;
+        for (Group residue : residues) {
+            if (!alignment.isResidueCoveredByFirstDescriptor(residue)) {
+                result++;
+            }
+        }
+        return result;
     }
 }
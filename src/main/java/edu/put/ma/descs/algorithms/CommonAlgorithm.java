@@ -9,6 +9,7 @@ import edu.put.ma.descs.DescriptorsComparator;
 import edu.put.ma.descs.SimilarDescriptorsVerifier;
 import edu.put.ma.descs.algorithms.logger.ProcessingTimeLog;
 import edu.put.ma.model.AlignedDuplexesPair;
+import edu.put.ma.model.Alignment;
 import edu.put.ma.model.DescriptorsPair;
 import edu.put.ma.model.ExtendedAlignment;
 import edu.put.ma.model.RmsdModel;
@@ -65,6 +66,36 @@ public abstract class CommonAlgorithm implements ComparisonAlgorithm {
         return false;
     }
 
+    /**
+     * Checks whether an alignment with at most the given counts of aligned elements and residues, and an
+     * average RMSD of aligned duplexes not lower than the given one, could still be accepted by
+     * updateLongestAlignment.
+     */
+    boolean isLongestAlignmentUpdateAchievable(final DescriptorsPair descriptorsPair,
+            final int achievableElementsCount, final int achievableResiduesCount,
+            final double minimalAchievableAvgRmsd, final AlignmentAcceptanceMode alignmentAcceptanceMode) {
+        final int longestAlignmentResiduesCount = longestAlignment.getAlignedResiduesCount();
+        if (achievableResiduesCount < longestAlignmentResiduesCount) {
+            return false;
+        }
+        if ((achievableResiduesCount == longestAlignmentResiduesCount)
+                && (alignmentAcceptanceMode == AlignmentAcceptanceMode.ALIGNED_RESIDUES_AND_AVERAGE_RMSD_OF_ALIGNED_DUPLEXES)
+                && (Double.compare(longestAlignment.getAvgRmsd(), minimalAchievableAvgRmsd) < 0)) {
+            return false;
+        }
+        final SimilarDescriptorsVerifier verifier = descriptorsComparator.getSimilarDescriptorsVerifier();
+        if (ComparisonPrecision.ALL_RULES_EXCEPT_ALIGNMENT_RMSD.atLeast(precision)
+                && (!verifier.isMinimalAlignedElementsRatioAchieved(getRatio(achievableElementsCount,
+                        descriptorsPair.getFirstDescriptorElementsCount(),
+                        descriptorsPair.getSecondDescriptorElementsCount())))) {
+            return false;
+        }
+        return (!ComparisonPrecision.ALIGNED_RESIDUES_CONSIDERED_ONLY.atLeast(precision))
+                || verifier.isMinimalAlignedResiduesRatioAchieved(getRatio(achievableResiduesCount,
+                        descriptorsPair.getFirstDescriptorResiduesCount(),
+                        descriptorsPair.getSecondDescriptorResiduesCount()));
+    }
+
     private boolean verifyFeasibilityAlignment(final DescriptorsPair descriptorsPair,
             final ExtendedAlignment currentAlignment, final ComparisonPrecision precision,
             final boolean newInstance) {
@@ -104,6 +135,11 @@ public abstract class CommonAlgorithm implements ComparisonAlgorithm {
         final double alignmentRmsd = currentAlignmentRmsdModel.getAlignmentRmsd();
         if ((!shouldBeAnalyzed)
                 || ((shouldBeAnalyzed) && (verifier.isAlignmentStructurallySimilar(alignmentRmsd)))) {
+            if (shouldBeAnalyzed) {
+                final Alignment alignment = currentAlignment.getCurrentAlignment();
+                currentAlignmentRmsdModel = new RmsdModel(alignmentRmsd, alignment.getFirstDescriptorAtoms(),
+                        alignment.getSecondDescriptorAtoms());
+            }
             currentAlignment.update(descriptorsComparator.getSimilarDescriptorsVerifier(),
                     currentAlignmentRmsdModel, alignedElementsRatio, alignedResiduesRatio);
             if (longestAlignment.isBetterAlignmentFound(alignedElementsRatio, alignedResiduesRatio,
@@ -3,28 +3,66 @@ package edu.put.ma.descs.algorithms;
 import static edu.put.ma.descs.algorithms.CommonAlgorithm.COMPREHENSIVE_SEARCH;
 import static edu.put.ma.model.input.DescriptorsComparatorInputModelImpl.DEFAULT_MAXIMAL_RMSD_BASED_COST_OF_PAIR_OF_ALIGNED_DUPLEXES;
 import static edu.put.ma.descs.algorithms.CommonAlgorithm.FIRST_ALIGNMENT_ONLY;
-import lombok.Getter;
 import edu.put.ma.descs.ComparisonPrecision;
 
 public enum ComparisonAlgorithms {
 
-    BACKTRACKING_DRIVEN_LONGEST_ALIGNMENT(new BacktrackingDrivenSearch(COMPREHENSIVE_SEARCH,
-            ComparisonPrecision.ALL_RULES_CONSIDERED)), BACKTRACKING_DRIVEN_FIRST_ALIGNMENT_ONLY(
-            new BacktrackingDrivenSearch(FIRST_ALIGNMENT_ONLY, ComparisonPrecision.ALL_RULES_CONSIDERED)), HUNGARIAN_METHOD_DRIVEN_FIRST_ALIGNMENT_ONLY_PARTIAL_SOLUTIONS_NOT_CONSIDERED(
-            new HungarianMethodDrivenSearch(FIRST_ALIGNMENT_ONLY, ComparisonPrecision.ALL_RULES_CONSIDERED,
+    BACKTRACKING_DRIVEN_LONGEST_ALIGNMENT {
+        @Override
+        public ComparisonAlgorithm newComparisonAlgorithm(final AssignmentSolvers assignmentSolverType,
+                final int bestAssignmentsCount) {
+            return new BacktrackingDrivenSearch(COMPREHENSIVE_SEARCH,
+                    ComparisonPrecision.ALL_RULES_CONSIDERED);
+        }
+    },
+    BACKTRACKING_DRIVEN_FIRST_ALIGNMENT_ONLY {
+        @Override
+        public ComparisonAlgorithm newComparisonAlgorithm(final AssignmentSolvers assignmentSolverType,
+                final int bestAssignmentsCount) {
+            return new BacktrackingDrivenSearch(FIRST_ALIGNMENT_ONLY,
+                    ComparisonPrecision.ALL_RULES_CONSIDERED);
+        }
+    },
+    HUNGARIAN_METHOD_DRIVEN_FIRST_ALIGNMENT_ONLY_PARTIAL_SOLUTIONS_NOT_CONSIDERED {
+        @Override
+        public ComparisonAlgorithm newComparisonAlgorithm(final AssignmentSolvers assignmentSolverType,
+                final int bestAssignmentsCount) {
+            return new HungarianMethodDrivenSearch(FIRST_ALIGNMENT_ONLY,
+                    ComparisonPrecision.ALL_RULES_CONSIDERED,
                     DEFAULT_MAXIMAL_RMSD_BASED_COST_OF_PAIR_OF_ALIGNED_DUPLEXES,
-                    HungarianMethodDrivenSearch.AlgorithmType.FIRST)), HUNGARIAN_METHOD_DRIVEN_LONGEST_ALIGNMENT_PARTIAL_SOLUTIONS_NOT_CONSIDERED(
-            new HungarianMethodDrivenSearch(COMPREHENSIVE_SEARCH, ComparisonPrecision.ALL_RULES_CONSIDERED,
+                    HungarianMethodDrivenSearch.AlgorithmType.FIRST,
+                    assignmentSolverType.newAssignmentSolver(), bestAssignmentsCount);
+        }
+    },
+    HUNGARIAN_METHOD_DRIVEN_LONGEST_ALIGNMENT_PARTIAL_SOLUTIONS_NOT_CONSIDERED {
+        @Override
+        public ComparisonAlgorithm newComparisonAlgorithm(final AssignmentSolvers assignmentSolverType,
+                final int bestAssignmentsCount) {
+            return new HungarianMethodDrivenSearch(COMPREHENSIVE_SEARCH,
+                    ComparisonPrecision.ALL_RULES_CONSIDERED,
                     DEFAULT_MAXIMAL_RMSD_BASED_COST_OF_PAIR_OF_ALIGNED_DUPLEXES,
-                    HungarianMethodDrivenSearch.AlgorithmType.SECOND)), HUNGARIAN_METHOD_DRIVEN_LONGEST_ALIGNMENT_PARTIAL_SOLUTIONS_CONSIDERED(
-            new HungarianMethodDrivenSearch(COMPREHENSIVE_SEARCH, ComparisonPrecision.ALL_RULES_CONSIDERED,
+                    HungarianMethodDrivenSearch.AlgorithmType.SECOND,
+                    assignmentSolverType.newAssignmentSolver(), bestAssignmentsCount);
+        }
+    },
+    HUNGARIAN_METHOD_DRIVEN_LONGEST_ALIGNMENT_PARTIAL_SOLUTIONS_CONSIDERED {
+        @Override
+        public ComparisonAlgorithm newComparisonAlgorithm(final AssignmentSolvers assignmentSolverType,
+                final int bestAssignmentsCount) {
+            return new HungarianMethodDrivenSearch(COMPREHENSIVE_SEARCH,
+                    ComparisonPrecision.ALL_RULES_CONSIDERED,
                     DEFAULT_MAXIMAL_RMSD_BASED_COST_OF_PAIR_OF_ALIGNED_DUPLEXES,
-                    HungarianMethodDrivenSearch.AlgorithmType.THIRD));
+                    HungarianMethodDrivenSearch.AlgorithmType.THIRD,
+                    assignmentSolverType.newAssignmentSolver(), bestAssignmentsCount);
+        }
+    };
 
-    @Getter
-    private final ComparisonAlgorithm comparisonAlgorithm;
-
-    ComparisonAlgorithms(final ComparisonAlgorithm algorithm) {
-        this.comparisonAlgorithm = algorithm;
-    }
+    /**
+     * Algorithms keep the state of the current search, so a new instance should be used by each comparison
+     * instead of sharing a single one between threads. Assignment solver is used by Hungarian method driven
+     * algorithms only, best assignments count is considered by the algorithm taking partial solutions into
+     * account only.
+     */
+    public abstract ComparisonAlgorithm newComparisonAlgorithm(final AssignmentSolvers assignmentSolverType,
+            final int bestAssignmentsCount);
 }
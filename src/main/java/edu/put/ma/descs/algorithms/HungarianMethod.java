@@ -3,4 +3,15 @@ package edu.put.ma.descs.algorithms;
 public interface HungarianMethod {
 
     int[][] execute(double[][] costs);
+
+    /**
+     * Solves costs that extend the previously solved matrix with new trailing rows and columns only, reusing
+     * the previous solution when the solver supports it.
+     */
+    int[][] executeWarmStarted(double[][] costs);
+
+    /**
+     * Returns the number of iterations performed by the last call.
+     */
+    long getIterationsCount();
 }
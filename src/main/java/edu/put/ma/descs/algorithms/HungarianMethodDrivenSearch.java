@@ -1,15 +1,22 @@
 package edu.put.ma.descs.algorithms;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import lombok.Getter;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import edu.put.ma.descs.ComparisonPrecision;
 import edu.put.ma.model.AlignedDuplexesPair;
@@ -19,8 +26,12 @@ import edu.put.ma.model.ExtendedAlignmentImpl;
 
 public class HungarianMethodDrivenSearch extends CommonAlgorithm {
 
+    public static final int DEFAULT_BEST_ASSIGNMENTS_COUNT = 64;
+
     private static final double MAXIMAL_COST = 1000.0;
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(HungarianMethodDrivenSearch.class);
+
     public enum AlgorithmType {
         FIRST, SECOND, THIRD;
     }
@@ -29,6 +40,8 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
 
     private final AlgorithmType type;
 
+    private final int bestAssignmentsCount;
+
     private double maximalRmsdThresholdPerDuplexPair;
 
     private double[][] costs;
@@ -37,13 +50,38 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
 
     private List<List<AlignedDuplexesPair>> assignments;
 
+    private final Set<BitSet> assignmentSignatures;
+
+    private int signatureStride;
+
+    @Getter
+    private long assignmentIterationsCount;
+
     public HungarianMethodDrivenSearch(final boolean firstAlignmentOnly, final ComparisonPrecision precision,
             final double rmsdThreshold, final AlgorithmType type) {
+        this(firstAlignmentOnly, precision, rmsdThreshold, type, new HungarianMethodImpl());
+    }
+
+    public HungarianMethodDrivenSearch(final boolean firstAlignmentOnly, final ComparisonPrecision precision,
+            final double rmsdThreshold, final AlgorithmType type, final HungarianMethod hungarianMethod) {
+        this(firstAlignmentOnly, precision, rmsdThreshold, type, hungarianMethod,
+                DEFAULT_BEST_ASSIGNMENTS_COUNT);
+    }
+
+    /**
+     * Best assignments count limits the number of assignments of each feasible size that are considered as
+     * partial solutions by the third type of algorithm.
+     */
+    public HungarianMethodDrivenSearch(final boolean firstAlignmentOnly, final ComparisonPrecision precision,
+            final double rmsdThreshold, final AlgorithmType type, final HungarianMethod hungarianMethod,
+            final int bestAssignmentsCount) {
         super(firstAlignmentOnly, precision);
+        this.bestAssignmentsCount = bestAssignmentsCount;
         this.maximalRmsdThresholdPerDuplexPair = rmsdThreshold;
         this.type = type;
-        this.hungarianMethod = new HungarianMethodImpl();
+        this.hungarianMethod = hungarianMethod;
         this.assignments = Lists.newArrayList();
+        this.assignmentSignatures = Sets.newHashSet();
     }
 
     @Override
@@ -51,6 +89,8 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
             final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs,
             final AlignmentAcceptanceMode alignmentAcceptanceMode) {
         this.assignments = edu.put.ma.utils.CollectionUtils.prepareList(assignments);
+        this.assignmentSignatures.clear();
+        this.assignmentIterationsCount = 0;
         updateMaximalRmsdThresholdPerDuplexPair();
         extend(descriptorsPair, currentAlignment, allAlignedDuplexesPairs, alignmentAcceptanceMode);
     }
@@ -65,6 +105,7 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
         final int maxOtherElementsCount = Math.max(firstDescriptorOtherElementsCount,
                 secondDescriptorOtherElementsCount);
         final int maxFeasibleOtherElementsCount = (int) Math.floor((0.8 * (maxOtherElementsCount + 1)) - 1);
+        this.signatureStride = secondDescriptorOtherElementsCount;
         final List<AlignedDuplexesPair> currentAlignedDuplexPairs = Lists.newArrayList();
         for (int feasibleOtherElementsCount = minOtherElementsCount; feasibleOtherElementsCount >= maxFeasibleOtherElementsCount; feasibleOtherElementsCount--) {
             final int promisingOtherElementsCountOfFirstDescriptor = CollectionUtils
@@ -74,7 +115,9 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
             this.costs = constructCostMatrix(descriptorsPair, maxOtherElementsCount
                     + (minOtherElementsCount - feasibleOtherElementsCount), minOtherElementsCount,
                     maxOtherElementsCount, allAlignedDuplexesPairs, alignedDuplexPairsAccessMap);
-            this.assignment = solveMaximumSizeAssignmentProblem(hungarianMethod, costs);
+            this.assignment = solveMaximumSizeAssignmentProblem(hungarianMethod, costs,
+                    feasibleOtherElementsCount < minOtherElementsCount);
+            this.assignmentIterationsCount += hungarianMethod.getIterationsCount();
             final List<AlignedDuplexesPair> newAssignment = extendBasedOnAssignment(descriptorsPair,
                     Lists.newArrayList(currentAlignedDuplexPairs), allAlignedDuplexesPairs,
                     feasibleOtherElementsCount, alignedDuplexPairsAccessMap);
@@ -85,54 +128,52 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
                 }
             }
         }
+        LOGGER.debug(String.format("Assignment problems were solved in %d iterations",
+                assignmentIterationsCount));
         if (type == AlgorithmType.THIRD) {
-            introducePartialAssignments(maxFeasibleOtherElementsCount);
+            introduceBestAssignments(descriptorsPair, allAlignedDuplexesPairs, minOtherElementsCount,
+                    maxOtherElementsCount, maxFeasibleOtherElementsCount);
         }
         analyseAlignments(descriptorsPair, currentAlignment, alignmentAcceptanceMode);
     }
 
-    private void introducePartialAssignments(int maxFeasibleOtherElementsCount) {
-        final List<List<AlignedDuplexesPair>> generatedAssignments = Lists.newArrayList(assignments);
-        for (List<AlignedDuplexesPair> assignment : generatedAssignments) {
-            final int assignmentSize = CollectionUtils.size(assignment);
-            for (int feasiblePartialAssignmentSize = assignmentSize - 1; feasiblePartialAssignmentSize >= maxFeasibleOtherElementsCount; feasiblePartialAssignmentSize--) {
-                final double maxTotalRmsdThreshold = feasiblePartialAssignmentSize
-                        * maximalRmsdThresholdPerDuplexPair;
-                final int numberOfRejectedDuplexPairs = assignmentSize - feasiblePartialAssignmentSize;
-                if (numberOfRejectedDuplexPairs > 0) {
-                    identifyPartialAssignments(Lists.newArrayList(assignment), numberOfRejectedDuplexPairs,
-                            maxTotalRmsdThreshold, feasiblePartialAssignmentSize);
+    /**
+     * Enumerates the best assignments of each feasible size that satisfy the RMSD bound. Cost matrices of
+     * decreasing feasible sizes are nested, so the leading blocks of the largest one are used.
+     */
+    private void introduceBestAssignments(final DescriptorsPair descriptorsPair,
+            final Map<Integer, List<AlignedDuplexesPair>> allAlignedDuplexesPairs,
+            final int minOtherElementsCount, final int maxOtherElementsCount,
+            final int maxFeasibleOtherElementsCount) {
+        final int firstDescriptorOtherElementsCount = descriptorsPair.getFirstDescriptorElementsCount() - 1;
+        final int secondDescriptorOtherElementsCount = descriptorsPair.getSecondDescriptorElementsCount() - 1;
+        final Map<Integer, Map<Integer, Integer>> alignedDuplexPairsAccessMap = Maps
+                .newHashMapWithExpectedSize(CollectionUtils.size(allAlignedDuplexesPairs));
+        final double[][] largestCosts = constructCostMatrix(descriptorsPair, maxOtherElementsCount
+                + (minOtherElementsCount - maxFeasibleOtherElementsCount), minOtherElementsCount,
+                maxOtherElementsCount, allAlignedDuplexesPairs, alignedDuplexPairsAccessMap);
+        final KBestAssignmentsEnumerator enumerator = new KBestAssignmentsEnumerator(hungarianMethod,
+                MAXIMAL_COST);
+        for (int feasibleOtherElementsCount = minOtherElementsCount; feasibleOtherElementsCount >= Math.max(maxFeasibleOtherElementsCount, 1); feasibleOtherElementsCount--) {
+            final List<int[][]> bestAssignments = enumerator.enumerate(largestCosts, maxOtherElementsCount
+                    + (minOtherElementsCount - feasibleOtherElementsCount), firstDescriptorOtherElementsCount,
+                    secondDescriptorOtherElementsCount, bestAssignmentsCount, feasibleOtherElementsCount
+                            * maximalRmsdThresholdPerDuplexPair);
+            for (int[][] bestAssignment : bestAssignments) {
+                final List<AlignedDuplexesPair> alignedDuplexesPairs = Lists
+                        .newArrayListWithCapacity(bestAssignment.length);
+                for (int[] pair : bestAssignment) {
+                    final int secondDescriptorElementAccessIndex = alignedDuplexPairsAccessMap.get(pair[0])
+                            .get(pair[1]);
+                    alignedDuplexesPairs.add(allAlignedDuplexesPairs.get(pair[0]).get(
+                            secondDescriptorElementAccessIndex));
                 }
+                final int assignmentSize = CollectionUtils.size(alignedDuplexesPairs);
+                addNewAssignment(findIndexOfAssignmentWithLowerSize(assignmentSize), alignedDuplexesPairs);
             }
         }
     }
 
-    private void identifyPartialAssignments(final List<AlignedDuplexesPair> assignment,
-            final int numberOfRejectedDuplexPairs, final double maxTotalRmsdThreshold,
-            final int feasiblePartialAssignmentSize) {
-        if (numberOfRejectedDuplexPairs == 0) {
-            insertPartialAssignmentEnsuringAssignmentSizesOrder(assignment, feasiblePartialAssignmentSize,
-                    maxTotalRmsdThreshold);
-        } else {
-            for (int alignedPairIndex = 0; alignedPairIndex < CollectionUtils.size(assignment); alignedPairIndex++) {
-                final AlignedDuplexesPair alignedDuplexesPair = assignment.remove(alignedPairIndex);
-                identifyPartialAssignments(assignment, numberOfRejectedDuplexPairs - 1,
-                        maxTotalRmsdThreshold, feasiblePartialAssignmentSize);
-                assignment.add(alignedPairIndex, alignedDuplexesPair);
-            }
-        }
-    }
-
-    private void insertPartialAssignmentEnsuringAssignmentSizesOrder(
-            final List<AlignedDuplexesPair> assignment, final int assignmentSize,
-            final double maxTotalRmsdThreshold) {
-        if ((isNewAssignment(assignment, assignmentSize))
-                && (Double.compare(ExtendedAlignmentImpl.computeTotalRmsd(assignment), maxTotalRmsdThreshold) <= 0)) {
-            final int offset = findIndexOfAssignmentWithLowerSize(assignmentSize);
-            addNewAssignment(offset, Lists.newArrayList(assignment));
-        }
-    }
-
     private int findIndexOfAssignmentWithLowerSize(int newAssignmentSize) {
         int offset = -1;
         int assignmentIndex = 0;
@@ -147,22 +188,6 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
         return offset;
     }
 
-    private boolean isNewAssignment(final List<AlignedDuplexesPair> newAssignment, final int newAssignmentSize) {
-        boolean isNew = true;
-        for (List<AlignedDuplexesPair> assignment : assignments) {
-            final int assignmentSize = CollectionUtils.size(assignment);
-            if ((newAssignmentSize > assignmentSize)
-                    || ((newAssignmentSize == assignmentSize) && (CollectionUtils.isEqualCollection(
-                            assignment, newAssignment)))) {
-                if (newAssignmentSize == assignmentSize) {
-                    isNew = false;
-                }
-                break;
-            }
-        }
-        return isNew;
-    }
-
     private void analyseAlignments(final DescriptorsPair descriptorsPair,
             final ExtendedAlignment currentAlignment, final AlignmentAcceptanceMode alignmentAcceptanceMode) {
         final List<List<AlignedDuplexesPair>> currentAssignments = Lists.newArrayList(assignments);
@@ -231,7 +256,7 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
     }
 
     private void addNewAssignment(final int offset, final List<AlignedDuplexesPair> newAssignment) {
-        if (shouldBeConsideredAsPotentialSolution(newAssignment)) {
+        if (assignmentSignatures.add(computeSignature(newAssignment))) {
             final int assignmentsCount = CollectionUtils.size(assignments);
             if ((offset >= 0) && (offset < assignmentsCount)) {
                 assignments.add(offset, newAssignment);
@@ -241,20 +266,13 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
         }
     }
 
-    private boolean shouldBeConsideredAsPotentialSolution(final List<AlignedDuplexesPair> newAssignment) {
-        boolean result = true;
-        for (List<AlignedDuplexesPair> assignment : assignments) {
-            final List<AlignedDuplexesPair> difference = edu.put.ma.utils.CollectionUtils
-                    .identifyNewElements(assignment, newAssignment);
-            final List<AlignedDuplexesPair> secondDifference = edu.put.ma.utils.CollectionUtils
-                    .identifyNewElements(newAssignment, assignment);
-            if ((org.apache.commons.collections4.CollectionUtils.sizeIsEmpty(difference))
-                    && (org.apache.commons.collections4.CollectionUtils.sizeIsEmpty(secondDifference))) {
-                result = false;
-                break;
-            }
+    private BitSet computeSignature(final List<AlignedDuplexesPair> assignment) {
+        final BitSet signature = new BitSet();
+        for (AlignedDuplexesPair alignedDuplexesPair : assignment) {
+            signature.set(alignedDuplexesPair.getFirstDescriptorOtherElementIndex() * signatureStride
+                    + alignedDuplexesPair.getSecondDescriptorOtherElementIndex());
         }
-        return result;
+        return signature;
     }
 
     private void updateMaximalRmsdThresholdPerDuplexPair() {
@@ -265,9 +283,14 @@ public class HungarianMethodDrivenSearch extends CommonAlgorithm {
         }
     }
 
+    /**
+     * Cost matrices of successive feasible sizes differ only by the trailing padded row and column, so all
+     * but the first one are solved with a warm start.
+     */
     private static final int[][] solveMaximumSizeAssignmentProblem(final HungarianMethod hungarianMethod,
-            final double[][] costs) {
-        final int[][] assignment = hungarianMethod.execute(costs);
+            final double[][] costs, final boolean warmStart) {
+        final int[][] assignment = warmStart ? hungarianMethod.executeWarmStarted(costs) : hungarianMethod
+                .execute(costs);
         final int assignmentSize = ArrayUtils.getLength(assignment);
         ensureNonDecreasingOrderOfAssignment(assignmentSize, assignment, costs);
         return assignment;
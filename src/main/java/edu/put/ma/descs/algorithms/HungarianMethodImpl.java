@@ -3,6 +3,8 @@ package edu.put.ma.descs.algorithms;
 import java.util.Arrays;
 import java.util.List;
 
+import lombok.Getter;
+
 import org.apache.commons.collections4.CollectionUtils;
 
 import com.google.common.collect.Lists;
@@ -31,14 +33,19 @@ public class HungarianMethodImpl implements HungarianMethod {
 
     private double[][] costs;
 
+    @Getter
+    private long iterationsCount;
+
     @Override
     public int[][] execute(final double[][] costs) {
+        iterationsCount = 0;
         init(costs);
         subtractRowColMins();
         findStars();
         resetCovered();
         coverStarredZeroCols();
         while (org.apache.commons.lang3.ArrayUtils.contains(colsCovered, false)) {
+            iterationsCount++;
             int[] primedLocation = primeUncoveredZero();
             if (primedLocation[0] == -1) {
                 minUncoveredRowsCols();
@@ -59,6 +66,14 @@ public class HungarianMethodImpl implements HungarianMethod {
         return starsToAssignments(elementsNo, stars);
     }
 
+    /**
+     * Munkres method does not keep dual variables explicitly, so the matrix is always solved from scratch.
+     */
+    @Override
+    public int[][] executeWarmStarted(final double[][] costs) {
+        return execute(costs);
+    }
+
     private void init(final double[][] costs) {
         PreconditionUtils.checkEqualityOfMatrixBothDimensions(costs, "costs");
         elementsNo = org.apache.commons.lang3.ArrayUtils.getLength(costs);
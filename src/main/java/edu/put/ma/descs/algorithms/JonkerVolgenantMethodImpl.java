@@ -0,0 +1,206 @@
+package edu.put.ma.descs.algorithms;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Solves the minimum cost assignment problem with shortest augmenting paths and dual potentials, as in the
+ * augmentation phase of the Jonker-Volgenant algorithm. Rectangular cost matrices are handled directly, each
+ * row (or each column, when there are fewer columns than rows) is assigned. Work buffers are reused between
+ * calls, so an instance should not be shared between threads. Dual potentials and the matching of the last
+ * solved matrix are kept, so a square matrix bordered with new rows and columns can be solved by augmenting
+ * the new rows only.
+ *
+ * @see <a href="https://doi.org/10.1007/BF02278710">R. Jonker, A. Volgenant, A shortest augmenting path
+ * algorithm for dense and sparse linear assignment problems</a>
+ */
+public class JonkerVolgenantMethodImpl implements HungarianMethod {
+
+    private static final int UNASSIGNED = 0;
+
+    private double[] rowPotentials;
+
+    private double[] colPotentials;
+
+    private double[] minimalReducedCosts;
+
+    private int[] colAssignments;
+
+    private int[] previousCols;
+
+    private boolean[] visitedCols;
+
+    private boolean solvedTransposed;
+
+    private int solvedAssignedCount;
+
+    private int solvedCandidatesCount;
+
+    @Getter
+    private long iterationsCount;
+
+    public JonkerVolgenantMethodImpl() {
+        rowPotentials = new double[1];
+        colPotentials = new double[1];
+        minimalReducedCosts = new double[1];
+        colAssignments = new int[1];
+        previousCols = new int[1];
+        visitedCols = new boolean[1];
+        solvedAssignedCount = -1;
+    }
+
+    @Override
+    public int[][] execute(final double[][] costs) {
+        Preconditions.checkNotNull(costs, "Costs should be initialized properly");
+        final int rowsCount = costs.length;
+        final int colsCount = (rowsCount == 0) ? 0 : costs[0].length;
+        final boolean transposed = rowsCount > colsCount;
+        final int assignedCount = transposed ? colsCount : rowsCount;
+        final int candidatesCount = transposed ? rowsCount : colsCount;
+        iterationsCount = 0;
+        ensureCapacity(assignedCount, candidatesCount);
+        Arrays.fill(rowPotentials, 0, assignedCount + 1, 0.0);
+        Arrays.fill(colPotentials, 0, candidatesCount + 1, 0.0);
+        Arrays.fill(colAssignments, 0, candidatesCount + 1, UNASSIGNED);
+        for (int rowIndex = 1; rowIndex <= assignedCount; rowIndex++) {
+            augment(costs, transposed, rowIndex, candidatesCount);
+        }
+        return complete(transposed, assignedCount, candidatesCount);
+    }
+
+    /**
+     * Columns of a rectangular matrix that stay unassigned require a common dual potential, which the
+     * potentials of new columns do not keep, so only square matrices are warm started and other ones are
+     * solved from scratch.
+     */
+    @Override
+    public int[][] executeWarmStarted(final double[][] costs) {
+        Preconditions.checkNotNull(costs, "Costs should be initialized properly");
+        final int rowsCount = costs.length;
+        final int colsCount = (rowsCount == 0) ? 0 : costs[0].length;
+        final boolean transposed = rowsCount > colsCount;
+        final int assignedCount = transposed ? colsCount : rowsCount;
+        final int candidatesCount = transposed ? rowsCount : colsCount;
+        if ((solvedAssignedCount < 0) || (assignedCount != candidatesCount)
+                || (transposed != solvedTransposed) || (assignedCount < solvedAssignedCount)
+                || (candidatesCount < solvedCandidatesCount)) {
+            return execute(costs);
+        }
+        iterationsCount = 0;
+        ensureCapacity(assignedCount, candidatesCount);
+        for (int colIndex = solvedCandidatesCount + 1; colIndex <= candidatesCount; colIndex++) {
+            colAssignments[colIndex] = UNASSIGNED;
+            colPotentials[colIndex] = computeFeasibleColPotential(costs, transposed, colIndex);
+        }
+        for (int rowIndex = solvedAssignedCount + 1; rowIndex <= assignedCount; rowIndex++) {
+            rowPotentials[rowIndex] = 0.0;
+            augment(costs, transposed, rowIndex, candidatesCount);
+        }
+        return complete(transposed, assignedCount, candidatesCount);
+    }
+
+    private int[][] complete(final boolean transposed, final int assignedCount, final int candidatesCount) {
+        solvedTransposed = transposed;
+        solvedAssignedCount = assignedCount;
+        solvedCandidatesCount = candidatesCount;
+        return toAssignments(transposed, assignedCount, candidatesCount);
+    }
+
+    private double computeFeasibleColPotential(final double[][] costs, final boolean transposed,
+            final int colIndex) {
+        double colPotential = (solvedAssignedCount == 0) ? 0.0 : Double.POSITIVE_INFINITY;
+        for (int rowIndex = 1; rowIndex <= solvedAssignedCount; rowIndex++) {
+            colPotential = Math.min(colPotential, getCost(costs, transposed, rowIndex - 1, colIndex - 1)
+                    - rowPotentials[rowIndex]);
+        }
+        return colPotential;
+    }
+
+    private void augment(final double[][] costs, final boolean transposed, final int rowIndex,
+            final int candidatesCount) {
+        colAssignments[0] = rowIndex;
+        int currentCol = 0;
+        Arrays.fill(minimalReducedCosts, 0, candidatesCount + 1, Double.POSITIVE_INFINITY);
+        Arrays.fill(visitedCols, 0, candidatesCount + 1, false);
+        do {
+            iterationsCount++;
+            visitedCols[currentCol] = true;
+            final int currentRow = colAssignments[currentCol];
+            double delta = Double.POSITIVE_INFINITY;
+            int nextCol = UNASSIGNED;
+            for (int colIndex = 1; colIndex <= candidatesCount; colIndex++) {
+                if (!visitedCols[colIndex]) {
+                    final double reducedCost = getCost(costs, transposed, currentRow - 1, colIndex - 1)
+                            - rowPotentials[currentRow] - colPotentials[colIndex];
+                    if (reducedCost < minimalReducedCosts[colIndex]) {
+                        minimalReducedCosts[colIndex] = reducedCost;
+                        previousCols[colIndex] = currentCol;
+                    }
+                    if (minimalReducedCosts[colIndex] < delta) {
+                        delta = minimalReducedCosts[colIndex];
+                        nextCol = colIndex;
+                    }
+                }
+            }
+            for (int colIndex = 0; colIndex <= candidatesCount; colIndex++) {
+                if (visitedCols[colIndex]) {
+                    rowPotentials[colAssignments[colIndex]] += delta;
+                    colPotentials[colIndex] -= delta;
+                } else {
+                    minimalReducedCosts[colIndex] -= delta;
+                }
+            }
+            currentCol = nextCol;
+        } while (colAssignments[currentCol] != UNASSIGNED);
+        do {
+            final int previousCol = previousCols[currentCol];
+            colAssignments[currentCol] = colAssignments[previousCol];
+            currentCol = previousCol;
+        } while (currentCol != 0);
+    }
+
+    private int[][] toAssignments(final boolean transposed, final int assignedCount,
+            final int candidatesCount) {
+        final int[][] result = new int[assignedCount][];
+        int assignmentIndex = 0;
+        if (transposed) {
+            final int[] rowsOfCols = new int[assignedCount];
+            for (int colIndex = 1; colIndex <= candidatesCount; colIndex++) {
+                if (colAssignments[colIndex] != UNASSIGNED) {
+                    rowsOfCols[colAssignments[colIndex] - 1] = colIndex - 1;
+                }
+            }
+            for (int colIndex = 0; colIndex < assignedCount; colIndex++) {
+                result[assignmentIndex++] = new int[] { rowsOfCols[colIndex], colIndex };
+            }
+        } else {
+            for (int colIndex = 1; colIndex <= candidatesCount; colIndex++) {
+                if (colAssignments[colIndex] != UNASSIGNED) {
+                    result[assignmentIndex++] = new int[] { colAssignments[colIndex] - 1, colIndex - 1 };
+                }
+            }
+        }
+        return result;
+    }
+
+    private void ensureCapacity(final int assignedCount, final int candidatesCount) {
+        if (rowPotentials.length <= assignedCount) {
+            rowPotentials = Arrays.copyOf(rowPotentials, assignedCount + 1);
+        }
+        if (colPotentials.length <= candidatesCount) {
+            colPotentials = Arrays.copyOf(colPotentials, candidatesCount + 1);
+            colAssignments = Arrays.copyOf(colAssignments, candidatesCount + 1);
+            minimalReducedCosts = new double[candidatesCount + 1];
+            previousCols = new int[candidatesCount + 1];
+            visitedCols = new boolean[candidatesCount + 1];
+        }
+    }
+
+    private static final double getCost(final double[][] costs, final boolean transposed, final int rowIndex,
+            final int colIndex) {
+        return transposed ? costs[colIndex][rowIndex] : costs[rowIndex][colIndex];
+    }
+}
@@ -0,0 +1,145 @@
+package edu.put.ma.descs.algorithms;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Enumerates assignments of a padded cost matrix in non-decreasing order of their total cost with the Murty
+ * partitioning scheme. Only pairs of real rows and columns are fixed or forbidden during partitioning, so
+ * each set of real pairs is reported once regardless of how the padding is matched. Assignments using any
+ * cost not lower than the forbidden one are considered infeasible.
+ *
+ * @see <a href="https://doi.org/10.1287/opre.16.3.682">K. G. Murty, An algorithm for ranking all the
+ * assignments in order of increasing cost</a>
+ */
+final class KBestAssignmentsEnumerator {
+
+    private static final int NOT_FIXED = -1;
+
+    private final HungarianMethod hungarianMethod;
+
+    private final double forbiddenCost;
+
+    private long solutionsCount;
+
+    KBestAssignmentsEnumerator(final HungarianMethod hungarianMethod, final double forbiddenCost) {
+        this.hungarianMethod = hungarianMethod;
+        this.forbiddenCost = forbiddenCost;
+    }
+
+    /**
+     * Returns real pairs of at most assignmentsCount best assignments of the leading size x size block of
+     * costs, skipping assignments with a total cost greater than maxTotalCost.
+     */
+    List<int[][]> enumerate(final double[][] costs, final int size, final int realRowsCount,
+            final int realColsCount, final int assignmentsCount, final double maxTotalCost) {
+        final List<int[][]> bestAssignments = Lists.newArrayList();
+        final PriorityQueue<Solution> solutions = new PriorityQueue<Solution>();
+        final double[][] leadingCosts = new double[size][];
+        for (int rowIndex = 0; rowIndex < size; rowIndex++) {
+            leadingCosts[rowIndex] = Arrays.copyOf(costs[rowIndex], size);
+        }
+        final int[] fixedCols = new int[size];
+        Arrays.fill(fixedCols, NOT_FIXED);
+        offer(solutions, leadingCosts, fixedCols, realRowsCount, realColsCount, maxTotalCost);
+        while ((!solutions.isEmpty()) && (bestAssignments.size() < assignmentsCount)) {
+            final Solution solution = solutions.poll();
+            bestAssignments.add(solution.realPairs);
+            if (bestAssignments.size() < assignmentsCount) {
+                partition(solutions, solution, realRowsCount, realColsCount, maxTotalCost);
+            }
+        }
+        return bestAssignments;
+    }
+
+    private void partition(final PriorityQueue<Solution> solutions, final Solution solution,
+            final int realRowsCount, final int realColsCount, final double maxTotalCost) {
+        final double[][] costs = copy(solution.costs);
+        final int[] fixedCols = Arrays.copyOf(solution.fixedCols, solution.fixedCols.length);
+        for (int[] pair : solution.realPairs) {
+            final int rowIndex = pair[0];
+            final int colIndex = pair[1];
+            if (fixedCols[rowIndex] == colIndex) {
+                continue;
+            }
+            final double[][] subproblemCosts = copy(costs);
+            subproblemCosts[rowIndex][colIndex] = forbiddenCost;
+            offer(solutions, subproblemCosts, Arrays.copyOf(fixedCols, fixedCols.length), realRowsCount,
+                    realColsCount, maxTotalCost);
+            fix(costs, rowIndex, colIndex);
+            fixedCols[rowIndex] = colIndex;
+        }
+    }
+
+    private void offer(final PriorityQueue<Solution> solutions, final double[][] costs, final int[] fixedCols,
+            final int realRowsCount, final int realColsCount, final double maxTotalCost) {
+        final int[][] assignment = hungarianMethod.execute(costs);
+        double totalCost = 0.0;
+        final List<int[]> realPairs = Lists.newArrayList();
+        for (int[] assignmentElement : assignment) {
+            final double cost = costs[assignmentElement[0]][assignmentElement[1]];
+            if (Double.compare(cost, forbiddenCost) >= 0) {
+                return;
+            }
+            totalCost += cost;
+            if ((assignmentElement[0] < realRowsCount) && (assignmentElement[1] < realColsCount)) {
+                realPairs.add(new int[] { assignmentElement[0], assignmentElement[1] });
+            }
+        }
+        if (Double.compare(totalCost, maxTotalCost) <= 0) {
+            solutions.add(new Solution(costs, fixedCols, realPairs.toArray(new int[realPairs.size()][]),
+                    totalCost, solutionsCount++));
+        }
+    }
+
+    private void fix(final double[][] costs, final int rowIndex, final int colIndex) {
+        for (int index = 0; index < costs.length; index++) {
+            if (index != colIndex) {
+                costs[rowIndex][index] = forbiddenCost;
+            }
+            if (index != rowIndex) {
+                costs[index][colIndex] = forbiddenCost;
+            }
+        }
+    }
+
+    private static final double[][] copy(final double[][] costs) {
+        final double[][] result = new double[costs.length][];
+        for (int rowIndex = 0; rowIndex < costs.length; rowIndex++) {
+            result[rowIndex] = Arrays.copyOf(costs[rowIndex], costs[rowIndex].length);
+        }
+        return result;
+    }
+
+    private static final class Solution implements Comparable<Solution> {
+
+        private final double[][] costs;
+
+        private final int[] fixedCols;
+
+        private final int[][] realPairs;
+
+        private final double totalCost;
+
+        private final long order;
+
+        private Solution(final double[][] costs, final int[] fixedCols, final int[][] realPairs,
+                final double totalCost, final long order) {
+            this.costs = costs;
+            this.fixedCols = fixedCols;
+            this.realPairs = realPairs;
+            this.totalCost = totalCost;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(final Solution solution) {
+            final int result = Double.compare(totalCost, solution.totalCost);
+            return (result != 0) ? result : ((order < solution.order) ? -1 : ((order == solution.order) ? 0
+                    : 1));
+        }
+    }
+}
@@ -27,12 +27,12 @@ public class ProcessingTimeLogger {
         return logProcessingTime(joinPoint, "Alignment finding");
     }
 
-    @Pointcut("execution(* build(..))")
+    @Pointcut("execution(* build(..)) || execution(* buildAndSaveDescriptors(..))")
     public void atDescriptorsBuildingExecution() {
         // build execution definition
     }
 
-    @Around("@annotation(ProcessingTimeLog) && execution(* build(..))")
+    @Around("@annotation(ProcessingTimeLog) && (execution(* build(..)) || execution(* buildAndSaveDescriptors(..)))")
     public Object aroundDescriptorsBuildingAdvice(ProceedingJoinPoint joinPoint) throws Throwable {
         return logProcessingTime(joinPoint, "Descriptors building");
     }
@@ -0,0 +1,23 @@
+package edu.put.ma.descs.contacts;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Group;
+
+public interface AtomsTable {
+
+    int getResiduesCount();
+
+    int getAtomSlotsCount();
+
+    int getResidueIndex(Group residue);
+
+    boolean isAtomAvailable(int residueIndex, int atomSlot);
+
+    boolean areAtomsAvailable(int residueIndex, int[] atomSlots);
+
+    Atom getAtom(int residueIndex, int atomSlot);
+
+    Atom getAtom(Group residue, int atomSlot);
+
+    double getDistance(int residueIndex, int atomSlot, int otherResidueIndex, int otherAtomSlot);
+}
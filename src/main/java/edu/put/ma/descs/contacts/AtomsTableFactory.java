@@ -0,0 +1,25 @@
+package edu.put.ma.descs.contacts;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.biojava.nbio.structure.Group;
+
+import edu.put.ma.model.MoleculeType;
+
+public final class AtomsTableFactory {
+
+    private AtomsTableFactory() {
+        // hidden constructor
+    }
+
+    public static final AtomsTable construct(final List<String> atomNames, final List<Group> residues,
+            final MoleculeType moleculeType) {
+        return new AtomsTableImpl(atomNames, residues, moleculeType, null, 1);
+    }
+
+    public static final AtomsTable construct(final List<String> atomNames, final List<Group> residues,
+            final MoleculeType moleculeType, final ExecutorService executor, final int threadsCount) {
+        return new AtomsTableImpl(atomNames, residues, moleculeType, executor, threadsCount);
+    }
+}
@@ -0,0 +1,226 @@
+package edu.put.ma.descs.contacts;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import lombok.Getter;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Group;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+
+import edu.put.ma.descs.contacts.atoms.VirtualAtoms;
+import edu.put.ma.model.MoleculeType;
+import edu.put.ma.model.Residue;
+import edu.put.ma.model.ResiduesDictionary;
+import edu.put.ma.utils.ExecutorUtils;
+import edu.put.ma.utils.ResidueUtils;
+
+/**
+ * Coordinates of real and virtual atoms resolved once for every residue and atom slot. Coordinates are
+ * kept in structure-of-arrays layout indexed by {@code residueIndex * atomSlotsCount + atomSlot}, missing
+ * atoms are marked with {@link #MISSING_COORDINATE}. Residues given as {@code null} are treated as having
+ * no atoms at all. Atoms of residues outside the table are resolved on first request and kept for as long as
+ * the residue is reachable, so every residue and atom slot always maps to the same Atom instance.
+ */
+public class AtomsTableImpl implements AtomsTable {
+
+    public static final double MISSING_COORDINATE = Double.NaN;
+
+    private static final int MINIMAL_RESIDUES_COUNT_PER_TASK = 64;
+
+    @Getter
+    private final int residuesCount;
+
+    @Getter
+    private final int atomSlotsCount;
+
+    private final MoleculeType moleculeType;
+
+    private final String[] atomNames;
+
+    private final VirtualAtoms[] virtualAtoms;
+
+    private final Map<Group, Integer> residuesIndexes;
+
+    private final Atom[] atoms;
+
+    private final Map<Group, Atom[]> otherResiduesAtoms;
+
+    private final double[] x;
+
+    private final double[] y;
+
+    private final double[] z;
+
+    AtomsTableImpl(final List<String> atomNames, final List<Group> residues, final MoleculeType moleculeType,
+            final ExecutorService executor, final int threadsCount) {
+        this.residuesCount = CollectionUtils.size(residues);
+        this.atomSlotsCount = CollectionUtils.size(atomNames);
+        this.moleculeType = moleculeType;
+        this.atomNames = atomNames.toArray(new String[atomSlotsCount]);
+        this.virtualAtoms = getVirtualAtoms(this.atomNames, moleculeType);
+        this.residuesIndexes = Maps.newIdentityHashMap();
+        final int cellsCount = residuesCount * atomSlotsCount;
+        this.atoms = new Atom[cellsCount];
+        this.otherResiduesAtoms = new MapMaker().weakKeys().makeMap();
+        this.x = new double[cellsCount];
+        this.y = new double[cellsCount];
+        this.z = new double[cellsCount];
+        Arrays.fill(x, MISSING_COORDINATE);
+        Arrays.fill(y, MISSING_COORDINATE);
+        Arrays.fill(z, MISSING_COORDINATE);
+        final Group[] residuesArray = residues.toArray(new Group[residuesCount]);
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            if (residuesArray[residueIndex] != null) {
+                residuesIndexes.put(residuesArray[residueIndex], residueIndex);
+            }
+        }
+        if ((executor != null) && (threadsCount > 1)
+                && (residuesCount >= MINIMAL_RESIDUES_COUNT_PER_TASK << 1)) {
+            resolveConcurrently(residuesArray, executor, threadsCount);
+        } else {
+            resolve(residuesArray, 0, residuesCount);
+        }
+    }
+
+    @Override
+    public int getResidueIndex(final Group residue) {
+        final Integer residueIndex = residuesIndexes.get(residue);
+        return (residueIndex == null) ? -1 : residueIndex.intValue();
+    }
+
+    @Override
+    public boolean isAtomAvailable(final int residueIndex, final int atomSlot) {
+        return atoms[residueIndex * atomSlotsCount + atomSlot] != null;
+    }
+
+    @Override
+    public boolean areAtomsAvailable(final int residueIndex, final int[] atomSlots) {
+        final int offset = residueIndex * atomSlotsCount;
+        for (int atomSlot : atomSlots) {
+            if (atoms[offset + atomSlot] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Atom getAtom(final int residueIndex, final int atomSlot) {
+        return atoms[residueIndex * atomSlotsCount + atomSlot];
+    }
+
+    @Override
+    public Atom getAtom(final Group residue, final int atomSlot) {
+        final int residueIndex = getResidueIndex(residue);
+        if (residueIndex < 0) {
+            return getOtherResidueAtoms(residue)[atomSlot];
+        }
+        return getAtom(residueIndex, atomSlot);
+    }
+
+    @Override
+    public double getDistance(final int residueIndex, final int atomSlot, final int otherResidueIndex,
+            final int otherAtomSlot) {
+        final int cellIndex = residueIndex * atomSlotsCount + atomSlot;
+        final int otherCellIndex = otherResidueIndex * atomSlotsCount + otherAtomSlot;
+        return ResidueUtils.getDistance(x[cellIndex], y[cellIndex], z[cellIndex], x[otherCellIndex],
+                y[otherCellIndex], z[otherCellIndex]);
+    }
+
+    private Atom[] getOtherResidueAtoms(final Group residue) {
+        Atom[] result = otherResiduesAtoms.get(residue);
+        if (result == null) {
+            final Residue residueEntry = ResiduesDictionary.getResidueEntry(residue.getPDBName(), moleculeType);
+            final Atom[] residueAtoms = new Atom[atomSlotsCount];
+            for (int atomSlot = 0; atomSlot < atomSlotsCount; atomSlot++) {
+                residueAtoms[atomSlot] = resolveAtom(residue, residueEntry, atomSlot);
+            }
+            result = otherResiduesAtoms.putIfAbsent(residue, residueAtoms);
+            if (result == null) {
+                result = residueAtoms;
+            }
+        }
+        return result;
+    }
+
+    private void resolveConcurrently(final Group[] residuesArray, final ExecutorService executor,
+            final int threadsCount) {
+        final int residuesCountPerTask = Math.max(MINIMAL_RESIDUES_COUNT_PER_TASK, (residuesCount
+                + threadsCount - 1)
+                / threadsCount);
+        final List<Future<Void>> results = Lists.newArrayList();
+        for (int firstResidueIndex = 0; firstResidueIndex < residuesCount; firstResidueIndex += residuesCountPerTask) {
+            final int from = firstResidueIndex;
+            final int to = Math.min(residuesCount, firstResidueIndex + residuesCountPerTask);
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    resolve(residuesArray, from, to);
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            ExecutorUtils.cancelFutures(results);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Resolution of considered atoms was interrupted", e);
+        } catch (ExecutionException e) {
+            ExecutorUtils.cancelFutures(results);
+            throw new IllegalStateException("Resolution of considered atoms failed", e.getCause());
+        }
+    }
+
+    private void resolve(final Group[] residuesArray, final int from, final int to) {
+        for (int residueIndex = from; residueIndex < to; residueIndex++) {
+            final Group residue = residuesArray[residueIndex];
+            if (residue != null) {
+                final Residue residueEntry = ResiduesDictionary.getResidueEntry(residue.getPDBName(),
+                        moleculeType);
+                final int offset = residueIndex * atomSlotsCount;
+                for (int atomSlot = 0; atomSlot < atomSlotsCount; atomSlot++) {
+                    final Atom atom = resolveAtom(residue, residueEntry, atomSlot);
+                    if (atom != null) {
+                        atoms[offset + atomSlot] = atom;
+                        x[offset + atomSlot] = atom.getX();
+                        y[offset + atomSlot] = atom.getY();
+                        z[offset + atomSlot] = atom.getZ();
+                    }
+                }
+            }
+        }
+    }
+
+    private Atom resolveAtom(final Group residue, final Residue residueEntry, final int atomSlot) {
+        if (virtualAtoms[atomSlot] != null) {
+            return virtualAtoms[atomSlot].getAtom(residue, residueEntry);
+        }
+        return residue.getAtom(atomNames[atomSlot]);
+    }
+
+    private static final VirtualAtoms[] getVirtualAtoms(final String[] atomNames, final MoleculeType moleculeType) {
+        final Pattern virtualAtomNamesPattern = ExpressionValidatorImpl.getVirtualAtomNamesPattern(moleculeType);
+        final VirtualAtoms[] result = new VirtualAtoms[atomNames.length];
+        for (int atomSlot = 0; atomSlot < atomNames.length; atomSlot++) {
+            if (virtualAtomNamesPattern.matcher(atomNames[atomSlot]).matches()) {
+                result[atomSlot] = VirtualAtoms.valueOf(atomNames[atomSlot]);
+            }
+        }
+        return result;
+    }
+}
@@ -4,7 +4,6 @@ import java.util.List;
 
 import org.biojava.nbio.structure.Chain;
 
-import com.google.common.collect.ImmutableList;
 import edu.put.ma.model.ModelProperties;
 import edu.put.ma.model.MoleculeType;
 
@@ -12,14 +11,35 @@ public interface ContactsInspector {
 
     boolean isValid();
 
+    int getExpressionsCount();
+
     void constructInContactResiduesMatrix(List<Chain> model, ModelProperties modelProperties);
 
+    InContactResiduesMap identifyInContactResidues(List<Chain> model, ModelProperties modelProperties);
+
+    InContactResiduesMap identifyInContactResidues(List<Chain> model, List<ModelProperties> modelsProperties);
+
+    List<InContactResiduesMap> identifyInContactResiduesForEachExpression(List<Chain> model,
+            List<ModelProperties> modelsProperties);
+
     String getInContactResiduesMatrixString();
 
-    ImmutableList<Boolean> getContactsOfResidueByIndex(int residueIndex);
+    int[] getInContactResidueIndexesByIndex(int residueIndex);
+
+    InContactResiduesMap getInContactResiduesMap();
+
+    long getComputedDistancesCount();
+
+    long getSkippedDistancesCount();
+
+    void setLazyEvaluation(boolean lazyEvaluation);
+
+    void setInContactResiduesMapCache(InContactResiduesMapCache inContactResiduesMapCache);
 
     String getAtomNamePairsString();
 
+    String getAtomNamePairsString(int expressionIndex);
+
     int getThreadsCount();
 
     void setThreadsCount(int threadsCount);
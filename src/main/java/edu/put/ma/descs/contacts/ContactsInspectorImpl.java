@@ -1,8 +1,10 @@
 package edu.put.ma.descs.contacts;
 
 import static edu.put.ma.gaps.GapsDistributionImpl.RESIDUE_OUTSIDE_GAP;
-import static edu.put.ma.utils.StringUtils.NEW_LINE;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -10,122 +12,204 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.lang3.ArrayUtils;
+import lombok.Setter;
+
+import org.apache.commons.collections4.CollectionUtils;
 import org.biojava.nbio.structure.Atom;
-import org.biojava.nbio.structure.Calc;
 import org.biojava.nbio.structure.Chain;
 import org.biojava.nbio.structure.Group;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.ImmutableList;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.primitives.Booleans;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import edu.put.ma.access.ResiduesAccess;
-import edu.put.ma.descs.DescriptorResidueType;
 import edu.put.ma.descs.DescriptorsBuilderImpl;
+import edu.put.ma.descs.contacts.expression.VariableValues;
 import edu.put.ma.gaps.GapsDistribution;
 import edu.put.ma.model.AtomNamesPair;
 import edu.put.ma.model.ModelProperties;
 import edu.put.ma.model.MoleculeType;
-import edu.put.ma.model.Residue;
 import edu.put.ma.utils.ExecutorUtils;
 import edu.put.ma.utils.PreconditionUtils;
-import edu.put.ma.model.ResiduesDictionary;
 
 public class ContactsInspectorImpl implements ContactsInspector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ContactsInspectorImpl.class);
 
-    private final ExpressionValidator expressionValidator;
+    private static final double DISTANCE_CUTOFF_TOLERANCE = 1e-6;
+
+    private static final int CHUNKS_PER_THREAD = 16;
+
+    private static final int INITIAL_CONTACTS_CAPACITY = 64;
 
-    private final ExpressionEvaluator expressionEvaluator;
+    private final AtomicLong computedDistancesCount;
 
-    private final AtomsStorage atomsStorage;
+    private final AtomicLong skippedDistancesCount;
 
     private MoleculeType moleculeType;
 
-    private boolean[][] inContactResiduesMatrix;
+    private List<InspectedExpression> expressions;
+
+    private volatile InContactResiduesMap inContactResiduesMap;
 
     private ExecutorService executor;
 
+    private String[] consideredAtomNames;
+
+    private int[] firstAtomSlots;
+
+    private int[] secondAtomSlots;
+
+    @Setter
+    private boolean lazyEvaluation;
+
+    @Setter
+    private InContactResiduesMapCache inContactResiduesMapCache;
+
     public ContactsInspectorImpl(final String inContactResiduesExpressionString,
             final MoleculeType moleculeType, final int threadsCount) {
+        this(Collections.singletonList(inContactResiduesExpressionString), moleculeType, threadsCount);
+    }
+
+    public ContactsInspectorImpl(final List<String> inContactResiduesExpressionStrings,
+            final MoleculeType moleculeType, final int threadsCount) {
         this.moleculeType = moleculeType;
-        this.atomsStorage = AtomsStorageFactory.construct();
-        this.expressionValidator = new ExpressionValidatorImpl(inContactResiduesExpressionString,
-                moleculeType);
-        this.expressionEvaluator = new ExpressionEvaluatorImpl(
-                expressionValidator.getInContactResiduesExpressionString(),
-                expressionValidator.getVariableNames(), threadsCount);
+        this.expressions = constructExpressions(inContactResiduesExpressionStrings, moleculeType, threadsCount);
+        this.computedDistancesCount = new AtomicLong(0);
+        this.skippedDistancesCount = new AtomicLong(0);
+        this.lazyEvaluation = true;
+        prepareVariables();
         prepareExecutorService(threadsCount);
     }
 
     @Override
     public boolean isValid() {
-        return expressionValidator.isValid();
+        for (InspectedExpression expression : expressions) {
+            if (!expression.validator.isValid()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getExpressionsCount() {
+        return expressions.size();
     }
 
     @Override
     public void constructInContactResiduesMatrix(final List<Chain> model,
             final ModelProperties modelProperties) {
-        final ResiduesAccess residuesAccess = modelProperties.getResiduesAccess();
-        final GapsDistribution gapsDistribution = modelProperties.getGapsDistribution();
+        inContactResiduesMap = identifyInContactResidues(model, modelProperties);
+    }
+
+    @Override
+    public InContactResiduesMap identifyInContactResidues(final List<Chain> model,
+            final ModelProperties modelProperties) {
+        return identifyInContactResidues(model, Collections.singletonList(modelProperties));
+    }
+
+    @Override
+    public InContactResiduesMap identifyInContactResidues(final List<Chain> model,
+            final List<ModelProperties> modelsProperties) {
+        return identifyInContactResiduesForEachExpression(model, modelsProperties).get(0);
+    }
+
+    @Override
+    public List<InContactResiduesMap> identifyInContactResiduesForEachExpression(final List<Chain> model,
+            final List<ModelProperties> modelsProperties) {
+        final ResiduesAccess residuesAccess = modelsProperties.get(0).getResiduesAccess();
         final int residuesCount = residuesAccess.getResiduesAccessIndexesSize();
-        prepare(residuesCount);
-        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
-            final int residueGapFlag = gapsDistribution.getResidueGapFlag(residueIndex);
-            final Group residue = residuesAccess.getResidueByIndex(residueIndex, model);
-            if ((residueGapFlag == RESIDUE_OUTSIDE_GAP)
-                    && (DescriptorsBuilderImpl.isElementCanBeCreated(residuesCount, residueIndex,
-                            residueGapFlag, DescriptorResidueType.ORIGIN_CENTER, gapsDistribution))) {
-                analysePotentialInContactResidues(model, residuesAccess, gapsDistribution, residuesCount,
-                        residueIndex, residue);
+        final boolean[] residuesOutsideGap = getResiduesOutsideGap(modelsProperties, residuesCount);
+        final int[] originResidueIndexes = getOriginResidueIndexes(modelsProperties, residuesCount);
+        final String[] cacheKeys = getCacheKeys(model, residuesAccess, residuesOutsideGap, originResidueIndexes);
+        final List<InContactResiduesMap> cachedInContactResiduesMaps = getCachedInContactResiduesMaps(cacheKeys,
+                residuesCount);
+        if (cachedInContactResiduesMaps != null) {
+            computedDistancesCount.set(0);
+            skippedDistancesCount.set(0);
+            return cachedInContactResiduesMaps;
+        }
+        final AtomsTable atomsTable = prepareAtomsTable(model, residuesAccess, residuesOutsideGap, residuesCount);
+        final ContactsContext context = new ContactsContext(residuesCount, residuesOutsideGap, atomsTable,
+                originResidueIndexes, constructResiduesGrid(atomsTable), expressions.size());
+        if (getThreadsCount() == 1) {
+            collect(context, new ContactsWorker(context, context.originResidueIndexes.length).call());
+        } else {
+            analyseConcurrently(context);
+        }
+        for (InContactResiduesMap expressionInContactResiduesMap : context.inContactResiduesMaps) {
+            expressionInContactResiduesMap.complete();
+        }
+        computedDistancesCount.set(context.computedDistancesCount);
+        skippedDistancesCount.set(context.skippedDistancesCount);
+        LOGGER.info(String.format(
+                "In-contact residues identification of %d expression(s) computed %d distances and skipped %d distances",
+                expressions.size(), context.computedDistancesCount, context.skippedDistancesCount));
+        if (cacheKeys != null) {
+            for (int expressionIndex = 0; expressionIndex < cacheKeys.length; expressionIndex++) {
+                inContactResiduesMapCache.put(cacheKeys[expressionIndex],
+                        context.inContactResiduesMaps.get(expressionIndex));
             }
         }
+        return context.inContactResiduesMaps;
     }
 
     @Override
     public String getInContactResiduesMatrixString() {
-        final StringBuilder sb = new StringBuilder("In-contact residues matrix:\n");
-        final int rowsCount = ArrayUtils.getLength(inContactResiduesMatrix);
-        int rowIndex = 0;
-        for (boolean[] row : inContactResiduesMatrix) {
-            for (boolean val : row) {
-                sb.append(String.valueOf((val) ? 1 : 0)).append("\t");
-            }
-            if (rowIndex < rowsCount - 1) {
-                sb.append(NEW_LINE);
-            }
-            rowIndex++;
-        }
-        return sb.toString();
+        return inContactResiduesMap.toString();
+    }
+
+    @Override
+    public int[] getInContactResidueIndexesByIndex(final int residueIndex) {
+        return inContactResiduesMap.getInContactResidueIndexes(residueIndex);
+    }
+
+    @Override
+    public InContactResiduesMap getInContactResiduesMap() {
+        return inContactResiduesMap;
+    }
+
+    @Override
+    public long getComputedDistancesCount() {
+        return computedDistancesCount.get();
     }
 
     @Override
-    public ImmutableList<Boolean> getContactsOfResidueByIndex(final int residueIndex) {
-        final int residuesCount = ArrayUtils.getLength(inContactResiduesMatrix);
-        PreconditionUtils.checkIfIndexInRange(residueIndex, 0, residuesCount, "Residue");
-        final boolean[] residueContacts = inContactResiduesMatrix[residueIndex];
-        return ImmutableList.copyOf(Booleans.asList(residueContacts));
+    public long getSkippedDistancesCount() {
+        return skippedDistancesCount.get();
     }
 
     @Override
     public String getAtomNamePairsString() {
-        return expressionValidator.getAtomNamePairsString();
+        return getAtomNamePairsString(0);
+    }
+
+    @Override
+    public String getAtomNamePairsString(final int expressionIndex) {
+        return expressions.get(expressionIndex).validator.getAtomNamePairsString();
     }
 
     @Override
     public int getThreadsCount() {
-        return expressionEvaluator.getThreadsCount();
+        return expressions.get(0).evaluator.getThreadsCount();
     }
 
     @Override
     public void setThreadsCount(final int threadsCount) {
-        expressionEvaluator.setThreadsCount(threadsCount);
+        for (InspectedExpression expression : expressions) {
+            expression.evaluator.setThreadsCount(threadsCount);
+        }
         prepareExecutorService(threadsCount);
     }
 
@@ -142,101 +226,502 @@ public class ContactsInspectorImpl implements ContactsInspector {
 
     @Override
     public void close() {
-        expressionEvaluator.close();
+        for (InspectedExpression expression : expressions) {
+            expression.evaluator.close();
+        }
         ExecutorUtils.closeExecutor(executor);
     }
 
-    private void analysePotentialInContactResidues(final List<Chain> model,
-            final ResiduesAccess residuesAccess, final GapsDistribution gapsDistribution,
-            final int residuesCount, final int residueIndex, final Group residue) {
-        for (int indexOfPotentiallyInContactResidue = residueIndex + 1; indexOfPotentiallyInContactResidue < residuesCount; indexOfPotentiallyInContactResidue++) {
-            final int potentiallyInContactResidueGapFlag = gapsDistribution
-                    .getResidueGapFlag(indexOfPotentiallyInContactResidue);
-            if (potentiallyInContactResidueGapFlag == RESIDUE_OUTSIDE_GAP) {
-                final Group potentiallyInContactResidue = residuesAccess.getResidueByIndex(
-                        indexOfPotentiallyInContactResidue, model);
-                boolean areResiduesInContact = false;
-                if (getThreadsCount() == 1) {
-                    areResiduesInContact = verify(residue, potentiallyInContactResidue);
-                } else {
-                    areResiduesInContact = verifyConcurrently(residue, potentiallyInContactResidue);
+    private void analyseConcurrently(final ContactsContext context) {
+        final int threadsCount = getThreadsCount();
+        final int chunkSize = Math.max(1, context.originResidueIndexes.length
+                / (threadsCount * CHUNKS_PER_THREAD));
+        final List<Future<ContactsWorker>> results = Lists.newArrayListWithCapacity(threadsCount);
+        for (int workerIndex = 0; workerIndex < threadsCount; workerIndex++) {
+            results.add(executor.submit(new ContactsWorker(context, chunkSize)));
+        }
+        try {
+            for (Future<ContactsWorker> result : results) {
+                collect(context, result.get());
+            }
+        } catch (InterruptedException e) {
+            ExecutorUtils.cancelFutures(results);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Identification of in-contact residues was interrupted", e);
+        } catch (ExecutionException e) {
+            ExecutorUtils.cancelFutures(results);
+            throw new IllegalStateException("Identification of in-contact residues failed", e.getCause());
+        }
+    }
+
+    private static final void collect(final ContactsContext context, final ContactsWorker worker) {
+        for (int expressionIndex = 0; expressionIndex < worker.contacts.length; expressionIndex++) {
+            final InContactResiduesMap expressionInContactResiduesMap = context.inContactResiduesMaps
+                    .get(expressionIndex);
+            final int[] expressionContacts = worker.contacts[expressionIndex];
+            for (int contactIndex = 0; contactIndex < worker.contactsSizes[expressionIndex]; contactIndex += 2) {
+                expressionInContactResiduesMap.addContact(expressionContacts[contactIndex],
+                        expressionContacts[contactIndex + 1]);
+            }
+        }
+        context.computedDistancesCount += worker.computedDistancesCount;
+        context.skippedDistancesCount += worker.skippedDistancesCount;
+    }
+
+    private AtomsTable prepareAtomsTable(final List<Chain> model, final ResiduesAccess residuesAccess,
+            final boolean[] residuesOutsideGap, final int residuesCount) {
+        final List<Group> residues = Lists.newArrayListWithCapacity(residuesCount);
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            if (residuesOutsideGap[residueIndex]) {
+                residues.add(residuesAccess.getResidueByIndex(residueIndex, model));
+            } else {
+                residues.add(null);
+            }
+        }
+        return AtomsTableFactory.construct(Arrays.asList(consideredAtomNames), residues, moleculeType, executor,
+                getThreadsCount());
+    }
+
+    private ResiduesGrid constructResiduesGrid(final AtomsTable atomsTable) {
+        final double distanceCutoff = getDistanceCutoff();
+        if (Double.isNaN(distanceCutoff) || Double.isInfinite(distanceCutoff)) {
+            return null;
+        }
+        final ResiduesGrid residuesGrid = ResiduesGridFactory.construct(Math.max(distanceCutoff, 0.0)
+                + DISTANCE_CUTOFF_TOLERANCE);
+        for (int residueIndex = 0; residueIndex < atomsTable.getResiduesCount(); residueIndex++) {
+            final List<Atom> atoms = Lists.newArrayListWithCapacity(consideredAtomNames.length);
+            for (int atomSlot = 0; atomSlot < consideredAtomNames.length; atomSlot++) {
+                if (atomsTable.isAtomAvailable(residueIndex, atomSlot)) {
+                    atoms.add(atomsTable.getAtom(residueIndex, atomSlot));
                 }
-                if (areResiduesInContact) {
-                    inContactResiduesMatrix[residueIndex][indexOfPotentiallyInContactResidue] = inContactResiduesMatrix[indexOfPotentiallyInContactResidue][residueIndex] = areResiduesInContact;
+            }
+            if (!atoms.isEmpty()) {
+                residuesGrid.addResidue(residueIndex, atoms);
+            }
+        }
+        LOGGER.debug(String.format("Residues grid with cell size %.3f is used to identify in-contact residues",
+                residuesGrid.getCellSize()));
+        return residuesGrid;
+    }
+
+    private String[] getCacheKeys(final List<Chain> model, final ResiduesAccess residuesAccess,
+            final boolean[] residuesOutsideGap, final int[] originResidueIndexes) {
+        if (inContactResiduesMapCache == null) {
+            return null;
+        }
+        final Hasher modelHasher = Hashing.sha256().newHasher();
+        modelHasher.putString(moleculeType.name(), Charsets.UTF_8).putInt(residuesOutsideGap.length);
+        for (int residueIndex = 0; residueIndex < residuesOutsideGap.length; residueIndex++) {
+            if (residuesOutsideGap[residueIndex]) {
+                final Group residue = residuesAccess.getResidueByIndex(residueIndex, model);
+                modelHasher.putInt(residueIndex).putString(residue.getPDBName(), Charsets.UTF_8);
+                for (Atom atom : residue.getAtoms()) {
+                    modelHasher.putString(atom.getName(), Charsets.UTF_8).putDouble(atom.getX())
+                            .putDouble(atom.getY()).putDouble(atom.getZ());
                 }
             }
         }
+        for (int originResidueIndex : originResidueIndexes) {
+            modelHasher.putInt(originResidueIndex);
+        }
+        final HashCode modelHashCode = modelHasher.hash();
+        final String[] result = new String[expressions.size()];
+        for (int expressionIndex = 0; expressionIndex < result.length; expressionIndex++) {
+            result[expressionIndex] = Hashing.sha256().newHasher().putBytes(modelHashCode.asBytes())
+                    .putString(expressions.get(expressionIndex).validator.getInContactResiduesExpressionString(),
+                            Charsets.UTF_8).hash().toString();
+        }
+        return result;
     }
 
-    private boolean verifyConcurrently(final Group residue, final Group potentiallyInContactResidue) {
-        final Callable<Boolean> verificator = new Callable<Boolean>() {
-            @Override
-            public Boolean call() throws Exception {
-                return verify(residue, potentiallyInContactResidue);
+    private List<InContactResiduesMap> getCachedInContactResiduesMaps(final String[] cacheKeys,
+            final int residuesCount) {
+        if (cacheKeys == null) {
+            return null;
+        }
+        final List<InContactResiduesMap> result = Lists.newArrayListWithCapacity(cacheKeys.length);
+        for (String cacheKey : cacheKeys) {
+            final InContactResiduesMap cachedInContactResiduesMap = inContactResiduesMapCache.get(cacheKey,
+                    residuesCount);
+            if (cachedInContactResiduesMap == null) {
+                return null;
             }
-        };
-        final Future<Boolean> result = executor.submit(verificator);
-        try {
-            return result.get().booleanValue();
-        } catch (InterruptedException e) {
-            LOGGER.error(e.getMessage(), e);
-        } catch (ExecutionException e) {
-            LOGGER.error(e.getMessage(), e);
+            result.add(cachedInContactResiduesMap);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private double getDistanceCutoff() {
+        double result = 0.0;
+        for (InspectedExpression expression : expressions) {
+            final double distanceCutoff = expression.validator.getDistanceCutoff();
+            if (Double.isNaN(distanceCutoff) || Double.isInfinite(distanceCutoff)) {
+                return distanceCutoff;
+            }
+            result = Math.max(result, distanceCutoff);
         }
-        return false;
+        return result;
     }
 
     private void updateExpression(final String expressionString, final MoleculeType moleculeType) {
-        expressionValidator.setInContactResiduesExpressionString(expressionString, moleculeType);
-        expressionEvaluator.setExpression(expressionValidator.getInContactResiduesExpressionString(),
-                expressionValidator.getVariableNames());
+        final InspectedExpression expression = expressions.get(0);
+        for (int expressionIndex = 1; expressionIndex < expressions.size(); expressionIndex++) {
+            expressions.get(expressionIndex).evaluator.close();
+        }
+        expression.validator.setInContactResiduesExpressionString(expressionString, moleculeType);
+        expression.evaluator.setExpression(expression.validator.getInContactResiduesExpressionString(),
+                expression.validator.getVariableNames());
+        expressions = Collections.singletonList(expression);
+        prepareVariables();
     }
 
     private void prepareExecutorService(final int threadsCount) {
         executor = ExecutorUtils.prepareExecutorService(executor, threadsCount);
     }
 
-    private void prepare(final int residuesCount) {
-        initInContactResiduesMatrix(residuesCount);
-        atomsStorage.prepareStorage();
-    }
-
-    private void initInContactResiduesMatrix(final int residuesCount) {
-        inContactResiduesMatrix = new boolean[residuesCount][residuesCount];
-    }
-
-    private boolean verify(final Group residue, final Group potentiallyInContactResidue) {
-        final Pattern virtualAtomNamesPattern = ExpressionValidatorImpl
-                .getVirtualAtomNamesPattern(moleculeType);
-        final Residue residueEntry = ResiduesDictionary.getResidueEntry(residue.getPDBName(), moleculeType);
-        final Residue potentiallyInContactResidueEntry = ResiduesDictionary.getResidueEntry(
-                potentiallyInContactResidue.getPDBName(), moleculeType);
-        final Map<String, Double> variableValues = Maps.newHashMap();
-        final Set<String> variableNames = expressionValidator.getVariableNames();
-        for (String variableName : variableNames) {
-            final AtomNamesPair currentDistance = expressionValidator.getDistance(variableName);
-            Atom residueAtom = null, potentiallyInContactResidueAtom = null;
-            if (currentDistance.isSingleComponent()) {
-                final String commonAtomName = currentDistance.getFirstAtomName();
-                residueAtom = atomsStorage.getAtom(residue, residueEntry, commonAtomName,
-                        virtualAtomNamesPattern);
-                potentiallyInContactResidueAtom = atomsStorage.getAtom(potentiallyInContactResidue,
-                        potentiallyInContactResidueEntry, commonAtomName, virtualAtomNamesPattern);
+    private void prepareVariables() {
+        final Map<String, Integer> distancesIndexes = Maps.newHashMap();
+        final List<AtomNamesPair> distances = Lists.newArrayList();
+        final Set<String> atomNames = Sets.newLinkedHashSet();
+        for (InspectedExpression expression : expressions) {
+            LOGGER.info(expression.validator.getDistanceCutoffString());
+            final List<String> variableNames = expression.evaluator.getVariableNames();
+            expression.distanceIndexes = new int[variableNames.size()];
+            for (int variableIndex = 0; variableIndex < variableNames.size(); variableIndex++) {
+                final AtomNamesPair distance = expression.validator.getDistance(variableNames.get(variableIndex));
+                final String distanceKey = distance.toString();
+                if (!distancesIndexes.containsKey(distanceKey)) {
+                    distancesIndexes.put(distanceKey, distances.size());
+                    distances.add(distance);
+                    atomNames.add(distance.getFirstAtomName());
+                    atomNames.add(distance.getSecondAtomName());
+                }
+                expression.distanceIndexes[variableIndex] = distancesIndexes.get(distanceKey);
+            }
+        }
+        final List<String> atomNamesList = Lists.newArrayList(atomNames);
+        consideredAtomNames = atomNamesList.toArray(new String[atomNamesList.size()]);
+        firstAtomSlots = new int[distances.size()];
+        secondAtomSlots = new int[distances.size()];
+        for (int distanceIndex = 0; distanceIndex < distances.size(); distanceIndex++) {
+            firstAtomSlots[distanceIndex] = atomNamesList.indexOf(distances.get(distanceIndex).getFirstAtomName());
+            secondAtomSlots[distanceIndex] = atomNamesList.indexOf(distances.get(distanceIndex)
+                    .getSecondAtomName());
+        }
+        for (InspectedExpression expression : expressions) {
+            expression.prepareAtomSlots(firstAtomSlots, secondAtomSlots);
+        }
+    }
+
+    private static final List<InspectedExpression> constructExpressions(
+            final List<String> inContactResiduesExpressionStrings, final MoleculeType moleculeType,
+            final int threadsCount) {
+        final List<InspectedExpression> result = Lists.newArrayListWithCapacity(CollectionUtils
+                .size(inContactResiduesExpressionStrings));
+        for (String inContactResiduesExpressionString : inContactResiduesExpressionStrings) {
+            final ExpressionValidator expressionValidator = new ExpressionValidatorImpl(
+                    inContactResiduesExpressionString, moleculeType);
+            result.add(new InspectedExpression(expressionValidator, new ExpressionEvaluatorImpl(
+                    expressionValidator.getInContactResiduesExpressionString(),
+                    expressionValidator.getVariableNames(), threadsCount)));
+        }
+        PreconditionUtils.checkIfListIsEmpty(result, "Expressions used to identify in-contact residues");
+        return Collections.unmodifiableList(result);
+    }
+
+    private static final boolean[] getResiduesOutsideGap(final List<ModelProperties> modelsProperties,
+            final int residuesCount) {
+        final boolean[] result = new boolean[residuesCount];
+        for (ModelProperties modelProperties : modelsProperties) {
+            final GapsDistribution gapsDistribution = modelProperties.getGapsDistribution();
+            for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+                result[residueIndex] |= gapsDistribution.getResidueGapFlag(residueIndex) == RESIDUE_OUTSIDE_GAP;
+            }
+        }
+        return result;
+    }
+
+    private static final int[] getOriginResidueIndexes(final List<ModelProperties> modelsProperties,
+            final int residuesCount) {
+        final int[] originResidueIndexes = new int[residuesCount];
+        int originResiduesCount = 0;
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            for (ModelProperties modelProperties : modelsProperties) {
+                if (DescriptorsBuilderImpl.isOriginResidue(residuesCount, residueIndex,
+                        modelProperties.getGapsDistribution())) {
+                    originResidueIndexes[originResiduesCount++] = residueIndex;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(originResidueIndexes, originResiduesCount);
+    }
+
+    private static final BitSet getPotentiallyInContactResidueIndexes(final ResiduesGrid residuesGrid,
+            final int residuesCount, final int residueIndex) {
+        if (residuesGrid == null) {
+            final BitSet result = new BitSet(residuesCount);
+            result.set(residueIndex + 1, residuesCount);
+            return result;
+        }
+        return residuesGrid.getNeighbourResidueIndexes(residueIndex);
+    }
+
+    /**
+     * Expression used to identify in-contact residues together with indexes of its variables in the
+     * distances vector shared by all expressions of the inspector.
+     */
+    private static final class InspectedExpression {
+
+        private final ExpressionValidator validator;
+
+        private final ExpressionEvaluator evaluator;
+
+        private int[] distanceIndexes;
+
+        private int[] firstAtomSlots;
+
+        private int[] secondAtomSlots;
+
+        private InspectedExpression(final ExpressionValidator validator, final ExpressionEvaluator evaluator) {
+            this.validator = validator;
+            this.evaluator = evaluator;
+        }
+
+        private void prepareAtomSlots(final int[] sharedFirstAtomSlots, final int[] sharedSecondAtomSlots) {
+            firstAtomSlots = new int[distanceIndexes.length];
+            secondAtomSlots = new int[distanceIndexes.length];
+            for (int variableIndex = 0; variableIndex < distanceIndexes.length; variableIndex++) {
+                firstAtomSlots[variableIndex] = sharedFirstAtomSlots[distanceIndexes[variableIndex]];
+                secondAtomSlots[variableIndex] = sharedSecondAtomSlots[distanceIndexes[variableIndex]];
+            }
+        }
+    }
+
+    /**
+     * Data of a single model shared by all workers identifying its in-contact residues. Found contacts and
+     * counters are collected by the calling thread only, so a single inspector may analyse many models at
+     * once.
+     */
+    private static final class ContactsContext {
+
+        private final int residuesCount;
+
+        private final boolean[] residuesOutsideGap;
+
+        private final AtomsTable atomsTable;
+
+        private final int[] originResidueIndexes;
+
+        private final ResiduesGrid residuesGrid;
+
+        private final AtomicInteger nextOriginResiduePosition;
+
+        private final List<InContactResiduesMap> inContactResiduesMaps;
+
+        private long computedDistancesCount;
+
+        private long skippedDistancesCount;
+
+        private ContactsContext(final int residuesCount, final boolean[] residuesOutsideGap,
+                final AtomsTable atomsTable, final int[] originResidueIndexes, final ResiduesGrid residuesGrid,
+                final int expressionsCount) {
+            this.residuesCount = residuesCount;
+            this.residuesOutsideGap = residuesOutsideGap;
+            this.atomsTable = atomsTable;
+            this.originResidueIndexes = originResidueIndexes;
+            this.residuesGrid = residuesGrid;
+            this.nextOriginResiduePosition = new AtomicInteger(0);
+            final List<InContactResiduesMap> maps = Lists.newArrayListWithCapacity(expressionsCount);
+            for (int expressionIndex = 0; expressionIndex < expressionsCount; expressionIndex++) {
+                maps.add(InContactResiduesMapFactory.construct(residuesCount));
+            }
+            this.inContactResiduesMaps = Collections.unmodifiableList(maps);
+        }
+    }
+
+    /**
+     * Analyses chunks of rows of the upper triangle of in-contact residues matrix. Each worker keeps its
+     * own distances buffers, found contacts and counters, so rows are processed without any locking. The
+     * distances of a residues pair are computed at most once and shared by all expressions.
+     */
+    private final class ContactsWorker implements Callable<ContactsWorker> {
+
+        private final ContactsContext context;
+
+        private final int chunkSize;
+
+        private final double[] distances;
+
+        private final double[][] variableValues;
+
+        private final LazyDistances lazyDistances;
+
+        private final ExpressionDistances[] expressionsDistances;
+
+        private final int[][] contacts;
+
+        private final int[] contactsSizes;
+
+        private long computedDistancesCount;
+
+        private long skippedDistancesCount;
+
+        private ContactsWorker(final ContactsContext context, final int chunkSize) {
+            this.context = context;
+            this.chunkSize = chunkSize;
+            this.distances = new double[firstAtomSlots.length];
+            this.lazyDistances = new LazyDistances(firstAtomSlots.length);
+            final int expressionsCount = expressions.size();
+            this.variableValues = new double[expressionsCount][];
+            this.expressionsDistances = new ExpressionDistances[expressionsCount];
+            this.contacts = new int[expressionsCount][INITIAL_CONTACTS_CAPACITY];
+            this.contactsSizes = new int[expressionsCount];
+            for (int expressionIndex = 0; expressionIndex < expressionsCount; expressionIndex++) {
+                final int[] distanceIndexes = expressions.get(expressionIndex).distanceIndexes;
+                variableValues[expressionIndex] = new double[distanceIndexes.length];
+                expressionsDistances[expressionIndex] = new ExpressionDistances(lazyDistances, distanceIndexes);
+            }
+        }
+
+        @Override
+        public ContactsWorker call() {
+            final int originResiduesCount = context.originResidueIndexes.length;
+            int position = context.nextOriginResiduePosition.getAndAdd(chunkSize);
+            while (position < originResiduesCount) {
+                final int lastPosition = Math.min(originResiduesCount, position + chunkSize);
+                for (int currentPosition = position; currentPosition < lastPosition; currentPosition++) {
+                    analyse(context.originResidueIndexes[currentPosition]);
+                }
+                position = context.nextOriginResiduePosition.getAndAdd(chunkSize);
+            }
+            return this;
+        }
+
+        private void analyse(final int residueIndex) {
+            final BitSet potentiallyInContactResidueIndexes = getPotentiallyInContactResidueIndexes(
+                    context.residuesGrid, context.residuesCount, residueIndex);
+            for (int indexOfPotentiallyInContactResidue = potentiallyInContactResidueIndexes
+                    .nextSetBit(residueIndex + 1); indexOfPotentiallyInContactResidue >= 0; indexOfPotentiallyInContactResidue = potentiallyInContactResidueIndexes
+                    .nextSetBit(indexOfPotentiallyInContactResidue + 1)) {
+                if (context.residuesOutsideGap[indexOfPotentiallyInContactResidue]) {
+                    analyse(residueIndex, indexOfPotentiallyInContactResidue);
+                }
+            }
+        }
+
+        private void analyse(final int residueIndex, final int indexOfPotentiallyInContactResidue) {
+            final AtomsTable atomsTable = context.atomsTable;
+            boolean distancesPrepared = false;
+            for (int expressionIndex = 0; expressionIndex < expressions.size(); expressionIndex++) {
+                final InspectedExpression expression = expressions.get(expressionIndex);
+                if (atomsTable.areAtomsAvailable(residueIndex, expression.firstAtomSlots)
+                        && atomsTable.areAtomsAvailable(indexOfPotentiallyInContactResidue,
+                                expression.secondAtomSlots)) {
+                    if (!distancesPrepared) {
+                        prepareDistances(atomsTable, residueIndex, indexOfPotentiallyInContactResidue);
+                        distancesPrepared = true;
+                    }
+                    if (verify(expressionIndex, expression)) {
+                        addContact(expressionIndex, residueIndex, indexOfPotentiallyInContactResidue);
+                    }
+                }
+            }
+            if ((distancesPrepared) && (lazyEvaluation)) {
+                computedDistancesCount += lazyDistances.computedDistancesCount;
+                skippedDistancesCount += firstAtomSlots.length - lazyDistances.computedDistancesCount;
+            }
+        }
+
+        private void prepareDistances(final AtomsTable atomsTable, final int residueIndex,
+                final int indexOfPotentiallyInContactResidue) {
+            if (lazyEvaluation) {
+                lazyDistances.reset(atomsTable, residueIndex, indexOfPotentiallyInContactResidue);
             } else {
-                residueAtom = atomsStorage.getAtom(residue, residueEntry, currentDistance.getFirstAtomName(),
-                        virtualAtomNamesPattern);
-                potentiallyInContactResidueAtom = atomsStorage.getAtom(potentiallyInContactResidue,
-                        potentiallyInContactResidueEntry, currentDistance.getSecondAtomName(),
-                        virtualAtomNamesPattern);
+                for (int distanceIndex = 0; distanceIndex < firstAtomSlots.length; distanceIndex++) {
+                    distances[distanceIndex] = atomsTable.getDistance(residueIndex, firstAtomSlots[distanceIndex],
+                            indexOfPotentiallyInContactResidue, secondAtomSlots[distanceIndex]);
+                }
+                computedDistancesCount += firstAtomSlots.length;
+            }
+        }
+
+        private boolean verify(final int expressionIndex, final InspectedExpression expression) {
+            if (lazyEvaluation) {
+                return expression.evaluator.evaluateAndTransform(expressionsDistances[expressionIndex]);
             }
-            if ((residueAtom != null) && (potentiallyInContactResidueAtom != null)) {
-                double distance = Calc.getDistance(residueAtom, potentiallyInContactResidueAtom);
-                variableValues.put(variableName, distance);
+            final double[] expressionVariableValues = variableValues[expressionIndex];
+            for (int variableIndex = 0; variableIndex < expressionVariableValues.length; variableIndex++) {
+                expressionVariableValues[variableIndex] = distances[expression.distanceIndexes[variableIndex]];
             }
+            return expression.evaluator.evaluateAndTransform(expressionVariableValues);
         }
-        if (variableNames.size() == variableValues.size()) {
-            return this.expressionEvaluator.evaluateAndTransform(variableValues);
+
+        private void addContact(final int expressionIndex, final int residueIndex, final int otherResidueIndex) {
+            if (contactsSizes[expressionIndex] + 2 > contacts[expressionIndex].length) {
+                contacts[expressionIndex] = Arrays.copyOf(contacts[expressionIndex],
+                        contacts[expressionIndex].length << 1);
+            }
+            contacts[expressionIndex][contactsSizes[expressionIndex]++] = residueIndex;
+            contacts[expressionIndex][contactsSizes[expressionIndex]++] = otherResidueIndex;
+        }
+    }
+
+    private final class LazyDistances implements VariableValues {
+
+        private final double[] values;
+
+        private final boolean[] computed;
+
+        private int computedDistancesCount;
+
+        private AtomsTable atomsTable;
+
+        private int residueIndex;
+
+        private int indexOfPotentiallyInContactResidue;
+
+        private LazyDistances(final int distancesCount) {
+            this.values = new double[distancesCount];
+            this.computed = new boolean[distancesCount];
+        }
+
+        private void reset(final AtomsTable atomsTable, final int residueIndex,
+                final int indexOfPotentiallyInContactResidue) {
+            this.atomsTable = atomsTable;
+            this.residueIndex = residueIndex;
+            this.indexOfPotentiallyInContactResidue = indexOfPotentiallyInContactResidue;
+            this.computedDistancesCount = 0;
+            Arrays.fill(computed, false);
+        }
+
+        @Override
+        public double getValue(final int distanceIndex) {
+            if (!computed[distanceIndex]) {
+                values[distanceIndex] = atomsTable.getDistance(residueIndex, firstAtomSlots[distanceIndex],
+                        indexOfPotentiallyInContactResidue, secondAtomSlots[distanceIndex]);
+                computed[distanceIndex] = true;
+                computedDistancesCount++;
+            }
+            return values[distanceIndex];
+        }
+    }
+
+    private static final class ExpressionDistances implements VariableValues {
+
+        private final LazyDistances lazyDistances;
+
+        private final int[] distanceIndexes;
+
+        private ExpressionDistances(final LazyDistances lazyDistances, final int[] distanceIndexes) {
+            this.lazyDistances = lazyDistances;
+            this.distanceIndexes = distanceIndexes;
+        }
+
+        @Override
+        public double getValue(final int variableIndex) {
+            return lazyDistances.getValue(distanceIndexes[variableIndex]);
         }
-        return false;
     }
 }
@@ -1,14 +1,27 @@
 package edu.put.ma.descs.contacts;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import edu.put.ma.descs.contacts.expression.VariableValues;
+
 public interface ExpressionEvaluator {
 
     double evaluate(Map<String, Double> variableValues);
 
     boolean evaluateAndTransform(Map<String, Double> variableValues);
 
+    double evaluate(double[] variableValues);
+
+    boolean evaluateAndTransform(double[] variableValues);
+
+    double evaluate(VariableValues variableValues);
+
+    boolean evaluateAndTransform(VariableValues variableValues);
+
+    List<String> getVariableNames();
+
     int getThreadsCount();
 
     void setThreadsCount(int threadsCount);
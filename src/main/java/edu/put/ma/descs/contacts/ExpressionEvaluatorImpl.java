@@ -16,7 +16,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
 
+import edu.put.ma.descs.contacts.expression.CompiledExpression;
+import edu.put.ma.descs.contacts.expression.ExpressionParser;
+import edu.put.ma.descs.contacts.expression.VariableValues;
 import edu.put.ma.utils.ExecutorUtils;
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.operator.Operator;
@@ -40,6 +45,8 @@ public class ExpressionEvaluatorImpl implements ExpressionEvaluator {
 
     private List<Expression> expressions;
 
+    private CompiledExpression compiledExpression;
+
     public ExpressionEvaluatorImpl(final String expressionString, final Set<String> variableNames,
             final int threadsCount) {
         this.expressionString = expressionString;
@@ -48,6 +55,7 @@ public class ExpressionEvaluatorImpl implements ExpressionEvaluator {
         this.counter = new AtomicInteger(0);
         prepareExecutorService(threadsCount);
         prepareExpressionsList(expressionString, variableNames, threadsCount);
+        compileExpression(expressionString, variableNames);
     }
 
     @Override
@@ -70,6 +78,54 @@ public class ExpressionEvaluatorImpl implements ExpressionEvaluator {
         return Double.compare(evaluate(variableValues), 1d) == 0;
     }
 
+    @Override
+    public double evaluate(final double[] variableValues) {
+        if (compiledExpression == null) {
+            return evaluate(toMap(getVariableNames(), variableValues));
+        }
+        try {
+            return compiledExpression.evaluate(variableValues);
+        } catch (ArithmeticException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public boolean evaluateAndTransform(final double[] variableValues) {
+        return Double.compare(evaluate(variableValues), 1d) == 0;
+    }
+
+    @Override
+    public double evaluate(final VariableValues variableValues) {
+        if (compiledExpression == null) {
+            final double[] values = new double[CollectionUtils.size(variableNames)];
+            for (int variableIndex = 0; variableIndex < values.length; variableIndex++) {
+                values[variableIndex] = variableValues.getValue(variableIndex);
+            }
+            return evaluate(values);
+        }
+        try {
+            return compiledExpression.evaluate(variableValues);
+        } catch (ArithmeticException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public boolean evaluateAndTransform(final VariableValues variableValues) {
+        return Double.compare(evaluate(variableValues), 1d) == 0;
+    }
+
+    @Override
+    public List<String> getVariableNames() {
+        if (compiledExpression == null) {
+            return Ordering.natural().sortedCopy(variableNames);
+        }
+        return compiledExpression.getVariableNames();
+    }
+
     @Override
     public void setThreadsCount(final int threadsCount) {
         this.threadsCount = threadsCount;
@@ -79,7 +135,10 @@ public class ExpressionEvaluatorImpl implements ExpressionEvaluator {
 
     @Override
     public void setExpression(final String expressionString, final Set<String> variableNames) {
+        this.expressionString = expressionString;
+        this.variableNames = variableNames;
         prepareExpressionsList(expressionString, variableNames, threadsCount);
+        compileExpression(expressionString, variableNames);
     }
 
     @Override
@@ -87,6 +146,16 @@ public class ExpressionEvaluatorImpl implements ExpressionEvaluator {
         ExecutorUtils.closeExecutor(executor);
     }
 
+    private void compileExpression(final String expressionString, final Set<String> variableNames) {
+        try {
+            compiledExpression = ExpressionParser.compile(expressionString,
+                    Ordering.natural().sortedCopy(variableNames));
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug(e.getMessage(), e);
+            compiledExpression = null;
+        }
+    }
+
     private void prepareExecutorService(final int threadsCount) {
         executor = ExecutorUtils.prepareExecutorService(executor, threadsCount);
     }
@@ -124,6 +193,16 @@ public class ExpressionEvaluatorImpl implements ExpressionEvaluator {
         return expression;
     }
 
+    private static final Map<String, Double> toMap(final List<String> variableNames,
+            final double[] variableValues) {
+        final Map<String, Double> result = Maps.newHashMapWithExpectedSize(variableNames.size());
+        int variableIndex = 0;
+        for (String variableName : variableNames) {
+            result.put(variableName, variableValues[variableIndex++]);
+        }
+        return result;
+    }
+
     private static boolean isArrayInitialized(final int expectedSize, final double... values) {
         return (values != null) && (ArrayUtils.getLength(values) == expectedSize);
     }
@@ -19,4 +19,8 @@ public interface ExpressionValidator {
     Set<String> getVariableNames();
 
     AtomNamesPair getDistance(String variableName);
+
+    double getDistanceCutoff();
+
+    String getDistanceCutoffString();
 }
@@ -12,6 +12,9 @@ import lombok.Getter;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import com.google.common.collect.Lists;
+
+import edu.put.ma.descs.contacts.expression.DistanceCutoffAnalysis;
 import edu.put.ma.model.AtomNamesPair;
 import edu.put.ma.model.AtomNamesPairImpl;
 import edu.put.ma.model.MoleculeType;
@@ -32,6 +35,8 @@ public class ExpressionValidatorImpl implements ExpressionValidator {
     @Getter
     private boolean valid;
 
+    private DistanceCutoffAnalysis distanceCutoffAnalysis;
+
     private Map<String, String> components;
 
     private List<String> atomNames;
@@ -55,6 +60,7 @@ public class ExpressionValidatorImpl implements ExpressionValidator {
         this.inContactResiduesExpressionString = getExpression(unifiedInContactResiduesExpressionString,
                 moleculeType);
         initDistances(moleculeType);
+        initDistanceCutoff();
     }
 
     @Override
@@ -85,6 +91,16 @@ public class ExpressionValidatorImpl implements ExpressionValidator {
         return distances.get(variableName);
     }
 
+    @Override
+    public double getDistanceCutoff() {
+        return distanceCutoffAnalysis.getCutoff();
+    }
+
+    @Override
+    public String getDistanceCutoffString() {
+        return distanceCutoffAnalysis.getDescription();
+    }
+
     public static final Pattern getAtomNamesPattern(final MoleculeType moleculeType) {
         return getAtomNamesPattern(moleculeType, Patterns.PROTEIN_ATOM_NAMES_PATTERN,
                 Patterns.RNA_ATOM_NAMES_PATTERN);
@@ -120,6 +136,21 @@ public class ExpressionValidatorImpl implements ExpressionValidator {
         }
     }
 
+    private void initDistanceCutoff() {
+        if (valid) {
+            final List<String> variableNames = Lists.newArrayList(components.keySet());
+            final List<String> variableDescriptions = Lists.newArrayListWithCapacity(variableNames.size());
+            for (String variableName : variableNames) {
+                variableDescriptions.add(new StringBuilder(Patterns.DISTANCE_PREFIX).append(":")
+                        .append(distances.get(variableName).toString()).toString());
+            }
+            distanceCutoffAnalysis = DistanceCutoffAnalysis.analyse(inContactResiduesExpressionString,
+                    variableNames, variableDescriptions);
+        } else {
+            distanceCutoffAnalysis = DistanceCutoffAnalysis.unbounded("expression is invalid");
+        }
+    }
+
     private String getExpression(final String inContactResiduesExpressionString,
             final MoleculeType moleculeType) {
         prepareComponents();
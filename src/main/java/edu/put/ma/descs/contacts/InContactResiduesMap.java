@@ -0,0 +1,18 @@
+package edu.put.ma.descs.contacts;
+
+public interface InContactResiduesMap {
+
+    int getResiduesCount();
+
+    int getContactsCount();
+
+    void addContact(int residueIndex, int otherResidueIndex);
+
+    boolean areResiduesInContact(int residueIndex, int otherResidueIndex);
+
+    int getContactsCountOfResidue(int residueIndex);
+
+    int[] getInContactResidueIndexes(int residueIndex);
+
+    void complete();
+}
@@ -0,0 +1,14 @@
+package edu.put.ma.descs.contacts;
+
+public interface InContactResiduesMapCache {
+
+    InContactResiduesMap get(String key, int residuesCount);
+
+    void put(String key, InContactResiduesMap inContactResiduesMap);
+
+    long getHitsCount();
+
+    long getMissesCount();
+
+    long getSize();
+}
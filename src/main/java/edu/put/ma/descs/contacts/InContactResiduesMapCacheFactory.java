@@ -0,0 +1,20 @@
+package edu.put.ma.descs.contacts;
+
+import java.io.File;
+
+public final class InContactResiduesMapCacheFactory {
+
+    public static final int DEFAULT_MAXIMAL_SIZE_IN_MEGABYTES = 512;
+
+    private InContactResiduesMapCacheFactory() {
+        // hidden constructor
+    }
+
+    public static final InContactResiduesMapCache construct(final File cacheDir) {
+        return construct(cacheDir, DEFAULT_MAXIMAL_SIZE_IN_MEGABYTES);
+    }
+
+    public static final InContactResiduesMapCache construct(final File cacheDir, final int maximalSizeInMegabytes) {
+        return new InContactResiduesMapCacheImpl(cacheDir, maximalSizeInMegabytes * 1024L * 1024L);
+    }
+}
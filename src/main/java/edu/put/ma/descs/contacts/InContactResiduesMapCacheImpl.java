@@ -0,0 +1,303 @@
+package edu.put.ma.descs.contacts;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of in-contact residues maps. Each map is stored in its own file named after the key as
+ * upper triangle adjacency lists with delta encoded residue indexes written as variable-length integers.
+ * The total size of cached files is bounded, least recently used files are evicted first. Recency is
+ * tracked in memory in access order, files already present in the cache directory are ordered by their
+ * modification time when the cache is opened. Entries that cannot be decoded or do not match the model
+ * they are requested for are removed and treated as misses.
+ */
+public class InContactResiduesMapCacheImpl implements InContactResiduesMapCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InContactResiduesMapCacheImpl.class);
+
+    private static final int MAGIC_NUMBER = 0x4943524D;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String CACHE_FILE_EXTENSION = ".icrm";
+
+    private static final int VARIABLE_LENGTH_INTEGER_PAYLOAD_BITS = 7;
+
+    private static final int VARIABLE_LENGTH_INTEGER_PAYLOAD_MASK = 0x7F;
+
+    private static final int VARIABLE_LENGTH_INTEGER_CONTINUATION_FLAG = 0x80;
+
+    private static final int VARIABLE_LENGTH_INTEGER_MAXIMAL_SHIFT = 28;
+
+    private final File cacheDir;
+
+    private final long maximalSize;
+
+    private final AtomicLong hitsCount;
+
+    private final AtomicLong missesCount;
+
+    private final Map<String, Long> cacheFilesSizes;
+
+    private long size;
+
+    InContactResiduesMapCacheImpl(final File cacheDir, final long maximalSize) {
+        if (maximalSize <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Inappropriate maximal size '%d' of in-contact residues maps cache", maximalSize));
+        }
+        this.cacheDir = cacheDir;
+        this.maximalSize = maximalSize;
+        this.hitsCount = new AtomicLong(0);
+        this.missesCount = new AtomicLong(0);
+        this.cacheFilesSizes = new LinkedHashMap<String, Long>(16, 0.75f, true);
+        try {
+            FileUtils.forceMkdir(cacheDir);
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+        loadCacheFiles();
+    }
+
+    @Override
+    public InContactResiduesMap get(final String key, final int residuesCount) {
+        final File cacheFile = getCacheFile(key);
+        if (cacheFile.isFile()) {
+            DataInputStream input = null;
+            try {
+                input = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+                final InContactResiduesMap result = decode(input, residuesCount);
+                cacheFile.setLastModified(System.currentTimeMillis());
+                markAsUsed(key, cacheFile);
+                hitsCount.incrementAndGet();
+                LOGGER.info(String.format("In-contact residues map [%s] restored from cache", key));
+                return result;
+            } catch (IOException e) {
+                LOGGER.error(e.getMessage(), e);
+            } catch (RuntimeException e) {
+                LOGGER.error(e.getMessage(), e);
+            } finally {
+                IOUtils.closeQuietly(input);
+            }
+            remove(key);
+        }
+        missesCount.incrementAndGet();
+        LOGGER.info(String.format("In-contact residues map [%s] not found in cache", key));
+        return null;
+    }
+
+    @Override
+    public synchronized void put(final String key, final InContactResiduesMap inContactResiduesMap) {
+        DataOutputStream output = null;
+        File temporaryFile = null;
+        try {
+            temporaryFile = File.createTempFile(key, ".tmp", cacheDir);
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+            encode(inContactResiduesMap, output);
+            output.close();
+            final File cacheFile = getCacheFile(key);
+            remove(key);
+            if (!temporaryFile.renameTo(cacheFile)) {
+                throw new IOException(String.format("Cache file %s cannot be created",
+                        cacheFile.getAbsolutePath()));
+            }
+            final long cacheFileSize = cacheFile.length();
+            cacheFilesSizes.put(key, cacheFileSize);
+            size += cacheFileSize;
+            evict();
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
+        } finally {
+            IOUtils.closeQuietly(output);
+            FileUtils.deleteQuietly(temporaryFile);
+        }
+    }
+
+    @Override
+    public long getHitsCount() {
+        return hitsCount.get();
+    }
+
+    @Override
+    public long getMissesCount() {
+        return missesCount.get();
+    }
+
+    @Override
+    public synchronized long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("In-contact residues maps cache %s: %d hits, %d misses, %d of %d bytes used",
+                cacheDir.getAbsolutePath(), getHitsCount(), getMissesCount(), getSize(), maximalSize);
+    }
+
+    private synchronized void markAsUsed(final String key, final File cacheFile) {
+        if (cacheFilesSizes.get(key) == null) {
+            final long cacheFileSize = cacheFile.length();
+            cacheFilesSizes.put(key, cacheFileSize);
+            size += cacheFileSize;
+        }
+    }
+
+    private synchronized void remove(final String key) {
+        final Long cacheFileSize = cacheFilesSizes.remove(key);
+        if (cacheFileSize != null) {
+            size -= cacheFileSize;
+        }
+        FileUtils.deleteQuietly(getCacheFile(key));
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<String, Long>> cacheFilesSizesIterator = cacheFilesSizes.entrySet().iterator();
+        while ((size > maximalSize) && (cacheFilesSizesIterator.hasNext())) {
+            final Map.Entry<String, Long> cacheFileSize = cacheFilesSizesIterator.next();
+            cacheFilesSizesIterator.remove();
+            size -= cacheFileSize.getValue();
+            final File cacheFile = getCacheFile(cacheFileSize.getKey());
+            FileUtils.deleteQuietly(cacheFile);
+            LOGGER.info(String.format("In-contact residues map %s evicted from cache", cacheFile.getName()));
+        }
+    }
+
+    private void loadCacheFiles() {
+        final File[] cacheFiles = getCacheFiles();
+        Arrays.sort(cacheFiles, new Comparator<File>() {
+            @Override
+            public int compare(final File firstFile, final File secondFile) {
+                final int result = Long.valueOf(firstFile.lastModified()).compareTo(secondFile.lastModified());
+                return (result != 0) ? result : firstFile.getName().compareTo(secondFile.getName());
+            }
+        });
+        for (File cacheFile : cacheFiles) {
+            final String cacheFileName = cacheFile.getName();
+            final long cacheFileSize = cacheFile.length();
+            cacheFilesSizes.put(
+                    cacheFileName.substring(0, cacheFileName.length() - CACHE_FILE_EXTENSION.length()),
+                    cacheFileSize);
+            size += cacheFileSize;
+        }
+    }
+
+    private File[] getCacheFiles() {
+        final File[] result = cacheDir.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(final File file) {
+                return file.isFile() && file.getName().endsWith(CACHE_FILE_EXTENSION);
+            }
+        });
+        return (result == null) ? new File[0] : result;
+    }
+
+    private File getCacheFile(final String key) {
+        return FileUtils.getFile(cacheDir, key + CACHE_FILE_EXTENSION);
+    }
+
+    static final void encode(final InContactResiduesMap inContactResiduesMap, final DataOutputStream output)
+            throws IOException {
+        final int residuesCount = inContactResiduesMap.getResiduesCount();
+        output.writeInt(MAGIC_NUMBER);
+        output.writeByte(FORMAT_VERSION);
+        writeVariableLengthInteger(output, residuesCount);
+        writeVariableLengthInteger(output, inContactResiduesMap.getContactsCount());
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            final int[] inContactResidueIndexes = inContactResiduesMap.getInContactResidueIndexes(residueIndex);
+            int firstUpperIndex = Arrays.binarySearch(inContactResidueIndexes, residueIndex + 1);
+            if (firstUpperIndex < 0) {
+                firstUpperIndex = -firstUpperIndex - 1;
+            }
+            writeVariableLengthInteger(output, inContactResidueIndexes.length - firstUpperIndex);
+            int previousResidueIndex = residueIndex;
+            for (int index = firstUpperIndex; index < inContactResidueIndexes.length; index++) {
+                writeVariableLengthInteger(output, inContactResidueIndexes[index] - previousResidueIndex);
+                previousResidueIndex = inContactResidueIndexes[index];
+            }
+        }
+    }
+
+    static final InContactResiduesMap decode(final DataInputStream input, final int expectedResiduesCount)
+            throws IOException {
+        if ((input.readInt() != MAGIC_NUMBER) || (input.readByte() != FORMAT_VERSION)) {
+            throw new IOException("Inappropriate format of cached in-contact residues map");
+        }
+        final int residuesCount = readVariableLengthInteger(input);
+        if (residuesCount != expectedResiduesCount) {
+            throw new IOException(String.format(
+                    "Cached in-contact residues map covers %d residues instead of %d", residuesCount,
+                    expectedResiduesCount));
+        }
+        final int contactsCount = readVariableLengthInteger(input);
+        if (contactsCount > (long) residuesCount * (residuesCount - 1) / 2) {
+            throw new IOException(String.format(
+                    "Inappropriate contacts count %d of cached in-contact residues map", contactsCount));
+        }
+        final InContactResiduesMap result = InContactResiduesMapFactory.construct(residuesCount);
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            final int upperContactsCount = readVariableLengthInteger(input);
+            if (upperContactsCount >= residuesCount - residueIndex) {
+                throw new IOException("Cached in-contact residues map is corrupted");
+            }
+            int otherResidueIndex = residueIndex;
+            for (int index = 0; index < upperContactsCount; index++) {
+                final int delta = readVariableLengthInteger(input);
+                if ((delta <= 0) || (delta >= residuesCount - otherResidueIndex)) {
+                    throw new IOException("Cached in-contact residues map is corrupted");
+                }
+                otherResidueIndex += delta;
+                result.addContact(residueIndex, otherResidueIndex);
+            }
+        }
+        result.complete();
+        if ((result.getContactsCount() != contactsCount) || (input.read() != -1)) {
+            throw new IOException("Cached in-contact residues map is incomplete");
+        }
+        return result;
+    }
+
+    private static final void writeVariableLengthInteger(final DataOutputStream output, final int value)
+            throws IOException {
+        int remainder = value;
+        while ((remainder & ~VARIABLE_LENGTH_INTEGER_PAYLOAD_MASK) != 0) {
+            output.writeByte((remainder & VARIABLE_LENGTH_INTEGER_PAYLOAD_MASK)
+                    | VARIABLE_LENGTH_INTEGER_CONTINUATION_FLAG);
+            remainder >>>= VARIABLE_LENGTH_INTEGER_PAYLOAD_BITS;
+        }
+        output.writeByte(remainder);
+    }
+
+    private static final int readVariableLengthInteger(final DataInputStream input) throws IOException {
+        int result = 0;
+        int shift = 0;
+        int currentByte;
+        do {
+            if (shift > VARIABLE_LENGTH_INTEGER_MAXIMAL_SHIFT) {
+                throw new IOException(
+                        "Variable-length integer of cached in-contact residues map is too long");
+            }
+            currentByte = input.readUnsignedByte();
+            result |= (currentByte & VARIABLE_LENGTH_INTEGER_PAYLOAD_MASK) << shift;
+            shift += VARIABLE_LENGTH_INTEGER_PAYLOAD_BITS;
+        } while ((currentByte & VARIABLE_LENGTH_INTEGER_CONTINUATION_FLAG) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,12 @@
+package edu.put.ma.descs.contacts;
+
+public final class InContactResiduesMapFactory {
+
+    private InContactResiduesMapFactory() {
+        // hidden constructor
+    }
+
+    public static final InContactResiduesMap construct(final int residuesCount) {
+        return new InContactResiduesMapImpl(residuesCount);
+    }
+}
@@ -0,0 +1,181 @@
+package edu.put.ma.descs.contacts;
+
+import static edu.put.ma.utils.StringUtils.NEW_LINE;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import edu.put.ma.utils.PreconditionUtils;
+
+/**
+ * Symmetric in-contact residues map stored as adjacency lists. Contacts are collected per residue while
+ * the map is constructed and then packed into compressed sparse rows, so memory is proportional to the
+ * number of contacts instead of the squared number of residues. A contact added more than once is kept
+ * only once, because rows are sorted and stripped of repeated residues when the map is completed.
+ */
+public class InContactResiduesMapImpl implements InContactResiduesMap {
+
+    private static final int INITIAL_ROW_CAPACITY = 4;
+
+    @Getter
+    private final int residuesCount;
+
+    private int[][] rows;
+
+    private int[] rowsSizes;
+
+    private int[] offsets;
+
+    private int[] inContactResidueIndexes;
+
+    InContactResiduesMapImpl(final int residuesCount) {
+        this.residuesCount = residuesCount;
+        this.rows = new int[residuesCount][];
+        this.rowsSizes = new int[residuesCount];
+    }
+
+    @Override
+    public int getContactsCount() {
+        if (isCompleted()) {
+            return inContactResidueIndexes.length >> 1;
+        }
+        int contactsCount = 0;
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            contactsCount += getContactsCountOfResidue(residueIndex);
+        }
+        return contactsCount >> 1;
+    }
+
+    @Override
+    public void addContact(final int residueIndex, final int otherResidueIndex) {
+        checkResidueIndex(residueIndex);
+        checkResidueIndex(otherResidueIndex);
+        if (isCompleted()) {
+            throw new IllegalStateException("In-contact residues map is already completed");
+        }
+        if (residueIndex != otherResidueIndex) {
+            addToRow(residueIndex, otherResidueIndex);
+            addToRow(otherResidueIndex, residueIndex);
+        }
+    }
+
+    @Override
+    public boolean areResiduesInContact(final int residueIndex, final int otherResidueIndex) {
+        checkResidueIndex(residueIndex);
+        checkResidueIndex(otherResidueIndex);
+        if (isCompleted()) {
+            return Arrays.binarySearch(inContactResidueIndexes, offsets[residueIndex],
+                    offsets[residueIndex + 1], otherResidueIndex) >= 0;
+        }
+        final int[] row = rows[residueIndex];
+        for (int index = 0; index < rowsSizes[residueIndex]; index++) {
+            if (row[index] == otherResidueIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getContactsCountOfResidue(final int residueIndex) {
+        checkResidueIndex(residueIndex);
+        if (isCompleted()) {
+            return offsets[residueIndex + 1] - offsets[residueIndex];
+        }
+        return getInContactResidueIndexes(residueIndex).length;
+    }
+
+    @Override
+    public int[] getInContactResidueIndexes(final int residueIndex) {
+        checkResidueIndex(residueIndex);
+        if (isCompleted()) {
+            return Arrays.copyOfRange(inContactResidueIndexes, offsets[residueIndex], offsets[residueIndex + 1]);
+        }
+        if (rowsSizes[residueIndex] == 0) {
+            return ArrayUtils.EMPTY_INT_ARRAY;
+        }
+        final int[] result = Arrays.copyOf(rows[residueIndex], rowsSizes[residueIndex]);
+        Arrays.sort(result);
+        return Arrays.copyOf(result, removeRepeatedResidues(result, result.length));
+    }
+
+    @Override
+    public void complete() {
+        if (isCompleted()) {
+            return;
+        }
+        final int[] localOffsets = new int[residuesCount + 1];
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            if (rowsSizes[residueIndex] > 0) {
+                Arrays.sort(rows[residueIndex], 0, rowsSizes[residueIndex]);
+                rowsSizes[residueIndex] = removeRepeatedResidues(rows[residueIndex], rowsSizes[residueIndex]);
+            }
+            localOffsets[residueIndex + 1] = localOffsets[residueIndex] + rowsSizes[residueIndex];
+        }
+        final int[] localInContactResidueIndexes = new int[localOffsets[residuesCount]];
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            if (rowsSizes[residueIndex] > 0) {
+                System.arraycopy(rows[residueIndex], 0, localInContactResidueIndexes, localOffsets[residueIndex],
+                        rowsSizes[residueIndex]);
+            }
+        }
+        offsets = localOffsets;
+        inContactResidueIndexes = localInContactResidueIndexes;
+        rows = null;
+        rowsSizes = null;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("In-contact residues matrix:\n");
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            final int[] residueContacts = getInContactResidueIndexes(residueIndex);
+            int contactIndex = 0;
+            for (int otherResidueIndex = 0; otherResidueIndex < residuesCount; otherResidueIndex++) {
+                final boolean inContact = (contactIndex < residueContacts.length)
+                        && (residueContacts[contactIndex] == otherResidueIndex);
+                if (inContact) {
+                    contactIndex++;
+                }
+                sb.append(String.valueOf((inContact) ? 1 : 0)).append("\t");
+            }
+            if (residueIndex < residuesCount - 1) {
+                sb.append(NEW_LINE);
+            }
+        }
+        return sb.toString();
+    }
+
+    private boolean isCompleted() {
+        return offsets != null;
+    }
+
+    private void addToRow(final int residueIndex, final int otherResidueIndex) {
+        int[] row = rows[residueIndex];
+        if (row == null) {
+            row = new int[INITIAL_ROW_CAPACITY];
+            rows[residueIndex] = row;
+        } else if (rowsSizes[residueIndex] == row.length) {
+            row = Arrays.copyOf(row, row.length << 1);
+            rows[residueIndex] = row;
+        }
+        row[rowsSizes[residueIndex]++] = otherResidueIndex;
+    }
+
+    private static final int removeRepeatedResidues(final int[] sortedRow, final int rowSize) {
+        int distinctCount = 0;
+        for (int index = 0; index < rowSize; index++) {
+            if ((distinctCount == 0) || (sortedRow[distinctCount - 1] != sortedRow[index])) {
+                sortedRow[distinctCount++] = sortedRow[index];
+            }
+        }
+        return distinctCount;
+    }
+
+    private void checkResidueIndex(final int residueIndex) {
+        PreconditionUtils.checkIfIndexInRange(residueIndex, 0, residuesCount, "Residue");
+    }
+}
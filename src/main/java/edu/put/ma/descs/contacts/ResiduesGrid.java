@@ -0,0 +1,17 @@
+package edu.put.ma.descs.contacts;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.biojava.nbio.structure.Atom;
+
+public interface ResiduesGrid {
+
+    double getCellSize();
+
+    void addResidue(int residueIndex, List<Atom> atoms);
+
+    BitSet getNeighbourResidueIndexes(int residueIndex);
+
+    void clear();
+}
@@ -0,0 +1,12 @@
+package edu.put.ma.descs.contacts;
+
+public final class ResiduesGridFactory {
+
+    private ResiduesGridFactory() {
+        // hidden constructor
+    }
+
+    public static final ResiduesGrid construct(final double range) {
+        return new ResiduesGridImpl(range);
+    }
+}
@@ -0,0 +1,177 @@
+package edu.put.ma.descs.contacts;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+import org.biojava.nbio.structure.Atom;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import edu.put.ma.utils.ResidueUtils;
+
+public class ResiduesGridImpl implements ResiduesGrid {
+
+    private static final int CELL_INDEX_BITS = 21;
+
+    private static final long CELL_INDEX_MASK = (1L << CELL_INDEX_BITS) - 1;
+
+    private static final int RADIUS_INDEX = 3;
+
+    private static final int BOUNDING_SPHERE_SIZE = 4;
+
+    private static final double BOUNDING_SPHERE_TOLERANCE = 1e-6;
+
+    private static final double MINIMAL_CELL_SIZE = 1.0;
+
+    @Getter
+    private final double cellSize;
+
+    private final double range;
+
+    private final Map<Long, List<Integer>> cells;
+
+    private final Map<Integer, List<Atom>> residuesAtoms;
+
+    private final Map<Integer, double[]> residuesBoundingSpheres;
+
+    ResiduesGridImpl(final double range) {
+        if (!((Double.compare(range, 0.0) > 0) && (!Double.isInfinite(range)))) {
+            throw new IllegalArgumentException(String.format("Inappropriate range '%f' of residues grid",
+                    range));
+        }
+        this.range = range;
+        this.cellSize = Math.max(range, MINIMAL_CELL_SIZE);
+        this.cells = Maps.newHashMap();
+        this.residuesAtoms = Maps.newHashMap();
+        this.residuesBoundingSpheres = Maps.newHashMap();
+    }
+
+    @Override
+    public void addResidue(final int residueIndex, final List<Atom> atoms) {
+        residuesAtoms.put(residueIndex, atoms);
+        residuesBoundingSpheres.put(residueIndex, computeBoundingSphere(atoms));
+        for (Atom atom : atoms) {
+            final Long cellKey = getCellKey(getCellIndex(atom.getX()), getCellIndex(atom.getY()),
+                    getCellIndex(atom.getZ()));
+            List<Integer> cellResidues = cells.get(cellKey);
+            if (cellResidues == null) {
+                cellResidues = Lists.newArrayList();
+                cells.put(cellKey, cellResidues);
+            }
+            final int cellResiduesCount = cellResidues.size();
+            if ((cellResiduesCount == 0) || (cellResidues.get(cellResiduesCount - 1).intValue() != residueIndex)) {
+                cellResidues.add(residueIndex);
+            }
+        }
+    }
+
+    @Override
+    public BitSet getNeighbourResidueIndexes(final int residueIndex) {
+        final BitSet neighbours = new BitSet();
+        final double[] boundingSphere = residuesBoundingSpheres.get(residueIndex);
+        if (boundingSphere == null) {
+            return neighbours;
+        }
+        final double reach = boundingSphere[RADIUS_INDEX] + range;
+        final int minimalXIndex = getCellIndex(boundingSphere[0] - reach);
+        final int maximalXIndex = getCellIndex(boundingSphere[0] + reach);
+        final int minimalYIndex = getCellIndex(boundingSphere[1] - reach);
+        final int maximalYIndex = getCellIndex(boundingSphere[1] + reach);
+        final int minimalZIndex = getCellIndex(boundingSphere[2] - reach);
+        final int maximalZIndex = getCellIndex(boundingSphere[2] + reach);
+        final BitSet visited = new BitSet();
+        for (int xIndex = minimalXIndex; xIndex <= maximalXIndex; xIndex++) {
+            for (int yIndex = minimalYIndex; yIndex <= maximalYIndex; yIndex++) {
+                for (int zIndex = minimalZIndex; zIndex <= maximalZIndex; zIndex++) {
+                    final List<Integer> cellResidues = cells.get(getCellKey(xIndex, yIndex, zIndex));
+                    if (cellResidues != null) {
+                        analyseCellResidues(residueIndex, boundingSphere, cellResidues, visited, neighbours);
+                    }
+                }
+            }
+        }
+        return neighbours;
+    }
+
+    @Override
+    public void clear() {
+        cells.clear();
+        residuesAtoms.clear();
+        residuesBoundingSpheres.clear();
+    }
+
+    private void analyseCellResidues(final int residueIndex, final double[] boundingSphere,
+            final List<Integer> cellResidues, final BitSet visited, final BitSet neighbours) {
+        for (Integer cellResidueIndex : cellResidues) {
+            final int otherResidueIndex = cellResidueIndex.intValue();
+            if ((otherResidueIndex > residueIndex) && (!visited.get(otherResidueIndex))) {
+                visited.set(otherResidueIndex);
+                if (areBoundingSpheresInRange(boundingSphere, residuesBoundingSpheres.get(otherResidueIndex),
+                        range)
+                        && areAtomsInRange(residuesAtoms.get(residueIndex),
+                                residuesAtoms.get(otherResidueIndex), range)) {
+                    neighbours.set(otherResidueIndex);
+                }
+            }
+        }
+    }
+
+    private int getCellIndex(final double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static final Long getCellKey(final int xIndex, final int yIndex, final int zIndex) {
+        return Long.valueOf(((xIndex & CELL_INDEX_MASK) << (CELL_INDEX_BITS << 1))
+                | ((yIndex & CELL_INDEX_MASK) << CELL_INDEX_BITS) | (zIndex & CELL_INDEX_MASK));
+    }
+
+    private static final double[] computeBoundingSphere(final List<Atom> atoms) {
+        final double[] boundingSphere = new double[BOUNDING_SPHERE_SIZE];
+        final int atomsCount = atoms.size();
+        if (atomsCount == 0) {
+            return boundingSphere;
+        }
+        for (Atom atom : atoms) {
+            boundingSphere[0] += atom.getX();
+            boundingSphere[1] += atom.getY();
+            boundingSphere[2] += atom.getZ();
+        }
+        for (int coordinateIndex = 0; coordinateIndex < RADIUS_INDEX; coordinateIndex++) {
+            boundingSphere[coordinateIndex] /= atomsCount;
+        }
+        for (Atom atom : atoms) {
+            boundingSphere[RADIUS_INDEX] = Math.max(boundingSphere[RADIUS_INDEX],
+                    getDistance(atom.getCoords(), boundingSphere));
+        }
+        return boundingSphere;
+    }
+
+    private static final double getDistance(final double[] point, final double[] otherPoint) {
+        return ResidueUtils.getDistance(point[0], point[1], point[2], otherPoint[0], otherPoint[1],
+                otherPoint[2]);
+    }
+
+    private static final boolean areBoundingSpheresInRange(final double[] boundingSphere,
+            final double[] otherBoundingSphere, final double range) {
+        final double centersDistance = getDistance(boundingSphere, otherBoundingSphere);
+        return Double.compare(centersDistance - boundingSphere[RADIUS_INDEX]
+                - otherBoundingSphere[RADIUS_INDEX], range + BOUNDING_SPHERE_TOLERANCE) <= 0;
+    }
+
+    private static final boolean areAtomsInRange(final List<Atom> atoms, final List<Atom> otherAtoms,
+            final double range) {
+        for (Atom atom : atoms) {
+            for (Atom otherAtom : otherAtoms) {
+                if (Double.compare(ResidueUtils.getDistance(atom.getX(), atom.getY(), atom.getZ(),
+                        otherAtom.getX(), otherAtom.getY(), otherAtom.getZ()), range) <= 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package edu.put.ma.descs.contacts.expression;
+
+import java.util.List;
+
+import lombok.Getter;
+
+import com.google.common.collect.ImmutableList;
+
+public final class CompiledExpression {
+
+    @Getter
+    private final ImmutableList<String> variableNames;
+
+    private final ExpressionNode root;
+
+    CompiledExpression(final List<String> variableNames, final ExpressionNode root) {
+        this.variableNames = ImmutableList.copyOf(variableNames);
+        this.root = root;
+    }
+
+    public int getVariablesCount() {
+        return variableNames.size();
+    }
+
+    public double evaluate(final double[] variableValues) {
+        return root.evaluate(variableValues);
+    }
+
+    public boolean evaluateAndTransform(final double[] variableValues) {
+        return Double.compare(evaluate(variableValues), 1d) == 0;
+    }
+
+    public double evaluate(final VariableValues variableValues) {
+        return root.evaluate(variableValues);
+    }
+
+    public boolean evaluateAndTransform(final VariableValues variableValues) {
+        return Double.compare(evaluate(variableValues), 1d) == 0;
+    }
+}
@@ -0,0 +1,54 @@
+package edu.put.ma.descs.contacts.expression;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Interval reasoning over the in-contact residues expression that derives an upper bound of distance, such
+ * that the expression cannot be satisfied unless at least one of its distances does not exceed the bound.
+ */
+public final class DistanceCutoffAnalysis {
+
+    @Getter
+    private final double cutoff;
+
+    @Getter
+    private final String description;
+
+    private DistanceCutoffAnalysis(final double cutoff, final String description) {
+        this.cutoff = cutoff;
+        this.description = description;
+    }
+
+    public boolean isBounded() {
+        return !Double.isInfinite(cutoff);
+    }
+
+    public static final DistanceCutoffAnalysis unbounded(final String reason) {
+        return new DistanceCutoffAnalysis(Double.POSITIVE_INFINITY, String.format(
+                "No distance cutoff of in-contact residues expression can be derived, %s", reason));
+    }
+
+    public static final DistanceCutoffAnalysis analyse(final String expressionString,
+            final List<String> variableNames, final List<String> variableDescriptions) {
+        ExpressionNode root = null;
+        try {
+            root = ExpressionParser.parse(expressionString, variableNames);
+        } catch (IllegalArgumentException e) {
+            return unbounded(String.format("expression cannot be parsed: %s", e.getMessage()));
+        }
+        final double cutoff = root.getDistanceCutoff(false);
+        if (Double.isNaN(cutoff) || Double.isInfinite(cutoff)) {
+            final ExpressionNode unboundedNode = root.getUnboundedNode(false);
+            return unbounded(String.format("the following part of expression does not bound distances from above: %s",
+                    (unboundedNode == null) ? root.toString(variableDescriptions) : unboundedNode
+                            .toString(variableDescriptions)));
+        } else if (Double.compare(cutoff, 0.0) < 0) {
+            return new DistanceCutoffAnalysis(0.0, String.format(
+                    "In-contact residues expression cannot be satisfied by any distance (cutoff %.3f)", cutoff));
+        }
+        return new DistanceCutoffAnalysis(cutoff, String.format(
+                "Distance cutoff of in-contact residues expression: %.3f", cutoff));
+    }
+}
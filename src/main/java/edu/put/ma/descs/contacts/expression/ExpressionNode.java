@@ -0,0 +1,22 @@
+package edu.put.ma.descs.contacts.expression;
+
+import java.util.List;
+
+public interface ExpressionNode {
+
+    double evaluate(double[] values);
+
+    double evaluate(VariableValues values);
+
+    double getLowerBound();
+
+    double getUpperBound();
+
+    double getVariableCutoff(double upperBound);
+
+    double getDistanceCutoff(boolean negated);
+
+    ExpressionNode getUnboundedNode(boolean negated);
+
+    String toString(List<String> variableNames);
+}
@@ -0,0 +1,590 @@
+package edu.put.ma.descs.contacts.expression;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+final class ExpressionNodes {
+
+    private static final double FALSE = 0d;
+
+    private static final double TRUE = 1d;
+
+    private ExpressionNodes() {
+        // hidden constructor
+    }
+
+    enum ArithmeticOperator {
+        ADDITION("+"), SUBTRACTION("-"), MULTIPLICATION("*"), DIVISION("/"), MODULO("%");
+
+        @Getter
+        private final String symbol;
+
+        ArithmeticOperator(final String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    enum ComparisonOperator {
+        LESS("<"), LESS_OR_EQUAL("<="), GREATER(">"), GREATER_OR_EQUAL(">="), EQUAL("="), NOT_EQUAL("!=");
+
+        @Getter
+        private final String symbol;
+
+        ComparisonOperator(final String symbol) {
+            this.symbol = symbol;
+        }
+
+        ComparisonOperator negate() {
+            switch (this) {
+                case LESS:
+                    return GREATER_OR_EQUAL;
+                case LESS_OR_EQUAL:
+                    return GREATER;
+                case GREATER:
+                    return LESS_OR_EQUAL;
+                case GREATER_OR_EQUAL:
+                    return LESS;
+                case EQUAL:
+                    return NOT_EQUAL;
+                default:
+                    return EQUAL;
+            }
+        }
+    }
+
+    enum LogicalFunction {
+        AND(2), OR(2), NOT(1);
+
+        @Getter
+        private final int argumentsCount;
+
+        LogicalFunction(final int argumentsCount) {
+            this.argumentsCount = argumentsCount;
+        }
+    }
+
+    @RequiredArgsConstructor
+    static final class ConstantNode implements ExpressionNode {
+
+        private final double value;
+
+        @Override
+        public double evaluate(final double[] values) {
+            return value;
+        }
+
+        @Override
+        public double evaluate(final VariableValues values) {
+            return value;
+        }
+
+        @Override
+        public double getLowerBound() {
+            return value;
+        }
+
+        @Override
+        public double getUpperBound() {
+            return value;
+        }
+
+        @Override
+        public double getVariableCutoff(final double upperBound) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public double getDistanceCutoff(final boolean negated) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public ExpressionNode getUnboundedNode(final boolean negated) {
+            return this;
+        }
+
+        @Override
+        public String toString(final List<String> variableNames) {
+            return String.valueOf(value);
+        }
+    }
+
+    @RequiredArgsConstructor
+    static final class VariableNode implements ExpressionNode {
+
+        @Getter
+        private final int index;
+
+        @Override
+        public double evaluate(final double[] values) {
+            return values[index];
+        }
+
+        @Override
+        public double evaluate(final VariableValues values) {
+            return values.getValue(index);
+        }
+
+        @Override
+        public double getLowerBound() {
+            return 0d;
+        }
+
+        @Override
+        public double getUpperBound() {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public double getVariableCutoff(final double upperBound) {
+            return Double.isNaN(upperBound) ? Double.POSITIVE_INFINITY : upperBound;
+        }
+
+        @Override
+        public double getDistanceCutoff(final boolean negated) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public ExpressionNode getUnboundedNode(final boolean negated) {
+            return this;
+        }
+
+        @Override
+        public String toString(final List<String> variableNames) {
+            return variableNames.get(index);
+        }
+    }
+
+    @RequiredArgsConstructor
+    static final class NegationNode implements ExpressionNode {
+
+        private final ExpressionNode operand;
+
+        @Override
+        public double evaluate(final double[] values) {
+            return -operand.evaluate(values);
+        }
+
+        @Override
+        public double evaluate(final VariableValues values) {
+            return -operand.evaluate(values);
+        }
+
+        @Override
+        public double getLowerBound() {
+            return -operand.getUpperBound();
+        }
+
+        @Override
+        public double getUpperBound() {
+            return -operand.getLowerBound();
+        }
+
+        @Override
+        public double getVariableCutoff(final double upperBound) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public double getDistanceCutoff(final boolean negated) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public ExpressionNode getUnboundedNode(final boolean negated) {
+            return this;
+        }
+
+        @Override
+        public String toString(final List<String> variableNames) {
+            return new StringBuilder("-").append(operand.toString(variableNames)).toString();
+        }
+    }
+
+    @RequiredArgsConstructor
+    static final class ArithmeticNode implements ExpressionNode {
+
+        private final ArithmeticOperator operator;
+
+        private final ExpressionNode left;
+
+        private final ExpressionNode right;
+
+        @Override
+        public double evaluate(final double[] values) {
+            return apply(left.evaluate(values), right.evaluate(values));
+        }
+
+        @Override
+        public double evaluate(final VariableValues values) {
+            return apply(left.evaluate(values), right.evaluate(values));
+        }
+
+        private double apply(final double leftValue, final double rightValue) {
+            switch (operator) {
+                case ADDITION:
+                    return leftValue + rightValue;
+                case SUBTRACTION:
+                    return leftValue - rightValue;
+                case MULTIPLICATION:
+                    return leftValue * rightValue;
+                case DIVISION:
+                    checkDivisor(rightValue);
+                    return leftValue / rightValue;
+                default:
+                    checkDivisor(rightValue);
+                    return leftValue % rightValue;
+            }
+        }
+
+        @Override
+        public double getLowerBound() {
+            switch (operator) {
+                case ADDITION:
+                    return lower(left.getLowerBound() + right.getLowerBound());
+                case SUBTRACTION:
+                    return lower(left.getLowerBound() - right.getUpperBound());
+                case MULTIPLICATION:
+                    if (areNonNegative(left, right)) {
+                        return lower(left.getLowerBound() * right.getLowerBound());
+                    }
+                    return scale(left, right, true);
+                case DIVISION:
+                    if (isPositiveConstant(right)) {
+                        return lower(left.getLowerBound() / right.getLowerBound());
+                    }
+                    return Double.NEGATIVE_INFINITY;
+                default:
+                    return Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        @Override
+        public double getUpperBound() {
+            switch (operator) {
+                case ADDITION:
+                    return upper(left.getUpperBound() + right.getUpperBound());
+                case SUBTRACTION:
+                    return upper(left.getUpperBound() - right.getLowerBound());
+                case MULTIPLICATION:
+                    if (areNonNegative(left, right)) {
+                        return upper(left.getUpperBound() * right.getUpperBound());
+                    }
+                    return scale(left, right, false);
+                case DIVISION:
+                    if (isPositiveConstant(right)) {
+                        return upper(left.getUpperBound() / right.getLowerBound());
+                    }
+                    return Double.POSITIVE_INFINITY;
+                default:
+                    return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        @Override
+        public double getVariableCutoff(final double upperBound) {
+            switch (operator) {
+                case ADDITION:
+                    return Math.min(left.getVariableCutoff(upperBound - right.getLowerBound()),
+                            right.getVariableCutoff(upperBound - left.getLowerBound()));
+                case SUBTRACTION:
+                    return left.getVariableCutoff(upperBound + right.getUpperBound());
+                case MULTIPLICATION:
+                    if (isPositiveConstant(right)) {
+                        return left.getVariableCutoff(upperBound / right.getLowerBound());
+                    } else if (isPositiveConstant(left)) {
+                        return right.getVariableCutoff(upperBound / left.getLowerBound());
+                    }
+                    return Double.POSITIVE_INFINITY;
+                case DIVISION:
+                    if (isPositiveConstant(right)) {
+                        return left.getVariableCutoff(upperBound * right.getLowerBound());
+                    }
+                    return Double.POSITIVE_INFINITY;
+                default:
+                    return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        @Override
+        public double getDistanceCutoff(final boolean negated) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public ExpressionNode getUnboundedNode(final boolean negated) {
+            return this;
+        }
+
+        @Override
+        public String toString(final List<String> variableNames) {
+            return new StringBuilder("(").append(left.toString(variableNames)).append(operator.getSymbol())
+                    .append(right.toString(variableNames)).append(")").toString();
+        }
+
+        private static final boolean areNonNegative(final ExpressionNode left, final ExpressionNode right) {
+            return (Double.compare(left.getLowerBound(), 0d) >= 0)
+                    && (Double.compare(right.getLowerBound(), 0d) >= 0);
+        }
+
+        private static final double scale(final ExpressionNode left, final ExpressionNode right,
+                final boolean lowerBound) {
+            ExpressionNode operand = null;
+            double factor = Double.NaN;
+            if (isConstant(right)) {
+                operand = left;
+                factor = right.getLowerBound();
+            } else if (isConstant(left)) {
+                operand = right;
+                factor = left.getLowerBound();
+            } else {
+                return lowerBound ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            }
+            final double first = operand.getLowerBound() * factor;
+            final double second = operand.getUpperBound() * factor;
+            return lowerBound ? lower(Math.min(first, second)) : upper(Math.max(first, second));
+        }
+    }
+
+    @RequiredArgsConstructor
+    static final class ComparisonNode implements ExpressionNode {
+
+        private final ComparisonOperator operator;
+
+        private final ExpressionNode left;
+
+        private final ExpressionNode right;
+
+        @Override
+        public double evaluate(final double[] values) {
+            return apply(left.evaluate(values), right.evaluate(values));
+        }
+
+        @Override
+        public double evaluate(final VariableValues values) {
+            return apply(left.evaluate(values), right.evaluate(values));
+        }
+
+        private double apply(final double leftValue, final double rightValue) {
+            switch (operator) {
+                case LESS:
+                    return toValue(leftValue < rightValue);
+                case LESS_OR_EQUAL:
+                    return toValue(leftValue <= rightValue);
+                case GREATER:
+                    return toValue(leftValue > rightValue);
+                case GREATER_OR_EQUAL:
+                    return toValue(leftValue >= rightValue);
+                case EQUAL:
+                    return toValue(Double.compare(leftValue, rightValue) == 0);
+                default:
+                    return toValue(Double.compare(leftValue, rightValue) != 0);
+            }
+        }
+
+        @Override
+        public double getLowerBound() {
+            return FALSE;
+        }
+
+        @Override
+        public double getUpperBound() {
+            return TRUE;
+        }
+
+        @Override
+        public double getVariableCutoff(final double upperBound) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public double getDistanceCutoff(final boolean negated) {
+            final ComparisonOperator effectiveOperator = negated ? operator.negate() : operator;
+            switch (effectiveOperator) {
+                case LESS:
+                case LESS_OR_EQUAL:
+                    return left.getVariableCutoff(right.getUpperBound());
+                case GREATER:
+                case GREATER_OR_EQUAL:
+                    return right.getVariableCutoff(left.getUpperBound());
+                case EQUAL:
+                    return Math.min(left.getVariableCutoff(right.getUpperBound()),
+                            right.getVariableCutoff(left.getUpperBound()));
+                default:
+                    return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        @Override
+        public ExpressionNode getUnboundedNode(final boolean negated) {
+            return isBounded(this, negated) ? null : this;
+        }
+
+        @Override
+        public String toString(final List<String> variableNames) {
+            return new StringBuilder(left.toString(variableNames)).append(operator.getSymbol())
+                    .append(right.toString(variableNames)).toString();
+        }
+    }
+
+    @RequiredArgsConstructor
+    static final class FunctionNode implements ExpressionNode {
+
+        private final LogicalFunction function;
+
+        private final ExpressionNode[] arguments;
+
+        @Override
+        public double evaluate(final double[] values) {
+            switch (function) {
+                case AND:
+                    boolean allTrue = true;
+                    for (ExpressionNode argument : arguments) {
+                        allTrue = isTrue(argument.evaluate(values)) && allTrue;
+                    }
+                    return toValue(allTrue);
+                case OR:
+                    boolean anyTrue = false;
+                    for (ExpressionNode argument : arguments) {
+                        anyTrue = isTrue(argument.evaluate(values)) || anyTrue;
+                    }
+                    return toValue(anyTrue);
+                default:
+                    return toValue(!isTrue(arguments[0].evaluate(values)));
+            }
+        }
+
+        @Override
+        public double evaluate(final VariableValues values) {
+            switch (function) {
+                case AND:
+                    for (ExpressionNode argument : arguments) {
+                        if (!isTrue(argument.evaluate(values))) {
+                            return FALSE;
+                        }
+                    }
+                    return TRUE;
+                case OR:
+                    for (ExpressionNode argument : arguments) {
+                        if (isTrue(argument.evaluate(values))) {
+                            return TRUE;
+                        }
+                    }
+                    return FALSE;
+                default:
+                    return toValue(!isTrue(arguments[0].evaluate(values)));
+            }
+        }
+
+        @Override
+        public double getLowerBound() {
+            return FALSE;
+        }
+
+        @Override
+        public double getUpperBound() {
+            return TRUE;
+        }
+
+        @Override
+        public double getVariableCutoff(final double upperBound) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public double getDistanceCutoff(final boolean negated) {
+            switch (function) {
+                case AND:
+                    return negated ? getMaximalCutoff(arguments, true) : getMinimalCutoff(arguments, false);
+                case OR:
+                    return negated ? getMinimalCutoff(arguments, true) : getMaximalCutoff(arguments, false);
+                default:
+                    return arguments[0].getDistanceCutoff(!negated);
+            }
+        }
+
+        @Override
+        public ExpressionNode getUnboundedNode(final boolean negated) {
+            if (isBounded(this, negated)) {
+                return null;
+            } else if (function == LogicalFunction.NOT) {
+                final ExpressionNode unboundedNode = arguments[0].getUnboundedNode(!negated);
+                return (unboundedNode == arguments[0]) ? this : unboundedNode;
+            }
+            for (ExpressionNode argument : arguments) {
+                final ExpressionNode unboundedNode = argument.getUnboundedNode(negated);
+                if (unboundedNode != null) {
+                    return unboundedNode;
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public String toString(final List<String> variableNames) {
+            final StringBuilder sb = new StringBuilder(function.name()).append("(");
+            for (int argumentIndex = 0; argumentIndex < arguments.length; argumentIndex++) {
+                if (argumentIndex > 0) {
+                    sb.append(", ");
+                }
+                sb.append(arguments[argumentIndex].toString(variableNames));
+            }
+            return sb.append(")").toString();
+        }
+
+        private static final double getMinimalCutoff(final ExpressionNode[] arguments, final boolean negated) {
+            double result = Double.POSITIVE_INFINITY;
+            for (ExpressionNode argument : arguments) {
+                result = Math.min(result, argument.getDistanceCutoff(negated));
+            }
+            return result;
+        }
+
+        private static final double getMaximalCutoff(final ExpressionNode[] arguments, final boolean negated) {
+            double result = Double.NEGATIVE_INFINITY;
+            for (ExpressionNode argument : arguments) {
+                result = Math.max(result, argument.getDistanceCutoff(negated));
+            }
+            return result;
+        }
+    }
+
+    private static final boolean isBounded(final ExpressionNode node, final boolean negated) {
+        final double cutoff = node.getDistanceCutoff(negated);
+        return !(Double.isNaN(cutoff) || Double.isInfinite(cutoff));
+    }
+
+    static final boolean isTrue(final double value) {
+        return Double.compare(value, FALSE) != 0;
+    }
+
+    private static final double toValue(final boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    private static final void checkDivisor(final double divisor) {
+        if (divisor == 0d) {
+            throw new ArithmeticException("Division by zero!");
+        }
+    }
+
+    private static final boolean isConstant(final ExpressionNode node) {
+        return Double.compare(node.getLowerBound(), node.getUpperBound()) == 0
+                && !Double.isInfinite(node.getLowerBound());
+    }
+
+    private static final boolean isPositiveConstant(final ExpressionNode node) {
+        return isConstant(node) && (Double.compare(node.getLowerBound(), 0d) > 0);
+    }
+
+    private static final double lower(final double value) {
+        return Double.isNaN(value) ? Double.NEGATIVE_INFINITY : value;
+    }
+
+    private static final double upper(final double value) {
+        return Double.isNaN(value) ? Double.POSITIVE_INFINITY : value;
+    }
+}
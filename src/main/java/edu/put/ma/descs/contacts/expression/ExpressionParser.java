@@ -0,0 +1,192 @@
+package edu.put.ma.descs.contacts.expression;
+
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.collect.Lists;
+
+import edu.put.ma.descs.contacts.expression.ExpressionNodes.ArithmeticNode;
+import edu.put.ma.descs.contacts.expression.ExpressionNodes.ArithmeticOperator;
+import edu.put.ma.descs.contacts.expression.ExpressionNodes.ComparisonNode;
+import edu.put.ma.descs.contacts.expression.ExpressionNodes.ComparisonOperator;
+import edu.put.ma.descs.contacts.expression.ExpressionNodes.ConstantNode;
+import edu.put.ma.descs.contacts.expression.ExpressionNodes.FunctionNode;
+import edu.put.ma.descs.contacts.expression.ExpressionNodes.LogicalFunction;
+import edu.put.ma.descs.contacts.expression.ExpressionNodes.NegationNode;
+import edu.put.ma.descs.contacts.expression.ExpressionNodes.VariableNode;
+
+/**
+ * Recursive descent parser of the normalised in-contact residues expression. Operator precedence follows
+ * the one used by the exp4j based evaluator, i.e. comparisons bind weaker than addition and subtraction.
+ */
+public final class ExpressionParser {
+
+    private final String expressionString;
+
+    private final List<String> variableNames;
+
+    private int position;
+
+    private ExpressionParser(final String expressionString, final List<String> variableNames) {
+        this.expressionString = StringUtils.deleteWhitespace(StringUtils.upperCase(expressionString));
+        this.variableNames = variableNames;
+        this.position = 0;
+    }
+
+    public static final ExpressionNode parse(final String expressionString, final List<String> variableNames) {
+        final ExpressionParser parser = new ExpressionParser(expressionString, variableNames);
+        final ExpressionNode result = parser.parseComparison();
+        if (parser.position != StringUtils.length(parser.expressionString)) {
+            throw parser.prepareException();
+        }
+        return result;
+    }
+
+    public static final CompiledExpression compile(final String expressionString,
+            final List<String> variableNames) {
+        return new CompiledExpression(variableNames, parse(expressionString, variableNames));
+    }
+
+    private ExpressionNode parseComparison() {
+        ExpressionNode result = parseSum();
+        ComparisonOperator operator = readComparisonOperator();
+        while (operator != null) {
+            result = new ComparisonNode(operator, result, parseSum());
+            operator = readComparisonOperator();
+        }
+        return result;
+    }
+
+    private ExpressionNode parseSum() {
+        ExpressionNode result = parseProduct();
+        while (true) {
+            if (consume('+')) {
+                result = new ArithmeticNode(ArithmeticOperator.ADDITION, result, parseProduct());
+            } else if (consume('-')) {
+                result = new ArithmeticNode(ArithmeticOperator.SUBTRACTION, result, parseProduct());
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private ExpressionNode parseProduct() {
+        ExpressionNode result = parseFactor();
+        while (true) {
+            if (consume('*')) {
+                result = new ArithmeticNode(ArithmeticOperator.MULTIPLICATION, result, parseFactor());
+            } else if (consume('/')) {
+                result = new ArithmeticNode(ArithmeticOperator.DIVISION, result, parseFactor());
+            } else if (consume('%')) {
+                result = new ArithmeticNode(ArithmeticOperator.MODULO, result, parseFactor());
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private ExpressionNode parseFactor() {
+        if (consume('-')) {
+            return new NegationNode(parseFactor());
+        } else if (consume('+')) {
+            return parseFactor();
+        } else if (consume('(')) {
+            final ExpressionNode result = parseComparison();
+            expect(')');
+            return result;
+        } else if (isDigit(peek())) {
+            return parseNumber();
+        } else if (Character.isLetter(peek())) {
+            return parseIdentifier();
+        }
+        throw prepareException();
+    }
+
+    private ExpressionNode parseNumber() {
+        final int start = position;
+        while (isDigit(peek()) || (peek() == '.')) {
+            position++;
+        }
+        try {
+            return new ConstantNode(Double.parseDouble(StringUtils.substring(expressionString, start,
+                    position)));
+        } catch (NumberFormatException e) {
+            throw prepareException();
+        }
+    }
+
+    private ExpressionNode parseIdentifier() {
+        final int start = position;
+        while (Character.isLetterOrDigit(peek())) {
+            position++;
+        }
+        final String identifier = StringUtils.substring(expressionString, start, position);
+        if (consume('(')) {
+            return parseFunction(identifier);
+        }
+        final int variableIndex = variableNames.indexOf(identifier);
+        if (variableIndex < 0) {
+            throw new IllegalArgumentException(String.format("Unknown variable name %s", identifier));
+        }
+        return new VariableNode(variableIndex);
+    }
+
+    private ExpressionNode parseFunction(final String identifier) {
+        LogicalFunction function = null;
+        try {
+            function = LogicalFunction.valueOf(identifier);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown function name %s", identifier));
+        }
+        final List<ExpressionNode> arguments = Lists.newArrayListWithCapacity(function.getArgumentsCount());
+        arguments.add(parseComparison());
+        while (consume(',') || consume(';')) {
+            arguments.add(parseComparison());
+        }
+        expect(')');
+        if (arguments.size() != function.getArgumentsCount()) {
+            throw new IllegalArgumentException(String.format("Function %s expects %d arguments", identifier,
+                    function.getArgumentsCount()));
+        }
+        return new FunctionNode(function, arguments.toArray(new ExpressionNode[arguments.size()]));
+    }
+
+    private ComparisonOperator readComparisonOperator() {
+        if (consume('<')) {
+            return consume('=') ? ComparisonOperator.LESS_OR_EQUAL : ComparisonOperator.LESS;
+        } else if (consume('>')) {
+            return consume('=') ? ComparisonOperator.GREATER_OR_EQUAL : ComparisonOperator.GREATER;
+        } else if (consume('=')) {
+            return ComparisonOperator.EQUAL;
+        }
+        return null;
+    }
+
+    private char peek() {
+        return (position < StringUtils.length(expressionString)) ? expressionString.charAt(position) : 0;
+    }
+
+    private boolean consume(final char expected) {
+        if (peek() == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(final char expected) {
+        if (!consume(expected)) {
+            throw prepareException();
+        }
+    }
+
+    private IllegalArgumentException prepareException() {
+        return new IllegalArgumentException(String.format("Unexpected character at position %d of expression %s",
+                position, expressionString));
+    }
+
+    private static final boolean isDigit(final char character) {
+        return (character >= '0') && (character <= '9');
+    }
+}
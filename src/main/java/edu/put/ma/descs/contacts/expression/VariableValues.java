@@ -0,0 +1,6 @@
+package edu.put.ma.descs.contacts.expression;
+
+public interface VariableValues {
+
+    double getValue(int variableIndex);
+}
@@ -17,7 +17,6 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
 import com.google.common.primitives.Doubles;
 
-import edu.put.ma.descs.DescriptorsComparatorImpl;
 import edu.put.ma.utils.CollectionUtils;
 import edu.put.ma.utils.ResidueUtils;
 
@@ -37,6 +36,10 @@ public class AlignmentImpl implements Alignment {
     @Getter
     private final List<Atom> secondDescriptorAtoms;
 
+    private final AlignmentRmsdSums rmsdSums;
+
+    private boolean rmsdSumsValid;
+
     AlignmentImpl(final List<Group> firstDescriptorResidues, final List<Atom> firstDescriptorAtoms,
             final List<Group> secondDescriptorResidues, final List<Atom> secondDescriptorAtoms) {
         this();
@@ -48,6 +51,8 @@ public class AlignmentImpl implements Alignment {
         this.firstDescriptorAtoms = Lists.newArrayList();
         this.secondDescriptorResidues = Lists.newArrayList();
         this.secondDescriptorAtoms = Lists.newArrayList();
+        this.rmsdSums = new AlignmentRmsdSums();
+        this.rmsdSumsValid = false;
     }
 
     private AlignmentImpl(final AlignmentImpl alignment) {
@@ -55,6 +60,8 @@ public class AlignmentImpl implements Alignment {
         this.firstDescriptorAtoms = Lists.newArrayList(alignment.firstDescriptorAtoms);
         this.secondDescriptorResidues = Lists.newArrayList(alignment.secondDescriptorResidues);
         this.secondDescriptorAtoms = Lists.newArrayList(alignment.secondDescriptorAtoms);
+        this.rmsdSums = new AlignmentRmsdSums(alignment.rmsdSums);
+        this.rmsdSumsValid = alignment.rmsdSumsValid;
     }
 
     @Override
@@ -80,6 +87,7 @@ public class AlignmentImpl implements Alignment {
     @Override
     public void removeFromFirstDescriptor(final List<Group> firstDescriptorResidues,
             final List<Atom> firstDescriptorAtoms) {
+        rmsdSumsValid = false;
         CollectionUtils.remove(this.firstDescriptorResidues, firstDescriptorResidues);
         CollectionUtils.remove(this.firstDescriptorAtoms, firstDescriptorAtoms);
     }
@@ -87,6 +95,7 @@ public class AlignmentImpl implements Alignment {
     @Override
     public void removeFromSecondDescriptor(final List<Group> secondDescriptorResidues,
             final List<Atom> secondDescriptorAtoms) {
+        rmsdSumsValid = false;
         CollectionUtils.remove(this.secondDescriptorResidues, secondDescriptorResidues);
         CollectionUtils.remove(this.secondDescriptorAtoms, secondDescriptorAtoms);
     }
@@ -114,13 +123,36 @@ public class AlignmentImpl implements Alignment {
     @Override
     public List<Segment> extend(final Alignment extension, final int alignmentAtomsCount,
             final MoleculeType moleculeType) {
-        extendPreservingOrder(this, (AlignmentImpl) extension, alignmentAtomsCount);
-        return ensureChainConsistency(this, alignmentAtomsCount, moleculeType);
+        final AlignmentImpl extensionImpl = (AlignmentImpl) extension;
+        final int previousAtomsCount = getPairedAtomsCount();
+        final int extensionAtomsCount = extensionImpl.getPairedAtomsCount();
+        extendPreservingOrder(this, extensionImpl, alignmentAtomsCount);
+        final boolean incrementalUpdate = rmsdSumsValid && (previousAtomsCount >= 0)
+                && (extensionAtomsCount >= 0)
+                && (getPairedAtomsCount() == previousAtomsCount + extensionAtomsCount);
+        if (incrementalUpdate) {
+            rmsdSums.addPairs(extensionImpl.firstDescriptorAtoms, 0, extensionImpl.secondDescriptorAtoms, 0,
+                    extensionAtomsCount);
+        }
+        final List<Segment> segmentStates = ensureChainConsistency(this, alignmentAtomsCount, moleculeType);
+        if (incrementalUpdate) {
+            for (Segment segmentState : segmentStates) {
+                final int segmentAtomsCount = org.apache.commons.collections4.CollectionUtils
+                        .size(segmentState.atoms);
+                rmsdSums.removePairs(firstDescriptorAtoms, segmentState.startIndexOfAtoms, segmentState.atoms,
+                        0, segmentAtomsCount);
+                rmsdSums.addPairs(firstDescriptorAtoms, segmentState.startIndexOfAtoms, secondDescriptorAtoms,
+                        segmentState.startIndexOfAtoms, segmentAtomsCount);
+            }
+        }
+        rmsdSumsValid = incrementalUpdate;
+        return segmentStates;
     }
 
     @Override
     public void setExtension(final Alignment extension) {
         final AlignmentImpl extensionImpl = (AlignmentImpl) extension;
+        rmsdSumsValid = false;
         setFirstDescriptor(extensionImpl.firstDescriptorResidues, extensionImpl.firstDescriptorAtoms);
         setSecondDescriptor(extensionImpl.secondDescriptorResidues, extensionImpl.secondDescriptorAtoms);
     }
@@ -128,23 +160,55 @@ public class AlignmentImpl implements Alignment {
     @Override
     public void remove(final Alignment extension) {
         final AlignmentImpl extensionImpl = (AlignmentImpl) extension;
+        final int previousAtomsCount = getPairedAtomsCount();
+        final int extensionAtomsCount = extensionImpl.getPairedAtomsCount();
+        final boolean incrementalUpdate = rmsdSumsValid && (previousAtomsCount >= 0)
+                && (extensionAtomsCount >= 0);
+        if (incrementalUpdate) {
+            rmsdSums.removePairs(extensionImpl.firstDescriptorAtoms, 0, extensionImpl.secondDescriptorAtoms,
+                    0, extensionAtomsCount);
+        }
         removeFromFirstDescriptor(extensionImpl.firstDescriptorResidues, extensionImpl.firstDescriptorAtoms);
         removeFromSecondDescriptor(extensionImpl.secondDescriptorResidues,
                 extensionImpl.secondDescriptorAtoms);
+        rmsdSumsValid = incrementalUpdate
+                && (getPairedAtomsCount() == previousAtomsCount - extensionAtomsCount);
     }
 
+    /**
+     * RMSD is computed from the running sums of aligned atom pairs, they are updated by extensions and their
+     * removals and rebuilt from scratch only after changes that cannot be tracked incrementally. Only the
+     * RMSD is returned, coordinates are captured when the alignment is accepted.
+     */
     @Override
     public RmsdModel computeAlignmentRmsd() {
-        return DescriptorsComparatorImpl.computeAlignmentRmsd(firstDescriptorAtoms, secondDescriptorAtoms);
+        if (getPairedAtomsCount() < 0) {
+            return null;
+        }
+        if (!rmsdSumsValid) {
+            rmsdSums.reset(firstDescriptorAtoms, secondDescriptorAtoms);
+            rmsdSumsValid = true;
+        }
+        return new RmsdModel(rmsdSums.computeRmsd());
     }
 
     @Override
     public void revertSegmentStates(final List<Segment> segmentStates) {
         for (Segment segmentState : segmentStates) {
+            final int segmentAtomsCount = org.apache.commons.collections4.CollectionUtils
+                    .size(segmentState.atoms);
+            if (rmsdSumsValid) {
+                rmsdSums.removePairs(firstDescriptorAtoms, segmentState.startIndexOfAtoms,
+                        secondDescriptorAtoms, segmentState.startIndexOfAtoms, segmentAtomsCount);
+            }
             CollectionUtils.setFromSpecificPosition(secondDescriptorResidues, segmentState.residues,
                     segmentState.startIndexOfResidues);
             CollectionUtils.setFromSpecificPosition(secondDescriptorAtoms, segmentState.atoms,
                     segmentState.startIndexOfAtoms);
+            if (rmsdSumsValid) {
+                rmsdSums.addPairs(firstDescriptorAtoms, segmentState.startIndexOfAtoms,
+                        secondDescriptorAtoms, segmentState.startIndexOfAtoms, segmentAtomsCount);
+            }
         }
     }
 
@@ -158,6 +222,16 @@ public class AlignmentImpl implements Alignment {
         return secondDescriptorResidues.contains(residue);
     }
 
+    private int getPairedAtomsCount() {
+        final int firstDescriptorAtomsCount = org.apache.commons.collections4.CollectionUtils
+                .size(firstDescriptorAtoms);
+        if (firstDescriptorAtomsCount != org.apache.commons.collections4.CollectionUtils
+                .size(secondDescriptorAtoms)) {
+            return -1;
+        }
+        return firstDescriptorAtomsCount;
+    }
+
     private void init(final List<Group> firstDescriptorResidues, final List<Atom> firstDescriptorAtoms,
             final List<Group> secondDescriptorResidues, final List<Atom> secondDescriptorAtoms) {
         CollectionUtils.init(this.firstDescriptorResidues, firstDescriptorResidues);
@@ -0,0 +1,153 @@
+package edu.put.ma.model;
+
+import java.util.List;
+
+import org.biojava.nbio.structure.Atom;
+
+import edu.put.ma.utils.RmsdUtils;
+
+/**
+ * Running sums of coordinates, squared norms and cross products of aligned atom pairs. Pairs are added or
+ * removed in constant time and RMSD of the optimal superposition is computed from the sums without visiting
+ * atoms again. Coordinates are taken relative to the first added pair to limit the loss of precision.
+ */
+final class AlignmentRmsdSums {
+
+    private static final int ADDED = 1;
+
+    private static final int REMOVED = -1;
+
+    private int pairsCount;
+
+    private boolean originSet;
+
+    private double firstOriginX, firstOriginY, firstOriginZ;
+
+    private double secondOriginX, secondOriginY, secondOriginZ;
+
+    private double firstSumX, firstSumY, firstSumZ;
+
+    private double secondSumX, secondSumY, secondSumZ;
+
+    private double squaredNorms;
+
+    private double sxx, sxy, sxz, syx, syy, syz, szx, szy, szz;
+
+    AlignmentRmsdSums() {
+        clear();
+    }
+
+    AlignmentRmsdSums(final AlignmentRmsdSums sums) {
+        this.pairsCount = sums.pairsCount;
+        this.originSet = sums.originSet;
+        this.firstOriginX = sums.firstOriginX;
+        this.firstOriginY = sums.firstOriginY;
+        this.firstOriginZ = sums.firstOriginZ;
+        this.secondOriginX = sums.secondOriginX;
+        this.secondOriginY = sums.secondOriginY;
+        this.secondOriginZ = sums.secondOriginZ;
+        this.firstSumX = sums.firstSumX;
+        this.firstSumY = sums.firstSumY;
+        this.firstSumZ = sums.firstSumZ;
+        this.secondSumX = sums.secondSumX;
+        this.secondSumY = sums.secondSumY;
+        this.secondSumZ = sums.secondSumZ;
+        this.squaredNorms = sums.squaredNorms;
+        this.sxx = sums.sxx;
+        this.sxy = sums.sxy;
+        this.sxz = sums.sxz;
+        this.syx = sums.syx;
+        this.syy = sums.syy;
+        this.syz = sums.syz;
+        this.szx = sums.szx;
+        this.szy = sums.szy;
+        this.szz = sums.szz;
+    }
+
+    void clear() {
+        pairsCount = 0;
+        originSet = false;
+        firstOriginX = firstOriginY = firstOriginZ = 0.0;
+        secondOriginX = secondOriginY = secondOriginZ = 0.0;
+        firstSumX = firstSumY = firstSumZ = 0.0;
+        secondSumX = secondSumY = secondSumZ = 0.0;
+        squaredNorms = 0.0;
+        sxx = sxy = sxz = syx = syy = syz = szx = szy = szz = 0.0;
+    }
+
+    void reset(final List<Atom> firstAtoms, final List<Atom> secondAtoms) {
+        clear();
+        addPairs(firstAtoms, 0, secondAtoms, 0, firstAtoms.size());
+    }
+
+    void addPairs(final List<Atom> firstAtoms, final int firstStartIndex, final List<Atom> secondAtoms,
+            final int secondStartIndex, final int pairsCount) {
+        for (int pairIndex = 0; pairIndex < pairsCount; pairIndex++) {
+            update(firstAtoms.get(firstStartIndex + pairIndex),
+                    secondAtoms.get(secondStartIndex + pairIndex), ADDED);
+        }
+    }
+
+    void removePairs(final List<Atom> firstAtoms, final int firstStartIndex, final List<Atom> secondAtoms,
+            final int secondStartIndex, final int pairsCount) {
+        for (int pairIndex = 0; pairIndex < pairsCount; pairIndex++) {
+            update(firstAtoms.get(firstStartIndex + pairIndex),
+                    secondAtoms.get(secondStartIndex + pairIndex), REMOVED);
+        }
+    }
+
+    double computeRmsd() {
+        if (pairsCount == 0) {
+            return Double.MAX_VALUE;
+        }
+        final double firstCenterX = firstSumX / pairsCount;
+        final double firstCenterY = firstSumY / pairsCount;
+        final double firstCenterZ = firstSumZ / pairsCount;
+        final double secondCenterX = secondSumX / pairsCount;
+        final double secondCenterY = secondSumY / pairsCount;
+        final double secondCenterZ = secondSumZ / pairsCount;
+        final double centeredSquaredNorms = squaredNorms
+                - (firstSumX * firstCenterX + firstSumY * firstCenterY + firstSumZ * firstCenterZ)
+                - (secondSumX * secondCenterX + secondSumY * secondCenterY + secondSumZ * secondCenterZ);
+        return RmsdUtils.computeRmsd(sxx - firstSumX * secondCenterX, sxy - firstSumX * secondCenterY,
+                sxz - firstSumX * secondCenterZ, syx - firstSumY * secondCenterX,
+                syy - firstSumY * secondCenterY, syz - firstSumY * secondCenterZ,
+                szx - firstSumZ * secondCenterX, szy - firstSumZ * secondCenterY,
+                szz - firstSumZ * secondCenterZ, centeredSquaredNorms, pairsCount);
+    }
+
+    private void update(final Atom firstAtom, final Atom secondAtom, final int sign) {
+        if (!originSet) {
+            firstOriginX = firstAtom.getX();
+            firstOriginY = firstAtom.getY();
+            firstOriginZ = firstAtom.getZ();
+            secondOriginX = secondAtom.getX();
+            secondOriginY = secondAtom.getY();
+            secondOriginZ = secondAtom.getZ();
+            originSet = true;
+        }
+        final double x1 = firstAtom.getX() - firstOriginX;
+        final double y1 = firstAtom.getY() - firstOriginY;
+        final double z1 = firstAtom.getZ() - firstOriginZ;
+        final double x2 = secondAtom.getX() - secondOriginX;
+        final double y2 = secondAtom.getY() - secondOriginY;
+        final double z2 = secondAtom.getZ() - secondOriginZ;
+        pairsCount += sign;
+        firstSumX += sign * x1;
+        firstSumY += sign * y1;
+        firstSumZ += sign * z1;
+        secondSumX += sign * x2;
+        secondSumY += sign * y2;
+        secondSumZ += sign * z2;
+        squaredNorms += sign * (x1 * x1 + y1 * y1 + z1 * z1 + x2 * x2 + y2 * y2 + z2 * z2);
+        sxx += sign * x1 * x2;
+        sxy += sign * x1 * y2;
+        sxz += sign * x1 * z2;
+        syx += sign * y1 * x2;
+        syy += sign * y1 * y2;
+        syz += sign * y1 * z2;
+        szx += sign * z1 * x2;
+        szy += sign * z1 * y2;
+        szz += sign * z1 * z2;
+    }
+}
@@ -3,6 +3,7 @@ package edu.put.ma.model;
 import org.apache.commons.lang3.StringUtils;
 import org.biojava.nbio.structure.SVDSuperimposer;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import edu.put.ma.descs.SimilarDescriptorsVerifier;
@@ -21,8 +22,12 @@ public class ComparisonResultImpl implements ComparisonResult {
 
     private boolean structurallySimilar;
 
+    @Getter(AccessLevel.NONE)
     private SVDSuperimposer superimposer;
 
+    @Getter(AccessLevel.NONE)
+    private RmsdModel alignmentRmsdModel;
+
     @Setter
     private String sequenceAlignment;
 
@@ -51,6 +56,7 @@ public class ComparisonResultImpl implements ComparisonResult {
                 comparisonResult.alignedResiduesRatio, comparisonResult.alignmentGlobalRmsd,
                 comparisonResult.structurallySimilar, comparisonResult.superimposer,
                 comparisonResult.sequenceAlignment);
+        this.alignmentRmsdModel = comparisonResult.alignmentRmsdModel;
     }
 
     private ComparisonResultImpl(final double originElementsAlignmentRmsd, final double alignedElementsRatio,
@@ -77,13 +83,22 @@ public class ComparisonResultImpl implements ComparisonResult {
     public void update(final SimilarDescriptorsVerifier similarDescriptorsVerifier,
             final RmsdModel currentAlignmentRmsdModel, final double alignedElementsRatio,
             final double alignedResiduesRatio) {
-        this.superimposer = currentAlignmentRmsdModel.getSuperimposer();
+        this.superimposer = null;
+        this.alignmentRmsdModel = currentAlignmentRmsdModel;
         this.alignedElementsRatio = alignedElementsRatio;
         this.alignedResiduesRatio = alignedResiduesRatio;
         this.alignmentGlobalRmsd = currentAlignmentRmsdModel.getAlignmentRmsd();
         this.structurallySimilar = similarDescriptorsVerifier.areStructurallySimilar(this);
     }
 
+    @Override
+    public SVDSuperimposer getSuperimposer() {
+        if (alignmentRmsdModel != null) {
+            return alignmentRmsdModel.getSuperimposer();
+        }
+        return superimposer;
+    }
+
     @Override
     public String toString() {
         final StringBuilder result = new StringBuilder((structurallySimilar) ? "are" : "are not")
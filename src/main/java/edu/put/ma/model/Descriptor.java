@@ -24,6 +24,12 @@ public interface Descriptor {
 
     Structure getStructure();
 
+    /**
+     * Returns 3D structure of descriptor. A structure that has to be constructed for this purpose is not
+     * retained by the descriptor.
+     */
+    Structure build3d();
+
     String toString();
 
     String toStringWithoutOriginResidueIndex();
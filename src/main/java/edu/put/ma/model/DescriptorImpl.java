@@ -21,7 +21,6 @@ import edu.put.ma.access.ResiduesAccessFactory;
 import edu.put.ma.descs.DescriptorResidueType;
 import edu.put.ma.descs.DescriptorsComparatorImpl;
 import edu.put.ma.descs.UnappropriateDescriptorException;
-import edu.put.ma.gaps.GapsDistribution;
 import edu.put.ma.structure.StructureExtension;
 import edu.put.ma.utils.PreconditionUtils;
 import edu.put.ma.utils.ResidueUtils;
@@ -63,20 +62,6 @@ public class DescriptorImpl implements Descriptor {
 
     private String sequence;
 
-    public DescriptorImpl(final StructureExtension moleculeStructure, final int modelIndex,
-            final ModelProperties modelProperties, final int originResidueIndex,
-            final List<Integer> elementsCenters, final List<Integer> inContactResidues)
-            throws UnappropriateDescriptorException {
-        this.originResidueIndex = originResidueIndex;
-        this.elementsCenters = ImmutableList.copyOf(elementsCenters);
-        this.elementsCount = CollectionUtils.size(elementsCenters);
-        this.inContactResidues = ImmutableList.copyOf(inContactResidues);
-        this.residuesCount = CollectionUtils.size(inContactResidues);
-        this.neighbourhoodSize = modelProperties.getGapsDistribution().getNeibhourhoodSize();
-        this.id = build3d(moleculeStructure, modelIndex, modelProperties);
-        this.segmentsCount = computeSegmentsCount(moleculeStructure.getMoleculeType());
-    }
-
     public DescriptorImpl(final StructureExtension descriptorStructure,
             final ResiduesAccess descriptorResiduesAccess, final boolean copyStructure)
             throws UnappropriateDescriptorException {
@@ -101,6 +86,11 @@ public class DescriptorImpl implements Descriptor {
         return toString(NOT_CONSIDER_ORIGIN_RESIDUE_INDEX);
     }
 
+    @Override
+    public Structure build3d() {
+        return structure;
+    }
+
     @Override
     public List<Group> getResidues() {
         final List<Group> residues = Lists.newArrayList();
@@ -220,52 +210,6 @@ public class DescriptorImpl implements Descriptor {
         return newOriginResiduesCount;
     }
 
-    private String build3d(final StructureExtension extendedStructure, final int modelIndex,
-            final ModelProperties modelProperties) throws UnappropriateDescriptorException {
-        final int realModelIndex = Math.max(0, modelIndex);
-        structure = extendedStructure.cloneModelWithoutResiduesByIndex(realModelIndex);
-        final List<Chain> model = extendedStructure.getModelByIndex(realModelIndex);
-        final int inContactResiduesCount = CollectionUtils.size(inContactResidues);
-        String residueKey = null;
-        int atomNo = 1;
-        int coveredResiduesCount = 0;
-        final ResiduesAccess residuesAccess = modelProperties.getResiduesAccess();
-        final GapsDistribution gapsDistribution = modelProperties.getGapsDistribution();
-        for (int residueIndex = 0; residueIndex < inContactResiduesCount; residueIndex++) {
-            final int inContactResidueIndex = inContactResidues.get(residueIndex).intValue();
-            final int chainIndex = residuesAccess.getChainIndex(inContactResidueIndex);
-            final Group residue = residuesAccess.cloneResidueByIndex(inContactResidueIndex, model);
-            if (residue != null) {
-                atomNo = processResidueAtoms(atomNo, gapsDistribution, inContactResidueIndex, residue);
-                if (originResidueIndex == inContactResidueIndex) {
-                    residueKey = ResidueUtils.getResidueKey(residue);
-                }
-                structure.getChain(chainIndex).addGroup(residue);
-                coveredResiduesCount++;
-            }
-        }
-        final String descriptorId = getDescriptorId(extendedStructure, modelIndex, residueKey);
-        this.valid = (inContactResiduesCount == coveredResiduesCount)
-                && validateStructure(extendedStructure.getMoleculeType(), descriptorId);
-        return descriptorId;
-    }
-
-    private int processResidueAtoms(final int atomNo, final GapsDistribution gapsDistribution,
-            final int inContactResidueIndex, final Group residue) {
-        int currentAtomNo = atomNo;
-        for (org.biojava.nbio.structure.Atom atom : residue.getAtoms()) {
-            if (elementsCenters.contains(inContactResidueIndex)) {
-                atom.setTempFactor((originResidueIndex == inContactResidueIndex) ? DescriptorResidueType.ORIGIN_CENTER
-                        .getFlag() : DescriptorResidueType.OTHER_CENTER.getFlag());
-                if (originResidueIndex == inContactResidueIndex) {
-                    atom.setOccupancy(gapsDistribution.getNeibhourhoodSize());
-                }
-            }
-            atom.setPDBserial(currentAtomNo++);
-        }
-        return currentAtomNo;
-    }
-
     private boolean validateStructure(final MoleculeType moleculeType, final String descId)
             throws UnappropriateDescriptorException {
         final List<Chain> model = structure.getModel(0);
@@ -315,7 +259,7 @@ public class DescriptorImpl implements Descriptor {
         return result;
     }
 
-    private static final void extendSequence(final StringBuilder sequenceBuilder,
+    static final void extendSequence(final StringBuilder sequenceBuilder,
             final StringBuilder segmentSequenceBuilder) {
         if (sequenceBuilder.length() > 0) {
             sequenceBuilder.append(", ");
@@ -323,7 +267,7 @@ public class DescriptorImpl implements Descriptor {
         sequenceBuilder.append(segmentSequenceBuilder.toString());
     }
 
-    private static final void updatePosition(final StringBuilder positionBuilder, final Group currentResidue,
+    static final void updatePosition(final StringBuilder positionBuilder, final Group currentResidue,
             final Group previousResidue) {
         if (previousResidue != null) {
             positionBuilder.append("-").append(previousResidue.getResidueNumber().printFull());
@@ -336,16 +280,6 @@ public class DescriptorImpl implements Descriptor {
         }
     }
 
-    private static final String getDescriptorId(final StructureExtension extendedStructure,
-            final int modelIndex, final String residueKey) {
-        final StringBuilder idsb = new StringBuilder(extendedStructure.getInputFileBasename());
-        if (modelIndex >= 0) {
-            idsb.append("_").append(String.valueOf(modelIndex + 1));
-        }
-        idsb.append("_").append(residueKey);
-        return idsb.toString();
-    }
-
     private static final int getResiduesCountInAllContinousElements(final MoleculeType moleculeType,
             final List<Chain> model, final ResiduesAccess residuesAccess, final List<Integer> elementCenters,
             final int neighbourhoodSize, final String descId) throws UnappropriateDescriptorException {
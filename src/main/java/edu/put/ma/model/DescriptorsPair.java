@@ -14,6 +14,10 @@ public interface DescriptorsPair {
 
     String getDescriptorsPairId();
 
+    Descriptor getFirstDescriptor();
+
+    Descriptor getSecondDescriptor();
+
     boolean areSingleElementDescriptors();
 
     List<Group> getFirstDescriptorOriginElementResidues();
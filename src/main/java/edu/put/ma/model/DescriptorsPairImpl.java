@@ -48,6 +48,16 @@ public class DescriptorsPairImpl implements DescriptorsPair {
                 secondDescriptorResiduesAccess, alignmentMode == AlignmentMode.CONSIDER);
     }
 
+    public DescriptorsPairImpl(final ResiduesAccess firstDescriptorResiduesAccess,
+            final Descriptor firstDescriptor, final ResiduesAccess secondDescriptorResiduesAccess,
+            final Descriptor secondDescriptor, final MoleculeType moleculeType) {
+        this.moleculeType = moleculeType;
+        this.firstDescriptorResiduesAccess = firstDescriptorResiduesAccess;
+        this.firstDescriptor = firstDescriptor;
+        this.secondDescriptorResiduesAccess = secondDescriptorResiduesAccess;
+        this.secondDescriptor = secondDescriptor;
+    }
+
     @Override
     public String getDescriptorsPairId() {
         return new StringBuilder(firstDescriptor.getId()).append(", ").append(secondDescriptor.getId())
@@ -0,0 +1,330 @@
+package edu.put.ma.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+import org.biojava.nbio.structure.Chain;
+import org.biojava.nbio.structure.Group;
+import org.biojava.nbio.structure.SVDSuperimposer;
+import org.biojava.nbio.structure.Structure;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+
+import edu.put.ma.access.ResiduesAccess;
+import edu.put.ma.descs.DescriptorResidueType;
+import edu.put.ma.descs.DescriptorsComparatorImpl;
+import edu.put.ma.descs.UnappropriateDescriptorException;
+import edu.put.ma.gaps.GapsDistribution;
+import edu.put.ma.structure.StructureExtension;
+import edu.put.ma.utils.PreconditionUtils;
+import edu.put.ma.utils.ResidueUtils;
+
+/**
+ * Descriptor built from a model, kept as indexes of its residues in the shared model. Its identifier,
+ * validity and summary are computed from the original residues, while the 3D structure of descriptor is
+ * materialised only when it is requested. Residues of the structure follow the ascending order of their
+ * indexes in the model, whatever order they were given in. Every descriptor keeps a reference to the
+ * extended structure it was built from, so the whole model stays in memory as long as any of its
+ * descriptors is reachable. A descriptor referring to a residue that is not available in the model is
+ * built as invalid.
+ */
+public class IndexedDescriptorImpl implements Descriptor {
+
+    private final StructureExtension extendedStructure;
+
+    private final int modelIndex;
+
+    private final ModelProperties modelProperties;
+
+    private final int originResidueIndex;
+
+    private final int[] elementsCenters;
+
+    private final int[] inContactResidues;
+
+    @Getter
+    private final int elementsCount;
+
+    @Getter
+    private final int residuesCount;
+
+    @Getter
+    private final int neighbourhoodSize;
+
+    @Getter
+    private final String id;
+
+    @Getter
+    private final boolean valid;
+
+    @Getter
+    private final int segmentsCount;
+
+    private String position;
+
+    private String sequence;
+
+    private Structure structure;
+
+    public IndexedDescriptorImpl(final StructureExtension extendedStructure, final int modelIndex,
+            final ModelProperties modelProperties, final int originResidueIndex,
+            final List<Integer> elementsCenters, final List<Integer> inContactResidues,
+            final int segmentsCount) throws UnappropriateDescriptorException {
+        this.extendedStructure = extendedStructure;
+        this.modelIndex = modelIndex;
+        this.modelProperties = modelProperties;
+        this.originResidueIndex = originResidueIndex;
+        this.elementsCenters = Ints.toArray(elementsCenters);
+        this.elementsCount = this.elementsCenters.length;
+        this.inContactResidues = Ints.toArray(inContactResidues);
+        Arrays.sort(this.inContactResidues);
+        this.residuesCount = this.inContactResidues.length;
+        this.segmentsCount = segmentsCount;
+        this.neighbourhoodSize = modelProperties.getGapsDistribution().getNeibhourhoodSize();
+        final List<Chain> model = getModel();
+        final ResiduesAccess residuesAccess = modelProperties.getResiduesAccess();
+        final Group originResidue = residuesAccess.getResidueByIndex(originResidueIndex, model);
+        this.id = getDescriptorId(extendedStructure, modelIndex,
+                (originResidue != null) ? ResidueUtils.getResidueKey(originResidue) : null);
+        this.valid = areAllResiduesAvailable(model, residuesAccess)
+                && validate(extendedStructure.getMoleculeType(), model, residuesAccess);
+        computeSummary(extendedStructure.getMoleculeType(), model, residuesAccess);
+    }
+
+    @Override
+    public synchronized Structure getStructure() {
+        if (structure == null) {
+            structure = constructStructure();
+        }
+        return structure;
+    }
+
+    @Override
+    public Structure build3d() {
+        synchronized (this) {
+            if (structure != null) {
+                return structure;
+            }
+        }
+        return constructStructure();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(String.valueOf(originResidueIndex + 1)).append("\t")
+                .append(toStringWithoutOriginResidueIndex()).toString();
+    }
+
+    @Override
+    public String toStringWithoutOriginResidueIndex() {
+        return new StringBuilder(id).append("\t").append(segmentsCount).append("\t").append(elementsCount)
+                .append("\t").append(residuesCount).append("\t").append(position).append("\t")
+                .append(sequence).toString();
+    }
+
+    @Override
+    public List<Group> getOriginElementResidues(final ResiduesAccess residuesAccess) {
+        return residuesAccess.getElementResiduesByCenterIndex(getPosition(originResidueIndex),
+                getStructure().getModel(0), neighbourhoodSize);
+    }
+
+    @Override
+    public void rotateAndShift(final SVDSuperimposer superimposer) {
+        for (Chain chain : getStructure().getModel(0)) {
+            for (Group residue : chain.getAtomGroups()) {
+                for (org.biojava.nbio.structure.Atom atom : residue.getAtoms()) {
+                    DescriptorsComparatorImpl.rotateAndShiftAtom(atom, superimposer);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Group> getOtherElementResiduesByIndex(final int otherElementIndex,
+            final ResiduesAccess residuesAccess) {
+        final int originResidueElementCentersIndex = Ints.indexOf(elementsCenters, originResidueIndex);
+        final int otherElementCentersIndex = (otherElementIndex >= originResidueElementCentersIndex) ? otherElementIndex + 1
+                : otherElementIndex;
+        PreconditionUtils.checkIfIndexInRange(otherElementCentersIndex, 0, elementsCount, "Other element");
+        return residuesAccess.getElementResiduesByCenterIndex(
+                getPosition(elementsCenters[otherElementCentersIndex]), getStructure().getModel(0),
+                neighbourhoodSize);
+    }
+
+    @Override
+    public List<Group> getResidues() {
+        final List<Group> residues = Lists.newArrayList();
+        for (Chain chain : getStructure().getModel(0)) {
+            residues.addAll(chain.getAtomGroups());
+        }
+        return Collections.unmodifiableList(residues);
+    }
+
+    private List<Chain> getModel() {
+        return extendedStructure.getModelByIndex(Math.max(0, modelIndex));
+    }
+
+    private int getPosition(final int residueIndex) {
+        return Arrays.binarySearch(inContactResidues, residueIndex);
+    }
+
+    private Structure constructStructure() {
+        final Structure result = extendedStructure.cloneModelWithoutResiduesByIndex(Math.max(0, modelIndex));
+        final List<Chain> model = getModel();
+        final ResiduesAccess residuesAccess = modelProperties.getResiduesAccess();
+        final GapsDistribution gapsDistribution = modelProperties.getGapsDistribution();
+        int atomNo = 1;
+        for (int inContactResidueIndex : inContactResidues) {
+            final int chainIndex = residuesAccess.getChainIndex(inContactResidueIndex);
+            final Group residue = residuesAccess.cloneResidueByIndex(inContactResidueIndex, model);
+            if (residue != null) {
+                atomNo = processResidueAtoms(atomNo, gapsDistribution, inContactResidueIndex, residue);
+                result.getChain(chainIndex).addGroup(residue);
+            }
+        }
+        return result;
+    }
+
+    private boolean areAllResiduesAvailable(final List<Chain> model, final ResiduesAccess residuesAccess) {
+        for (int inContactResidueIndex : inContactResidues) {
+            if (residuesAccess.getResidueByIndex(inContactResidueIndex, model) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int processResidueAtoms(final int atomNo, final GapsDistribution gapsDistribution,
+            final int inContactResidueIndex, final Group residue) {
+        int currentAtomNo = atomNo;
+        final boolean elementCenter = Ints.contains(elementsCenters, inContactResidueIndex);
+        for (org.biojava.nbio.structure.Atom atom : residue.getAtoms()) {
+            if (elementCenter) {
+                atom.setTempFactor((originResidueIndex == inContactResidueIndex) ? DescriptorResidueType.ORIGIN_CENTER
+                        .getFlag() : DescriptorResidueType.OTHER_CENTER.getFlag());
+                if (originResidueIndex == inContactResidueIndex) {
+                    atom.setOccupancy(gapsDistribution.getNeibhourhoodSize());
+                }
+            }
+            atom.setPDBserial(currentAtomNo++);
+        }
+        return currentAtomNo;
+    }
+
+    private boolean validate(final MoleculeType moleculeType, final List<Chain> model,
+            final ResiduesAccess residuesAccess) throws UnappropriateDescriptorException {
+        final int[] elementCentersPositions = new int[elementsCount];
+        for (int elementIndex = 0; elementIndex < elementsCount; elementIndex++) {
+            elementCentersPositions[elementIndex] = getPosition(elementsCenters[elementIndex]);
+        }
+        Arrays.sort(elementCentersPositions);
+        final boolean[] coveredPositions = new boolean[residuesCount];
+        int coveredResiduesCount = 0;
+        for (int elementCenterPosition : elementCentersPositions) {
+            final int leftBoundaryPosition = elementCenterPosition - neighbourhoodSize;
+            final int rightBoundaryPosition = elementCenterPosition + neighbourhoodSize;
+            if (!isElementContinous(moleculeType, model, residuesAccess, leftBoundaryPosition,
+                    rightBoundaryPosition)) {
+                throw new UnappropriateDescriptorException(
+                        String.format(
+                                "Descriptor %s contains at least one uncontinous element! This is prohibited, so will be ignored",
+                                id));
+            }
+            for (int position = leftBoundaryPosition; position <= rightBoundaryPosition; position++) {
+                if (!coveredPositions[position]) {
+                    coveredPositions[position] = true;
+                    coveredResiduesCount++;
+                }
+            }
+        }
+        if (residuesCount != coveredResiduesCount) {
+            throw new UnappropriateDescriptorException(String.format(
+                    "Structure %s contains residues [%s] that are not covered by elements definition", id,
+                    residuesCount - coveredResiduesCount));
+        }
+        return true;
+    }
+
+    private boolean isElementContinous(final MoleculeType moleculeType, final List<Chain> model,
+            final ResiduesAccess residuesAccess, final int leftBoundaryPosition, final int rightBoundaryPosition) {
+        if ((leftBoundaryPosition < 0) || (rightBoundaryPosition >= residuesCount)) {
+            return false;
+        }
+        for (int position = leftBoundaryPosition + 1; position <= rightBoundaryPosition; position++) {
+            final Group previousResidue = residuesAccess.getResidueByIndex(inContactResidues[position - 1], model);
+            final Group currentResidue = residuesAccess.getResidueByIndex(inContactResidues[position], model);
+            if (!ResidueUtils.areResiduesConnected(moleculeType, previousResidue, currentResidue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts segments, i.e. runs of connected residues, formed by the given in-contact residues of a model.
+     * Residues that cannot be resolved from the model are skipped.
+     */
+    public static final int computeSegmentsCount(final MoleculeType moleculeType, final List<Chain> model,
+            final ResiduesAccess residuesAccess, final List<Integer> inContactResidues) {
+        final int[] sortedInContactResidues = Ints.toArray(inContactResidues);
+        Arrays.sort(sortedInContactResidues);
+        int result = 1;
+        Group previousResidue = null;
+        for (int inContactResidueIndex : sortedInContactResidues) {
+            final Group currentResidue = residuesAccess.getResidueByIndex(inContactResidueIndex, model);
+            if (currentResidue == null) {
+                continue;
+            }
+            if ((previousResidue != null)
+                    && (!ResidueUtils.areResiduesConnected(moleculeType, previousResidue, currentResidue))) {
+                result++;
+            }
+            previousResidue = currentResidue;
+        }
+        return result;
+    }
+
+    private void computeSummary(final MoleculeType moleculeType, final List<Chain> model,
+            final ResiduesAccess residuesAccess) {
+        Group previousResidue = null;
+        final StringBuilder positionBuilder = new StringBuilder();
+        final StringBuilder segmentSequenceBuilder = new StringBuilder();
+        final StringBuilder sequenceBuilder = new StringBuilder();
+        for (int inContactResidueIndex : inContactResidues) {
+            final Group currentResidue = residuesAccess.getResidueByIndex(inContactResidueIndex, model);
+            if (currentResidue == null) {
+                continue;
+            }
+            if ((previousResidue != null)
+                    && (!ResidueUtils.areResiduesConnected(moleculeType, previousResidue, currentResidue))) {
+                DescriptorImpl.updatePosition(positionBuilder, currentResidue, previousResidue);
+                DescriptorImpl.extendSequence(sequenceBuilder, segmentSequenceBuilder);
+                segmentSequenceBuilder.delete(0, segmentSequenceBuilder.length());
+            } else if (previousResidue == null) {
+                DescriptorImpl.updatePosition(positionBuilder, currentResidue, previousResidue);
+            }
+            final Residue residueEntry = ResiduesDictionary.getResidueEntry(currentResidue.getPDBName(),
+                    moleculeType);
+            segmentSequenceBuilder.append(residueEntry.getSingleLetterCode());
+            previousResidue = currentResidue;
+        }
+        DescriptorImpl.updatePosition(positionBuilder, null, previousResidue);
+        position = positionBuilder.toString().replaceAll("_", "");
+        DescriptorImpl.extendSequence(sequenceBuilder, segmentSequenceBuilder);
+        sequence = sequenceBuilder.toString();
+    }
+
+    private static final String getDescriptorId(final StructureExtension extendedStructure,
+            final int modelIndex, final String residueKey) {
+        final StringBuilder idsb = new StringBuilder(extendedStructure.getInputFileBasename());
+        if (modelIndex >= 0) {
+            idsb.append("_").append(String.valueOf(modelIndex + 1));
+        }
+        idsb.append("_").append(residueKey);
+        return idsb.toString();
+    }
+}
@@ -1,10 +1,18 @@
 package edu.put.ma.model;
 
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.AtomImpl;
 import org.biojava.nbio.structure.SVDSuperimposer;
 
+import edu.put.ma.descs.DescriptorsComparatorImpl;
+
 @RequiredArgsConstructor
 @Getter
 public class RmsdModel {
@@ -13,10 +21,59 @@ public class RmsdModel {
 
     private final double alignmentRmsd;
 
+    @Getter(AccessLevel.NONE)
     private SVDSuperimposer superimposer;
 
+    @Getter(AccessLevel.NONE)
+    private double[] targetCoordinates;
+
+    @Getter(AccessLevel.NONE)
+    private double[] otherCoordinates;
+
     public RmsdModel(final double alignmentRmsd, final SVDSuperimposer superimposer) {
         this(alignmentRmsd);
         this.superimposer = superimposer;
     }
+
+    /**
+     * The superimposer is computed on demand from the snapshot of coordinates of both atom lists, only
+     * alignments that are finally applied to the second descriptor need it.
+     */
+    public RmsdModel(final double alignmentRmsd, final List<Atom> targetAtoms, final List<Atom> otherAtoms) {
+        this(alignmentRmsd);
+        this.targetCoordinates = getCoordinates(targetAtoms);
+        this.otherCoordinates = getCoordinates(otherAtoms);
+    }
+
+    public SVDSuperimposer getSuperimposer() {
+        if ((superimposer == null) && (targetCoordinates != null)) {
+            superimposer = DescriptorsComparatorImpl.superimpose(Arrays.asList(getAtoms(targetCoordinates)),
+                    Arrays.asList(getAtoms(otherCoordinates)));
+            targetCoordinates = null;
+            otherCoordinates = null;
+        }
+        return superimposer;
+    }
+
+    private static final double[] getCoordinates(final List<Atom> atoms) {
+        final int atomsCount = atoms.size();
+        final double[] result = new double[atomsCount * 3];
+        for (int atomIndex = 0; atomIndex < atomsCount; atomIndex++) {
+            final Atom atom = atoms.get(atomIndex);
+            result[atomIndex * 3] = atom.getX();
+            result[atomIndex * 3 + 1] = atom.getY();
+            result[atomIndex * 3 + 2] = atom.getZ();
+        }
+        return result;
+    }
+
+    private static final Atom[] getAtoms(final double[] coordinates) {
+        final Atom[] result = new Atom[coordinates.length / 3];
+        for (int atomIndex = 0; atomIndex < result.length; atomIndex++) {
+            result[atomIndex] = new AtomImpl();
+            result[atomIndex].setCoords(new double[] { coordinates[atomIndex * 3],
+                    coordinates[atomIndex * 3 + 1], coordinates[atomIndex * 3 + 2] });
+        }
+        return result;
+    }
 }
@@ -2,7 +2,11 @@ package edu.put.ma.model.input;
 
 import static edu.put.ma.utils.StringUtils.NEW_LINE;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -12,6 +16,7 @@ import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +30,7 @@ import edu.put.ma.descs.AlignmentMode;
 import edu.put.ma.descs.DescriptorsFilterImpl;
 import edu.put.ma.descs.SimilarDescriptorsVerifierImpl;
 import edu.put.ma.descs.algorithms.AlignmentAcceptanceMode;
+import edu.put.ma.descs.algorithms.AssignmentSolvers;
 import edu.put.ma.descs.algorithms.ComparisonAlgorithms;
 import edu.put.ma.io.FormatType;
 import edu.put.ma.model.MoleculeType;
@@ -44,10 +50,14 @@ public abstract class CommonInputModelImpl implements CommonInputModel {
 
     protected static final ComparisonAlgorithms DEFAULT_ALGORITHM_TYPE = ComparisonAlgorithms.BACKTRACKING_DRIVEN_LONGEST_ALIGNMENT;
 
+    protected static final AssignmentSolvers DEFAULT_ASSIGNMENT_SOLVER_TYPE = AssignmentSolvers.HUNGARIAN_METHOD;
+
     private static final FormatType DEFAULT_FORMAT = FormatType.PDB;
 
     private static final int COMMON_ARGUMENTS_COUNT = 2;
 
+    private static final String OPTION_VALUES_SEPARATOR = ",";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(CommonInputModelImpl.class);
 
     @Getter
@@ -164,6 +174,23 @@ public abstract class CommonInputModelImpl implements CommonInputModel {
         return getDoubleWhenNotLessZero(commandLine, option, postfix);
     }
 
+    protected static final List<String> getInputFilePaths(final String inputSetPath,
+            final String description) {
+        final List<String> result = Lists.newArrayList();
+        final File inputSetFile = FileUtils.getFile(inputSetPath);
+        if (inputSetFile.isDirectory()) {
+            for (File inputFile : FileUtils.listFiles(inputSetFile, null, false)) {
+                result.add(inputFile.getAbsolutePath());
+            }
+        } else {
+            PreconditionUtils.checkIfFileExistsAndIsNotADirectory(inputSetFile, description);
+            addInputFilePathsFromList(inputSetFile, description, result);
+        }
+        PreconditionUtils.checkIfListIsEmpty(result, description);
+        Collections.sort(result);
+        return Collections.unmodifiableList(result);
+    }
+
     @Getter
     protected static class Builder {
 
@@ -194,7 +221,7 @@ public abstract class CommonInputModelImpl implements CommonInputModel {
                                 || isConsideredPrimitive(field, fieldObject) || isNotNullOtherInstance(field,
                                     fieldObject))) {
                     result.add(optionsMapping.get(fieldName));
-                    result.add(String.valueOf(fieldObject));
+                    result.add(getOptionValueString(fieldObject));
                 } else if (areParticularInstancesConsidered(field, fieldObject)) {
                     final List<String> nestedResult = processDeclaredFields(fieldObject.getClass(),
                             fieldObject);
@@ -215,7 +242,7 @@ public abstract class CommonInputModelImpl implements CommonInputModel {
     }
 
     private boolean isConsideredString(final Field field, final Object fieldObject) {
-        return (field.getType().isAssignableFrom((Class<?>) String.class))
+        return (field.getType().isAssignableFrom((Class<?>) String.class)) && (fieldObject != null)
                 && (StringUtils.isNotBlank(String.valueOf(fieldObject)));
     }
 
@@ -260,6 +287,13 @@ public abstract class CommonInputModelImpl implements CommonInputModel {
         return enumValue;
     }
 
+    private static final String getOptionValueString(final Object fieldObject) {
+        if (fieldObject instanceof Collection) {
+            return StringUtils.join((Collection<?>) fieldObject, OPTION_VALUES_SEPARATOR);
+        }
+        return String.valueOf(fieldObject);
+    }
+
     private static final String getOptionString(final CommandLine commandLine, final String option) {
         if (commandLine.hasOption(option)) {
             return commandLine.getOptionValue(option);
@@ -319,4 +353,21 @@ public abstract class CommonInputModelImpl implements CommonInputModel {
         return -1.0;
     }
 
+    private static final void addInputFilePathsFromList(final File inputSetFile, final String description,
+            final List<String> result) {
+        try {
+            for (String line : FileUtils.readLines(inputSetFile)) {
+                final String inputFilePath = StringUtils.trim(line);
+                if ((StringUtils.isNotBlank(inputFilePath))
+                        && (!StringUtils.startsWith(inputFilePath, "#"))) {
+                    final File inputFile = FileUtils.getFile(inputFilePath);
+                    result.add(inputFile.isAbsolute() ? inputFilePath : FileUtils.getFile(
+                            inputSetFile.getAbsoluteFile().getParentFile(), inputFilePath).getAbsolutePath());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(String.format("%s '%s' cannot be read: %s", description,
+                    inputSetFile.getPath(), e.getMessage()), e);
+        }
+    }
 }
@@ -1,21 +1,41 @@
 package edu.put.ma.model.input;
 
+import java.util.List;
+
 import edu.put.ma.descs.DescriptorsFilter;
 import edu.put.ma.model.MoleculeType;
 
 public interface DescriptorsBuilderInputModel extends CommonInputModel {
 
     String getInputFilePath();
+
+    String getInputBatchPath();
+
+    boolean isBatchMode();
+
+    List<String> getInputFilePaths();
     
     MoleculeType getMoleculeType();
     
     String getInContactResiduesExpressionString();
+
+    List<String> getInContactResiduesExpressionStrings();
     
     int getElementSize();
+
+    List<Integer> getElementSizes();
     
     int getThreadsCount();
+
+    int getModelsThreadsCount();
     
     DescriptorsFilter getDescriptorsFilter();
+
+    boolean isContactsCacheUsed();
+
+    String getContactsCacheDirPath();
+
+    int getContactsCacheSize();
     
     String getOutputDirPath();
 
@@ -1,9 +1,14 @@
 package edu.put.ma.model.input;
 
 import static edu.put.ma.descs.DescriptorsBuilderImpl.DEFAULT_ELEMENT_SIZE;
+import static edu.put.ma.descs.contacts.InContactResiduesMapCacheFactory.DEFAULT_MAXIMAL_SIZE_IN_MEGABYTES;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 import lombok.Getter;
 
@@ -15,6 +20,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 import edu.put.ma.descs.DescriptorsFilter;
 import edu.put.ma.descs.DescriptorsFilterImpl;
@@ -27,6 +34,12 @@ import edu.put.ma.utils.PreconditionUtils;
 public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl implements
         DescriptorsBuilderInputModel {
 
+    private static final int DEFAULT_MODELS_THREADS_COUNT = 1;
+
+    private static final String ELEMENT_SIZES_SEPARATOR = ",";
+
+    private static final String EXPRESSION_FILE_PATHS_SEPARATOR = ",";
+
     private static final int MINIMAL_EVEN_NUMBER = 2;
 
     private static final int ODD_NUMBER_REMAINDER = 1;
@@ -35,16 +48,30 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
 
     private String inputFilePath;
 
+    private String inputBatchPath;
+
+    private List<String> inputFilePaths;
+
     private MoleculeType moleculeType;
 
     private String inContactResiduesExpressionString;
 
+    private List<String> inContactResiduesExpressionStrings;
+
     private int elementSize;
 
+    private List<Integer> elementSizes;
+
     private int threadsCount;
 
+    private int modelsThreadsCount;
+
     private DescriptorsFilter descriptorsFilter;
 
+    private String contactsCacheDirPath;
+
+    private int contactsCacheSize;
+
     private String outputDirPath;
 
     public DescriptorsBuilderInputModelImpl(final String[] args, final String artifactId) {
@@ -56,34 +83,62 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
         super(descriptorsBuilderInputModelBuilder.inputFormat,
                 descriptorsBuilderInputModelBuilder.outputFormat);
         this.inputFilePath = descriptorsBuilderInputModelBuilder.inputFilePath;
+        this.inputBatchPath = descriptorsBuilderInputModelBuilder.inputBatchPath;
+        setInputFilePaths();
         this.moleculeType = descriptorsBuilderInputModelBuilder.moleculeType;
         this.inContactResiduesExpressionString = descriptorsBuilderInputModelBuilder.inContactResiduesExpressionString;
+        this.inContactResiduesExpressionStrings = descriptorsBuilderInputModelBuilder.inContactResiduesExpressionStrings;
         this.elementSize = descriptorsBuilderInputModelBuilder.elementSize;
+        this.elementSizes = descriptorsBuilderInputModelBuilder.elementSizes;
         this.threadsCount = descriptorsBuilderInputModelBuilder.threadsCount;
+        this.modelsThreadsCount = descriptorsBuilderInputModelBuilder.modelsThreadsCount;
         this.descriptorsFilter = descriptorsBuilderInputModelBuilder.descriptorsFilterBuilder.build();
+        this.contactsCacheDirPath = descriptorsBuilderInputModelBuilder.contactsCacheDirPath;
+        this.contactsCacheSize = descriptorsBuilderInputModelBuilder.contactsCacheSize;
         this.outputDirPath = descriptorsBuilderInputModelBuilder.outputDirPath;
         initOptionsMapping();
     }
 
     @Override
     public boolean isInputInitializedProperly() {
-        return (isCommandLineHasOption("i"))
+        return ((isCommandLineHasOption("i")) || (isCommandLineHasOption("ib")))
                 && (isCommandLineHasOption("mt") && (isCommandLineHasOption("ice")));
     }
 
+    @Override
+    public boolean isBatchMode() {
+        return StringUtils.isNotBlank(inputBatchPath);
+    }
+
+    @Override
+    public boolean isContactsCacheUsed() {
+        return StringUtils.isNotBlank(contactsCacheDirPath);
+    }
+
     @Override
     public Options constructSpecificOptions() {
         final Options options = new Options();
         options.addOption("i", "input-file", true, "input file path");
+        options.addOption("ib", "input-batch", true,
+                "input directory or file listing input file paths (one per line) processed in a single run");
         options.addOption("mt", "molecule-type", true,
                 "supported molecule types: " + ArrayUtils.getEnumNamesString(MoleculeType.class));
         options.addOption("ice", "in-contact-residues-expression-file", true,
-                "file path of the expression that should be fulfilled by each in-contact residues pair");
+                "file path of the expression that should be fulfilled by each in-contact residues pair, several comma-separated files are evaluated in a single pass");
         options.addOption("od", "output-directory", true, "(optional) output directory path");
         options.addOption("es", "element-size", true,
-                "(optional) number of residues in a single element [default=" + DEFAULT_ELEMENT_SIZE + "]");
+                "(optional) number of residues in a single element, several comma-separated sizes share a single contact map [default="
+                        + DEFAULT_ELEMENT_SIZE + "]");
         options.addOption("tc", "threads-count", true,
                 "(optional) number of threads used during processing [default=" + AVAILABLE_PROCESSORS + "]");
+        options.addOption("mtc", "models-threads-count", true,
+                "(optional) number of models of multi-model structure processed concurrently [default="
+                        + DEFAULT_MODELS_THREADS_COUNT + "]");
+        options.addOption("ccd", "contacts-cache-directory", true,
+                "(optional) directory of persistent cache of in-contact residues maps reused between runs");
+        options.addOption("ccs", "contacts-cache-size", true,
+                "(optional) maximal size of in-contact residues maps cache in megabytes [default="
+                        + DEFAULT_MAXIMAL_SIZE_IN_MEGABYTES + "]");
         options.addOption(
                 "fscge",
                 "filter-of-descriptors-that-characterized-with-lower-value-of-segments-count",
@@ -126,22 +181,28 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
     protected void initOptionsMapping() {
         super.initOptionsMapping();
         this.optionsMapping.putAll(new ImmutableMap.Builder<String, String>().put("inputFilePath", "-i")
-                .put("outputDirPath", "-od").put("moleculeType", "-mt").put("elementSize", "-es")
-                .put("threadsCount", "-tc").put("minimalSegmentsCount", "-fscge")
-                .put("maximalSegmentsCount", "-fscle").put("minimalElementsCount", "-fecge")
-                .put("maximalElementsCount", "-fecle").put("minimalResiduesCount", "-frcge")
-                .put("maximalResiduesCount", "-frcle").build());
+                .put("inputBatchPath", "-ib").put("outputDirPath", "-od").put("moleculeType", "-mt")
+                .put("elementSizes", "-es").put("threadsCount", "-tc").put("modelsThreadsCount", "-mtc")
+                .put("contactsCacheDirPath", "-ccd").put("contactsCacheSize", "-ccs")
+                .put("minimalSegmentsCount", "-fscge").put("maximalSegmentsCount", "-fscle")
+                .put("minimalElementsCount", "-fecge").put("maximalElementsCount", "-fecle")
+                .put("minimalResiduesCount", "-frcge").put("maximalResiduesCount", "-frcle").build());
     }
 
     @Override
     protected void initState() {
         super.initState();
         setInputFilePath();
+        setInputBatchPath();
+        setInputFilePaths();
         setMoleculeType();
         setInContactResiduesExpressionString();
         setElementSize();
         setThreadsCount();
+        setModelsThreadsCount();
         setDescriptorsFilter();
+        setContactsCacheDirPath();
+        setContactsCacheSize();
         setOutputDirPath();
         initInputModelString();
     }
@@ -151,20 +212,34 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
         @Getter
         private String inputFilePath;
 
+        private String inputBatchPath;
+
         private MoleculeType moleculeType;
 
         private String inContactResiduesExpressionString;
 
+        private List<String> inContactResiduesExpressionStrings;
+
         private int elementSize;
 
+        private List<Integer> elementSizes;
+
         private int threadsCount;
 
+        private int modelsThreadsCount;
+
         private DescriptorsFilterImpl.Builder descriptorsFilterBuilder;
 
+        private String contactsCacheDirPath;
+
+        private int contactsCacheSize;
+
         private String outputDirPath;
 
         public Builder() {
             descriptorsFilterBuilder = new DescriptorsFilterImpl.Builder();
+            modelsThreadsCount = DEFAULT_MODELS_THREADS_COUNT;
+            contactsCacheSize = DEFAULT_MAXIMAL_SIZE_IN_MEGABYTES;
         }
 
         public Builder inputFilePath(final String inputFilePath) {
@@ -172,6 +247,11 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
             return this;
         }
 
+        public Builder inputBatchPath(final String inputBatchPath) {
+            this.inputBatchPath = inputBatchPath;
+            return this;
+        }
+
         public Builder inputFormat(final FormatType inputFormat) {
             this.inputFormat = inputFormat;
             return this;
@@ -183,12 +263,23 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
         }
 
         public Builder inContactResiduesExpressionString(final String inContactResiduesExpressionString) {
-            this.inContactResiduesExpressionString = inContactResiduesExpressionString;
+            return inContactResiduesExpressionStrings(inContactResiduesExpressionString);
+        }
+
+        public Builder inContactResiduesExpressionStrings(final String... inContactResiduesExpressionStrings) {
+            this.inContactResiduesExpressionString = inContactResiduesExpressionStrings[0];
+            this.inContactResiduesExpressionStrings = Collections.unmodifiableList(Arrays
+                    .asList(inContactResiduesExpressionStrings));
             return this;
         }
 
         public Builder elementSize(final int elementSize) {
-            this.elementSize = elementSize;
+            return elementSizes(elementSize);
+        }
+
+        public Builder elementSizes(final Integer... elementSizes) {
+            this.elementSize = elementSizes[0];
+            this.elementSizes = Collections.unmodifiableList(Arrays.asList(elementSizes));
             return this;
         }
 
@@ -197,6 +288,11 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
             return this;
         }
 
+        public Builder modelsThreadsCount(final int modelsThreadsCount) {
+            this.modelsThreadsCount = modelsThreadsCount;
+            return this;
+        }
+
         public Builder minimalSegmentsCount(final int minimalSegmentsCount) {
             this.descriptorsFilterBuilder = descriptorsFilterBuilder
                     .minimalSegmentsCount(minimalSegmentsCount);
@@ -233,6 +329,16 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
             return this;
         }
 
+        public Builder contactsCacheDirPath(final String contactsCacheDirPath) {
+            this.contactsCacheDirPath = contactsCacheDirPath;
+            return this;
+        }
+
+        public Builder contactsCacheSize(final int contactsCacheSize) {
+            this.contactsCacheSize = contactsCacheSize;
+            return this;
+        }
+
         public Builder outputFormat(final FormatType outputFormat) {
             this.outputFormat = outputFormat;
             return this;
@@ -250,12 +356,16 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
 
     private void initInputModelString() {
         inputModelString = new StringBuilder(inputModelString).append("Input file path: ")
-                .append(inputFilePath).append("\nMolecule type: ").append(moleculeType)
-                .append("\nExpression that should be fulfilled by each in-contact residues pair: ")
-                .append(inContactResiduesExpressionString)
-                .append("\nNumber of residues considered by a single element: ").append(elementSize)
+                .append(inputFilePath).append("\nInput batch path: ").append(inputBatchPath)
+                .append("\nMolecule type: ").append(moleculeType)
+                .append("\nExpressions that should be fulfilled by each in-contact residues pair: ")
+                .append(inContactResiduesExpressionStrings)
+                .append("\nNumber of residues considered by a single element: ").append(elementSizes)
                 .append("\nThreads count used during processing: ").append(threadsCount)
+                .append("\nModels processed concurrently: ").append(modelsThreadsCount)
                 .append("\nDescriptors filter properties:\n").append(descriptorsFilter.toString())
+                .append("\nContacts cache dir path: ").append(contactsCacheDirPath)
+                .append("\nContacts cache size [MB]: ").append(contactsCacheSize)
                 .append("\nOutput dir path: ").append(outputDirPath).toString();
     }
 
@@ -263,37 +373,56 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
         inputFilePath = getOptionString("i");
     }
 
+    private void setInputBatchPath() {
+        inputBatchPath = getOptionString("ib");
+    }
+
+    private void setInputFilePaths() {
+        if (isBatchMode()) {
+            inputFilePaths = getInputFilePaths(inputBatchPath, "Input batch");
+        } else if (StringUtils.isNotBlank(inputFilePath)) {
+            inputFilePaths = Collections.singletonList(inputFilePath);
+        } else {
+            inputFilePaths = Collections.emptyList();
+        }
+    }
+
     private void setMoleculeType() {
         moleculeType = getEnumValue("mt", MoleculeType.class, DEFAULT_MOLECULE);
     }
 
     private void setInContactResiduesExpressionString() {
-        String newInContactResiduesExpressionString = null;
-        final String expressionFilePath = getOptionString("ice");
-        PreconditionUtils.checkIfStringIsBlank(expressionFilePath, "Expression file path");
-        final File expressionFile = FileUtils.getFile(expressionFilePath);
-        PreconditionUtils.checkIfFileExistsAndIsNotADirectory(expressionFile, "Expression");
-        try {
-            newInContactResiduesExpressionString = FileUtils.readFileToString(expressionFile);
-            PreconditionUtils.checkIfStringIsBlank(newInContactResiduesExpressionString,
-                    "Expression used to identify in-contact residues");
-        } catch (IOException e) {
-            LOGGER.error(e.getMessage(), e);
+        final String expressionFilePaths = getOptionString("ice");
+        PreconditionUtils.checkIfStringIsBlank(expressionFilePaths, "Expression file path");
+        final List<String> newInContactResiduesExpressionStrings = Lists.newArrayList();
+        for (String expressionFilePath : StringUtils.split(expressionFilePaths, EXPRESSION_FILE_PATHS_SEPARATOR)) {
+            newInContactResiduesExpressionStrings.add(readInContactResiduesExpressionString(StringUtils
+                    .trim(expressionFilePath)));
         }
-        this.inContactResiduesExpressionString = newInContactResiduesExpressionString;
+        this.inContactResiduesExpressionStrings = Collections
+                .unmodifiableList(newInContactResiduesExpressionStrings);
+        this.inContactResiduesExpressionString = inContactResiduesExpressionStrings.get(0);
     }
 
     private void setElementSize() {
-        this.elementSize = DEFAULT_ELEMENT_SIZE;
+        final Set<Integer> inputElementSizes = Sets.newLinkedHashSet();
         final String elementSizeString = getOptionString("es");
         if (StringUtils.isNotBlank(elementSizeString)) {
-            int inputElementSize = PreconditionUtils.parseInt(elementSizeString, "element size");
-            if (inputElementSize % MINIMAL_EVEN_NUMBER == ODD_NUMBER_REMAINDER) {
-                elementSize = inputElementSize;
-            } else {
-                throw new IllegalArgumentException("Element size should be odd number");
+            for (String inputElementSizeString : StringUtils.split(elementSizeString, ELEMENT_SIZES_SEPARATOR)) {
+                final int inputElementSize = PreconditionUtils.parseInt(StringUtils.trim(inputElementSizeString),
+                        "element size");
+                if (inputElementSize % MINIMAL_EVEN_NUMBER == ODD_NUMBER_REMAINDER) {
+                    inputElementSizes.add(inputElementSize);
+                } else {
+                    throw new IllegalArgumentException("Element size should be odd number");
+                }
             }
         }
+        if (inputElementSizes.isEmpty()) {
+            inputElementSizes.add(DEFAULT_ELEMENT_SIZE);
+        }
+        elementSizes = Collections.unmodifiableList(Lists.newArrayList(inputElementSizes));
+        elementSize = elementSizes.get(0);
     }
 
     private void setThreadsCount() {
@@ -304,6 +433,14 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
         }
     }
 
+    private void setModelsThreadsCount() {
+        this.modelsThreadsCount = DEFAULT_MODELS_THREADS_COUNT;
+        final String modelsThreadsCountString = getOptionString("mtc");
+        if (StringUtils.isNotBlank(modelsThreadsCountString)) {
+            modelsThreadsCount = PreconditionUtils.parseInt(modelsThreadsCountString, "models threads count");
+        }
+    }
+
     private void setDescriptorsFilter() {
         descriptorsFilter = new DescriptorsFilterImpl();
         final int minimalSegmentsCount = getIntWhenNotLessOne("fscge", "minimal segments count");
@@ -332,10 +469,37 @@ public class DescriptorsBuilderInputModelImpl extends CommonInputModelImpl imple
         }
     }
 
+    private void setContactsCacheDirPath() {
+        contactsCacheDirPath = getOptionString("ccd");
+    }
+
+    private void setContactsCacheSize() {
+        this.contactsCacheSize = DEFAULT_MAXIMAL_SIZE_IN_MEGABYTES;
+        final String contactsCacheSizeString = getOptionString("ccs");
+        if (StringUtils.isNotBlank(contactsCacheSizeString)) {
+            contactsCacheSize = PreconditionUtils.parseInt(contactsCacheSizeString, "contacts cache size");
+        }
+    }
+
     private void setOutputDirPath() {
         outputDirPath = getOptionString("od");
         if (StringUtils.isBlank(outputDirPath)) {
-            outputDirPath = FilenameUtils.getFullPath(getInputFilePath()) + "out";
+            outputDirPath = FilenameUtils.getFullPath(isBatchMode() ? FileUtils.getFile(inputBatchPath)
+                    .getAbsolutePath() : getInputFilePath()) + "out";
+        }
+    }
+
+    private static final String readInContactResiduesExpressionString(final String expressionFilePath) {
+        String result = null;
+        PreconditionUtils.checkIfStringIsBlank(expressionFilePath, "Expression file path");
+        final File expressionFile = FileUtils.getFile(expressionFilePath);
+        PreconditionUtils.checkIfFileExistsAndIsNotADirectory(expressionFile, "Expression");
+        try {
+            result = FileUtils.readFileToString(expressionFile);
+            PreconditionUtils.checkIfStringIsBlank(result, "Expression used to identify in-contact residues");
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
         }
+        return result;
     }
 }
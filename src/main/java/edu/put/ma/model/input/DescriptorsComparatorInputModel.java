@@ -1,8 +1,10 @@
 package edu.put.ma.model.input;
 
+import java.util.List;
+
 import edu.put.ma.descs.AlignmentMode;
 import edu.put.ma.descs.algorithms.AlignmentAcceptanceMode;
-import edu.put.ma.descs.algorithms.ComparisonAlgorithm;
+import edu.put.ma.descs.algorithms.AssignmentSolvers;
 import edu.put.ma.descs.algorithms.ComparisonAlgorithms;
 import edu.put.ma.descs.SimilarDescriptorsVerifier;
 import edu.put.ma.model.MoleculeType;
@@ -15,11 +17,25 @@ public interface DescriptorsComparatorInputModel extends CommonInputModel {
 
     String getSecondDescriptorFilePath();
 
+    String getFirstDescriptorsSetPath();
+
+    String getSecondDescriptorsSetPath();
+
+    boolean isSetsMode();
+
+    boolean isAllVersusAllMode();
+
+    List<String> getFirstDescriptorFilePaths();
+
+    List<String> getSecondDescriptorFilePaths();
+
     String getAlignmentAtomNamesFilePath();
 
     ComparisonAlgorithms getComparisonAlgorithmType();
 
-    ComparisonAlgorithm getComparisonAlgorithm();
+    AssignmentSolvers getAssignmentSolverType();
+
+    int getBestAssignmentsCount();
 
     SimilarDescriptorsVerifier getSimilarDescriptorsVerifier();
 
@@ -31,4 +47,6 @@ public interface DescriptorsComparatorInputModel extends CommonInputModel {
 
     double getMaximalRmsdThresholdPerDuplexPair();
 
+    int getThreadsCount();
+
 }
@@ -1,8 +1,12 @@
 package edu.put.ma.model.input;
 
+import java.util.Collections;
+import java.util.List;
+
 import lombok.Getter;
 
 import org.apache.commons.cli.Options;
+import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.collect.ImmutableMap;
 
@@ -10,8 +14,9 @@ import edu.put.ma.descs.AlignmentMode;
 import edu.put.ma.descs.SimilarDescriptorsVerifier;
 import edu.put.ma.descs.SimilarDescriptorsVerifierImpl;
 import edu.put.ma.descs.algorithms.AlignmentAcceptanceMode;
-import edu.put.ma.descs.algorithms.ComparisonAlgorithm;
+import edu.put.ma.descs.algorithms.AssignmentSolvers;
 import edu.put.ma.descs.algorithms.ComparisonAlgorithms;
+import edu.put.ma.descs.algorithms.HungarianMethodDrivenSearch;
 import edu.put.ma.io.FormatType;
 import edu.put.ma.model.MoleculeType;
 import edu.put.ma.utils.ArrayUtils;
@@ -33,10 +38,22 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
 
     private String secondDescriptorFilePath;
 
+    private String firstDescriptorsSetPath;
+
+    private String secondDescriptorsSetPath;
+
+    private List<String> firstDescriptorFilePaths;
+
+    private List<String> secondDescriptorFilePaths;
+
     private String alignmentAtomNamesFilePath;
 
     private ComparisonAlgorithms comparisonAlgorithmType;
 
+    private AssignmentSolvers assignmentSolverType;
+
+    private int bestAssignmentsCount;
+
     private SimilarDescriptorsVerifier similarDescriptorsVerifier;
 
     private double maximalRmsdThresholdPerDuplexPair;
@@ -47,6 +64,8 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
 
     private String outputDirPath;
 
+    private int threadsCount;
+
     public DescriptorsComparatorInputModelImpl(final String[] args, final String artifactId) {
         super(args);
         secureInitState(artifactId);
@@ -58,14 +77,20 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
         this.firstDescriptorFilePath = descriptorsComparatorInputModelBuilder.firstDescriptorFilePath;
         this.moleculeType = descriptorsComparatorInputModelBuilder.moleculeType;
         this.secondDescriptorFilePath = descriptorsComparatorInputModelBuilder.secondDescriptorFilePath;
+        this.firstDescriptorsSetPath = descriptorsComparatorInputModelBuilder.firstDescriptorsSetPath;
+        this.secondDescriptorsSetPath = descriptorsComparatorInputModelBuilder.secondDescriptorsSetPath;
+        setDescriptorFilePaths();
         this.alignmentAtomNamesFilePath = descriptorsComparatorInputModelBuilder.alignmentAtomNamesFilePath;
         this.comparisonAlgorithmType = descriptorsComparatorInputModelBuilder.comparisonAlgorithmType;
+        this.assignmentSolverType = descriptorsComparatorInputModelBuilder.assignmentSolverType;
+        this.bestAssignmentsCount = descriptorsComparatorInputModelBuilder.bestAssignmentsCount;
         this.similarDescriptorsVerifier = descriptorsComparatorInputModelBuilder.similarDescriptorsVerifierBuilder
                 .build();
         this.maximalRmsdThresholdPerDuplexPair = descriptorsComparatorInputModelBuilder.maximalRmsdThresholdPerDuplexPair;
         this.alignmentMode = descriptorsComparatorInputModelBuilder.alignmentMode;
         this.alignmentAcceptanceMode = descriptorsComparatorInputModelBuilder.alignmentAcceptanceMode;
         this.outputDirPath = descriptorsComparatorInputModelBuilder.outputDirPath;
+        this.threadsCount = descriptorsComparatorInputModelBuilder.threadsCount;
         initOptionsMapping();
     }
 
@@ -75,6 +100,16 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
                 && (isCommandLineHasOption("mt"));
     }
 
+    @Override
+    public boolean isSetsMode() {
+        return StringUtils.isNotBlank(firstDescriptorsSetPath);
+    }
+
+    @Override
+    public boolean isAllVersusAllMode() {
+        return isSetsMode() && StringUtils.isBlank(secondDescriptorsSetPath);
+    }
+
     @Override
     public Options constructSpecificOptions() {
         final Options options = new Options();
@@ -82,11 +117,19 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
                 "supported molecule types: " + ArrayUtils.getEnumNamesString(MoleculeType.class));
         options.addOption("fd", "file-path-of-first-descriptor", true, "file path of the first descriptor");
         options.addOption("sd", "file-path-of-second-descriptor", true, "file path of the second descriptor");
+        options.addOption("fds", "first-descriptors-set", true,
+                "directory or file listing descriptor file paths (one per line) compared with the second set");
+        options.addOption("sds", "second-descriptors-set", true,
+                "(optional) directory or file listing descriptor file paths (one per line), when omitted all pairs of the first set are compared");
         options.addOption("aan", "file-path-of-atom-names-used-during-alignment-building", true,
                 "file path of atom names considered during building the alignment");
         options.addOption("cat", "comparison-algorithm-type", true, "type of the comparison algorithm: "
                 + ArrayUtils.getEnumNamesString(ComparisonAlgorithms.class));
         options.addOption("od", "output-directory", true, "output directory path");
+        options.addOption("tc", "threads-count", true,
+                "(optional) number of threads comparing pairs of descriptors sets or computing duplex pairs "
+                        + "similarity matrix of a single pair [default="
+                        + AVAILABLE_PROCESSORS + "]");
         options.addOption("moeparmsd", "maximal-rmsd-of-central-elements-alignment", true,
                 "(optional) maximal RMSD of the central elements alignment [default=1.2A]");
         options.addOption("mdparmsd", "maximal-rmsd-of-pair-of-aligned-duplexes", true,
@@ -114,14 +157,23 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
                 "(optional) alignment acceptance mode, supported modes: "
                         + ArrayUtils.getEnumNamesString(AlignmentAcceptanceMode.class) + DEFAULT_LITERAL
                         + AlignmentAcceptanceMode.ALIGNED_RESIDUES_AND_AVERAGE_RMSD_OF_ALIGNED_DUPLEXES + "]");
+        options.addOption(
+                "ast",
+                "assignment-solver-type",
+                true,
+                "(optional) solver of assignment problems used by Hungarian method driven algorithms, supported solvers: "
+                        + ArrayUtils.getEnumNamesString(AssignmentSolvers.class) + DEFAULT_LITERAL
+                        + AssignmentSolvers.HUNGARIAN_METHOD + "]");
+        options.addOption(
+                "bac",
+                "best-assignments-count",
+                true,
+                "(optional) number of best assignments of each size considered as partial solutions by "
+                        + ComparisonAlgorithms.HUNGARIAN_METHOD_DRIVEN_LONGEST_ALIGNMENT_PARTIAL_SOLUTIONS_CONSIDERED
+                        + DEFAULT_LITERAL + HungarianMethodDrivenSearch.DEFAULT_BEST_ASSIGNMENTS_COUNT + "]");
         return options;
     }
 
-    @Override
-    public ComparisonAlgorithm getComparisonAlgorithm() {
-        return comparisonAlgorithmType.getComparisonAlgorithm();
-    }
-
     @Override
     public boolean areOptionalFormatOptions() {
         return true;
@@ -132,8 +184,11 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
         super.initOptionsMapping();
         this.optionsMapping.putAll(new ImmutableMap.Builder<String, String>()
                 .put("firstDescriptorFilePath", "-fd").put("moleculeType", "-mt")
-                .put("secondDescriptorFilePath", "-sd").put("alignmentAtomNamesFilePath", "-aan")
-                .put("comparisonAlgorithmType", "-cat")
+                .put("secondDescriptorFilePath", "-sd").put("firstDescriptorsSetPath", "-fds")
+                .put("secondDescriptorsSetPath", "-sds").put("threadsCount", "-tc")
+                .put("alignmentAtomNamesFilePath", "-aan")
+                .put("comparisonAlgorithmType", "-cat").put("assignmentSolverType", "-ast")
+                .put("bestAssignmentsCount", "-bac")
                 .put("maximalRmsdThresholdPerDuplexPair", "-mrmsdtpdp").put("alignmentMode", "-wa")
                 .put("alignmentAcceptanceMode", "-aam").put("outputDirPath", "-od")
                 .put("maximalOriginElementsPairAlignmentRmsd", "-moeparmsd")
@@ -149,13 +204,19 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
         setMoleculeType();
         setFirstDescriptorFilePath();
         setSecondDescriptorFilePath();
+        setFirstDescriptorsSetPath();
+        setSecondDescriptorsSetPath();
+        setDescriptorFilePaths();
         setAlignmentAtomNamesFilePath();
         setComparisonAlgorithmType();
+        setAssignmentSolverType();
+        setBestAssignmentsCount();
         setSimilarDescriptorsVerifier();
         setAlignmentMode();
         setAlignmentAcceptanceMode();
         setOutputDirPath();
         setMaximalRmsdThresholdPerDuplexPair();
+        setThreadsCount();
         initInputModelString();
     }
 
@@ -169,11 +230,21 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
         @Getter
         private String secondDescriptorFilePath;
 
+        @Getter
+        private String firstDescriptorsSetPath;
+
+        @Getter
+        private String secondDescriptorsSetPath;
+
         @Getter
         private String alignmentAtomNamesFilePath;
 
         private ComparisonAlgorithms comparisonAlgorithmType;
 
+        private AssignmentSolvers assignmentSolverType;
+
+        private int bestAssignmentsCount;
+
         private SimilarDescriptorsVerifierImpl.Builder similarDescriptorsVerifierBuilder;
 
         private double maximalRmsdThresholdPerDuplexPair;
@@ -184,8 +255,13 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
 
         private String outputDirPath;
 
+        private int threadsCount;
+
         public Builder() {
             similarDescriptorsVerifierBuilder = new SimilarDescriptorsVerifierImpl.Builder();
+            threadsCount = AVAILABLE_PROCESSORS;
+            assignmentSolverType = DEFAULT_ASSIGNMENT_SOLVER_TYPE;
+            bestAssignmentsCount = HungarianMethodDrivenSearch.DEFAULT_BEST_ASSIGNMENTS_COUNT;
         }
 
         public Builder inputFormat(final FormatType inputFormat) {
@@ -208,6 +284,16 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
             return this;
         }
 
+        public Builder firstDescriptorsSetPath(final String firstDescriptorsSetPath) {
+            this.firstDescriptorsSetPath = firstDescriptorsSetPath;
+            return this;
+        }
+
+        public Builder secondDescriptorsSetPath(final String secondDescriptorsSetPath) {
+            this.secondDescriptorsSetPath = secondDescriptorsSetPath;
+            return this;
+        }
+
         public Builder alignmentAtomNamesFilePath(final String alignmentAtomNamesFilePath) {
             this.alignmentAtomNamesFilePath = alignmentAtomNamesFilePath;
             return this;
@@ -259,6 +345,16 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
             return this;
         }
 
+        public Builder assignmentSolverType(final AssignmentSolvers assignmentSolverType) {
+            this.assignmentSolverType = assignmentSolverType;
+            return this;
+        }
+
+        public Builder bestAssignmentsCount(final int bestAssignmentsCount) {
+            this.bestAssignmentsCount = bestAssignmentsCount;
+            return this;
+        }
+
         public Builder alignmentAcceptanceMode(final AlignmentAcceptanceMode alignmentAcceptanceMode) {
             this.alignmentAcceptanceMode = alignmentAcceptanceMode;
             return this;
@@ -274,6 +370,11 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
             return this;
         }
 
+        public Builder threadsCount(final int threadsCount) {
+            this.threadsCount = threadsCount;
+            return this;
+        }
+
         public DescriptorsComparatorInputModel build() {
             return new DescriptorsComparatorInputModelImpl(this);
         }
@@ -287,10 +388,18 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
                 .append(firstDescriptorFilePath)
                 .append("\nSecond descriptor file path: ")
                 .append(secondDescriptorFilePath)
+                .append("\nFirst descriptors set path: ")
+                .append(firstDescriptorsSetPath)
+                .append("\nSecond descriptors set path: ")
+                .append(secondDescriptorsSetPath)
                 .append("\nAlignment atom names file path: ")
                 .append(alignmentAtomNamesFilePath)
                 .append("\nComparison algorithm type: ")
                 .append(comparisonAlgorithmType)
+                .append("\nAssignment solver type: ")
+                .append(assignmentSolverType)
+                .append("\nBest assignments count: ")
+                .append(bestAssignmentsCount)
                 .append("\nFeatures of structurally similar descriptors:\n")
                 .append(similarDescriptorsVerifier.toString())
                 .append("\nMaximal RMSD-based cost of a pair of aligned duplexes: ")
@@ -298,7 +407,7 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
                         ResidueUtils.ensureCommonDoubleFormat(maximalRmsdThresholdPerDuplexPair)))
                 .append("\nAlignment mode: ").append(alignmentMode).append("\nAlignment acceptance mode: ")
                 .append(alignmentAcceptanceMode).append("\nOutput dir path: ").append(outputDirPath)
-                .toString();
+                .append("\nThreads count used during processing: ").append(threadsCount).toString();
     }
 
     private void setMoleculeType() {
@@ -313,6 +422,22 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
         secondDescriptorFilePath = getOptionString("sd");
     }
 
+    private void setFirstDescriptorsSetPath() {
+        firstDescriptorsSetPath = getOptionString("fds");
+    }
+
+    private void setSecondDescriptorsSetPath() {
+        secondDescriptorsSetPath = getOptionString("sds");
+    }
+
+    private void setDescriptorFilePaths() {
+        final List<String> empty = Collections.emptyList();
+        firstDescriptorFilePaths = isSetsMode() ? getInputFilePaths(firstDescriptorsSetPath,
+                "First descriptors set") : empty;
+        secondDescriptorFilePaths = StringUtils.isNotBlank(secondDescriptorsSetPath) ? getInputFilePaths(
+                secondDescriptorsSetPath, "Second descriptors set") : empty;
+    }
+
     private void setAlignmentAtomNamesFilePath() {
         alignmentAtomNamesFilePath = getOptionString("aan");
     }
@@ -370,6 +495,18 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
         alignmentMode = getEnumValue("wa", AlignmentMode.class, DEFAULT_ALIGNMENT_MODE);
     }
 
+    private void setAssignmentSolverType() {
+        assignmentSolverType = getEnumValue("ast", AssignmentSolvers.class, DEFAULT_ASSIGNMENT_SOLVER_TYPE);
+    }
+
+    private void setBestAssignmentsCount() {
+        bestAssignmentsCount = HungarianMethodDrivenSearch.DEFAULT_BEST_ASSIGNMENTS_COUNT;
+        final int newBestAssignmentsCount = getIntWhenNotLessOne("bac", "best assignments count");
+        if (newBestAssignmentsCount > 0) {
+            bestAssignmentsCount = newBestAssignmentsCount;
+        }
+    }
+
     private void setAlignmentAcceptanceMode() {
         alignmentAcceptanceMode = getEnumValue("aam", AlignmentAcceptanceMode.class,
                 DEFAULT_ALIGNMENT_ACCEPTANCE_MODE);
@@ -379,9 +516,18 @@ public class DescriptorsComparatorInputModelImpl extends CommonInputModelImpl im
         outputDirPath = getOptionString("od");
     }
 
+    private void setThreadsCount() {
+        this.threadsCount = AVAILABLE_PROCESSORS;
+        final String threadsCountString = getOptionString("tc");
+        if (StringUtils.isNotBlank(threadsCountString)) {
+            threadsCount = PreconditionUtils.parseInt(threadsCountString, "threads count");
+        }
+    }
+
     private boolean isInputFilesInitializedProperly() {
-        return (isCommandLineHasOption("fd")) && (isCommandLineHasOption("od"))
-                && (isCommandLineHasOption("sd")) && (isCommandLineHasOption("aan"));
+        return (((isCommandLineHasOption("fd")) && (isCommandLineHasOption("sd")))
+                || (isCommandLineHasOption("fds"))) && (isCommandLineHasOption("od"))
+                && (isCommandLineHasOption("aan"));
     }
 
     private static final double makePercentageFromFraction(final double val) {
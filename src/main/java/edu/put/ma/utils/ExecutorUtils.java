@@ -1,7 +1,9 @@
 package edu.put.ma.utils;
 
+import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,4 +33,10 @@ public final class ExecutorUtils {
             }
         }
     }
+
+    public static final <T> void cancelFutures(final Collection<Future<T>> futures) {
+        for (Future<T> future : futures) {
+            future.cancel(true);
+        }
+    }
 }
@@ -86,6 +86,14 @@ public final class ResidueUtils {
         return Double.parseDouble(String.format(Locale.US, "%.3f", val));
     }
 
+    public static final double getDistance(final double x, final double y, final double z,
+            final double otherX, final double otherY, final double otherZ) {
+        final double xDifference = x - otherX;
+        final double yDifference = y - otherY;
+        final double zDifference = z - otherZ;
+        return Math.sqrt(xDifference * xDifference + yDifference * yDifference + zDifference * zDifference);
+    }
+
     public static final void formatCoordinates(final org.biojava.nbio.structure.Atom atom) {
         atom.setX(ensureCommonDoubleFormat(atom.getX()));
         atom.setY(ensureCommonDoubleFormat(atom.getY()));
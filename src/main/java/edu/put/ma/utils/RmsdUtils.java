@@ -0,0 +1,124 @@
+package edu.put.ma.utils;
+
+import java.util.List;
+
+import org.biojava.nbio.structure.Atom;
+
+/**
+ * Computes RMSD of the optimal superposition of two atom sets using the quaternion characteristic polynomial
+ * (QCP) method of Theobald. Coordinates are read directly from the atoms, neither copies of atoms nor a
+ * rotation matrix are constructed. Unlike RMSD computed after superposition, superimposed coordinates are not
+ * rounded to three decimal places, so both values may differ by about {@code sqrt(3) * 0.0005} at most.
+ */
+public final class RmsdUtils {
+
+    private static final int MAXIMAL_NUMBER_OF_ITERATIONS = 50;
+
+    private static final double EIGENVALUE_PRECISION = 1E-11;
+
+    private RmsdUtils() {
+        // hidden constructor
+    }
+
+    public static final double computeRmsd(final List<Atom> firstAtoms, final List<Atom> secondAtoms) {
+        final int atomsCount = firstAtoms.size();
+        if ((atomsCount == 0) || (atomsCount != secondAtoms.size())) {
+            return Double.MAX_VALUE;
+        }
+        double firstCenterX = 0.0, firstCenterY = 0.0, firstCenterZ = 0.0;
+        double secondCenterX = 0.0, secondCenterY = 0.0, secondCenterZ = 0.0;
+        for (int atomIndex = 0; atomIndex < atomsCount; atomIndex++) {
+            final Atom firstAtom = firstAtoms.get(atomIndex);
+            final Atom secondAtom = secondAtoms.get(atomIndex);
+            firstCenterX += firstAtom.getX();
+            firstCenterY += firstAtom.getY();
+            firstCenterZ += firstAtom.getZ();
+            secondCenterX += secondAtom.getX();
+            secondCenterY += secondAtom.getY();
+            secondCenterZ += secondAtom.getZ();
+        }
+        firstCenterX /= atomsCount;
+        firstCenterY /= atomsCount;
+        firstCenterZ /= atomsCount;
+        secondCenterX /= atomsCount;
+        secondCenterY /= atomsCount;
+        secondCenterZ /= atomsCount;
+        double sxx = 0.0, sxy = 0.0, sxz = 0.0;
+        double syx = 0.0, syy = 0.0, syz = 0.0;
+        double szx = 0.0, szy = 0.0, szz = 0.0;
+        double squaredNorms = 0.0;
+        for (int atomIndex = 0; atomIndex < atomsCount; atomIndex++) {
+            final Atom firstAtom = firstAtoms.get(atomIndex);
+            final Atom secondAtom = secondAtoms.get(atomIndex);
+            final double x1 = firstAtom.getX() - firstCenterX;
+            final double y1 = firstAtom.getY() - firstCenterY;
+            final double z1 = firstAtom.getZ() - firstCenterZ;
+            final double x2 = secondAtom.getX() - secondCenterX;
+            final double y2 = secondAtom.getY() - secondCenterY;
+            final double z2 = secondAtom.getZ() - secondCenterZ;
+            squaredNorms += x1 * x1 + y1 * y1 + z1 * z1 + x2 * x2 + y2 * y2 + z2 * z2;
+            sxx += x1 * x2;
+            sxy += x1 * y2;
+            sxz += x1 * z2;
+            syx += y1 * x2;
+            syy += y1 * y2;
+            syz += y1 * z2;
+            szx += z1 * x2;
+            szy += z1 * y2;
+            szz += z1 * z2;
+        }
+        return computeRmsd(sxx, sxy, sxz, syx, syy, syz, szx, szy, szz, squaredNorms, atomsCount);
+    }
+
+    /**
+     * Computes RMSD from the cross-covariance matrix and the sum of squared norms of both centered atom sets.
+     */
+    public static final double computeRmsd(final double sxx, final double sxy, final double sxz,
+            final double syx, final double syy, final double syz, final double szx, final double szy,
+            final double szz, final double squaredNorms, final int atomsCount) {
+        if (atomsCount == 0) {
+            return Double.MAX_VALUE;
+        }
+        final double e0 = squaredNorms * 0.5;
+        final double sxx2 = sxx * sxx, syy2 = syy * syy, szz2 = szz * szz;
+        final double sxy2 = sxy * sxy, syz2 = syz * syz, sxz2 = sxz * sxz;
+        final double syx2 = syx * syx, szy2 = szy * szy, szx2 = szx * szx;
+        final double syzSzymSyySzz2 = 2.0 * (syz * szy - syy * szz);
+        final double sxx2Syy2Szz2Syz2Szy2 = syy2 + szz2 - sxx2 + syz2 + szy2;
+        final double c2 = -2.0 * (sxx2 + syy2 + szz2 + sxy2 + syx2 + sxz2 + szx2 + syz2 + szy2);
+        final double c1 = 8.0 * (sxx * syz * szy + syy * szx * sxz + szz * sxy * syx - sxx * syy * szz
+                - syz * szx * sxy - szy * syx * sxz);
+        final double sxzpSzx = sxz + szx, syzpSzy = syz + szy, sxypSyx = sxy + syx;
+        final double syzmSzy = syz - szy, sxzmSzx = sxz - szx, sxymSyx = sxy - syx;
+        final double sxxpSyy = sxx + syy, sxxmSyy = sxx - syy;
+        final double sxy2Sxz2Syx2Szx2 = sxy2 + sxz2 - syx2 - szx2;
+        final double c0 = sxy2Sxz2Syx2Szx2 * sxy2Sxz2Syx2Szx2
+                + (sxx2Syy2Szz2Syz2Szy2 + syzSzymSyySzz2) * (sxx2Syy2Szz2Syz2Szy2 - syzSzymSyySzz2)
+                + (-sxzpSzx * syzmSzy + sxymSyx * (sxxmSyy - szz))
+                * (-sxzmSzx * syzpSzy + sxymSyx * (sxxmSyy + szz))
+                + (-sxzpSzx * syzpSzy - sxypSyx * (sxxpSyy - szz))
+                * (-sxzmSzx * syzmSzy - sxypSyx * (sxxpSyy + szz))
+                + (sxypSyx * syzpSzy + sxzpSzx * (sxxmSyy + szz))
+                * (-sxymSyx * syzmSzy + sxzpSzx * (sxxpSyy + szz))
+                + (sxypSyx * syzmSzy + sxzmSzx * (sxxmSyy - szz))
+                * (-sxymSyx * syzpSzy + sxzmSzx * (sxxpSyy - szz));
+        final double largestEigenvalue = computeLargestEigenvalue(c0, c1, c2, e0);
+        return Math.sqrt(Math.abs(2.0 * (e0 - largestEigenvalue) / atomsCount));
+    }
+
+    private static final double computeLargestEigenvalue(final double c0, final double c1, final double c2,
+            final double initialEigenvalue) {
+        double eigenvalue = initialEigenvalue;
+        for (int iteration = 0; iteration < MAXIMAL_NUMBER_OF_ITERATIONS; iteration++) {
+            final double previousEigenvalue = eigenvalue;
+            final double squaredEigenvalue = eigenvalue * eigenvalue;
+            final double b = (squaredEigenvalue + c2) * eigenvalue;
+            final double a = b + c1;
+            eigenvalue -= (a * eigenvalue + c0) / (2.0 * squaredEigenvalue * eigenvalue + b + a);
+            if (Math.abs(eigenvalue - previousEigenvalue) < Math.abs(EIGENVALUE_PRECISION * eigenvalue)) {
+                break;
+            }
+        }
+        return eigenvalue;
+    }
+}
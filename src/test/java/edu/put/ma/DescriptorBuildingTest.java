@@ -1,13 +1,30 @@
 package edu.put.ma;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import junitx.framework.FileAssert;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import edu.put.ma.descs.contacts.InContactResiduesMapCacheImpl;
+
 import edu.put.ma.io.FormatType;
 import edu.put.ma.model.MoleculeType;
 import edu.put.ma.model.input.DescriptorsBuilderInputModel;
@@ -75,6 +92,33 @@ public class DescriptorBuildingTest extends CommonTest {
                         "atom-names-considered-by-in-contact-residues-identification-expression.list" });
     }
 
+    @Test
+    public void testProteinDescriptorsBuildingWithContactsCache() throws Exception {
+        final String contactsCacheDirPath = temporaryFolder.newFolder().getCanonicalPath();
+        final Logger cacheLogger = (Logger) LogManager.getLogger(InContactResiduesMapCacheImpl.class);
+        final RecordingAppender recordingAppender = new RecordingAppender();
+        recordingAppender.start();
+        cacheLogger.addAppender(recordingAppender);
+        try {
+            for (int runIndex = 0; runIndex < 2; runIndex++) {
+                recordingAppender.messages.clear();
+                final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder = new DescriptorsBuilderInputModelImpl.Builder()
+                        .inputFormat(FormatType.PDB).inputFilePath("d2b97a1.pdb")
+                        .moleculeType(MoleculeType.PROTEIN).outputFormat(FormatType.PDB).minimalElementsCount(10)
+                        .contactsCacheDirPath(contactsCacheDirPath);
+                build("1", "in-contact-residues-proteins-scgc.exp", descriptorsBuilderInputModelBuilder,
+                        new String[] { "d2b97a1_A_39_PHE.pdb",
+                                "atom-names-considered-by-in-contact-residues-identification-expression.list" });
+                assertEquals(1, recordingAppender.messages.size());
+                assertTrue(recordingAppender.messages.get(0).endsWith(
+                        (runIndex == 0) ? "not found in cache" : "restored from cache"));
+            }
+        } finally {
+            cacheLogger.removeAppender(recordingAppender);
+            recordingAppender.stop();
+        }
+    }
+
     @Test
     public void testRNADescriptorsBuilding() throws Exception {
         final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder = new DescriptorsBuilderInputModelImpl.Builder()
@@ -99,6 +143,17 @@ public class DescriptorBuildingTest extends CommonTest {
                 "atom-names-considered-by-in-contact-residues-identification-expression.list" });
     }
 
+    @Test
+    public void testRNAMultiChainDescriptorsBuildingConcurrently() throws Exception {
+        final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder = new DescriptorsBuilderInputModelImpl.Builder()
+                .inputFormat(FormatType.PDB).inputFilePath("4u4o-extracted.pdb")
+                .moleculeType(MoleculeType.RNA).outputFormat(FormatType.PDB).minimalElementsCount(9)
+                .minimalSegmentsCount(5).threadsCount(4);
+        build("8", "in-contact-residues-rnas.exp", descriptorsBuilderInputModelBuilder, new String[] {
+                "4u4o-extracted_A_1156_C.pdb", "4u4o-extracted_B_86_U.pdb",
+                "atom-names-considered-by-in-contact-residues-identification-expression.list" });
+    }
+
     @Test
     public void testRNAMultiChainDescriptorsBuildingInCIF() throws Exception {
         final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder = new DescriptorsBuilderInputModelImpl.Builder()
@@ -132,16 +187,92 @@ public class DescriptorBuildingTest extends CommonTest {
                 "atom-names-considered-by-in-contact-residues-identification-expression.list" });
     }
 
+    @Test
+    public void testRNAMultiChainDescriptorsBuildingWithinMultiModelStructureConcurrently() throws Exception {
+        final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder = new DescriptorsBuilderInputModelImpl.Builder()
+                .inputFormat(FormatType.CIF).inputFilePath("1guc-3.cif").moleculeType(MoleculeType.RNA)
+                .outputFormat(FormatType.PDB).minimalResiduesCount(16).threadsCount(2).modelsThreadsCount(3);
+        build("11", "in-contact-residues-rnas.exp", descriptorsBuilderInputModelBuilder, new String[] {
+                "1guc-3_1_A_5_U.pdb", "1guc-3_1_B_13_U.pdb", "1guc-3_2_A_5_U.pdb", "1guc-3_2_B_13_U.pdb",
+                "1guc-3_3_A_5_U.pdb", "1guc-3_3_B_13_U.pdb",
+                "atom-names-considered-by-in-contact-residues-identification-expression.list" });
+    }
+
+    @Test
+    public void testProteinDescriptorsBuildingInBatch() throws Exception {
+        final File inputFile = getDataFile("1", "d2b97a1.pdb");
+        final File inputFileCopy = FileUtils.getFile(temporaryFolder.newFolder(), inputFile.getName());
+        FileUtils.copyFile(inputFile, inputFileCopy);
+        final File inputBatchFile = temporaryFolder.newFile("input-batch.list");
+        FileUtils.writeLines(inputBatchFile, Arrays.asList(inputFile.getCanonicalPath(),
+                inputFileCopy.getCanonicalPath(), "missing-structure.pdb"));
+        final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder = new DescriptorsBuilderInputModelImpl.Builder()
+                .inputFormat(FormatType.PDB).inputBatchPath(inputBatchFile.getCanonicalPath())
+                .moleculeType(MoleculeType.PROTEIN).outputFormat(FormatType.PDB).minimalElementsCount(10)
+                .threadsCount(2);
+        final File outputFolder = build(descriptorsBuilderInputModelBuilder,
+                getDataFile("1", "in-contact-residues-proteins-scgc.exp").getCanonicalPath());
+        for (String structureOutputDirName : new String[] { "d2b97a1", "d2b97a1_2" }) {
+            assertOutputFiles("1", FileUtils.getFile(outputFolder, structureOutputDirName),
+                    new String[] { "d2b97a1_A_39_PHE.pdb" });
+        }
+        assertOutputFiles("1", outputFolder, new String[] {
+                "atom-names-considered-by-in-contact-residues-identification-expression.list" });
+        assertFalse(FileUtils.getFile(outputFolder, "missing-structure").exists());
+    }
+
+    @Test
+    public void testProteinDescriptorsBuildingForSeveralElementSizes() throws Exception {
+        final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder = new DescriptorsBuilderInputModelImpl.Builder()
+                .inputFormat(FormatType.PDB).inputFilePath(getDataFile("7", "d2b97a1.pdb").getCanonicalPath())
+                .moleculeType(MoleculeType.PROTEIN).outputFormat(FormatType.PDB).elementSizes(5, 7)
+                .minimalElementsCount(9);
+        assertTrue(Arrays.asList(descriptorsBuilderInputModelBuilder.build().getArgs()).contains("5,7"));
+        final File outputFolder = build(descriptorsBuilderInputModelBuilder,
+                getDataFile("7", "in-contact-residues-proteins-scgc.exp").getCanonicalPath());
+        assertEquals(
+                Sets.newHashSet("element-size-5", "element-size-7",
+                        "atom-names-considered-by-in-contact-residues-identification-expression.list"),
+                Sets.newHashSet(outputFolder.list()));
+        assertOutputFiles("1", FileUtils.getFile(outputFolder, "element-size-5"),
+                new String[] { "d2b97a1_A_39_PHE.pdb" });
+        assertOutputFiles("7", FileUtils.getFile(outputFolder, "element-size-7"), new String[] {
+                "d2b97a1_A_39_PHE.pdb", "d2b97a1_A_51_LEU.pdb" });
+        assertOutputFiles("7", outputFolder, new String[] {
+                "atom-names-considered-by-in-contact-residues-identification-expression.list" });
+    }
+
+    @Test
+    public void testProteinDescriptorsBuildingForSeveralExpressions() throws Exception {
+        final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder = new DescriptorsBuilderInputModelImpl.Builder()
+                .inputFormat(FormatType.PDB).inputFilePath(getDataFile("1", "d2b97a1.pdb").getCanonicalPath())
+                .moleculeType(MoleculeType.PROTEIN).outputFormat(FormatType.PDB).minimalElementsCount(10);
+        final File outputFolder = build(descriptorsBuilderInputModelBuilder,
+                getDataFile("1", "in-contact-residues-proteins-scgc.exp").getCanonicalPath() + ","
+                        + getDataFile("5", "in-contact-residues-proteins-cbx.exp").getCanonicalPath());
+        final String[][] outputFileNames = new String[][] { { "1", "d2b97a1_A_39_PHE.pdb" },
+                { "5", "d2b97a1_A_51_LEU.pdb" } };
+        for (int expressionIndex = 0; expressionIndex < outputFileNames.length; expressionIndex++) {
+            final File expressionOutputFolder = FileUtils.getFile(outputFolder, "expression-"
+                    + (expressionIndex + 1));
+            assertOutputFiles(outputFileNames[expressionIndex][0], expressionOutputFolder, new String[] {
+                    outputFileNames[expressionIndex][1],
+                    "atom-names-considered-by-in-contact-residues-identification-expression.list" });
+        }
+    }
+
     private void build(final String dataPackageNo, final String inContactResiduesExpressionFileName,
             final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder,
             final String[] outputFileNames) throws Exception {
-        final Class<?> clazz = this.getClass();
-        final String executionModeString = ExecutionMode.DESCRIPTORS_BUILDING.toString();
-        final File inputFile = getFile(clazz, "./", executionModeString, "/", dataPackageNo, "/",
-                descriptorsBuilderInputModelBuilder.getInputFilePath());
-        descriptorsBuilderInputModelBuilder.inputFilePath(inputFile.getCanonicalPath());
-        final File inContactResiduesExpressionFile = getFile(clazz, "./", executionModeString, "/",
-                dataPackageNo, "/", inContactResiduesExpressionFileName);
+        descriptorsBuilderInputModelBuilder.inputFilePath(getDataFile(dataPackageNo,
+                descriptorsBuilderInputModelBuilder.getInputFilePath()).getCanonicalPath());
+        final File outputFolder = build(descriptorsBuilderInputModelBuilder,
+                getDataFile(dataPackageNo, inContactResiduesExpressionFileName).getCanonicalPath());
+        assertOutputFiles(dataPackageNo, outputFolder, outputFileNames);
+    }
+
+    private File build(final DescriptorsBuilderInputModelImpl.Builder descriptorsBuilderInputModelBuilder,
+            final String inContactResiduesExpressionFilePaths) throws Exception {
         final File outputFolder = temporaryFolder.newFolder();
         descriptorsBuilderInputModelBuilder.outputDirPath(outputFolder.getCanonicalPath());
         final DescriptorsBuilderInputModel descriptorsBuilderInputModel = descriptorsBuilderInputModelBuilder
@@ -150,18 +281,36 @@ public class DescriptorBuildingTest extends CommonTest {
         int argsCount = ArrayUtils.getLength(args);
         final String[] extendedArgs = new String[argsCount + 2];
         System.arraycopy(args, 0, extendedArgs, 0, argsCount);
-        argsCount = introduceArg(extendedArgs, true, "-ice",
-                inContactResiduesExpressionFile.getCanonicalPath(), argsCount);
-        final int outputFileNamesCount = ArrayUtils.getLength(outputFileNames);
-        final File[] expectedFiles = new File[outputFileNamesCount];
-        for (int outputFileNameIndex = 0; outputFileNameIndex < outputFileNamesCount; outputFileNameIndex++) {
-            expectedFiles[outputFileNameIndex] = getFile(clazz, "./", executionModeString, "/",
-                    dataPackageNo, "/expected/", outputFileNames[outputFileNameIndex]);
-        }
+        argsCount = introduceArg(extendedArgs, true, "-ice", inContactResiduesExpressionFilePaths, argsCount);
         app.execute(extendedArgs);
-        for (int outputFileNameIndex = 0; outputFileNameIndex < outputFileNamesCount; outputFileNameIndex++) {
-            FileAssert.assertEquals(expectedFiles[outputFileNameIndex],
-                    FileUtils.getFile(outputFolder, outputFileNames[outputFileNameIndex]));
+        return outputFolder;
+    }
+
+    private void assertOutputFiles(final String dataPackageNo, final File outputFolder,
+            final String[] outputFileNames) throws Exception {
+        for (String outputFileName : outputFileNames) {
+            FileAssert.assertEquals(getFile(this.getClass(), "./",
+                    ExecutionMode.DESCRIPTORS_BUILDING.toString(), "/", dataPackageNo, "/expected/",
+                    outputFileName), FileUtils.getFile(outputFolder, outputFileName));
+        }
+    }
+
+    private File getDataFile(final String dataPackageNo, final String fileName) {
+        return getFile(this.getClass(), "./", ExecutionMode.DESCRIPTORS_BUILDING.toString(), "/",
+                dataPackageNo, "/", fileName);
+    }
+
+    private static final class RecordingAppender extends AbstractAppender {
+
+        private final List<String> messages = Collections.synchronizedList(Lists.<String> newArrayList());
+
+        private RecordingAppender() {
+            super("RECORDING", null, null, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public void append(final LogEvent event) {
+            messages.add(event.getMessage().getFormattedMessage());
         }
     }
 
@@ -1,25 +1,53 @@
 package edu.put.ma;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import junitx.framework.FileAssert;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
 import edu.put.ma.descs.AlignmentMode;
+import edu.put.ma.descs.DescriptorsComparator;
+import edu.put.ma.descs.DescriptorsComparatorImpl;
+import edu.put.ma.descs.SimilarDescriptorsVerifierImpl;
 import edu.put.ma.descs.UncomparableDescriptorsException;
 import edu.put.ma.descs.algorithms.AlignmentAcceptanceMode;
 import edu.put.ma.descs.algorithms.ComparisonAlgorithms;
 import edu.put.ma.io.FormatType;
+import edu.put.ma.io.reader.Reader;
+import edu.put.ma.io.reader.ReaderFactory;
 import edu.put.ma.io.writer.CommonWriter;
+import edu.put.ma.model.ComparisonResult;
+import edu.put.ma.model.DescriptorsPair;
+import edu.put.ma.model.DescriptorsPairImpl;
 import edu.put.ma.model.MoleculeType;
+import edu.put.ma.model.StructureType;
 import edu.put.ma.model.input.DescriptorsComparatorInputModel;
 import edu.put.ma.model.input.DescriptorsComparatorInputModelImpl;
+import edu.put.ma.structure.StructureExtension;
+import edu.put.ma.structure.StructureExtensionImpl;
 
 public class DescriptorsComparisonTest extends CommonTest {
 
+    private static final int CONCURRENT_COMPARISON_THREADS_COUNT = 8;
+
+    private static final int CONCURRENT_COMPARISON_ROUNDS_COUNT = 3;
+
     @Test
     public void testComparisonOfSingleElementProteinDescriptors() throws Exception {
         final DescriptorsComparatorInputModelImpl.Builder descriptorsComparatorInputModelBuilder = new DescriptorsComparatorInputModelImpl.Builder()
@@ -267,6 +295,190 @@ public class DescriptorsComparisonTest extends CommonTest {
         compare("7", descriptorsComparatorInputModelBuilder);
     }
 
+    @Test
+    public void testAllVersusAllComparisonOfProteinDescriptorsSet() throws Exception {
+        final Class<?> clazz = this.getClass();
+        final String executionModeString = ExecutionMode.DESCRIPTORS_COMPARISON.toString();
+        final File firstDescriptorFile = getFile(clazz, "./", executionModeString, "/", "2", "/",
+                "d1g1ta2_A_140_TYR.pdb");
+        final File secondDescriptorFile = getFile(clazz, "./", executionModeString, "/", "2", "/",
+                "d1uzka1_A_1509_TYR.pdb");
+        final File thirdDescriptorFile = getFile(clazz, "./", executionModeString, "/", "10", "/",
+                "d1quba4_A_213_PHE.pdb");
+        final File firstDescriptorFileCopy = FileUtils.getFile(temporaryFolder.newFolder(),
+                firstDescriptorFile.getName());
+        FileUtils.copyFile(firstDescriptorFile, firstDescriptorFileCopy);
+        final File descriptorsSetFile = temporaryFolder.newFile("descriptors.list");
+        FileUtils.writeLines(descriptorsSetFile, Arrays.asList(firstDescriptorFile.getCanonicalPath(),
+                secondDescriptorFile.getCanonicalPath(), thirdDescriptorFile.getCanonicalPath(),
+                firstDescriptorFileCopy.getCanonicalPath()));
+        final File atomNamesFile = getFile(clazz, "./", executionModeString, "/", "2", "/",
+                "atom-names-considered-by-in-contact-residues-identification-expression.list");
+        final File outputFolder = temporaryFolder.newFolder();
+        final DescriptorsComparatorInputModel descriptorsComparatorInputModel = new DescriptorsComparatorInputModelImpl.Builder()
+                .moleculeType(MoleculeType.PROTEIN).firstDescriptorsSetPath(descriptorsSetFile.getCanonicalPath())
+                .comparisonAlgorithmType(ComparisonAlgorithms.BACKTRACKING_DRIVEN_LONGEST_ALIGNMENT)
+                .alignmentAtomNamesFilePath(atomNamesFile.getCanonicalPath())
+                .alignmentMode(AlignmentMode.CONSIDER).threadsCount(2)
+                .outputDirPath(outputFolder.getCanonicalPath()).build();
+        app.execute(descriptorsComparatorInputModel.getArgs());
+        final List<String> rows = FileUtils.readLines(FileUtils.getFile(outputFolder,
+                "descriptors-comparison-results.tsv"));
+        assertEquals(7, rows.size());
+        assertTrue(FileUtils.getFile(outputFolder, "d1g1ta2_A_140_TYR-d1g1ta2_A_140_TYR_2").isDirectory());
+        final File pairOutputFolder = FileUtils.getFile(outputFolder, "d1g1ta2_A_140_TYR-d1uzka1_A_1509_TYR");
+        FileAssert.assertEquals(
+                getFile(clazz, "./", executionModeString, "/", "2", "/expected/", "d1g1ta2_A_140_TYR.pdb"),
+                FileUtils.getFile(pairOutputFolder, "d1g1ta2_A_140_TYR.pdb"));
+        FileAssert.assertEquals(
+                getFile(clazz, "./", executionModeString, "/", "2", "/expected/", "d1uzka1_A_1509_TYR.pdb"),
+                FileUtils.getFile(pairOutputFolder, "d1uzka1_A_1509_TYR.pdb"));
+    }
+
+    @Test
+    public void testOneVersusManyComparisonOfProteinDescriptorsSets() throws Exception {
+        final Class<?> clazz = this.getClass();
+        final String executionModeString = ExecutionMode.DESCRIPTORS_COMPARISON.toString();
+        final File firstDescriptorFile = getFile(clazz, "./", executionModeString, "/", "2", "/",
+                "d1g1ta2_A_140_TYR.pdb");
+        final File firstDescriptorsSetFile = temporaryFolder.newFile("first-descriptors.list");
+        FileUtils.writeLines(firstDescriptorsSetFile, Arrays.asList(firstDescriptorFile.getCanonicalPath()));
+        final File secondDescriptorsSetFile = temporaryFolder.newFile("second-descriptors.list");
+        FileUtils.writeLines(secondDescriptorsSetFile, Arrays.asList(
+                getFile(clazz, "./", executionModeString, "/", "2", "/", "d1uzka1_A_1509_TYR.pdb")
+                        .getCanonicalPath(),
+                getFile(clazz, "./", executionModeString, "/", "10", "/", "d1quba4_A_213_PHE.pdb")
+                        .getCanonicalPath(), firstDescriptorFile.getCanonicalPath()));
+        final File atomNamesFile = getFile(clazz, "./", executionModeString, "/", "2", "/",
+                "atom-names-considered-by-in-contact-residues-identification-expression.list");
+        final File outputFolder = temporaryFolder.newFolder();
+        final DescriptorsComparatorInputModel descriptorsComparatorInputModel = new DescriptorsComparatorInputModelImpl.Builder()
+                .moleculeType(MoleculeType.PROTEIN)
+                .firstDescriptorsSetPath(firstDescriptorsSetFile.getCanonicalPath())
+                .secondDescriptorsSetPath(secondDescriptorsSetFile.getCanonicalPath())
+                .comparisonAlgorithmType(ComparisonAlgorithms.BACKTRACKING_DRIVEN_LONGEST_ALIGNMENT)
+                .alignmentAtomNamesFilePath(atomNamesFile.getCanonicalPath()).threadsCount(2)
+                .outputDirPath(outputFolder.getCanonicalPath()).build();
+        app.execute(descriptorsComparatorInputModel.getArgs());
+        final List<String> rows = FileUtils.readLines(FileUtils.getFile(outputFolder,
+                "descriptors-comparison-results.tsv"));
+        assertEquals(4, rows.size());
+        for (String row : rows.subList(1, rows.size())) {
+            assertTrue(row.startsWith("d1g1ta2_A_140_TYR\t"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testComparisonOfEmptyDescriptorsSet() throws Exception {
+        new DescriptorsComparatorInputModelImpl.Builder().moleculeType(MoleculeType.PROTEIN)
+                .firstDescriptorsSetPath(temporaryFolder.newFile("empty-descriptors.list").getCanonicalPath())
+                .outputDirPath(temporaryFolder.newFolder().getCanonicalPath()).build();
+    }
+
+    @Test
+    public void testConcurrentComparisonOfProteinDescriptors() throws Exception {
+        final List<DescriptorsPair> descriptorsPairs = getComparableProteinDescriptorsPairs();
+        final int pairsCount = descriptorsPairs.size();
+        final ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_COMPARISON_THREADS_COUNT);
+        try {
+            for (ComparisonAlgorithms comparisonAlgorithmType : new ComparisonAlgorithms[] {
+                    ComparisonAlgorithms.BACKTRACKING_DRIVEN_LONGEST_ALIGNMENT,
+                    ComparisonAlgorithms.HUNGARIAN_METHOD_DRIVEN_LONGEST_ALIGNMENT_PARTIAL_SOLUTIONS_CONSIDERED }) {
+                final DescriptorsComparator descriptorsComparator = new DescriptorsComparatorImpl(
+                        comparisonAlgorithmType, new SimilarDescriptorsVerifierImpl(),
+                        DescriptorsComparatorInputModelImpl.DEFAULT_MAXIMAL_RMSD_BASED_COST_OF_PAIR_OF_ALIGNED_DUPLEXES,
+                        ImmutableList.of("SCGC", "CA"),
+                        AlignmentAcceptanceMode.ALIGNED_RESIDUES_AND_AVERAGE_RMSD_OF_ALIGNED_DUPLEXES);
+                final List<String> expectedResults = Lists.newArrayList();
+                for (DescriptorsPair descriptorsPair : descriptorsPairs) {
+                    expectedResults.add(getComparisonResultString(descriptorsComparator
+                            .compare(descriptorsPair)));
+                }
+                final List<Future<String>> results = Lists.newArrayList();
+                for (int taskIndex = 0; taskIndex < CONCURRENT_COMPARISON_ROUNDS_COUNT * pairsCount; taskIndex++) {
+                    final DescriptorsPair descriptorsPair = descriptorsPairs.get(taskIndex % pairsCount);
+                    results.add(executor.submit(new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            return getComparisonResultString(descriptorsComparator.compare(descriptorsPair));
+                        }
+                    }));
+                }
+                for (int taskIndex = 0; taskIndex < results.size(); taskIndex++) {
+                    assertEquals(expectedResults.get(taskIndex % pairsCount), results.get(taskIndex).get());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParallelComputationOfDuplexPairsSimilarityMatrix() throws Exception {
+        final DescriptorsComparatorImpl descriptorsComparator = new DescriptorsComparatorImpl(
+                ComparisonAlgorithms.BACKTRACKING_DRIVEN_LONGEST_ALIGNMENT, new SimilarDescriptorsVerifierImpl(),
+                DescriptorsComparatorInputModelImpl.DEFAULT_MAXIMAL_RMSD_BASED_COST_OF_PAIR_OF_ALIGNED_DUPLEXES,
+                ImmutableList.of("SCGC", "CA"),
+                AlignmentAcceptanceMode.ALIGNED_RESIDUES_AND_AVERAGE_RMSD_OF_ALIGNED_DUPLEXES);
+        final DescriptorsComparatorImpl parallelDescriptorsComparator = descriptorsComparator.newWorkingCopy();
+        parallelDescriptorsComparator.setThreadsCount(CONCURRENT_COMPARISON_THREADS_COUNT);
+        try {
+            for (DescriptorsPair descriptorsPair : getComparableProteinDescriptorsPairs()) {
+                final DescriptorsComparatorImpl sequentialDescriptorsComparator = descriptorsComparator
+                        .newWorkingCopy();
+                final String expectedResult = getComparisonResultString(sequentialDescriptorsComparator
+                        .compare(descriptorsPair));
+                final DescriptorsComparatorImpl workingCopy = parallelDescriptorsComparator.newWorkingCopy();
+                try {
+                    assertEquals(expectedResult,
+                            getComparisonResultString(workingCopy.compare(descriptorsPair)));
+                    assertEquals(sequentialDescriptorsComparator.getDuplexPairsString(),
+                            workingCopy.getDuplexPairsString());
+                } finally {
+                    workingCopy.close();
+                }
+            }
+        } finally {
+            parallelDescriptorsComparator.close();
+        }
+    }
+
+    private List<DescriptorsPair> getComparableProteinDescriptorsPairs() throws Exception {
+        final Class<?> clazz = this.getClass();
+        final String executionModeString = ExecutionMode.DESCRIPTORS_COMPARISON.toString();
+        final String[][] descriptorFiles = { { "2", "d1g1ta2_A_140_TYR.pdb" }, { "2", "d1uzka1_A_1509_TYR.pdb" },
+                { "4", "d1u78a2_A_69_VAL.pdb" }, { "4", "d2iw5b1_B_391_ALA.pdb" },
+                { "8", "d2b97a1_A_7_LEU.pdb" }, { "8", "d2b97a1_A_8_PHE.pdb" },
+                { "10", "d1quba4_A_213_PHE.pdb" }, { "10", "d1ppqa__A_988_TYR.pdb" } };
+        final Reader reader = ReaderFactory.construct(FormatType.PDB);
+        final List<StructureExtension> extendedStructures = Lists.newArrayList();
+        for (String[] descriptorFile : descriptorFiles) {
+            final File file = getFile(clazz, "./", executionModeString, "/", descriptorFile[0], "/",
+                    descriptorFile[1]);
+            extendedStructures.add(new StructureExtensionImpl(FilenameUtils.getBaseName(descriptorFile[1]),
+                    reader.read(file.getCanonicalPath()), MoleculeType.PROTEIN, StructureType.DESCRIPTOR));
+        }
+        final List<DescriptorsPair> result = Lists.newArrayList();
+        for (int firstIndex = 0; firstIndex < extendedStructures.size(); firstIndex++) {
+            for (int secondIndex = firstIndex + 1; secondIndex < extendedStructures.size(); secondIndex++) {
+                final DescriptorsPair descriptorsPair = new DescriptorsPairImpl(
+                        extendedStructures.get(firstIndex), extendedStructures.get(secondIndex),
+                        AlignmentMode.IGNORE);
+                if (!descriptorsPair.areDescriptorsUncomparable()) {
+                    result.add(descriptorsPair);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final String getComparisonResultString(final ComparisonResult comparisonResult) {
+        if (comparisonResult == null) {
+            return String.valueOf(comparisonResult);
+        }
+        return comparisonResult.toString() + comparisonResult.getSequenceAlignment();
+    }
+
     private void compare(final String dataPackageNo,
             final DescriptorsComparatorInputModelImpl.Builder descriptorsComparatorInputModelBuilder)
             throws Exception {
@@ -1,17 +1,39 @@
 package edu.put.ma.descs;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
+
 import edu.put.ma.descs.DescriptorsBuilderImpl;
+import edu.put.ma.descs.contacts.ContactsInspectorImpl;
+import edu.put.ma.io.FormatType;
+import edu.put.ma.io.reader.ReaderFactory;
+import edu.put.ma.model.ModelProperties;
+import edu.put.ma.model.ModelPropertiesImpl;
+import edu.put.ma.model.MoleculeType;
+import edu.put.ma.model.StructureType;
+import edu.put.ma.structure.StructureExtension;
+import edu.put.ma.structure.StructureExtensionImpl;
 
 public class DescriptorBuilderTest {
-    
+
+    private static final String RESOURCES_DIR = "/edu/put/ma/DESCRIPTORS_BUILDING/1/";
+
+    private static final int ELEMENT_SIZE = 5;
+
     @Test
     public void testFindAndRemoveRedundantElementCenters() throws Exception {
         final List<Integer> elementCenters = new ArrayList<Integer>(Arrays.asList(new Integer[] { 15, 17, 19,
@@ -24,4 +46,59 @@ public class DescriptorBuilderTest {
                 elementSize);
         assertTrue(expectedResult.equals(elementCenters));
     }
+
+    @Test
+    public void testPrunedDescriptorsCounts() throws Exception {
+        final File inputFile = getResource("d2b97a1.pdb");
+        final StructureExtension extendedStructure = new StructureExtensionImpl(
+                FilenameUtils.getBaseName(inputFile.getName()), ReaderFactory.construct(FormatType.PDB).read(
+                        inputFile.getAbsolutePath()), MoleculeType.PROTEIN, StructureType.MOLECULE);
+        final ModelProperties modelProperties = new ModelPropertiesImpl(extendedStructure.getModelByIndex(0),
+                MoleculeType.PROTEIN, ELEMENT_SIZE);
+        final DescriptorsFilter descriptorsFilter = new DescriptorsFilterImpl.Builder()
+                .maximalSegmentsCount(3).minimalElementsCount(4).maximalResiduesCount(40).build();
+        final DescriptorsBuilder descriptorsBuilder = new DescriptorsBuilderImpl(new ContactsInspectorImpl(
+                FileUtils.readFileToString(getResource("in-contact-residues-proteins-scgc.exp")),
+                MoleculeType.PROTEIN, 2), 2);
+        try {
+            descriptorsBuilder.build(extendedStructure, -1, modelProperties);
+            final List<String> allDescriptors = getDescriptorsLines(descriptorsBuilder);
+            descriptorsBuilder.build(extendedStructure, -1, modelProperties, descriptorsFilter);
+            final List<String> appropriateDescriptors = getDescriptorsLines(descriptorsBuilder);
+            final Map<DescriptorsFilterThreshold, Integer> prunedDescriptorsCounts = descriptorsBuilder
+                    .getPrunedDescriptorsCounts();
+            final Map<DescriptorsFilterThreshold, Integer> violatedThresholdsCounts = new EnumMap<DescriptorsFilterThreshold, Integer>(
+                    DescriptorsFilterThreshold.class);
+            final List<String> expectedAppropriateDescriptors = Lists.newArrayList();
+            for (String descriptor : allDescriptors) {
+                final String[] columns = StringUtils.split(descriptor, "\t");
+                final DescriptorsFilterThreshold violatedThreshold = descriptorsFilter.getViolatedThreshold(
+                        Integer.parseInt(columns[2]), Integer.parseInt(columns[3]),
+                        Integer.parseInt(columns[4]));
+                if (violatedThreshold == null) {
+                    expectedAppropriateDescriptors.add(descriptor);
+                } else {
+                    final Integer count = violatedThresholdsCounts.get(violatedThreshold);
+                    violatedThresholdsCounts.put(violatedThreshold, (count == null) ? 1 : count + 1);
+                }
+            }
+            assertEquals(expectedAppropriateDescriptors, appropriateDescriptors);
+            assertTrue(violatedThresholdsCounts.size() > 1);
+            for (DescriptorsFilterThreshold threshold : DescriptorsFilterThreshold.values()) {
+                final Integer violatedThresholdCount = violatedThresholdsCounts.get(threshold);
+                assertTrue(prunedDescriptorsCounts.get(threshold) >= ((violatedThresholdCount == null) ? 0
+                        : violatedThresholdCount));
+            }
+        } finally {
+            descriptorsBuilder.close();
+        }
+    }
+
+    private static final File getResource(final String name) {
+        return FileUtils.toFile(DescriptorBuilderTest.class.getResource(RESOURCES_DIR + name));
+    }
+
+    private static final List<String> getDescriptorsLines(final DescriptorsBuilder descriptorsBuilder) {
+        return Arrays.asList(StringUtils.split(descriptorsBuilder.toString(), "\n"));
+    }
 }
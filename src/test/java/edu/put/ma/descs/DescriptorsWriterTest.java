@@ -0,0 +1,150 @@
+package edu.put.ma.descs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.biojava.nbio.structure.Chain;
+import org.biojava.nbio.structure.Structure;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+import edu.put.ma.io.FormatType;
+import edu.put.ma.io.model.Structure3d;
+import edu.put.ma.io.reader.ReaderFactory;
+import edu.put.ma.io.writer.Writer;
+import edu.put.ma.io.writer.WriterFactory;
+import edu.put.ma.model.Descriptor;
+import edu.put.ma.model.IndexedDescriptorImpl;
+import edu.put.ma.model.ModelProperties;
+import edu.put.ma.model.ModelPropertiesImpl;
+import edu.put.ma.model.MoleculeType;
+import edu.put.ma.model.StructureType;
+import edu.put.ma.structure.StructureExtension;
+import edu.put.ma.structure.StructureExtensionImpl;
+
+public class DescriptorsWriterTest {
+
+    private static final int ELEMENT_SIZE = 5;
+
+    private static final int[][] ELEMENTS_CENTERS = new int[][] { { 32, 12 }, { 12, 32 }, { 42, 22 },
+            { 22, 42 } };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDescriptorsWriting() throws Exception {
+        final List<Descriptor> descriptors = constructDescriptors();
+        final File outputDir = temporaryFolder.newFolder();
+        final List<String> writtenFileNames = Lists.newArrayList();
+        final DescriptorsWriter descriptorsWriter = DescriptorsWriterFactory.construct(outputDir, "1",
+                new RecordingWriter(WriterFactory.construct(FormatType.PDB), writtenFileNames), 1);
+        for (Descriptor descriptor : descriptors) {
+            descriptorsWriter.write(descriptor);
+        }
+        final String summary = descriptorsWriter.finish();
+        final List<String> expectedFileNames = Lists.newArrayList();
+        final List<String> expectedSummaryRows = Lists.newArrayList();
+        for (Descriptor descriptor : descriptors) {
+            expectedFileNames.add(descriptor.getId());
+            expectedSummaryRows.add(descriptor.toString());
+            final File outputFile = FileUtils.getFile(outputDir, descriptor.getId() + ".pdb");
+            assertTrue(outputFile.isFile());
+            assertTrue(FileUtils.readFileToString(outputFile).contains("ATOM"));
+        }
+        assertEquals(expectedFileNames, writtenFileNames);
+        final List<String> summaryRows = Arrays.asList(StringUtils.split(summary, "\n"));
+        assertEquals(expectedSummaryRows, summaryRows.subList(2, summaryRows.size()));
+    }
+
+    @Test(expected = IllegalStateException.class, timeout = 10000)
+    public void testDescriptorsWritingWhenWriterStopped() throws Exception {
+        final List<Descriptor> descriptors = constructDescriptors();
+        final DescriptorsWriter descriptorsWriter = DescriptorsWriterFactory.construct(
+                temporaryFolder.newFolder(), "1", new RecordingWriter(null, null), 1);
+        try {
+            for (int descriptorIndex = 0; descriptorIndex < 10; descriptorIndex++) {
+                descriptorsWriter.write(descriptors.get(descriptorIndex % descriptors.size()));
+            }
+        } finally {
+            descriptorsWriter.finish();
+        }
+    }
+
+    private static final List<Descriptor> constructDescriptors() throws Exception {
+        final File inputFile = FileUtils.toFile(DescriptorsWriterTest.class
+                .getResource("/edu/put/ma/DESCRIPTORS_BUILDING/1/d2b97a1.pdb"));
+        final StructureExtension extendedStructure = new StructureExtensionImpl(
+                FilenameUtils.getBaseName(inputFile.getName()), ReaderFactory.construct(FormatType.PDB).read(
+                        inputFile.getAbsolutePath()), MoleculeType.PROTEIN, StructureType.MOLECULE);
+        final List<Chain> model = extendedStructure.getModelByIndex(0);
+        final ModelProperties modelProperties = new ModelPropertiesImpl(model, MoleculeType.PROTEIN,
+                ELEMENT_SIZE);
+        final List<Descriptor> result = Lists.newArrayList();
+        for (int[] elementsCenters : ELEMENTS_CENTERS) {
+            final List<Integer> inContactResidues = Lists.newArrayList();
+            for (int elementCenter : elementsCenters) {
+                for (int offset = -2; offset <= 2; offset++) {
+                    inContactResidues.add(elementCenter + offset);
+                }
+            }
+            final List<Integer> elementsCentersList = Arrays.asList(elementsCenters[0], elementsCenters[1]);
+            final int segmentsCount = IndexedDescriptorImpl.computeSegmentsCount(MoleculeType.PROTEIN, model,
+                    modelProperties.getResiduesAccess(), inContactResidues);
+            result.add(new IndexedDescriptorImpl(extendedStructure, -1, modelProperties, elementsCenters[1],
+                    elementsCentersList, inContactResidues, segmentsCount));
+        }
+        return result;
+    }
+
+    private static final class RecordingWriter implements Writer {
+
+        private final Writer writer;
+
+        private final List<String> writtenFileNames;
+
+        private RecordingWriter(final Writer writer, final List<String> writtenFileNames) {
+            this.writer = writer;
+            this.writtenFileNames = writtenFileNames;
+        }
+
+        @Override
+        public void write(final Structure structure, final String outputFilePath) {
+            write(structure, new File(outputFilePath));
+        }
+
+        @Override
+        public void write(final Structure structure, final File outputFile) {
+            if (writer == null) {
+                throw new AssertionError("Writing thread is expected to stop");
+            }
+            writtenFileNames.add(outputFile.getName());
+            writer.write(structure, outputFile);
+        }
+
+        @Override
+        public void write(final Structure3d structure3d, final String outputFilePath) {
+            writer.write(structure3d, outputFilePath);
+        }
+
+        @Override
+        public void write(final Structure3d structure3d, final File outputFile) {
+            writer.write(structure3d, outputFile);
+        }
+
+        @Override
+        public void write(final String text, final File outputFile, final String prefix) {
+            writer.write(text, outputFile, prefix);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.put.ma.descs.algorithms;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import edu.put.ma.descs.ComparisonPrecision;
+import edu.put.ma.descs.DescriptorsComparatorImpl;
+import edu.put.ma.descs.SimilarDescriptorsVerifierImpl;
+import edu.put.ma.model.DescriptorsPair;
+import edu.put.ma.model.ExtendedAlignment;
+import edu.put.ma.model.input.DescriptorsComparatorInputModelImpl;
+
+public class BacktrackingDrivenSearchTest {
+
+    private static final int ELEMENTS_COUNT = 5;
+
+    private static final int RESIDUES_COUNT = 30;
+
+    private static final int LONGEST_ALIGNMENT_RESIDUES_COUNT = 25;
+
+    private static final double LONGEST_ALIGNMENT_AVG_RMSD = 1.0;
+
+    private static final AlignmentAcceptanceMode RESIDUES_AND_RMSD = AlignmentAcceptanceMode.ALIGNED_RESIDUES_AND_AVERAGE_RMSD_OF_ALIGNED_DUPLEXES;
+
+    @Test
+    public void testBoundsOfLongestAlignmentUpdate() throws Exception {
+        final DescriptorsPair descriptorsPair = newInstance(DescriptorsPair.class,
+                ImmutableMap.<String, Object> of("getFirstDescriptorElementsCount", ELEMENTS_COUNT,
+                        "getSecondDescriptorElementsCount", ELEMENTS_COUNT, "getFirstDescriptorResiduesCount",
+                        RESIDUES_COUNT, "getSecondDescriptorResiduesCount", RESIDUES_COUNT));
+        final BacktrackingDrivenSearch search = newSearch();
+        assertFalse(search.isLongestAlignmentUpdateAchievable(descriptorsPair, ELEMENTS_COUNT,
+                LONGEST_ALIGNMENT_RESIDUES_COUNT - 1, 0.0, RESIDUES_AND_RMSD));
+        assertTrue(search.isLongestAlignmentUpdateAchievable(descriptorsPair, ELEMENTS_COUNT,
+                LONGEST_ALIGNMENT_RESIDUES_COUNT + 1, LONGEST_ALIGNMENT_AVG_RMSD + 1.0, RESIDUES_AND_RMSD));
+        assertFalse(search.isLongestAlignmentUpdateAchievable(descriptorsPair, ELEMENTS_COUNT,
+                LONGEST_ALIGNMENT_RESIDUES_COUNT, LONGEST_ALIGNMENT_AVG_RMSD + 0.1, RESIDUES_AND_RMSD));
+        assertTrue(search.isLongestAlignmentUpdateAchievable(descriptorsPair, ELEMENTS_COUNT,
+                LONGEST_ALIGNMENT_RESIDUES_COUNT, LONGEST_ALIGNMENT_AVG_RMSD, RESIDUES_AND_RMSD));
+        assertTrue(search.isLongestAlignmentUpdateAchievable(descriptorsPair, ELEMENTS_COUNT,
+                LONGEST_ALIGNMENT_RESIDUES_COUNT, LONGEST_ALIGNMENT_AVG_RMSD - 0.1, RESIDUES_AND_RMSD));
+        assertTrue(search.isLongestAlignmentUpdateAchievable(descriptorsPair, ELEMENTS_COUNT,
+                LONGEST_ALIGNMENT_RESIDUES_COUNT, LONGEST_ALIGNMENT_AVG_RMSD + 0.1,
+                AlignmentAcceptanceMode.ALIGNED_RESIDUES_ONLY));
+        assertFalse(search.isLongestAlignmentUpdateAchievable(descriptorsPair, ELEMENTS_COUNT - 2,
+                LONGEST_ALIGNMENT_RESIDUES_COUNT + 1, 0.0, RESIDUES_AND_RMSD));
+        assertFalse(search.isLongestAlignmentUpdateAchievable(descriptorsPair, ELEMENTS_COUNT,
+                RESIDUES_COUNT / 2, 0.0, RESIDUES_AND_RMSD));
+    }
+
+    private static final BacktrackingDrivenSearch newSearch() {
+        final BacktrackingDrivenSearch result = new BacktrackingDrivenSearch(
+                CommonAlgorithm.COMPREHENSIVE_SEARCH, ComparisonPrecision.ALL_RULES_CONSIDERED);
+        result.descriptorsComparator = new DescriptorsComparatorImpl(
+                ComparisonAlgorithms.BACKTRACKING_DRIVEN_LONGEST_ALIGNMENT,
+                new SimilarDescriptorsVerifierImpl(),
+                DescriptorsComparatorInputModelImpl.DEFAULT_MAXIMAL_RMSD_BASED_COST_OF_PAIR_OF_ALIGNED_DUPLEXES,
+                ImmutableList.of("CA"), RESIDUES_AND_RMSD);
+        result.longestAlignment = newInstance(ExtendedAlignment.class, ImmutableMap.<String, Object> of(
+                "getAlignedResiduesCount", LONGEST_ALIGNMENT_RESIDUES_COUNT, "getAvgRmsd",
+                LONGEST_ALIGNMENT_AVG_RMSD));
+        return result;
+    }
+
+    private static final <T> T newInstance(final Class<T> type, final Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                new InvocationHandler() {
+
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        if (!values.containsKey(method.getName())) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        return values.get(method.getName());
+                    }
+                }));
+    }
+}
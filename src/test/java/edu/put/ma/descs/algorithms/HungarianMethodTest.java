@@ -1,11 +1,26 @@
 package edu.put.ma.descs.algorithms;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class HungarianMethodTest {
 
+    private static final double DELTA = 1E-9;
+
     @Test
     public void testHungarianMethod() throws Exception {
         final int[][] expectedResult = new int[][] { { 2, 0 }, { 1, 1 }, { 0, 2 }, { 3, 3 } };
@@ -15,4 +30,187 @@ public class HungarianMethodTest {
         final int[][] result = hungarianMethod.execute(costs);
         assertArrayEquals(result, expectedResult);
     }
+
+    @Test
+    public void testJonkerVolgenantMethod() throws Exception {
+        final int[][] expectedResult = new int[][] { { 2, 0 }, { 1, 1 }, { 0, 2 }, { 3, 3 } };
+        final double[][] costs = new double[][] { { 82.0, 83.0, 69.0, 92.0 }, { 77.0, 37.0, 49.0, 92.0 },
+                { 11.0, 69.0, 5.0, 86.0 }, { 8.0, 9.0, 98.0, 23.0 } };
+        final HungarianMethod jonkerVolgenantMethod = new JonkerVolgenantMethodImpl();
+        assertArrayEquals(jonkerVolgenantMethod.execute(costs), expectedResult);
+        final Random random = new Random(7L);
+        for (int testIndex = 0; testIndex < 50; testIndex++) {
+            final int rowsCount = 1 + random.nextInt(12);
+            final int colsCount = 1 + random.nextInt(12);
+            final int size = Math.max(rowsCount, colsCount);
+            final double[][] rectangularCosts = new double[rowsCount][colsCount];
+            final double[][] squareCosts = new double[size][size];
+            for (int rowIndex = 0; rowIndex < rowsCount; rowIndex++) {
+                for (int colIndex = 0; colIndex < colsCount; colIndex++) {
+                    rectangularCosts[rowIndex][colIndex] = random.nextInt(100);
+                    squareCosts[rowIndex][colIndex] = rectangularCosts[rowIndex][colIndex];
+                }
+            }
+            final int[][] assignment = jonkerVolgenantMethod.execute(rectangularCosts);
+            assertEquals(Math.min(rowsCount, colsCount), assignment.length);
+            assertEquals(computeTotalCost(new HungarianMethodImpl().execute(squareCosts), rectangularCosts),
+                    computeTotalCost(assignment, rectangularCosts), DELTA);
+        }
+    }
+
+    @Test
+    public void testWarmStartedJonkerVolgenantMethod() throws Exception {
+        final Random random = new Random(11L);
+        final int firstElementsCount = 9;
+        final int secondElementsCount = 12;
+        final HungarianMethod warmStartedMethod = new JonkerVolgenantMethodImpl();
+        final HungarianMethod jonkerVolgenantMethod = new JonkerVolgenantMethodImpl();
+        final double[][] realCosts = new double[firstElementsCount][secondElementsCount];
+        for (int rowIndex = 0; rowIndex < firstElementsCount; rowIndex++) {
+            for (int colIndex = 0; colIndex < secondElementsCount; colIndex++) {
+                realCosts[rowIndex][colIndex] = random.nextInt(100);
+            }
+        }
+        for (int size = secondElementsCount; size < secondElementsCount + 5; size++) {
+            final double[][] costs = new double[size][size];
+            for (int rowIndex = 0; rowIndex < size; rowIndex++) {
+                for (int colIndex = 0; colIndex < size; colIndex++) {
+                    if ((rowIndex < firstElementsCount) && (colIndex < secondElementsCount)) {
+                        costs[rowIndex][colIndex] = realCosts[rowIndex][colIndex];
+                    } else if ((rowIndex >= firstElementsCount) && (colIndex >= secondElementsCount)) {
+                        costs[rowIndex][colIndex] = 1000.0;
+                    }
+                }
+            }
+            final double warmStartedCost = computeTotalCost(
+                    (size == secondElementsCount) ? warmStartedMethod.execute(costs) : warmStartedMethod
+                            .executeWarmStarted(costs), costs);
+            assertEquals(computeTotalCost(jonkerVolgenantMethod.execute(costs), costs), warmStartedCost,
+                    DELTA);
+            assertEquals(computeTotalCost(new HungarianMethodImpl().execute(costs), costs), warmStartedCost,
+                    DELTA);
+            if (size > secondElementsCount) {
+                assertTrue(warmStartedMethod.getIterationsCount() < jonkerVolgenantMethod
+                        .getIterationsCount());
+            }
+        }
+        for (int testIndex = 0; testIndex < 50; testIndex++) {
+            final double[][] rectangularCosts = new double[4][8];
+            for (int rowIndex = 0; rowIndex < rectangularCosts.length; rowIndex++) {
+                for (int colIndex = 0; colIndex < rectangularCosts[rowIndex].length; colIndex++) {
+                    rectangularCosts[rowIndex][colIndex] = random.nextInt(100);
+                }
+            }
+            final double[][] leadingCosts = new double[3][];
+            for (int rowIndex = 0; rowIndex < leadingCosts.length; rowIndex++) {
+                leadingCosts[rowIndex] = Arrays.copyOf(rectangularCosts[rowIndex], 5);
+            }
+            warmStartedMethod.execute(leadingCosts);
+            final int[][] warmStartedAssignment = warmStartedMethod.executeWarmStarted(rectangularCosts);
+            assertEquals(computeTotalCost(jonkerVolgenantMethod.execute(rectangularCosts), rectangularCosts),
+                    computeTotalCost(warmStartedAssignment, rectangularCosts), DELTA);
+        }
+    }
+
+    @Test
+    public void testKBestAssignmentsEnumeration() throws Exception {
+        final double[][] costs = new double[][] { { 82.0, 83.0, 69.0, 92.0 }, { 77.0, 37.0, 49.0, 92.0 },
+                { 11.0, 69.0, 5.0, 86.0 }, { 8.0, 9.0, 98.0, 23.0 } };
+        final List<Double> expectedTotalCosts = Lists.newArrayList();
+        collectTotalCostsOfPermutations(costs, 0, new boolean[costs.length], 0.0, expectedTotalCosts);
+        Collections.sort(expectedTotalCosts);
+        final KBestAssignmentsEnumerator enumerator = new KBestAssignmentsEnumerator(
+                new JonkerVolgenantMethodImpl(), 1000.0);
+        final List<int[][]> bestAssignments = enumerator.enumerate(costs, costs.length, costs.length,
+                costs.length, 10, expectedTotalCosts.get(5));
+        assertEquals(6, bestAssignments.size());
+        for (int assignmentIndex = 0; assignmentIndex < bestAssignments.size(); assignmentIndex++) {
+            assertEquals(expectedTotalCosts.get(assignmentIndex).doubleValue(),
+                    computeTotalCost(bestAssignments.get(assignmentIndex), costs), DELTA);
+        }
+        assertEquals(expectedTotalCosts.size(), enumerator.enumerate(costs, costs.length, costs.length,
+                costs.length, expectedTotalCosts.size() + 1, Double.MAX_VALUE).size());
+        final double[][] paddedCosts = new double[][] { { 4.0, 1000.0, 2.0, 7.0, 0.0 },
+                { 3.0, 6.0, 1000.0, 1.0, 0.0 }, { 5.0, 2.0, 8.0, 1000.0, 0.0 },
+                { 0.0, 0.0, 0.0, 0.0, 1000.0 }, { 0.0, 0.0, 0.0, 0.0, 1000.0 } };
+        final Map<Set<List<Integer>>, Double> expectedRealPairs = Maps.newHashMap();
+        collectRealPairsOfPermutations(paddedCosts, 0, new int[paddedCosts.length],
+                new boolean[paddedCosts.length], 3, 4, expectedRealPairs);
+        final List<Double> expectedPaddedTotalCosts = Lists.newArrayList(expectedRealPairs.values());
+        Collections.sort(expectedPaddedTotalCosts);
+        final List<int[][]> paddedBestAssignments = enumerator.enumerate(paddedCosts, paddedCosts.length, 3,
+                4, expectedRealPairs.size() + 1, Double.MAX_VALUE);
+        assertEquals(expectedRealPairs.size(), paddedBestAssignments.size());
+        final Set<Set<List<Integer>>> enumeratedRealPairs = Sets.newHashSet();
+        for (int assignmentIndex = 0; assignmentIndex < paddedBestAssignments.size(); assignmentIndex++) {
+            final Set<List<Integer>> realPairs = toRealPairs(paddedBestAssignments.get(assignmentIndex));
+            assertTrue(enumeratedRealPairs.add(realPairs));
+            assertEquals(expectedPaddedTotalCosts.get(assignmentIndex), expectedRealPairs.get(realPairs),
+                    DELTA);
+        }
+    }
+
+    private static final void collectTotalCostsOfPermutations(final double[][] costs, final int rowIndex,
+            final boolean[] usedCols, final double totalCost, final List<Double> totalCosts) {
+        if (rowIndex == costs.length) {
+            totalCosts.add(totalCost);
+            return;
+        }
+        for (int colIndex = 0; colIndex < costs.length; colIndex++) {
+            if (!usedCols[colIndex]) {
+                usedCols[colIndex] = true;
+                collectTotalCostsOfPermutations(costs, rowIndex + 1, usedCols,
+                        totalCost + costs[rowIndex][colIndex], totalCosts);
+                usedCols[colIndex] = false;
+            }
+        }
+    }
+
+    private static final void collectRealPairsOfPermutations(final double[][] costs, final int rowIndex,
+            final int[] cols, final boolean[] usedCols, final int realRowsCount, final int realColsCount,
+            final Map<Set<List<Integer>>, Double> realPairsCosts) {
+        if (rowIndex == costs.length) {
+            final int[][] realPairs = new int[realRowsCount][];
+            int realPairsCount = 0;
+            double totalCost = 0.0;
+            for (int index = 0; index < costs.length; index++) {
+                if (Double.compare(costs[index][cols[index]], 1000.0) >= 0) {
+                    return;
+                }
+                totalCost += costs[index][cols[index]];
+                if ((index < realRowsCount) && (cols[index] < realColsCount)) {
+                    realPairs[realPairsCount++] = new int[] { index, cols[index] };
+                }
+            }
+            realPairsCosts.put(toRealPairs(Arrays.copyOf(realPairs, realPairsCount)), totalCost);
+            return;
+        }
+        for (int colIndex = 0; colIndex < costs.length; colIndex++) {
+            if (!usedCols[colIndex]) {
+                usedCols[colIndex] = true;
+                cols[rowIndex] = colIndex;
+                collectRealPairsOfPermutations(costs, rowIndex + 1, cols, usedCols, realRowsCount,
+                        realColsCount, realPairsCosts);
+                usedCols[colIndex] = false;
+            }
+        }
+    }
+
+    private static final Set<List<Integer>> toRealPairs(final int[][] assignment) {
+        final Set<List<Integer>> result = Sets.newHashSet();
+        for (int[] assignmentElement : assignment) {
+            result.add(Arrays.asList(assignmentElement[0], assignmentElement[1]));
+        }
+        return result;
+    }
+
+    private static final double computeTotalCost(final int[][] assignment, final double[][] costs) {
+        double totalCost = 0.0;
+        for (int[] assignmentElement : assignment) {
+            if ((assignmentElement[0] < costs.length) && (assignmentElement[1] < costs[0].length)) {
+                totalCost += costs[assignmentElement[0]][assignmentElement[1]];
+            }
+        }
+        return totalCost;
+    }
 }
@@ -0,0 +1,75 @@
+package edu.put.ma.descs.contacts;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.biojava.nbio.structure.AminoAcidImpl;
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.AtomImpl;
+import org.biojava.nbio.structure.Group;
+import org.biojava.nbio.structure.ResidueNumber;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import edu.put.ma.model.MoleculeType;
+
+public class AtomsTableTest {
+
+    private static final double DELTA = 1E-9;
+
+    private static final List<String> ATOM_NAMES = Arrays.asList("CA", "CB", "SCGC");
+
+    @Test
+    public void testAtomsTable() throws Exception {
+        final Group first = constructResidue("ALA", new double[][] { { 0.0, 0.0, 0.0 }, { 1.0, 1.0, 1.0 } });
+        final Group second = constructResidue("GLY", new double[][] { { 3.0, 4.0, 0.0 } });
+        final AtomsTable atomsTable = AtomsTableFactory.construct(ATOM_NAMES,
+                Lists.newArrayList(first, null, second), MoleculeType.PROTEIN);
+        assertEquals(3, atomsTable.getResiduesCount());
+        assertEquals(3, atomsTable.getAtomSlotsCount());
+        assertEquals(2, atomsTable.getResidueIndex(second));
+        assertSame(first.getAtom("CA"), atomsTable.getAtom(0, 0));
+        assertSame(atomsTable.getAtom(0, 0), atomsTable.getAtom(first, 0));
+        assertTrue(atomsTable.areAtomsAvailable(0, new int[] { 0, 1 }));
+        assertFalse(atomsTable.isAtomAvailable(1, 0));
+        assertFalse(atomsTable.isAtomAvailable(2, 1));
+        assertNull(atomsTable.getAtom(2, 1));
+        assertEquals(5.0, atomsTable.getDistance(0, 0, 2, 0), DELTA);
+    }
+
+    @Test
+    public void testAtomsOfResidueOutsideTable() throws Exception {
+        final Group residue = constructResidue("ALA", new double[][] { { 0.0, 0.0, 0.0 }, { 1.0, 1.0, 1.0 } });
+        final Group other = constructResidue("ALA", new double[][] { { 2.0, 0.0, 0.0 }, { 3.0, 1.0, 1.0 } });
+        final AtomsTable atomsTable = AtomsTableFactory.construct(ATOM_NAMES, Lists.newArrayList(residue),
+                MoleculeType.PROTEIN);
+        assertEquals(-1, atomsTable.getResidueIndex(other));
+        assertSame(other.getAtom("CB"), atomsTable.getAtom(other, 1));
+        for (int atomSlot = 0; atomSlot < ATOM_NAMES.size(); atomSlot++) {
+            assertSame(atomsTable.getAtom(other, atomSlot), atomsTable.getAtom(other, atomSlot));
+        }
+        assertNotNull(atomsTable.getAtom(other, 2));
+    }
+
+    private static final Group constructResidue(final String name, final double[][] coordinates) {
+        final Group residue = new AminoAcidImpl();
+        residue.setPDBName(name);
+        residue.setResidueNumber(new ResidueNumber("A", 1, null));
+        final String[] atomNames = new String[] { "CA", "CB" };
+        for (int atomIndex = 0; atomIndex < coordinates.length; atomIndex++) {
+            final Atom atom = new AtomImpl();
+            atom.setName(atomNames[atomIndex]);
+            atom.setCoords(coordinates[atomIndex]);
+            residue.addAtom(atom);
+        }
+        return residue;
+    }
+}
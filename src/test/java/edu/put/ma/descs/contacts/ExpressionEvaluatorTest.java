@@ -1,14 +1,18 @@
 package edu.put.ma.descs.contacts;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.After;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
+import edu.put.ma.descs.contacts.expression.VariableValues;
+
 public class ExpressionEvaluatorTest {
 
     private ExpressionEvaluator expressionEvaluator;
@@ -187,6 +191,56 @@ public class ExpressionEvaluatorTest {
         assertFalse(expressionEvaluator.evaluateAndTransform(variableValues4));
     }
 
+    @Test
+    public void testCompiledExpression1() throws Exception {
+        this.expressionEvaluator = new ExpressionEvaluatorImpl("AND(NOT(X=Y), X<=Y-0.5)",
+                ImmutableSet.of("X", "Y"), 1);
+        assertEquals(ImmutableList.of("X", "Y"), expressionEvaluator.getVariableNames());
+        assertTrue(expressionEvaluator.evaluateAndTransform(new double[] { 1d, 2d }));
+        assertFalse(expressionEvaluator.evaluateAndTransform(new double[] { 1.75, 2d }));
+        assertFalse(expressionEvaluator.evaluateAndTransform(new double[] { 2d, 2d }));
+    }
+
+    @Test
+    public void testCompiledExpression2() throws Exception {
+        this.expressionEvaluator = new ExpressionEvaluatorImpl("OR(ZA<=6.5,AND(ZA<=ZB-0.75,ZA<=8.0))",
+                ImmutableSet.of("ZA", "ZB"), 1);
+        final double[][] variableValues = new double[][] { { 6.5, 1d }, { 7d, 8d }, { 7d, 7.5 },
+                { 8.5, 10d }, { 7.5, 8.25 } };
+        for (double[] values : variableValues) {
+            assertEquals(
+                    expressionEvaluator.evaluateAndTransform(ImmutableMap.of("ZA", values[0], "ZB", values[1])),
+                    expressionEvaluator.evaluateAndTransform(values));
+        }
+    }
+
+    @Test
+    public void testCompiledExpression3() throws Exception {
+        this.expressionEvaluator = new ExpressionEvaluatorImpl("X/Y<1", ImmutableSet.of("X", "Y"), 1);
+        assertTrue(expressionEvaluator.evaluateAndTransform(new double[] { 1d, 2d }));
+        assertFalse(expressionEvaluator.evaluateAndTransform(new double[] { 1d, 0d }));
+    }
+
+    @Test
+    public void testLazyEvaluation() throws Exception {
+        this.expressionEvaluator = new ExpressionEvaluatorImpl("OR(ZA<=6.5,AND(ZA<=ZB-0.75,ZA<=8.0))",
+                ImmutableSet.of("ZA", "ZB"), 1);
+        final int[] requestsCount = new int[2];
+        final double[] values = new double[] { 5d, 10d };
+        final VariableValues variableValues = new VariableValues() {
+            @Override
+            public double getValue(final int variableIndex) {
+                requestsCount[variableIndex]++;
+                return values[variableIndex];
+            }
+        };
+        assertTrue(expressionEvaluator.evaluateAndTransform(variableValues));
+        assertEquals(0, requestsCount[1]);
+        values[0] = 12d;
+        assertFalse(expressionEvaluator.evaluateAndTransform(variableValues));
+        assertEquals(1, requestsCount[1]);
+    }
+
     @After
     public void tearDown() throws Exception {
         if (expressionEvaluator != null) {
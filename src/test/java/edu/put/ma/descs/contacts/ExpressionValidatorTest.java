@@ -1,5 +1,6 @@
 package edu.put.ma.descs.contacts;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -226,4 +227,35 @@ public class ExpressionValidatorTest {
                 MoleculeType.RNA);
         assertTrue(expressionValidator.isValid());
     }
+
+    @Test
+    public void testDistanceCutoff1() throws Exception {
+        final ExpressionValidator expressionValidator = new ExpressionValidatorImpl(
+                "OR(DISTANCE:SCGC <= 6.5, AND(DIST:SCGC <= DISTANCE:CA - 0.75, DISTANCE:SCGC <= 8.0))",
+                MoleculeType.PROTEIN);
+        assertEquals(8.0, expressionValidator.getDistanceCutoff(), 0.0);
+    }
+
+    @Test
+    public void testDistanceCutoff2() throws Exception {
+        final ExpressionValidator expressionValidator = new ExpressionValidatorImpl(
+                "OR(OR(DIST:BSGC <= 8, AND(DIST:BSGC <= 10, DIST:RBGC <= 12)), AND(DIST:BSGC <= 12, AND(DIST:RBGC <= 14, DIST:C5' <= 18)))",
+                MoleculeType.RNA);
+        assertEquals(12.0, expressionValidator.getDistanceCutoff(), 0.0);
+    }
+
+    @Test
+    public void testDistanceCutoff3() throws Exception {
+        final ExpressionValidator expressionValidator = new ExpressionValidatorImpl(
+                "AND((NOT((DISTANCE:C1';O5')>=(5))), DIST:BSGC * 2 + 1 < 9)", MoleculeType.RNA);
+        assertEquals(4.0, expressionValidator.getDistanceCutoff(), 0.0);
+    }
+
+    @Test
+    public void testUnboundedDistanceCutoff() throws Exception {
+        final ExpressionValidator expressionValidator = new ExpressionValidatorImpl(
+                "OR(DISTANCE:C1'<7.0, NOT(DIST:BSGC<=8.0))", MoleculeType.RNA);
+        assertEquals(Double.POSITIVE_INFINITY, expressionValidator.getDistanceCutoff(), 0.0);
+        assertTrue(expressionValidator.getDistanceCutoffString().endsWith("NOT(DISTANCE:BSGC<=8.0)"));
+    }
 }
@@ -0,0 +1,105 @@
+package edu.put.ma.descs.contacts;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InContactResiduesMapTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testInContactResiduesMap() throws Exception {
+        final InContactResiduesMap inContactResiduesMap = InContactResiduesMapFactory.construct(4);
+        inContactResiduesMap.addContact(0, 3);
+        inContactResiduesMap.addContact(1, 3);
+        inContactResiduesMap.addContact(3, 0);
+        assertEquals(2, inContactResiduesMap.getContactsCount());
+        assertArrayEquals(new int[] { 0, 1 }, inContactResiduesMap.getInContactResidueIndexes(3));
+        inContactResiduesMap.complete();
+        assertEquals(2, inContactResiduesMap.getContactsCount());
+        assertArrayEquals(new int[] { 0, 1 }, inContactResiduesMap.getInContactResidueIndexes(3));
+        assertArrayEquals(new int[0], inContactResiduesMap.getInContactResidueIndexes(2));
+        assertTrue(inContactResiduesMap.areResiduesInContact(3, 1));
+        assertFalse(inContactResiduesMap.areResiduesInContact(0, 1));
+        assertEquals("In-contact residues matrix:\n0\t0\t0\t1\t\n0\t0\t0\t1\t\n0\t0\t0\t0\t\n1\t1\t0\t0\t",
+                inContactResiduesMap.toString());
+    }
+
+    @Test
+    public void testInContactResiduesMapCache() throws Exception {
+        final long cacheFileSize = getCacheFileSize(constructInContactResiduesMap(100));
+        final File cacheDir = temporaryFolder.newFolder();
+        final InContactResiduesMapCache inContactResiduesMapCache = new InContactResiduesMapCacheImpl(cacheDir,
+                2 * cacheFileSize + cacheFileSize / 2);
+        assertNull(inContactResiduesMapCache.get("first", 100));
+        final InContactResiduesMap inContactResiduesMap = constructInContactResiduesMap(100);
+        inContactResiduesMapCache.put("first", inContactResiduesMap);
+        final InContactResiduesMap cachedInContactResiduesMap = inContactResiduesMapCache.get("first", 100);
+        assertEquals(inContactResiduesMap.toString(), cachedInContactResiduesMap.toString());
+        assertEquals(1, inContactResiduesMapCache.getHitsCount());
+        assertEquals(1, inContactResiduesMapCache.getMissesCount());
+        inContactResiduesMapCache.put("second", constructInContactResiduesMap(100));
+        assertNotNull(inContactResiduesMapCache.get("first", 100));
+        inContactResiduesMapCache.put("third", constructInContactResiduesMap(100));
+        assertEquals(2 * cacheFileSize, inContactResiduesMapCache.getSize());
+        assertFalse(FileUtils.getFile(cacheDir, "second.icrm").exists());
+        assertNull(inContactResiduesMapCache.get("second", 100));
+        assertNotNull(inContactResiduesMapCache.get("first", 100));
+        assertNotNull(inContactResiduesMapCache.get("third", 100));
+    }
+
+    @Test
+    public void testInvalidEntriesOfInContactResiduesMapCache() throws Exception {
+        final File cacheDir = temporaryFolder.newFolder();
+        final InContactResiduesMapCache inContactResiduesMapCache = new InContactResiduesMapCacheImpl(cacheDir,
+                1024 * 1024);
+        inContactResiduesMapCache.put("model", constructInContactResiduesMap(100));
+        assertNull(inContactResiduesMapCache.get("model", 99));
+        assertFalse(FileUtils.getFile(cacheDir, "model.icrm").exists());
+        inContactResiduesMapCache.put("model", constructInContactResiduesMap(100));
+        final File cacheFile = FileUtils.getFile(cacheDir, "model.icrm");
+        final byte[] content = FileUtils.readFileToByteArray(cacheFile);
+        FileUtils.writeByteArrayToFile(cacheFile, Arrays.copyOf(content, content.length - 1));
+        assertNull(inContactResiduesMapCache.get("model", 100));
+        assertFalse(cacheFile.exists());
+        FileUtils.writeByteArrayToFile(cacheFile, new byte[] { 0x49, 0x43, 0x52, 0x4D, 1, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF });
+        assertNull(inContactResiduesMapCache.get("model", 100));
+        assertFalse(cacheFile.exists());
+        assertEquals(0, inContactResiduesMapCache.getHitsCount());
+        assertEquals(3, inContactResiduesMapCache.getMissesCount());
+        assertEquals(0, inContactResiduesMapCache.getSize());
+    }
+
+    private long getCacheFileSize(final InContactResiduesMap inContactResiduesMap) throws Exception {
+        final InContactResiduesMapCache inContactResiduesMapCache = new InContactResiduesMapCacheImpl(
+                temporaryFolder.newFolder(), 1024 * 1024);
+        inContactResiduesMapCache.put("model", inContactResiduesMap);
+        return inContactResiduesMapCache.getSize();
+    }
+
+    private static final InContactResiduesMap constructInContactResiduesMap(final int residuesCount) {
+        final InContactResiduesMap result = InContactResiduesMapFactory.construct(residuesCount);
+        for (int residueIndex = 0; residueIndex < residuesCount; residueIndex++) {
+            for (int otherResidueIndex = residueIndex + 1; otherResidueIndex < residuesCount;
+                    otherResidueIndex += 25) {
+                result.addContact(residueIndex, otherResidueIndex);
+            }
+        }
+        result.complete();
+        return result;
+    }
+}
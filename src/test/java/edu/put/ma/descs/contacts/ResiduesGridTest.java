@@ -0,0 +1,92 @@
+package edu.put.ma.descs.contacts;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.AtomImpl;
+import org.biojava.nbio.structure.Calc;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class ResiduesGridTest {
+
+    private static final int RESIDUES_COUNT = 200;
+
+    private static final int RESIDUE_ATOMS_COUNT = 6;
+
+    @Test
+    public void testNeighbourResiduesAgainstAllPairs() throws Exception {
+        final List<List<Atom>> residuesAtoms = constructResiduesAtoms(new Random(7L));
+        for (double range : new double[] { 0.5, 4.0, 8.0, 12.5 }) {
+            final ResiduesGrid residuesGrid = ResiduesGridFactory.construct(range);
+            for (int residueIndex = 0; residueIndex < RESIDUES_COUNT; residueIndex++) {
+                residuesGrid.addResidue(residueIndex, residuesAtoms.get(residueIndex));
+            }
+            for (int residueIndex = 0; residueIndex < RESIDUES_COUNT; residueIndex++) {
+                assertEquals(identifyNeighbourResidues(residuesAtoms, residueIndex, range),
+                        residuesGrid.getNeighbourResidueIndexes(residueIndex));
+            }
+        }
+    }
+
+    @Test
+    public void testCellSizeOfTinyRange() throws Exception {
+        final ResiduesGrid residuesGrid = ResiduesGridFactory.construct(1e-6);
+        assertTrue(Double.compare(residuesGrid.getCellSize(), 1.0) >= 0);
+        final List<Atom> atoms = Lists.newArrayList(constructAtom(1.0, 2.0, 3.0));
+        residuesGrid.addResidue(0, atoms);
+        residuesGrid.addResidue(1, Lists.newArrayList(constructAtom(1.0, 2.0, 3.0)));
+        residuesGrid.addResidue(2, Lists.newArrayList(constructAtom(1.0, 2.0, 3.5)));
+        final BitSet expectedNeighbours = new BitSet();
+        expectedNeighbours.set(1);
+        assertEquals(expectedNeighbours, residuesGrid.getNeighbourResidueIndexes(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveRange() throws Exception {
+        ResiduesGridFactory.construct(0.0);
+    }
+
+    private static final BitSet identifyNeighbourResidues(final List<List<Atom>> residuesAtoms,
+            final int residueIndex, final double range) {
+        final BitSet result = new BitSet();
+        for (int otherResidueIndex = residueIndex + 1; otherResidueIndex < RESIDUES_COUNT; otherResidueIndex++) {
+            for (Atom atom : residuesAtoms.get(residueIndex)) {
+                for (Atom otherAtom : residuesAtoms.get(otherResidueIndex)) {
+                    if (Double.compare(Calc.getDistance(atom, otherAtom), range) <= 0) {
+                        result.set(otherResidueIndex);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final List<List<Atom>> constructResiduesAtoms(final Random random) {
+        final List<List<Atom>> result = Lists.newArrayListWithCapacity(RESIDUES_COUNT);
+        for (int residueIndex = 0; residueIndex < RESIDUES_COUNT; residueIndex++) {
+            final double x = random.nextDouble() * 60.0 - 30.0;
+            final double y = random.nextDouble() * 60.0 - 30.0;
+            final double z = random.nextDouble() * 60.0 - 30.0;
+            final List<Atom> atoms = Lists.newArrayListWithCapacity(RESIDUE_ATOMS_COUNT);
+            for (int atomIndex = 0; atomIndex < RESIDUE_ATOMS_COUNT; atomIndex++) {
+                atoms.add(constructAtom(x + random.nextGaussian() * 2.0, y + random.nextGaussian() * 2.0, z
+                        + random.nextGaussian() * 2.0));
+            }
+            result.add(atoms);
+        }
+        return result;
+    }
+
+    private static final Atom constructAtom(final double x, final double y, final double z) {
+        final Atom atom = new AtomImpl();
+        atom.setCoords(new double[] { x, y, z });
+        return atom;
+    }
+}
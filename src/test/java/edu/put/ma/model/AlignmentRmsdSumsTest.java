@@ -0,0 +1,55 @@
+package edu.put.ma.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.AtomImpl;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import edu.put.ma.utils.RmsdUtils;
+
+public class AlignmentRmsdSumsTest {
+
+    private static final double DELTA = 1E-9;
+
+    @Test
+    public void testIncrementalRmsdComputation() throws Exception {
+        final List<Atom> firstAtoms = constructAtoms(new double[][] { { 10.207, 5.931, -2.604 },
+                { 11.521, 6.559, -2.208 }, { 12.458, 5.469, -1.709 }, { 9.853, 8.124, 0.112 },
+                { 7.642, 9.017, -1.385 }, { 8.410, 11.216, 0.774 } });
+        final List<Atom> secondAtoms = constructAtoms(new double[][] { { -3.112, 1.764, 4.018 },
+                { -2.035, 2.673, 4.507 }, { -0.714, 2.011, 4.150 }, { -2.907, 5.104, 2.813 },
+                { -4.993, 5.320, 1.260 }, { -3.721, 7.855, 0.512 } });
+        final AlignmentRmsdSums sums = new AlignmentRmsdSums();
+        sums.reset(firstAtoms.subList(0, 3), secondAtoms.subList(0, 3));
+        assertEquals(RmsdUtils.computeRmsd(firstAtoms.subList(0, 3), secondAtoms.subList(0, 3)),
+                sums.computeRmsd(), DELTA);
+        sums.addPairs(firstAtoms, 3, secondAtoms, 3, 3);
+        assertEquals(RmsdUtils.computeRmsd(firstAtoms, secondAtoms), sums.computeRmsd(), DELTA);
+        final AlignmentRmsdSums sumsCopy = new AlignmentRmsdSums(sums);
+        sums.removePairs(firstAtoms, 1, secondAtoms, 1, 2);
+        final List<Atom> remainingFirstAtoms = Lists.newArrayList(firstAtoms);
+        final List<Atom> remainingSecondAtoms = Lists.newArrayList(secondAtoms);
+        remainingFirstAtoms.subList(1, 3).clear();
+        remainingSecondAtoms.subList(1, 3).clear();
+        assertEquals(RmsdUtils.computeRmsd(remainingFirstAtoms, remainingSecondAtoms), sums.computeRmsd(),
+                DELTA);
+        assertEquals(RmsdUtils.computeRmsd(firstAtoms, secondAtoms), sumsCopy.computeRmsd(), DELTA);
+        sums.removePairs(remainingFirstAtoms, 0, remainingSecondAtoms, 0, remainingFirstAtoms.size());
+        assertEquals(Double.MAX_VALUE, sums.computeRmsd(), DELTA);
+    }
+
+    private static final List<Atom> constructAtoms(final double[][] coordinates) {
+        final List<Atom> atoms = Lists.newArrayListWithCapacity(coordinates.length);
+        for (double[] atomCoordinates : coordinates) {
+            final Atom atom = new AtomImpl();
+            atom.setCoords(atomCoordinates);
+            atoms.add(atom);
+        }
+        return atoms;
+    }
+}
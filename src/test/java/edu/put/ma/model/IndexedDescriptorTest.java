@@ -0,0 +1,166 @@
+package edu.put.ma.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.biojava.nbio.structure.Chain;
+import org.biojava.nbio.structure.Group;
+import org.biojava.nbio.structure.Structure;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import edu.put.ma.access.ResiduesAccess;
+import edu.put.ma.gaps.GapsDistribution;
+import edu.put.ma.io.FormatType;
+import edu.put.ma.io.reader.ReaderFactory;
+import edu.put.ma.structure.StructureExtension;
+import edu.put.ma.structure.StructureExtensionImpl;
+
+public class IndexedDescriptorTest {
+
+    private static final int ELEMENT_SIZE = 5;
+
+    private static final int ORIGIN_RESIDUE_INDEX = 12;
+
+    private static final List<Integer> ELEMENTS_CENTERS = Arrays.asList(32, 12);
+
+    private static final List<Integer> IN_CONTACT_RESIDUES = Arrays.asList(30, 31, 32, 33, 34, 10, 11, 12, 13,
+            14);
+
+    private static final int MISSING_RESIDUE_INDEX = 31;
+
+    @Test
+    public void testResiduesOrderAndStructureSharing() throws Exception {
+        final StructureExtension extendedStructure = getExtendedStructure();
+        final List<Chain> model = extendedStructure.getModelByIndex(0);
+        final ModelProperties modelProperties = new ModelPropertiesImpl(model, MoleculeType.PROTEIN,
+                ELEMENT_SIZE);
+        final int segmentsCount = IndexedDescriptorImpl.computeSegmentsCount(MoleculeType.PROTEIN, model,
+                modelProperties.getResiduesAccess(), IN_CONTACT_RESIDUES);
+        assertEquals(2, segmentsCount);
+        final Descriptor descriptor = new IndexedDescriptorImpl(extendedStructure, -1, modelProperties,
+                ORIGIN_RESIDUE_INDEX, ELEMENTS_CENTERS, IN_CONTACT_RESIDUES, segmentsCount);
+        assertTrue(descriptor.isValid());
+        assertEquals(segmentsCount, descriptor.getSegmentsCount());
+        assertEquals(2, descriptor.getElementsCount());
+        assertEquals(IN_CONTACT_RESIDUES.size(), descriptor.getResiduesCount());
+        final List<Integer> sortedInContactResidues = Lists.newArrayList(IN_CONTACT_RESIDUES);
+        Collections.sort(sortedInContactResidues);
+        final List<Group> residues = descriptor.getResidues();
+        assertEquals(sortedInContactResidues.size(), residues.size());
+        for (int position = 0; position < residues.size(); position++) {
+            final Group originalResidue = modelProperties.getResiduesAccess().getResidueByIndex(
+                    sortedInContactResidues.get(position), model);
+            assertEquals(originalResidue.getResidueNumber(), residues.get(position).getResidueNumber());
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Structure>> structures = Lists.newArrayList();
+            for (int taskIndex = 0; taskIndex < 8; taskIndex++) {
+                structures.add(executor.submit(new Callable<Structure>() {
+                    @Override
+                    public Structure call() throws Exception {
+                        return descriptor.getStructure();
+                    }
+                }));
+            }
+            for (Future<Structure> structure : structures) {
+                assertSame(descriptor.getStructure(), structure.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDescriptorWithMissingResidue() throws Exception {
+        final StructureExtension extendedStructure = getExtendedStructure();
+        final List<Chain> model = extendedStructure.getModelByIndex(0);
+        final ModelProperties modelProperties = new ModelPropertiesImpl(model, MoleculeType.PROTEIN,
+                ELEMENT_SIZE);
+        final Descriptor descriptor = new IndexedDescriptorImpl(extendedStructure, -1,
+                getModelPropertiesWithMissingResidue(modelProperties), ORIGIN_RESIDUE_INDEX, ELEMENTS_CENTERS,
+                IN_CONTACT_RESIDUES, 2);
+        assertFalse(descriptor.isValid());
+        assertEquals(IN_CONTACT_RESIDUES.size() - 1, descriptor.getResidues().size());
+    }
+
+    private static final StructureExtension getExtendedStructure() {
+        final File inputFile = FileUtils.toFile(IndexedDescriptorTest.class
+                .getResource("/edu/put/ma/DESCRIPTORS_BUILDING/1/d2b97a1.pdb"));
+        return new StructureExtensionImpl(FilenameUtils.getBaseName(inputFile.getName()), ReaderFactory
+                .construct(FormatType.PDB).read(inputFile.getAbsolutePath()), MoleculeType.PROTEIN,
+                StructureType.MOLECULE);
+    }
+
+    private static final ModelProperties getModelPropertiesWithMissingResidue(
+            final ModelProperties modelProperties) {
+        final ResiduesAccess residuesAccess = modelProperties.getResiduesAccess();
+        return new ModelProperties() {
+
+            @Override
+            public ResiduesAccess getResiduesAccess() {
+                return new ResiduesAccess() {
+
+                    @Override
+                    public int getChainIndex(final int index) {
+                        return residuesAccess.getChainIndex(index);
+                    }
+
+                    @Override
+                    public Group getResidueByIndex(final int index, final List<Chain> model) {
+                        return (index == MISSING_RESIDUE_INDEX) ? null : residuesAccess.getResidueByIndex(
+                                index, model);
+                    }
+
+                    @Override
+                    public Group cloneResidueByIndex(final int index, final List<Chain> model) {
+                        return (index == MISSING_RESIDUE_INDEX) ? null : residuesAccess.cloneResidueByIndex(
+                                index, model);
+                    }
+
+                    @Override
+                    public int getResiduesAccessIndexesSize() {
+                        return residuesAccess.getResiduesAccessIndexesSize();
+                    }
+
+                    @Override
+                    public List<Integer> getResiduesAccessIndexes() {
+                        return residuesAccess.getResiduesAccessIndexes();
+                    }
+
+                    @Override
+                    public List<Group> getElementResiduesByCenterIndex(final int centerIndex,
+                            final List<Chain> model, final int neighbourhoodSize) {
+                        return residuesAccess.getElementResiduesByCenterIndex(centerIndex, model,
+                                neighbourhoodSize);
+                    }
+                };
+            }
+
+            @Override
+            public GapsDistribution getGapsDistribution() {
+                return modelProperties.getGapsDistribution();
+            }
+
+            @Override
+            public boolean isValid() {
+                return modelProperties.isValid();
+            }
+        };
+    }
+}
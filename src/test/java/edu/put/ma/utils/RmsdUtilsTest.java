@@ -0,0 +1,52 @@
+package edu.put.ma.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.AtomImpl;
+import org.biojava.nbio.structure.Calc;
+import org.biojava.nbio.structure.SVDSuperimposer;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class RmsdUtilsTest {
+
+    private static final double DELTA = 1E-6;
+
+    @Test
+    public void testRmsdComputation() throws Exception {
+        final double[][] firstCoordinates = new double[][] { { 10.207, 5.931, -2.604 },
+                { 11.521, 6.559, -2.208 }, { 12.458, 5.469, -1.709 }, { 9.853, 8.124, 0.112 },
+                { 7.642, 9.017, -1.385 }, { 8.410, 11.216, 0.774 } };
+        final double[][] secondCoordinates = new double[][] { { -3.112, 1.764, 4.018 },
+                { -2.035, 2.673, 4.507 }, { -0.714, 2.011, 4.150 }, { -2.907, 5.104, 2.813 },
+                { -4.993, 5.320, 1.260 }, { -3.721, 7.855, 0.512 } };
+        final List<Atom> firstAtoms = constructAtoms(firstCoordinates);
+        final List<Atom> secondAtoms = constructAtoms(secondCoordinates);
+        final Atom[] firstAtomsArray = firstAtoms.toArray(new Atom[firstAtoms.size()]);
+        final Atom[] secondAtomsArray = constructAtoms(secondCoordinates).toArray(
+                new Atom[secondAtoms.size()]);
+        final SVDSuperimposer superimposer = new SVDSuperimposer(firstAtomsArray, secondAtomsArray);
+        for (Atom atom : secondAtomsArray) {
+            Calc.rotate(atom, superimposer.getRotation());
+            Calc.shift(atom, superimposer.getTranslation());
+        }
+        final double expectedRmsd = SVDSuperimposer.getRMS(firstAtomsArray, secondAtomsArray);
+        assertEquals(expectedRmsd, RmsdUtils.computeRmsd(firstAtoms, secondAtoms), DELTA);
+        assertEquals(0.0, RmsdUtils.computeRmsd(firstAtoms, constructAtoms(firstCoordinates)), DELTA);
+        assertEquals(Double.MAX_VALUE, RmsdUtils.computeRmsd(firstAtoms, secondAtoms.subList(0, 1)), DELTA);
+    }
+
+    private static final List<Atom> constructAtoms(final double[][] coordinates) {
+        final List<Atom> atoms = Lists.newArrayListWithCapacity(coordinates.length);
+        for (double[] atomCoordinates : coordinates) {
+            final Atom atom = new AtomImpl();
+            atom.setCoords(atomCoordinates);
+            atoms.add(atom);
+        }
+        return atoms;
+    }
+}